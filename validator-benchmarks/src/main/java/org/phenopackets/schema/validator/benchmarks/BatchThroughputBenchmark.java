@@ -0,0 +1,73 @@
+package org.phenopackets.schema.validator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.phenopackets.schema.validator.core.batch.BatchOptions;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.batch.BatchValidator;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Documents per second of {@link BatchValidator} on a directory of typical phenopackets, at several thread counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchThroughputBenchmark {
+
+    private static final int DOCUMENTS = 500;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Path directory;
+    private List<Path> documents;
+    private BatchValidator batchValidator;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("phenopacket-batch-benchmark");
+        byte[] document = BenchmarkDocuments.document(BenchmarkDocuments.DocumentSize.TYPICAL);
+        documents = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents.add(Files.write(directory.resolve("phenopacket-" + i + ".json"), document));
+        }
+        batchValidator = new BatchValidator(ValidationPipeline.generic(), new BatchOptions(threads, 4 * threads));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public BatchSummary validateBatch() {
+        return batchValidator.validate(documents.stream(), result -> {});
+    }
+}
@@ -0,0 +1,74 @@
+package org.phenopackets.schema.validator.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Benchmark inputs derived from the example phenopackets of the test suite.
+ */
+public final class BenchmarkDocuments {
+
+    public enum DocumentSize {
+        /** A phenopacket with only an id and metadata. */
+        SMALL,
+        /** The Bethlem myopathy example with a subject, four phenotypic features and a file. */
+        TYPICAL,
+        /** The Bethlem myopathy example with its phenotypic features repeated to {@link #HUGE_FEATURE_COUNT}. */
+        HUGE
+    }
+
+    public static final int HUGE_FEATURE_COUNT = 5_000;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private BenchmarkDocuments() {
+    }
+
+    /**
+     * @param size size class of the document
+     * @return the serialized document
+     */
+    public static byte[] document(DocumentSize size) {
+        try {
+            switch (size) {
+                case SMALL:
+                    return OBJECT_MAPPER.writeValueAsBytes(readResource("json/validSimplePhenopacket.json"));
+                case TYPICAL:
+                    return OBJECT_MAPPER.writeValueAsBytes(readResource("json/bethlehamMyopathyExample.json"));
+                case HUGE:
+                default:
+                    return OBJECT_MAPPER.writeValueAsBytes(hugeDocument());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonNode hugeDocument() throws IOException {
+        ObjectNode phenopacket = (ObjectNode) readResource("json/bethlehamMyopathyExample.json");
+        ArrayNode features = (ArrayNode) phenopacket.get("phenotypicFeatures");
+        ArrayNode template = features.deepCopy();
+        features.removeAll();
+        for (int i = 0; i < HUGE_FEATURE_COUNT; i++) {
+            ObjectNode feature = (ObjectNode) template.get(i % template.size()).deepCopy();
+            ((ObjectNode) feature.get("type")).put("id", String.format("HP:%07d", i + 1));
+            features.add(feature);
+        }
+        return phenopacket;
+    }
+
+    private static JsonNode readResource(String path) throws IOException {
+        try (InputStream is = BenchmarkDocuments.class.getClassLoader().getResourceAsStream(path)) {
+            if (is == null) {
+                throw new IOException("Could not find resource " + path);
+            }
+            return OBJECT_MAPPER.readTree(is);
+        }
+    }
+}
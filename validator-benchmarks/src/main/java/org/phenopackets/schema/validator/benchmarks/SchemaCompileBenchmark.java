@@ -0,0 +1,41 @@
+package org.phenopackets.schema.validator.benchmarks;
+
+import com.networknt.schema.JsonSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.phenopackets.schema.validator.core.jsonschema.HpoRareDiseaseJsonSchemaValidator;
+import org.phenopackets.schema.validator.core.jsonschema.JsonSchemaRegistry;
+import org.phenopackets.schema.validator.core.jsonschema.JsonSchemaValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of compiling the built-in schemas, i.e. what every validation paid before schemas were cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaCompileBenchmark {
+
+    @Benchmark
+    public JsonSchema compileGenericSchema() {
+        return new JsonSchemaRegistry().getClasspathSchema(JsonSchemaValidator.GENERAL_SCHEMA);
+    }
+
+    @Benchmark
+    public JsonSchema compileRareDiseaseSchema() {
+        return new JsonSchemaRegistry().getClasspathSchema(HpoRareDiseaseJsonSchemaValidator.HPO_RARE_DISEASE_SCHEMA);
+    }
+
+    @Benchmark
+    public JsonSchema cachedGenericSchema() {
+        return JsonSchemaRegistry.defaultRegistry().getClasspathSchema(JsonSchemaValidator.GENERAL_SCHEMA);
+    }
+}
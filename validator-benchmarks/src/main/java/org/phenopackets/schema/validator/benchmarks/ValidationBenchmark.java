@@ -0,0 +1,89 @@
+package org.phenopackets.schema.validator.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.phenopackets.schema.validator.core.PhenopacketValidator;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-document hot path: parsing, schema evaluation and the {@link PhenopacketValidator} entry point.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Param({"SMALL", "TYPICAL", "HUGE"})
+    public BenchmarkDocuments.DocumentSize size;
+
+    private byte[] document;
+    private JsonNode parsedDocument;
+    private Path documentFile;
+    private ValidationPipeline genericPipeline;
+    private ValidationPipeline rareDiseasePipeline;
+
+    @Setup
+    public void setUp() throws IOException {
+        document = BenchmarkDocuments.document(size);
+        parsedDocument = OBJECT_MAPPER.readTree(document);
+        documentFile = Files.createTempFile("phenopacket-benchmark", ".json");
+        Files.write(documentFile, document);
+        genericPipeline = ValidationPipeline.generic();
+        rareDiseasePipeline = ValidationPipeline.rareDisease();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(documentFile);
+    }
+
+    @Benchmark
+    public JsonNode parseOnly() throws IOException {
+        return OBJECT_MAPPER.readTree(document);
+    }
+
+    @Benchmark
+    public List<ValidationItem> evaluateGenericSchema() {
+        return genericPipeline.validate(parsedDocument);
+    }
+
+    @Benchmark
+    public List<ValidationItem> validateGeneric() throws IOException {
+        return genericPipeline.validate(new ByteArrayInputStream(document));
+    }
+
+    @Benchmark
+    public List<ValidationItem> validateGenericAndRareDisease() throws IOException {
+        return rareDiseasePipeline.validate(new ByteArrayInputStream(document));
+    }
+
+    @Benchmark
+    public List<? extends ValidationItem> phenopacketValidatorFromFile() {
+        return new PhenopacketValidator(documentFile.toString()).getValidationErrors();
+    }
+}
@@ -0,0 +1,38 @@
+package org.phenopackets.schema.validator.benchmarks.generator;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.function.Consumer;
+
+/**
+ * A deliberate error that {@link PhenopacketGenerator} injects into a phenopacket. Each defect violates the generic
+ * phenopacket schema, so every phenopacket with a defect is reported as invalid by
+ * {@link org.phenopackets.schema.validator.core.pipeline.ValidationPipeline#generic()}.
+ */
+public enum Defect {
+    /** The required {@code id} is removed. */
+    MISSING_ID(phenopacket -> phenopacket.remove("id")),
+    /** The required {@code metaData.createdBy} is removed. */
+    MISSING_CREATED_BY(phenopacket -> ((ObjectNode) phenopacket.get("metaData")).remove("createdBy")),
+    /** The subject id is a number instead of a string. */
+    WRONG_TYPE(phenopacket -> ((ObjectNode) phenopacket.get("subject")).put("id", 42)),
+    /** The sex of the subject is not one of the allowed values. */
+    INVALID_ENUM(phenopacket -> ((ObjectNode) phenopacket.get("subject")).put("sex", "UNDETERMINED")),
+    /** The first phenotypic feature has a term without the required label. */
+    MISSING_LABEL(phenopacket -> ((ObjectNode) phenopacket.get("phenotypicFeatures").get(0).get("type")).remove("label")),
+    /** A field that the schema does not define. */
+    UNKNOWN_FIELD(phenopacket -> phenopacket.put("disney", "donald"));
+
+    private final Consumer<ObjectNode> injection;
+
+    Defect(Consumer<ObjectNode> injection) {
+        this.injection = injection;
+    }
+
+    /**
+     * @param phenopacket a valid phenopacket made by {@link PhenopacketGenerator}, which is changed
+     */
+    void inject(ObjectNode phenopacket) {
+        injection.accept(phenopacket);
+    }
+}
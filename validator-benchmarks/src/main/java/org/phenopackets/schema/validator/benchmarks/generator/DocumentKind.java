@@ -0,0 +1,13 @@
+package org.phenopackets.schema.validator.benchmarks.generator;
+
+/**
+ * Top-level message of a generated document.
+ */
+public enum DocumentKind {
+    /** A single phenopacket. */
+    PHENOPACKET,
+    /** A proband and relatives, validated member by member. */
+    FAMILY,
+    /** A list of members, validated member by member. */
+    COHORT
+}
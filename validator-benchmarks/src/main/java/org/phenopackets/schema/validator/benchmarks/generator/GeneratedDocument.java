@@ -0,0 +1,68 @@
+package org.phenopackets.schema.validator.benchmarks.generator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.UncheckedIOException;
+
+/**
+ * A document made by {@link PhenopacketGenerator}, together with what the validator is expected to find in it.
+ */
+public final class GeneratedDocument {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String name;
+    private final ObjectNode json;
+    private final int phenopackets;
+    private final int invalidPhenopackets;
+
+    GeneratedDocument(String name, ObjectNode json, int phenopackets, int invalidPhenopackets) {
+        this.name = name;
+        this.json = json;
+        this.phenopackets = phenopackets;
+        this.invalidPhenopackets = invalidPhenopackets;
+    }
+
+    /**
+     * @return name of the document without a file extension, e.g. {@code phenopacket-000042}
+     */
+    public String name() {
+        return name;
+    }
+
+    public ObjectNode json() {
+        return json;
+    }
+
+    /**
+     * @return the document as compact JSON on a single line
+     */
+    public byte[] bytes() {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(json);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return number of phenopackets in the document: 1 for a phenopacket, the number of members otherwise
+     */
+    public int phenopackets() {
+        return phenopackets;
+    }
+
+    /**
+     * @return number of phenopackets with an injected {@link Defect}
+     */
+    public int invalidPhenopackets() {
+        return invalidPhenopackets;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + invalidPhenopackets + " of " + phenopackets + " phenopackets invalid)";
+    }
+}
@@ -0,0 +1,98 @@
+package org.phenopackets.schema.validator.benchmarks.generator;
+
+/**
+ * Settings for a {@link PhenopacketGenerator}. The same options and seed always give the same documents.
+ */
+public final class GeneratorOptions {
+
+    private final DocumentKind kind;
+    private final int phenotypicFeatures;
+    private final int variants;
+    private final int members;
+    private final double errorRate;
+    private final long seed;
+
+    /**
+     * @param kind top-level message of each document
+     * @param phenotypicFeatures number of phenotypic features of each phenopacket
+     * @param variants number of genomic interpretations of each phenopacket
+     * @param members number of members of a cohort, or of relatives of a family in addition to the proband
+     * @param errorRate probability, from 0 to 1, that a phenopacket has a {@link Defect}
+     * @param seed seed of the random choices
+     */
+    public GeneratorOptions(DocumentKind kind, int phenotypicFeatures, int variants, int members, double errorRate, long seed) {
+        if (phenotypicFeatures < 0 || variants < 0 || members < 0) {
+            throw new IllegalArgumentException("Numbers of features, variants and members must not be negative");
+        }
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1 but was " + errorRate);
+        }
+        this.kind = kind;
+        this.phenotypicFeatures = phenotypicFeatures;
+        this.variants = variants;
+        this.members = members;
+        this.errorRate = errorRate;
+        this.seed = seed;
+    }
+
+    /**
+     * @return phenopackets with five phenotypic features and one variant, of which one in ten is invalid
+     */
+    public static GeneratorOptions defaults() {
+        return new GeneratorOptions(DocumentKind.PHENOPACKET, 5, 1, 10, 0.1, 42);
+    }
+
+    public DocumentKind kind() {
+        return kind;
+    }
+
+    public int phenotypicFeatures() {
+        return phenotypicFeatures;
+    }
+
+    public int variants() {
+        return variants;
+    }
+
+    public int members() {
+        return members;
+    }
+
+    public double errorRate() {
+        return errorRate;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public GeneratorOptions withKind(DocumentKind kind) {
+        return new GeneratorOptions(kind, phenotypicFeatures, variants, members, errorRate, seed);
+    }
+
+    public GeneratorOptions withPhenotypicFeatures(int phenotypicFeatures) {
+        return new GeneratorOptions(kind, phenotypicFeatures, variants, members, errorRate, seed);
+    }
+
+    public GeneratorOptions withVariants(int variants) {
+        return new GeneratorOptions(kind, phenotypicFeatures, variants, members, errorRate, seed);
+    }
+
+    public GeneratorOptions withMembers(int members) {
+        return new GeneratorOptions(kind, phenotypicFeatures, variants, members, errorRate, seed);
+    }
+
+    public GeneratorOptions withErrorRate(double errorRate) {
+        return new GeneratorOptions(kind, phenotypicFeatures, variants, members, errorRate, seed);
+    }
+
+    public GeneratorOptions withSeed(long seed) {
+        return new GeneratorOptions(kind, phenotypicFeatures, variants, members, errorRate, seed);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s with %d features, %d variants, %d members, error rate %.3f, seed %d",
+                kind, phenotypicFeatures, variants, members, errorRate, seed);
+    }
+}
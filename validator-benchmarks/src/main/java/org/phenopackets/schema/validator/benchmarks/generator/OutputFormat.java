@@ -0,0 +1,13 @@
+package org.phenopackets.schema.validator.benchmarks.generator;
+
+/**
+ * How {@link PhenopacketGenerator#write(int, OutputFormat, java.nio.file.Path)} stores the generated documents.
+ */
+public enum OutputFormat {
+    /** One JSON file per document in a directory. */
+    FILES,
+    /** One document per line in a single file. */
+    NDJSON,
+    /** One JSON entry per document in a zip archive. */
+    ZIP
+}
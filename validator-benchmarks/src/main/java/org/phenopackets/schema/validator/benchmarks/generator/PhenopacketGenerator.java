@@ -0,0 +1,235 @@
+package org.phenopackets.schema.validator.benchmarks.generator;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Makes any number of synthetic phenopackets, families and cohorts for load tests. Document {@code i} depends only on
+ * the options and {@code i}, so the same document can be made again, in any order and on any thread, without storing
+ * it. A share of the phenopackets, given by {@link GeneratorOptions#errorRate()}, has one {@link Defect}; all others
+ * are valid according to the generic schema and consistent for the semantic rules.
+ * <p>
+ * Genomic interpretations have no variant descriptor, because the descriptor of the bundled schema cannot be valid.
+ */
+public final class PhenopacketGenerator {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    /** Prime that does not divide {@link #TERM_RANGE}, so consecutive features get distinct terms. */
+    private static final int TERM_STRIDE = 7919;
+    private static final int TERM_RANGE = 9_999_999;
+    private static final String[] SEXES = {"FEMALE", "MALE", "UNKNOWN_SEX"};
+    private static final String[] INTERPRETATION_STATUSES = {"CANDIDATE", "CONTRIBUTORY", "CAUSATIVE"};
+
+    private final GeneratorOptions options;
+
+    public PhenopacketGenerator(GeneratorOptions options) {
+        this.options = options;
+    }
+
+    public GeneratorOptions options() {
+        return options;
+    }
+
+    /**
+     * @return number of phenopackets in each document
+     */
+    public int phenopacketsPerDocument() {
+        switch (options.kind()) {
+            case FAMILY:
+                return options.members() + 1;
+            case COHORT:
+                return options.members();
+            case PHENOPACKET:
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * @param index number of the document, from 0
+     * @return document {@code index}
+     */
+    public GeneratedDocument generate(int index) {
+        SplittableRandom random = new SplittableRandom(options.seed() * 0x9E3779B97F4A7C15L + index);
+        String name = String.format("%s-%06d", options.kind().name().toLowerCase(), index);
+        int[] invalid = new int[1];
+        switch (options.kind()) {
+            case FAMILY: {
+                ObjectNode family = NODES.objectNode().put("id", name);
+                family.set("proband", phenopacket(name + "-proband", random, invalid));
+                ArrayNode relatives = family.putArray("relatives");
+                ArrayNode persons = family.putObject("pedigree").putArray("persons");
+                persons.addObject().put("familyId", name).put("individualId", name + "-proband-subject").put("affectedStatus", "AFFECTED");
+                for (int i = 0; i < options.members(); i++) {
+                    String relative = name + "-relative-" + i;
+                    relatives.add(phenopacket(relative, random, invalid));
+                    persons.addObject().put("familyId", name).put("individualId", relative + "-subject").put("affectedStatus", "UNAFFECTED");
+                }
+                family.set("metaData", metaData());
+                return new GeneratedDocument(name, family, options.members() + 1, invalid[0]);
+            }
+            case COHORT: {
+                ObjectNode cohort = NODES.objectNode().put("id", name).put("description", "synthetic cohort");
+                ArrayNode members = cohort.putArray("members");
+                for (int i = 0; i < options.members(); i++) {
+                    members.add(phenopacket(name + "-member-" + i, random, invalid));
+                }
+                cohort.set("metaData", metaData());
+                return new GeneratedDocument(name, cohort, options.members(), invalid[0]);
+            }
+            case PHENOPACKET:
+            default:
+                return new GeneratedDocument(name, phenopacket(name, random, invalid), 1, invalid[0]);
+        }
+    }
+
+    /**
+     * @param count number of documents
+     * @return documents 0 to {@code count - 1}, in order
+     */
+    public Stream<GeneratedDocument> documents(int count) {
+        return IntStream.range(0, count).mapToObj(this::generate);
+    }
+
+    /**
+     * Write documents 0 to {@code count - 1}.
+     * @param count number of documents
+     * @param format how to store the documents
+     * @param target directory for {@link OutputFormat#FILES}, which is created if needed, file otherwise
+     * @return number of phenopackets with an injected defect
+     */
+    public long write(int count, OutputFormat format, Path target) throws IOException {
+        long invalid = 0;
+        switch (format) {
+            case FILES:
+                Files.createDirectories(target);
+                for (int i = 0; i < count; i++) {
+                    GeneratedDocument document = generate(i);
+                    Files.write(target.resolve(document.name() + ".json"), document.bytes());
+                    invalid += document.invalidPhenopackets();
+                }
+                return invalid;
+            case ZIP:
+                try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+                    for (int i = 0; i < count; i++) {
+                        GeneratedDocument document = generate(i);
+                        zip.putNextEntry(new ZipEntry(document.name() + ".json"));
+                        zip.write(document.bytes());
+                        zip.closeEntry();
+                        invalid += document.invalidPhenopackets();
+                    }
+                }
+                return invalid;
+            case NDJSON:
+            default:
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                    return writeNdjson(count, out);
+                }
+        }
+    }
+
+    /**
+     * Write documents 0 to {@code count - 1} to a stream, one per line. The stream is not closed.
+     * @return number of phenopackets with an injected defect
+     */
+    public long writeNdjson(int count, OutputStream out) throws IOException {
+        long invalid = 0;
+        for (int i = 0; i < count; i++) {
+            GeneratedDocument document = generate(i);
+            out.write(document.bytes());
+            out.write('\n');
+            invalid += document.invalidPhenopackets();
+        }
+        out.flush();
+        return invalid;
+    }
+
+    private ObjectNode phenopacket(String id, SplittableRandom random, int[] invalid) {
+        ObjectNode phenopacket = NODES.objectNode().put("id", id);
+        int ageYears = 1 + random.nextInt(80);
+        ObjectNode subject = phenopacket.putObject("subject")
+                .put("id", id + "-subject")
+                .put("sex", SEXES[random.nextInt(SEXES.length)]);
+        subject.putObject("timeAtLastEncounter").putObject("age").put("iso8601duration", "P" + ageYears + "Y" + random.nextInt(12) + "M");
+        if (options.phenotypicFeatures() > 0) {
+            ArrayNode features = phenopacket.putArray("phenotypicFeatures");
+            int offset = random.nextInt(TERM_RANGE);
+            for (int i = 0; i < options.phenotypicFeatures(); i++) {
+                String term = String.format("HP:%07d", 1 + (offset + (long) i * TERM_STRIDE) % TERM_RANGE);
+                ObjectNode feature = features.addObject();
+                feature.set("type", ontologyClass(term, "Synthetic phenotype " + term));
+                if (random.nextInt(10) == 0) {
+                    feature.put("excluded", true);
+                } else {
+                    feature.putObject("onset").putObject("age").put("iso8601duration", "P" + random.nextInt(ageYears + 1) + "Y");
+                }
+            }
+        }
+        String disease = String.format("OMIM:%06d", 100_000 + random.nextInt(900_000));
+        if (options.variants() > 0) {
+            ObjectNode interpretation = phenopacket.putArray("interpretations").addObject()
+                    .put("id", id + "-interpretation")
+                    .put("progressStatus", "SOLVED");
+            ObjectNode diagnosis = interpretation.putObject("diagnosis");
+            diagnosis.set("disease", ontologyClass(disease, "Synthetic disease " + disease));
+            ArrayNode genomicInterpretations = diagnosis.putArray("genomicInterpretations");
+            for (int i = 0; i < options.variants(); i++) {
+                genomicInterpretations.addObject()
+                        .put("subjectOrBiosampleId", id + "-subject")
+                        .put("interpretationStatus", INTERPRETATION_STATUSES[random.nextInt(INTERPRETATION_STATUSES.length)]);
+            }
+        }
+        phenopacket.putArray("diseases").addObject().set("term", ontologyClass(disease, "Synthetic disease " + disease));
+        phenopacket.set("metaData", metaData());
+        if (random.nextDouble() < options.errorRate()) {
+            List<Defect> defects = new ArrayList<>(List.of(Defect.values()));
+            if (options.phenotypicFeatures() == 0) {
+                defects.remove(Defect.MISSING_LABEL);
+            }
+            defects.get(random.nextInt(defects.size())).inject(phenopacket);
+            invalid[0]++;
+        }
+        return phenopacket;
+    }
+
+    private static ObjectNode ontologyClass(String id, String label) {
+        return NODES.objectNode().put("id", id).put("label", label);
+    }
+
+    private static ObjectNode metaData() {
+        ObjectNode metaData = NODES.objectNode()
+                .put("created", "2021-07-01T19:32:35Z")
+                .put("createdBy", "phenopacket generator");
+        ArrayNode resources = metaData.putArray("resources");
+        resources.addObject()
+                .put("id", "hp")
+                .put("name", "human phenotype ontology")
+                .put("url", "http://purl.obolibrary.org/obo/hp.owl")
+                .put("version", "2018-03-08")
+                .put("namespacePrefix", "HP")
+                .put("iriPrefix", "http://purl.obolibrary.org/obo/HP_");
+        resources.addObject()
+                .put("id", "omim")
+                .put("name", "Online Mendelian Inheritance in Man")
+                .put("url", "https://www.omim.org")
+                .put("version", "2021-07-01")
+                .put("namespacePrefix", "OMIM")
+                .put("iriPrefix", "https://www.omim.org/entry/");
+        metaData.put("phenopacketSchemaVersion", "2.0");
+        return metaData;
+    }
+}
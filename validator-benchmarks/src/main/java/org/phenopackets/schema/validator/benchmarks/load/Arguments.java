@@ -0,0 +1,67 @@
+package org.phenopackets.schema.validator.benchmarks.load;
+
+import org.phenopackets.schema.validator.benchmarks.generator.DocumentKind;
+import org.phenopackets.schema.validator.benchmarks.generator.GeneratorOptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of the form {@code --name value} or {@code --flag} of the command-line tools in this package, which do
+ * not warrant a dependency on picocli.
+ */
+final class Arguments {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    private Arguments() {
+    }
+
+    static Arguments parse(String... args) {
+        Arguments arguments = new Arguments();
+        for (int i = 0; i < args.length; i++) {
+            if (! args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option starting with -- but got " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && ! args[i + 1].startsWith("--")) {
+                arguments.values.put(name, args[++i]);
+            } else {
+                arguments.values.put(name, "true");
+            }
+        }
+        return arguments;
+    }
+
+    String string(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int integer(String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    double decimal(String name, double defaultValue) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+    }
+
+    boolean flag(String name) {
+        return Boolean.parseBoolean(values.getOrDefault(name, "false"));
+    }
+
+    /**
+     * @param defaultKind kind of the documents if {@code --kind} is not given
+     * @return options from {@code --kind}, {@code --features}, {@code --variants}, {@code --members},
+     * {@code --error-rate} and {@code --seed}
+     */
+    GeneratorOptions generatorOptions(DocumentKind defaultKind) {
+        GeneratorOptions defaults = GeneratorOptions.defaults();
+        return new GeneratorOptions(
+                DocumentKind.valueOf(string("kind", defaultKind.name()).toUpperCase()),
+                integer("features", defaults.phenotypicFeatures()),
+                integer("variants", defaults.variants()),
+                integer("members", defaults.members()),
+                decimal("error-rate", defaults.errorRate()),
+                Long.parseLong(string("seed", Long.toString(defaults.seed()))));
+    }
+}
@@ -0,0 +1,34 @@
+package org.phenopackets.schema.validator.benchmarks.load;
+
+import org.phenopackets.schema.validator.benchmarks.generator.DocumentKind;
+import org.phenopackets.schema.validator.benchmarks.generator.OutputFormat;
+import org.phenopackets.schema.validator.benchmarks.generator.PhenopacketGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes synthetic documents for tests outside of the load-test runner, e.g.
+ * <pre>
+ * java -cp validator-benchmarks/target/benchmarks.jar org.phenopackets.schema.validator.benchmarks.load.GenerateDocuments \
+ *     --count 100000 --kind cohort --members 50 --error-rate 0.05 --format ndjson --output cohorts.ndjson
+ * </pre>
+ * Options: {@code --count}, {@code --kind} (phenopacket, family, cohort), {@code --features}, {@code --variants},
+ * {@code --members}, {@code --error-rate}, {@code --seed}, {@code --format} (files, ndjson, zip) and {@code --output}.
+ */
+public final class GenerateDocuments {
+
+    private GenerateDocuments() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Arguments arguments = Arguments.parse(args);
+        PhenopacketGenerator generator = new PhenopacketGenerator(arguments.generatorOptions(DocumentKind.PHENOPACKET));
+        int count = arguments.integer("count", 1000);
+        OutputFormat format = OutputFormat.valueOf(arguments.string("format", "files").toUpperCase());
+        Path output = Path.of(arguments.string("output", format == OutputFormat.FILES ? "generated" : "generated." + format.name().toLowerCase()));
+        long invalid = generator.write(count, format, output);
+        System.out.printf("Wrote %d documents (%s) with %d of %d phenopackets invalid to %s%n", count, generator.options(),
+                invalid, (long) count * generator.phenopacketsPerDocument(), output);
+    }
+}
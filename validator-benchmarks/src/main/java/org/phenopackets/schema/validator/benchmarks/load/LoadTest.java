@@ -0,0 +1,299 @@
+package org.phenopackets.schema.validator.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.phenopackets.schema.validator.benchmarks.generator.DocumentKind;
+import org.phenopackets.schema.validator.benchmarks.generator.GeneratedDocument;
+import org.phenopackets.schema.validator.benchmarks.generator.OutputFormat;
+import org.phenopackets.schema.validator.benchmarks.generator.PhenopacketGenerator;
+import org.phenopackets.schema.validator.core.batch.BatchInputs;
+import org.phenopackets.schema.validator.core.batch.BatchOptions;
+import org.phenopackets.schema.validator.core.batch.BatchValidator;
+import org.phenopackets.schema.validator.core.input.ArchiveInputs;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.metrics.LatencyHistogram;
+import org.phenopackets.schema.validator.core.metrics.Stage;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.rules.RuleEngine;
+import org.phenopackets.schema.validator.core.stream.MemberStreamingValidator;
+import org.phenopackets.schema.validator.core.stream.StreamingValidator;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Drives generated documents through the batch, streaming, member-streaming or server mode of the validator and
+ * measures throughput, latency percentiles and peak heap, to size hardware and to catch scaling regressions. Each
+ * run also checks that exactly the phenopackets with an injected defect were found to be invalid. For example
+ * <pre>
+ * java -cp validator-benchmarks/target/benchmarks.jar org.phenopackets.schema.validator.benchmarks.load.LoadTest \
+ *     --mode batch --documents 100000 --threads 8 --features 20
+ * </pre>
+ * Options: {@code --mode} (batch, streaming, members, server), {@code --documents}, {@code --warmup} (documents
+ * validated before the measured run, default 1000), {@code --threads}, {@code --format} (files or zip, for batch
+ * mode), {@code --rules}, {@code --url} (of the server, default {@code http://localhost:8080}), {@code --work-dir},
+ * and the options of {@link GenerateDocuments}.
+ * <p>
+ * Documents are written to the work directory before the measured run, so that generation is not measured, except in
+ * server mode, where each client thread generates the next phenopacket between requests. The peak heap is that of
+ * this JVM, the sum of the peaks of the heap memory pools; in server mode it is the highest heap use that the
+ * server's metrics endpoint reported while it was polled during the run.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final PhenopacketGenerator generator;
+    private final ValidationPipeline pipeline;
+    private final int threads;
+    private final Path workDir;
+
+    /**
+     * @param generator makes the documents
+     * @param pipeline validates the phenopackets, except in server mode
+     * @param threads worker threads, or concurrent requests in server mode
+     * @param workDir directory for the generated documents
+     */
+    public LoadTest(PhenopacketGenerator generator, ValidationPipeline pipeline, int threads, Path workDir) {
+        this.generator = generator;
+        this.pipeline = pipeline;
+        this.threads = threads;
+        this.workDir = workDir;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Arguments arguments = Arguments.parse(args);
+        LoadTestMode mode = LoadTestMode.valueOf(arguments.string("mode", "batch").toUpperCase());
+        DocumentKind defaultKind = mode == LoadTestMode.MEMBERS ? DocumentKind.COHORT : DocumentKind.PHENOPACKET;
+        PhenopacketGenerator generator = new PhenopacketGenerator(arguments.generatorOptions(defaultKind));
+        ValidationPipeline pipeline = ValidationPipeline.generic();
+        if (arguments.flag("rules")) {
+            pipeline = pipeline.with(RuleEngine.generic());
+        }
+        int threads = arguments.integer("threads", Runtime.getRuntime().availableProcessors());
+        Path workDir = arguments.string("work-dir", null) == null
+                ? Files.createTempDirectory("phenopacket-load-test")
+                : Files.createDirectories(Path.of(arguments.string("work-dir", null)));
+        LoadTest loadTest = new LoadTest(generator, pipeline, threads, workDir);
+        OutputFormat format = OutputFormat.valueOf(arguments.string("format", "files").toUpperCase());
+        URI server = URI.create(arguments.string("url", "http://localhost:8080"));
+        System.out.printf("%s, %d threads%n", generator.options(), threads);
+        try {
+            int warmup = arguments.integer("warmup", 1000);
+            if (warmup > 0) {
+                loadTest.run(mode, warmup, format, server);
+            }
+            LoadTestResult result = loadTest.run(mode, arguments.integer("documents", 10_000), format, server);
+            System.out.println(result);
+            if (! result.isCorrect()) {
+                System.exit(1);
+            }
+        } finally {
+            if (arguments.string("work-dir", null) == null) {
+                delete(workDir);
+            }
+        }
+    }
+
+    /**
+     * @param mode how the documents are validated
+     * @param documents number of documents
+     * @param format {@link OutputFormat#FILES} or {@link OutputFormat#ZIP} for the batch mode, ignored otherwise
+     * @param server base URI of the server for {@link LoadTestMode#SERVER}, ignored otherwise
+     * @return the measurements
+     */
+    public LoadTestResult run(LoadTestMode mode, int documents, OutputFormat format, URI server) throws IOException {
+        switch (mode) {
+            case STREAMING:
+                return runStreaming(documents);
+            case MEMBERS:
+                return runMembers(documents);
+            case SERVER:
+                return runServer(documents, server);
+            case BATCH:
+            default:
+                return runBatch(documents, format);
+        }
+    }
+
+    private LoadTestResult runBatch(int documents, OutputFormat format) throws IOException {
+        Path target = workDir.resolve(format == OutputFormat.ZIP ? "batch.zip" : "batch");
+        delete(target);
+        long expectedInvalid = generator.write(documents, format == OutputFormat.ZIP ? OutputFormat.ZIP : OutputFormat.FILES, target);
+        BatchValidator validator = new BatchValidator(pipeline, new BatchOptions(threads, 4 * threads));
+        return measure(LoadTestMode.BATCH, expectedInvalid, listener -> {
+            Stream<Path> paths = format == OutputFormat.ZIP ? Stream.of(target) : BatchInputs.walk(target, BatchInputs.DEFAULT_GLOB);
+            try (Stream<DocumentSource> sources = ArchiveInputs.expand(paths, BatchInputs.DEFAULT_GLOB)) {
+                validator.validateSources(sources, listener);
+            }
+        });
+    }
+
+    private LoadTestResult runStreaming(int documents) throws IOException {
+        Path target = workDir.resolve("stream.ndjson");
+        long expectedInvalid = generator.write(documents, OutputFormat.NDJSON, target);
+        StreamingValidator validator = new StreamingValidator(pipeline);
+        return measure(LoadTestMode.STREAMING, expectedInvalid, listener -> validator.validate(target.toFile(), listener));
+    }
+
+    private LoadTestResult runMembers(int documents) throws IOException {
+        if (generator.options().kind() == DocumentKind.PHENOPACKET) {
+            throw new IllegalArgumentException("The members mode needs families or cohorts, use --kind family or --kind cohort");
+        }
+        Path target = workDir.resolve("members");
+        delete(target);
+        long expectedInvalid = generator.write(documents, OutputFormat.FILES, target);
+        MemberStreamingValidator validator = new MemberStreamingValidator(pipeline, new BatchOptions(threads, 4 * threads));
+        return measure(LoadTestMode.MEMBERS, expectedInvalid, listener -> {
+            try (Stream<Path> paths = BatchInputs.walk(target, BatchInputs.DEFAULT_GLOB)) {
+                paths.forEach(path -> validator.validate(DocumentSource.of(path), listener));
+            }
+        });
+    }
+
+    /**
+     * Run a validation with the metrics of the validator enabled and the peak heap reset.
+     * @param validation validates all documents and passes each result to the consumer it is given
+     */
+    private LoadTestResult measure(LoadTestMode mode, long expectedInvalid, Consumer<Consumer<ValidationResult>> validation) {
+        ValidationMetrics metrics = ValidationMetrics.global();
+        metrics.setEnabled(true);
+        metrics.reset();
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        AtomicLong phenopackets = new AtomicLong();
+        AtomicLong invalid = new AtomicLong();
+        long start = System.nanoTime();
+        validation.accept(result -> {
+            phenopackets.incrementAndGet();
+            if (! result.isValid()) {
+                invalid.incrementAndGet();
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        return new LoadTestResult(mode, phenopackets.get(), invalid.get(), expectedInvalid, elapsed, metrics.stage(Stage.DOCUMENT), peakHeap);
+    }
+
+    private LoadTestResult runServer(int documents, URI server) {
+        if (generator.options().kind() != DocumentKind.PHENOPACKET) {
+            throw new IllegalArgumentException("The server validates single phenopackets, use --kind phenopacket");
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        URI validate = server.resolve("/validate");
+        LatencyHistogram latencies = new LatencyHistogram();
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong invalid = new AtomicLong();
+        AtomicLong expectedInvalid = new AtomicLong();
+        AtomicLong peakHeap = new AtomicLong(-1);
+        ScheduledExecutorService heapPoller = Executors.newSingleThreadScheduledExecutor();
+        heapPoller.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(serverHeap(client, server), Math::max), 0, 200, TimeUnit.MILLISECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                clients.add(executor.submit(() -> {
+                    for (int index = next.getAndIncrement(); index < documents; index = next.getAndIncrement()) {
+                        GeneratedDocument document = generator.generate(index);
+                        expectedInvalid.addAndGet(document.invalidPhenopackets());
+                        HttpRequest request = HttpRequest.newBuilder(validate)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(document.bytes()))
+                                .build();
+                        long requestStart = System.nanoTime();
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        latencies.record(System.nanoTime() - requestStart);
+                        if (response.statusCode() != 200) {
+                            throw new IOException("The server answered " + response.statusCode() + " for " + document.name());
+                        }
+                        if (! OBJECT_MAPPER.readTree(response.body()).path("valid").asBoolean()) {
+                            invalid.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> c : clients) {
+                c.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The load test was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A request to " + validate + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            heapPoller.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new LoadTestResult(LoadTestMode.SERVER, latencies.count(), invalid.get(), expectedInvalid.get(), elapsed, latencies, peakHeap.get());
+    }
+
+    /** @return heap in use by the server in bytes, -1 if its metrics endpoint is not available */
+    private static long serverHeap(HttpClient client, URI server) {
+        HttpRequest request = HttpRequest.newBuilder(server.resolve("/actuator/metrics/jvm.memory.used?tag=area:heap")).build();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                return -1;
+            }
+            JsonNode measurement = OBJECT_MAPPER.readTree(response.body()).path("measurements").path(0);
+            return measurement.has("value") ? (long) measurement.get("value").asDouble() : -1;
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (Files.notExists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.delete(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.phenopackets.schema.validator.benchmarks.load;
+
+/**
+ * How {@link LoadTest} feeds the generated documents to the validator.
+ */
+public enum LoadTestMode {
+    /** Files, or a zip archive with {@code --format zip}, validated by a {@code BatchValidator}. */
+    BATCH,
+    /** One NDJSON file validated record by record by a {@code StreamingValidator}. */
+    STREAMING,
+    /** Family or cohort files whose members are validated by a {@code MemberStreamingValidator}. */
+    MEMBERS,
+    /** Phenopackets posted one per request to the {@code /validate} endpoint of a running server. */
+    SERVER
+}
@@ -0,0 +1,101 @@
+package org.phenopackets.schema.validator.benchmarks.load;
+
+import org.phenopackets.schema.validator.core.metrics.LatencyHistogram;
+
+/**
+ * Measurements of one {@link LoadTest} run. Latencies are per phenopacket, or per request in
+ * {@link LoadTestMode#SERVER} mode, and accurate to within a factor of two (see {@link LatencyHistogram}).
+ */
+public final class LoadTestResult {
+
+    private final LoadTestMode mode;
+    private final long phenopackets;
+    private final long invalidPhenopackets;
+    private final long expectedInvalidPhenopackets;
+    private final long elapsedNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+    private final long peakHeapBytes;
+
+    /**
+     * @param latencies latencies of the run, which are copied
+     * @param peakHeapBytes peak heap use during the run, -1 if unknown
+     */
+    LoadTestResult(LoadTestMode mode, long phenopackets, long invalidPhenopackets, long expectedInvalidPhenopackets,
+                   long elapsedNanos, LatencyHistogram latencies, long peakHeapBytes) {
+        this.mode = mode;
+        this.phenopackets = phenopackets;
+        this.invalidPhenopackets = invalidPhenopackets;
+        this.expectedInvalidPhenopackets = expectedInvalidPhenopackets;
+        this.elapsedNanos = elapsedNanos;
+        this.p50Nanos = latencies.percentileNanos(0.5);
+        this.p90Nanos = latencies.percentileNanos(0.9);
+        this.p99Nanos = latencies.percentileNanos(0.99);
+        this.maxNanos = latencies.maxNanos();
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    public LoadTestMode mode() {
+        return mode;
+    }
+
+    public long phenopackets() {
+        return phenopackets;
+    }
+
+    public long invalidPhenopackets() {
+        return invalidPhenopackets;
+    }
+
+    /**
+     * @return number of phenopackets into which the generator injected a defect
+     */
+    public long expectedInvalidPhenopackets() {
+        return expectedInvalidPhenopackets;
+    }
+
+    /**
+     * @return {@code true} if the validator found exactly the phenopackets with an injected defect to be invalid
+     */
+    public boolean isCorrect() {
+        return invalidPhenopackets == expectedInvalidPhenopackets;
+    }
+
+    public double phenopacketsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : phenopackets * 1e9 / elapsedNanos;
+    }
+
+    public long p50Nanos() {
+        return p50Nanos;
+    }
+
+    public long p90Nanos() {
+        return p90Nanos;
+    }
+
+    public long p99Nanos() {
+        return p99Nanos;
+    }
+
+    public long maxNanos() {
+        return maxNanos;
+    }
+
+    public long peakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d phenopackets in %.2f s, %.1f phenopackets/s%n"
+                        + "  latency p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms%n"
+                        + "  peak heap %s%n"
+                        + "  %d invalid phenopackets, %d expected%s",
+                mode, phenopackets, elapsedNanos / 1e9, phenopacketsPerSecond(),
+                p50Nanos / 1e6, p90Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6,
+                peakHeapBytes < 0 ? "unknown" : String.format("%.1f MB", peakHeapBytes / (1024.0 * 1024.0)),
+                invalidPhenopackets, expectedInvalidPhenopackets, isCorrect() ? "" : " - MISMATCH");
+    }
+}
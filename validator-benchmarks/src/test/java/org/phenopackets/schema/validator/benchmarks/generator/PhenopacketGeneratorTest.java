@@ -0,0 +1,97 @@
+package org.phenopackets.schema.validator.benchmarks.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.input.ArchiveInputs;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.rules.RuleEngine;
+import org.phenopackets.schema.validator.core.stream.MemberStreamingValidator;
+import org.phenopackets.schema.validator.core.stream.StreamingValidator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PhenopacketGeneratorTest {
+
+    private static final ValidationPipeline PIPELINE = ValidationPipeline.generic().with(RuleEngine.generic());
+
+    @Test
+    public void testDocumentsAreDeterministic() {
+        PhenopacketGenerator generator = new PhenopacketGenerator(GeneratorOptions.defaults());
+        assertArrayEquals(generator.generate(7).bytes(), new PhenopacketGenerator(GeneratorOptions.defaults()).generate(7).bytes());
+        assertFalse(generator.generate(7).json().equals(generator.generate(8).json()));
+        assertFalse(generator.generate(7).json().equals(new PhenopacketGenerator(GeneratorOptions.defaults().withSeed(1)).generate(7).json()));
+    }
+
+    @Test
+    public void testSizesFollowTheOptions() {
+        GeneratorOptions options = GeneratorOptions.defaults().withPhenotypicFeatures(300).withVariants(4).withMembers(6);
+        JsonNode phenopacket = new PhenopacketGenerator(options).generate(0).json();
+        assertEquals(300, phenopacket.get("phenotypicFeatures").size());
+        assertEquals(4, phenopacket.get("interpretations").get(0).get("diagnosis").get("genomicInterpretations").size());
+
+        GeneratedDocument family = new PhenopacketGenerator(options.withKind(DocumentKind.FAMILY)).generate(0);
+        assertEquals(6, family.json().get("relatives").size());
+        assertEquals(7, family.phenopackets());
+        GeneratedDocument cohort = new PhenopacketGenerator(options.withKind(DocumentKind.COHORT)).generate(0);
+        assertEquals(6, cohort.json().get("members").size());
+    }
+
+    /** Valid phenopackets also pass the semantic rules, and every phenopacket with a defect is invalid. */
+    @Test
+    public void testExactlyTheInjectedDefectsAreFound() {
+        PhenopacketGenerator valid = new PhenopacketGenerator(GeneratorOptions.defaults().withErrorRate(0));
+        valid.documents(200).forEach(d -> assertTrue(PIPELINE.validate(d.json()).isEmpty(), d.name()));
+
+        PhenopacketGenerator invalid = new PhenopacketGenerator(GeneratorOptions.defaults().withErrorRate(1).withPhenotypicFeatures(0));
+        invalid.documents(200).forEach(d -> assertFalse(PIPELINE.validate(d.json()).isEmpty(), d.name()));
+
+        PhenopacketGenerator mixed = new PhenopacketGenerator(GeneratorOptions.defaults().withErrorRate(0.25));
+        long expected = mixed.documents(400).mapToLong(GeneratedDocument::invalidPhenopackets).sum();
+        long found = mixed.documents(400).filter(d -> ! PIPELINE.validate(d.json()).isEmpty()).count();
+        assertEquals(expected, found);
+        assertTrue(expected > 50 && expected < 150, expected + " of 400 phenopackets are invalid");
+    }
+
+    @Test
+    public void testMembersOfCohortsAreInjectedIndependently() throws IOException {
+        PhenopacketGenerator generator = new PhenopacketGenerator(new GeneratorOptions(DocumentKind.COHORT, 3, 1, 50, 0.2, 5));
+        GeneratedDocument cohort = generator.generate(0);
+        BatchSummary summary = new MemberStreamingValidator(PIPELINE).validate(new ByteArrayInputStream(cohort.bytes()), cohort.name(), r -> { });
+        assertEquals(50, summary.documents());
+        assertEquals(cohort.invalidPhenopackets(), summary.invalidDocuments());
+    }
+
+    @Test
+    public void testOutputFormats(@TempDir Path tempDir) throws IOException {
+        PhenopacketGenerator generator = new PhenopacketGenerator(GeneratorOptions.defaults().withErrorRate(0.5));
+
+        long invalid = generator.write(20, OutputFormat.FILES, tempDir.resolve("files"));
+        try (Stream<Path> files = Files.list(tempDir.resolve("files"))) {
+            assertEquals(20, files.count());
+        }
+        assertArrayEquals(generator.generate(3).bytes(), Files.readAllBytes(tempDir.resolve("files/phenopacket-000003.json")));
+
+        Path ndjson = tempDir.resolve("documents.ndjson");
+        assertEquals(invalid, generator.write(20, OutputFormat.NDJSON, ndjson));
+        BatchSummary summary = new StreamingValidator(PIPELINE).validate(ndjson.toFile(), r -> { });
+        assertEquals(20, summary.documents());
+        assertEquals(invalid, summary.invalidDocuments());
+
+        Path zip = tempDir.resolve("documents.zip");
+        assertEquals(invalid, generator.write(20, OutputFormat.ZIP, zip));
+        try (Stream<?> entries = ArchiveInputs.entries(zip, "*.json")) {
+            assertEquals(20, entries.count());
+        }
+    }
+}
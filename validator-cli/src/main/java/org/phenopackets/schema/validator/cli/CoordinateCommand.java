@@ -0,0 +1,225 @@
+package org.phenopackets.schema.validator.cli;
+
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.batch.ShardDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParentCommand;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Splits the inputs of the {@code validate} command into shards, validates each shard in a {@link WorkerCommand}
+ * process and writes one report with the results of all shards, as if a single process had validated them. The
+ * coordinator and its workers communicate through a work directory (see {@link ShardDirectory}); workers on other
+ * machines need access to the same directory under the same path, and to the inputs, and are started with a
+ * {@code --worker-command} such as {@code ssh node1 java -jar /opt/validator-cli.jar}.
+ * <p>
+ * A run can be resumed by starting the coordinator again with the same work directory: completed shards are not
+ * validated again, and the worker of an interrupted shard continues after the last result it wrote.
+ * <pre>
+ * java -jar validator-cli.jar --rules -m manifest.txt coordinate --work-dir run --shards 64 --workers 8
+ * </pre>
+ */
+@Component
+@Command(name = "coordinate",
+        mixinStandardHelpOptions = true,
+        description = "Validate the inputs in shards, each in a separate worker process, and merge the results into one report")
+public class CoordinateCommand implements Callable<Integer> {
+    private static Logger LOG = LoggerFactory
+            .getLogger(CoordinateCommand.class);
+
+    @ParentCommand
+    private ValidateCommand parent;
+
+    @Option(names = "--work-dir", required = true, description = "directory for the shards and their results; reuse it to resume a run")
+    private Path workDir;
+
+    @Option(names = "--shards", description = "number of shards (default: ${DEFAULT-VALUE})")
+    private int shards = 16;
+
+    @Option(names = "--workers", description = "number of worker processes that run at the same time (default: ${DEFAULT-VALUE})")
+    private int workers = 2;
+
+    @Option(names = "--worker-threads", description = "threads of each worker (default: number of processors / workers)")
+    private int workerThreads = 0;
+
+    @Option(names = "--attempts", description = "times a shard is started before the run fails (default: ${DEFAULT-VALUE})")
+    private int attempts = 3;
+
+    @Option(names = "--worker-command", description = "command that starts the validator for a worker, e.g. on another host (can be repeated, workers take turns; default: this JVM and class path). The arguments for an ssh command are quoted for the remote shell.")
+    private List<String> workerCommands = new ArrayList<>();
+
+    @Option(names = "--worker-timeout", description = "seconds after which a worker that has neither written a result nor logged anything is stopped and its shard started again (default: ${DEFAULT-VALUE}, 0 for none)")
+    private long workerTimeoutSeconds = 600;
+
+    @Override
+    public Integer call() throws IOException, InterruptedException {
+        ShardDirectory directory = new ShardDirectory(workDir.toAbsolutePath());
+        if (! parent.hasInputs() && ! directory.isPlanned()) {
+            System.err.println("No phenopackets given. Use -p, a file or directory argument, --manifest or --stdin before coordinate.");
+            return 2;
+        }
+        String unsupported = parent.optionUnsupportedByWorkers();
+        if (unsupported != null) {
+            System.err.println(unsupported + " cannot be used with coordinate.");
+            return 2;
+        }
+        if (! parent.applySchemaMappings()) {
+            return 2;
+        }
+        long start = System.nanoTime();
+        try (Stream<Path> inputs = parent.inputPaths()) {
+            if (! directory.plan(inputs, shards)) {
+                LOG.info("Resuming the run in {}", workDir);
+            }
+        }
+        List<Integer> pending = directory.pendingShards();
+        LOG.info("{} of {} shards to validate", pending.size(), directory.shards());
+        List<Integer> failed = runWorkers(directory, pending);
+        if (! failed.isEmpty()) {
+            System.err.println("Shards " + failed + " could not be validated, see the logs in " + workDir
+                    + "; run the same command again to resume");
+            return 2;
+        }
+        return parent.report(listener -> {
+            BatchSummary merged = directory.merge(listener);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new BatchSummary(merged.documents(), merged.invalidDocuments(), merged.errors(), elapsed);
+        });
+    }
+
+    /**
+     * @return the shards that failed in all attempts
+     */
+    private List<Integer> runWorkers(ShardDirectory directory, List<Integer> pending) throws InterruptedException {
+        List<List<String>> commands = workerCommands.isEmpty() ? List.of(localCommand()) : splitCommands();
+        int slots = Math.max(1, Math.min(workers, pending.size()));
+        // each worker slot owns a command, so that the workers are spread evenly over the hosts
+        BlockingQueue<List<String>> slotCommands = new ArrayBlockingQueue<>(slots);
+        for (int i = 0; i < slots; i++) {
+            slotCommands.add(commands.get(i % commands.size()));
+        }
+        int threads = workerThreads > 0 ? workerThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / slots);
+        ExecutorService executor = Executors.newFixedThreadPool(slots);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int shard : pending) {
+                results.add(executor.submit(() -> {
+                    List<String> command = slotCommands.take();
+                    try {
+                        return runShard(directory, shard, command, threads);
+                    } finally {
+                        slotCommands.add(command);
+                    }
+                }));
+            }
+            List<Integer> failed = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                try {
+                    if (! results.get(i).get()) {
+                        failed.add(pending.get(i));
+                    }
+                } catch (ExecutionException e) {
+                    LOG.error("Shard {} failed: {}", pending.get(i), e.getCause().getMessage());
+                    failed.add(pending.get(i));
+                }
+            }
+            return failed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean runShard(ShardDirectory directory, int shard, List<String> command, int threads) throws IOException, InterruptedException {
+        List<String> workerArguments = new ArrayList<>(parent.pipelineArguments());
+        workerArguments.addAll(List.of("--threads", Integer.toString(threads),
+                "worker", "--work-dir", directory.directory().toString(), "--shard", Integer.toString(shard)));
+        List<String> arguments = new ArrayList<>(command);
+        boolean remoteShell = Path.of(command.get(0)).getFileName().toString().equals("ssh");
+        workerArguments.forEach(argument -> arguments.add(remoteShell ? shellQuote(argument) : argument));
+        Path log = directory.log(shard);
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            LOG.info("Starting shard {} (attempt {}): {}", shard, attempt, arguments);
+            Process process = new ProcessBuilder(arguments)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()))
+                    .start();
+            if (! awaitWorker(process, directory, shard)) {
+                LOG.warn("Shard {} made no progress for {} s and was stopped (attempt {} of {})", shard, workerTimeoutSeconds, attempt, attempts);
+                continue;
+            }
+            int exitCode = process.exitValue();
+            if (exitCode == 0 && directory.isDone(shard)) {
+                return true;
+            }
+            LOG.warn("Shard {} exited with code {} (attempt {} of {})", shard, exitCode, attempt, attempts);
+        }
+        return false;
+    }
+
+    /**
+     * Wait for a worker to exit. A worker is alive as long as its results or its log grow; one that has been silent
+     * for longer than the worker timeout, e.g. because it hangs or lost its host, is stopped.
+     * @return {@code false} if the worker was stopped
+     */
+    private boolean awaitWorker(Process process, ShardDirectory directory, int shard) throws InterruptedException {
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(workerTimeoutSeconds);
+        long progress = progress(directory, shard);
+        long lastProgress = System.nanoTime();
+        while (! process.waitFor(1, TimeUnit.SECONDS)) {
+            long current = progress(directory, shard);
+            if (current != progress) {
+                progress = current;
+                lastProgress = System.nanoTime();
+            } else if (timeoutNanos > 0 && System.nanoTime() - lastProgress > timeoutNanos) {
+                process.destroyForcibly().waitFor();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return combined size of the results and the log of a shard */
+    private static long progress(ShardDirectory directory, int shard) {
+        return directory.results(shard).toFile().length() + directory.log(shard).toFile().length();
+    }
+
+    /** Quote an argument for a POSIX shell, which ssh passes the command line to on the remote host. */
+    static String shellQuote(String argument) {
+        if (! argument.isEmpty() && argument.matches("[A-Za-z0-9_./:=@%+,-]+")) {
+            return argument;
+        }
+        return "'" + argument.replace("'", "'\\''") + "'";
+    }
+
+    /** Starts {@link ValidatorLauncher} with the Java runtime and class path of this process. */
+    private static List<String> localCommand() {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return List.of(java, "-cp", System.getProperty("java.class.path"), ValidatorLauncher.class.getName());
+    }
+
+    private List<List<String>> splitCommands() {
+        List<List<String>> commands = new ArrayList<>();
+        for (String command : workerCommands) {
+            commands.add(Arrays.asList(command.trim().split("\\s+")));
+        }
+        return commands;
+    }
+}
@@ -0,0 +1,50 @@
+package org.phenopackets.schema.validator.cli;
+
+import org.phenopackets.schema.validator.server.ValidationServerApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Starts the validation server and blocks until it is shut down.
+ */
+@Component
+@Command(name = "serve",
+        mixinStandardHelpOptions = true,
+        description = "Run a validation server with an HTTP/JSON API")
+public class ServeCommand implements Callable<Integer> {
+    private static Logger LOG = LoggerFactory
+            .getLogger(ServeCommand.class);
+
+    @Option(names = "--port", description = "port to listen on (default: ${DEFAULT-VALUE})")
+    private int port = 8080;
+
+    @Option(names = "--max-concurrent-requests", description = "requests validated at the same time (default: number of processors)")
+    private int maxConcurrentRequests = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = "--max-request-bytes", description = "size limit of a request body (default: ${DEFAULT-VALUE})")
+    private long maxRequestBytes = 10 * 1024 * 1024;
+
+    @Option(names = {"-s", "--schema"}, description = "additional JSON schema file to apply (can be repeated)")
+    private List<String> schemaPaths = new ArrayList<>();
+
+    @Option(names = "--rules", description = "also check ages, onsets, duplicate features and sex-specific terms (and with ?rare=true, the rare-disease rules)")
+    private boolean semanticRules = false;
+
+    @Override
+    public Integer call() throws InterruptedException {
+        // only the server refers to Spring types, so that loading this command does not load Spring
+        CountDownLatch closed = ValidationServerApplication.startUntilClosed(port, maxConcurrentRequests, maxRequestBytes,
+                schemaPaths, semanticRules);
+        closed.await();
+        LOG.info("Validation server stopped");
+        return 0;
+    }
+}
@@ -2,8 +2,31 @@
 
 
 import org.phenopackets.schema.validator.core.PhenopacketValidator;
-import org.phenopackets.schema.validator.core.jsonschema.JsonSchemaValidator;
-import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.batch.BatchInputs;
+import org.phenopackets.schema.validator.core.batch.BatchOptions;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.batch.BatchValidator;
+import org.phenopackets.schema.validator.core.cache.ResultCache;
+import org.phenopackets.schema.validator.core.input.ArchiveInputs;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.jsonschema.AdditionalJsonFileJsonSchemaValidator;
+import org.phenopackets.schema.validator.core.jsonschema.JsonSchemaRegistry;
+import org.phenopackets.schema.validator.core.jsonschema.SchemaResolver;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.ontology.HpoTermIndex;
+import org.phenopackets.schema.validator.core.ontology.OntologyValidator;
+import org.phenopackets.schema.validator.core.pipeline.ValidationMode;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.protobuf.MessageType;
+import org.phenopackets.schema.validator.core.protobuf.ProtobufValidator;
+import org.phenopackets.schema.validator.core.report.ErrorTypeCounts;
+import org.phenopackets.schema.validator.core.rules.RuleEngine;
+import org.phenopackets.schema.validator.core.report.ReportFormat;
+import org.phenopackets.schema.validator.core.report.ReportSink;
+import org.phenopackets.schema.validator.core.stream.MemberStreamingValidator;
+import org.phenopackets.schema.validator.core.stream.StreamingValidator;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+import org.phenopackets.schema.validator.core.watch.DirectoryWatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -11,50 +34,518 @@
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
+import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Component
-@Command(name = "validate",
+@Command(name = "validate", subcommands = {ServeCommand.class, CoordinateCommand.class, WorkerCommand.class},
         mixinStandardHelpOptions = true)
 public class ValidateCommand implements Callable<Integer> {
     private static Logger LOG = LoggerFactory
             .getLogger(ValidateCommand.class);
-    @Option(names = {"-p","--phenopacket"}, description = "Path to phenopacket", required = true)
-    private String phenopacketPath;
+    @Option(names = {"-p","--phenopacket"}, description = "Path to phenopacket (can be repeated)")
+    private List<String> phenopacketPaths = new ArrayList<>();
 
     @Option(names = "--rare", description = "apply HPO rare-disease constraints")
     private boolean rareHpoConstraints = false;
 
-    @Parameters(description = "one or more phenopacket files")
-    private List<String> positionals;
+    @Option(names = "--rules", description = "also check ages, onsets, duplicate features and sex-specific terms (and with --rare, the rare-disease rules)")
+    private boolean semanticRules = false;
 
+    @Option(names = {"-s", "--schema"}, description = "additional JSON schema file to apply (can be repeated)")
+    private List<String> schemaPaths = new ArrayList<>();
 
+    @Option(names = "--schema-map", paramLabel = "URI=LOCATION", description = "resolve $ref URIs starting with URI from a local file, directory or classpath:resource instead of the network (can be repeated)")
+    private List<String> schemaMappings = new ArrayList<>();
+
+    @Option(names = "--hpo", description = "check HPO terms against hp.obo, hp.json or a binary index written with --save-hpo-index")
+    private Path hpoPath;
+
+    @Option(names = "--save-hpo-index", description = "write the HPO index loaded with --hpo to this file for fast startup")
+    private Path hpoIndexOut;
+
+    @Option(names = {"-m", "--manifest"}, description = "file with one phenopacket path per line (can be repeated)")
+    private List<Path> manifests = new ArrayList<>();
+
+    @Option(names = "--stdin", description = "read phenopacket paths from standard input, one per line")
+    private boolean readStdin = false;
+
+    @Option(names = {"-g", "--glob"}, description = "file name pattern for phenopackets in directories and archives (default: ${DEFAULT-VALUE})")
+    private String glob = BatchInputs.DEFAULT_GLOB;
+
+    @Option(names = {"-t", "--threads"}, description = "number of worker threads (default: number of processors)")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = "--queue-size", description = "maximum number of phenopackets waiting for a worker (default: 4 per thread)")
+    private int queueSize = 0;
+
+    @Option(names = "--ndjson", description = "treat each input as a stream of phenopackets (NDJSON, concatenated JSON or a JSON array); use - for standard input")
+    private boolean ndjson = false;
+
+    @Option(names = "--members", description = "treat each input as a Cohort or Family and validate its member phenopackets one by one while it is read; use - for standard input")
+    private boolean members = false;
+
+    @Option(names = "--protobuf", description = "inputs are binary protobuf messages of this type: ${COMPLETION-CANDIDATES}")
+    private MessageType protobufType;
+
+    @Option(names = "--delimited", description = "with --protobuf, each input is a stream of length-delimited messages; use - for standard input")
+    private boolean delimited = false;
+
+    @Option(names = "--protobuf-schema-check", description = "with --protobuf, also apply the JSON schemas to each phenopacket (slower)")
+    private boolean protobufSchemaCheck = false;
+
+    @Option(names = "--fail-fast", description = "report only the first error of each phenopacket")
+    private boolean failFast = false;
+
+    @Option(names = "--max-errors", description = "report at most this many errors per phenopacket")
+    private int maxErrors = 0;
+
+    @Option(names = "--max-invalid", description = "stop after this many invalid phenopackets")
+    private long maxInvalid = 0;
+
+    @Option(names = "--cache", description = "file with results of earlier runs; unchanged phenopackets are not validated again")
+    private Path cachePath;
+
+    @Option(names = "--cache-size", description = "maximum number of results kept in the cache (default: ${DEFAULT-VALUE})")
+    private int cacheSize = 500_000;
+
+    @Option(names = {"-f", "--format"}, description = "report format: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+    private ReportFormat format = ReportFormat.TEXT;
+
+    @Option(names = {"-o", "--output"}, description = "write the report to this file instead of standard output")
+    private Path outputPath;
+
+    @Option(names = {"-q", "--quiet"}, description = "only report phenopackets that have errors")
+    private boolean quiet = false;
+
+    @Option(names = "--watch", description = "after validating the files and directories, keep watching them and validate each phenopacket again when it is created or modified, until interrupted")
+    private boolean watch = false;
+
+    @Option(names = "--debounce", description = "with --watch, milliseconds without further changes before a changed file is validated (default: ${DEFAULT-VALUE})")
+    private long debounceMillis = DirectoryWatcher.DEFAULT_DEBOUNCE.toMillis();
+
+    @Option(names = "--metrics", description = "print latencies per stage, throughput and error counts to standard error at the end")
+    private boolean metrics = false;
+
+    @Parameters(description = "one or more phenopacket files, directories or zip, tar and tar.gz archives")
+    private List<Path> positionals = new ArrayList<>();
 
 
     @Override
-    public Integer call() {
-        System.out.printf("mycommand was called with --rare=%s and positionals: %s%n", rareHpoConstraints, positionals);
-        LOG.info("EXECUTING : command line runner");
-        PhenopacketValidator validator;
-        if (rareHpoConstraints) {
-            validator = new PhenopacketValidator(phenopacketPath, PhenopacketValidator.ValidationType.RARE_DISEASE_VALIDATION);
-        } else if (positionals.size() > 0) {
-            String[] itemsArray = new String[positionals.size()];
-            itemsArray = positionals.toArray(itemsArray);
-            validator = new PhenopacketValidator(phenopacketPath, itemsArray);
-        } else {
-            validator = new PhenopacketValidator(phenopacketPath);
+    public Integer call() throws IOException {
+        LOG.debug("validate was called with --rare={}, schemas: {} and positionals: {}", rareHpoConstraints, schemaPaths, positionals);
+        if (! hasInputs()) {
+            System.err.println("No phenopackets given. Use -p, a file or directory argument, --manifest or --stdin.");
+            return 2;
+        }
+        String conflict = conflictingStreamOptions();
+        if (conflict != null) {
+            System.err.println(conflict);
+            return 2;
+        }
+        if (! applySchemaMappings()) {
+            return 2;
+        }
+        if (watch) {
+            return watch();
+        }
+        return report(this::validate);
+    }
+
+    /**
+     * Validate the inputs once, then validate the files that change until the process is interrupted. Results are
+     * written as they arrive, so only the formats that list one document after the other are supported.
+     */
+    private int watch() throws IOException {
+        if (ndjson || members || protobufType != null || readStdin || ! manifests.isEmpty()) {
+            System.err.println("--watch only supports phenopacket files and directories given with -p or as arguments.");
+            return 2;
         }
-        List<? extends ValidationItem> errors = validator.getValidationErrors();
-        if (errors.isEmpty()) {
-            System.out.println("\t no errors found");
-        } else {
-            for (ValidationItem ve : errors) {
-                System.out.println("\t(" + ve.errorType() + ") " + ve.message());
+        if (format != ReportFormat.TEXT && format != ReportFormat.JSONL) {
+            System.err.println("--watch only supports the TEXT and JSONL formats.");
+            return 2;
+        }
+        ValidationPipeline pipeline = createPipeline();
+        try (ResultCache cache = cachePath == null ? null : ResultCache.open(cachePath, cacheSize)) {
+            BatchValidator validator = cache == null
+                    ? new BatchValidator(pipeline, batchOptions())
+                    : BatchValidator.forSources(cache.cachedSources(pipeline), batchOptions());
+            DirectoryWatcher watcher = new DirectoryWatcher(validator, threads, Duration.ofMillis(debounceMillis), glob);
+            List<Path> watched = new ArrayList<>(positionals);
+            phenopacketPaths.forEach(p -> watched.add(Path.of(p)));
+            // register before the first run, so that no change made during it is missed
+            watcher.register(watched);
+            CountDownLatch reported = new CountDownLatch(1);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                watcher.close();
+                try {
+                    reported.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "watch-shutdown"));
+            try {
+                return report(listener -> {
+                    BatchSummary summary;
+                    try (Stream<DocumentSource> inputs = inputs()) {
+                        summary = validator.validateSources(inputs, listener);
+                    }
+                    System.err.println("Watching for changes, press Ctrl-C to stop.");
+                    return summary.plus(watcher.run(listener));
+                });
+            } finally {
+                reported.countDown();
+            }
+        }
+    }
+
+    boolean hasInputs() {
+        return ! phenopacketPaths.isEmpty() || ! positionals.isEmpty() || ! manifests.isEmpty() || readStdin;
+    }
+
+    /**
+     * @return a message if the options that read streams of documents are combined in a way that cannot work, or
+     * {@code null}
+     */
+    String conflictingStreamOptions() {
+        if (ndjson && members) {
+            return "--ndjson and --members cannot be combined; a stream holds either phenopackets or one Cohort or Family.";
+        }
+        boolean dash = phenopacketPaths.contains("-") || positionals.contains(Path.of("-"));
+        if (readStdin && dash && (ndjson || members || protobufType != null && delimited)) {
+            return "- cannot be used as an input together with --stdin, which reads paths from standard input.";
+        }
+        return null;
+    }
+
+    /**
+     * @return {@code false} if a --schema-map argument is malformed, which has been reported
+     */
+    boolean applySchemaMappings() {
+        SchemaResolver resolver = JsonSchemaRegistry.defaultRegistry().resolver();
+        try {
+            schemaMappings.forEach(resolver::map);
+            return true;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Write the report of a validation run in the chosen format, followed by the totals and metrics if requested.
+     * @param validation validates the documents and passes each result to the consumer it is given
+     * @return exit code of the run
+     */
+    int report(Function<Consumer<ValidationResult>, BatchSummary> validation) throws IOException {
+        if (metrics) {
+            ValidationMetrics.global().setEnabled(true);
+        }
+        Writer out = outputPath == null
+                ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8);
+        try (ReportSink sink = new ReportSink(format.create(out, quiet))) {
+            BatchSummary summary = validation.apply(sink);
+            ErrorTypeCounts counts = sink.finish(summary);
+            if (format != ReportFormat.TEXT || outputPath != null) {
+                System.err.println(summary);
+                String perType = counts.toString();
+                if (! perType.isEmpty()) {
+                    System.err.println(perType);
+                }
+            }
+            if (metrics) {
+                System.err.print(ValidationMetrics.global().summary());
             }
+            return summary.exitCode();
+        } finally {
+            if (outputPath == null) {
+                out.flush();
+            } else {
+                out.close();
+            }
+        }
+    }
+
+    private BatchSummary validate(Consumer<ValidationResult> listener) {
+        if (protobufType != null) {
+            return validateProtobuf(listener);
+        }
+        ValidationPipeline pipeline = createPipeline();
+        if (ndjson) {
+            return validateStreams(pipeline, listener);
+        }
+        if (members) {
+            return validateMembers(pipeline, listener);
+        }
+        if (cachePath != null) {
+            try (ResultCache cache = ResultCache.open(cachePath, cacheSize);
+                 Stream<DocumentSource> inputs = inputs()) {
+                BatchValidator validator = BatchValidator.forSources(cache.cachedSources(pipeline), batchOptions());
+                BatchSummary summary = validator.validateSources(inputs, listener);
+                LOG.info("{}", cache);
+                return summary;
+            }
+        }
+        BatchValidator validator = new BatchValidator(pipeline, batchOptions());
+        try (Stream<DocumentSource> inputs = inputs()) {
+            return validator.validateSources(inputs, listener);
+        }
+    }
+
+    private BatchSummary validateStreams(ValidationPipeline pipeline, Consumer<ValidationResult> listener) {
+        StreamingValidator validator = new StreamingValidator(pipeline, maxInvalid > 0 ? maxInvalid : Long.MAX_VALUE);
+        BatchSummary summary = new BatchSummary(0, 0, 0, 0);
+        for (String stream : streams()) {
+            if (stream.equals("-")) {
+                try {
+                    summary = summary.plus(validator.validate(System.in, "stdin", listener));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                summary = summary.plus(validator.validate(new File(stream), listener));
+            }
+            if (summary.stoppedEarly()) {
+                break;
+            }
+        }
+        return summary;
+    }
+
+    private BatchSummary validateProtobuf(Consumer<ValidationResult> listener) {
+        if (! delimited) {
+            BatchValidator batchValidator = createBatchValidator();
+            try (Stream<DocumentSource> inputs = inputs()) {
+                return batchValidator.validateSources(inputs, listener);
+            }
+        }
+        ProtobufValidator validator = createProtobufValidator();
+        BatchSummary summary = new BatchSummary(0, 0, 0, 0);
+        for (String stream : streams()) {
+            if (stream.equals("-")) {
+                summary = summary.plus(validator.validateDelimited(System.in, "stdin", listener));
+            } else {
+                try (InputStream is = new BufferedInputStream(Files.newInputStream(Path.of(stream)))) {
+                    summary = summary.plus(validator.validateDelimited(is, stream, listener));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return summary;
+    }
+
+    private BatchSummary validateMembers(ValidationPipeline pipeline, Consumer<ValidationResult> listener) {
+        MemberStreamingValidator validator = new MemberStreamingValidator(pipeline, batchOptions());
+        BatchSummary summary = new BatchSummary(0, 0, 0, 0);
+        for (String document : streams()) {
+            if (document.equals("-")) {
+                try {
+                    summary = summary.plus(validator.validate(System.in, "stdin", listener));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                summary = summary.plus(validator.validate(DocumentSource.of(Path.of(document)), listener));
+            }
+            if (summary.stoppedEarly()) {
+                break;
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Inputs of --ndjson, --members and --delimited, which are streams of documents rather than directories; the
+     * paths of manifests and of --stdin are streams as well.
+     */
+    private List<String> streams() {
+        List<String> streams = new ArrayList<>(phenopacketPaths);
+        positionals.forEach(p -> streams.add(p.toString()));
+        for (Path manifest : manifests) {
+            try (Stream<Path> paths = BatchInputs.fromManifest(manifest)) {
+                paths.forEach(p -> streams.add(p.toString()));
+            }
+        }
+        if (readStdin) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            try (Stream<Path> paths = BatchInputs.fromReader(reader)) {
+                paths.forEach(p -> streams.add(p.toString()));
+            }
+        }
+        return streams;
+    }
+
+    private ProtobufValidator createProtobufValidator() {
+        return protobufSchemaCheck
+                ? new ProtobufValidator(protobufType, createPipeline())
+                : new ProtobufValidator(protobufType);
+    }
+
+    /**
+     * @return validator for documents that are files of their own, JSON or, with --protobuf, binary protobuf
+     */
+    BatchValidator createBatchValidator() {
+        if (protobufType != null) {
+            return BatchValidator.forSources(createProtobufValidator()::validate, batchOptions());
+        }
+        return new BatchValidator(createPipeline(), batchOptions());
+    }
+
+    BatchOptions batchOptions() {
+        BatchOptions options = new BatchOptions(threads, queueSize > 0 ? queueSize : 4 * threads);
+        return maxInvalid > 0 ? options.withMaxInvalidDocuments(maxInvalid) : options;
+    }
+
+    ValidationPipeline createPipeline() {
+        ValidationPipeline pipeline = rareHpoConstraints
+                ? PhenopacketValidator.pipelineFor(PhenopacketValidator.ValidationType.RARE_DISEASE_VALIDATION)
+                : ValidationPipeline.generic();
+        // the additional schemas apply with and without the rare-disease constraints, as in the server
+        for (String schemaPath : schemaPaths) {
+            pipeline = pipeline.with(AdditionalJsonFileJsonSchemaValidator.forSchemaFile(new File(schemaPath)));
+        }
+        if (semanticRules) {
+            pipeline = pipeline.with(rareHpoConstraints ? RuleEngine.rareDisease() : RuleEngine.generic());
+        }
+        if (hpoPath != null) {
+            HpoTermIndex index = HpoTermIndex.load(hpoPath);
+            LOG.info("Loaded {} HPO identifiers from {}", index.size(), hpoPath);
+            if (hpoIndexOut != null) {
+                index.write(hpoIndexOut);
+            }
+            pipeline = pipeline.with(new OntologyValidator(index));
+        }
+        if (failFast) {
+            pipeline = pipeline.withMode(ValidationMode.failFast());
+        } else if (maxErrors > 0) {
+            pipeline = pipeline.withMode(ValidationMode.maxErrors(maxErrors));
+        }
+        return pipeline;
+    }
+
+    /** All documents to validate, with zip and tar archives replaced by their matching entries. */
+    private Stream<DocumentSource> inputs() {
+        return ArchiveInputs.expand(inputPaths(), glob);
+    }
+
+    /** All files and archives to validate, with directories replaced by their matching files. */
+    Stream<Path> inputPaths() {
+        Stream<Path> inputs = phenopacketPaths.stream().map(Path::of);
+        for (Path positional : positionals) {
+            inputs = Stream.concat(inputs, ArchiveInputs.isArchive(positional) ? Stream.of(positional) : BatchInputs.walk(positional, glob));
+        }
+        for (Path manifest : manifests) {
+            inputs = Stream.concat(inputs, BatchInputs.fromManifest(manifest));
+        }
+        if (readStdin) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            inputs = Stream.concat(inputs, BatchInputs.fromReader(reader));
+        }
+        return inputs;
+    }
+
+    /** Make the location of a {@code URI=LOCATION} mapping absolute unless it is a classpath resource. */
+    private static String absoluteSchemaMapping(String mapping) {
+        int eq = mapping.indexOf('=');
+        String location = mapping.substring(eq + 1);
+        if (eq < 1 || location.isEmpty() || location.startsWith(SchemaResolver.CLASSPATH)) {
+            return mapping;
+        }
+        String absolute = Path.of(location).toAbsolutePath().normalize().toString();
+        if (location.endsWith("/") && ! absolute.endsWith("/")) {
+            absolute += "/";
+        }
+        return mapping.substring(0, eq + 1) + absolute;
+    }
+
+    String glob() {
+        return glob;
+    }
+
+    /**
+     * @return an option that the worker processes of {@link CoordinateCommand} cannot apply, because it needs all
+     * inputs in one process or treats an input as many documents, {@code null} if there is none
+     */
+    String optionUnsupportedByWorkers() {
+        if (ndjson) {
+            return "--ndjson";
+        }
+        if (members) {
+            return "--members";
+        }
+        if (delimited) {
+            return "--delimited";
+        }
+        if (cachePath != null) {
+            return "--cache";
+        }
+        if (maxInvalid > 0) {
+            return "--max-invalid";
+        }
+        return null;
+    }
+
+    /**
+     * @return the options of this command that determine how each document is validated, for the worker processes of
+     * {@link CoordinateCommand}; paths are made absolute because the workers may run in another directory
+     */
+    List<String> pipelineArguments() {
+        List<String> arguments = new ArrayList<>();
+        if (protobufType != null) {
+            arguments.add("--protobuf");
+            arguments.add(protobufType.name());
+            if (protobufSchemaCheck) {
+                arguments.add("--protobuf-schema-check");
+            }
+        }
+        if (rareHpoConstraints) {
+            arguments.add("--rare");
+        }
+        if (semanticRules) {
+            arguments.add("--rules");
+        }
+        for (String schemaPath : schemaPaths) {
+            arguments.add("--schema");
+            arguments.add(Path.of(schemaPath).toAbsolutePath().toString());
+        }
+        for (String schemaMapping : schemaMappings) {
+            arguments.add("--schema-map");
+            arguments.add(absoluteSchemaMapping(schemaMapping));
+        }
+        if (hpoPath != null) {
+            arguments.add("--hpo");
+            arguments.add(hpoPath.toAbsolutePath().toString());
+        }
+        if (failFast) {
+            arguments.add("--fail-fast");
+        } else if (maxErrors > 0) {
+            arguments.add("--max-errors");
+            arguments.add(Integer.toString(maxErrors));
         }
-        return 0;
+        arguments.add("--glob");
+        arguments.add(glob);
+        return arguments;
     }
 
-}
\ No newline at end of file
+}
@@ -1,10 +1,9 @@
 package org.phenopackets.schema.validator.cli;
 
-import org.phenopackets.schema.validator.core.jsonschema.JsonSchemaValidator;
-import org.phenopackets.schema.validator.core.validation.ValidationItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 
@@ -19,8 +18,12 @@ public class ValidatorApplication  {
 
     public static void main(String[] args) {
         LOG.info("STARTING THE APPLICATION");
-        SpringApplication.run(ValidatorApplication.class, args);
+        SpringApplication application = new SpringApplication(ValidatorApplication.class);
+        // the web starter is on the classpath for the serve command, which runs its own context
+        application.setWebApplicationType(WebApplicationType.NONE);
+        int exitCode = SpringApplication.exit(application.run(args));
         LOG.info("APPLICATION FINISHED");
+        System.exit(exitCode);
     }
 
 
@@ -0,0 +1,39 @@
+package org.phenopackets.schema.validator.cli;
+
+import picocli.CommandLine;
+
+/**
+ * Fast-starting entry point of the command-line tool. Unlike {@link ValidatorApplication}, it runs the
+ * {@link ValidateCommand} with plain picocli and does not start a Spring context, which costs more than validating a
+ * single phenopacket. Spring is only started by the {@code serve} subcommand, which needs it for the web server.
+ * <p>
+ * Together with the class-data sharing archive built by the {@code fast-start} Maven profile, a single file is
+ * validated in a few hundred milliseconds:
+ * <pre>
+ * java -XX:SharedArchiveFile=validator-cli.jsa -jar validator-cli.jar phenopacket.json
+ * </pre>
+ */
+public final class ValidatorLauncher {
+
+    /** Logback reads the configuration named by this property instead of searching for one. */
+    static final String LOGBACK_CONFIGURATION = "logback.configurationFile";
+
+    private ValidatorLauncher() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * @param args command-line arguments of the {@code validate} command
+     * @return exit code of the command
+     */
+    static int run(String... args) {
+        // must be set before the first logger is created; logback-spring.xml is only understood by Spring
+        if (System.getProperty(LOGBACK_CONFIGURATION) == null) {
+            System.setProperty(LOGBACK_CONFIGURATION, "logback-launcher.xml");
+        }
+        return new CommandLine(new ValidateCommand()).execute(args);
+    }
+}
@@ -0,0 +1,60 @@
+package org.phenopackets.schema.validator.cli;
+
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.batch.BatchValidator;
+import org.phenopackets.schema.validator.core.batch.ShardDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParentCommand;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Validates shards of a run that was planned by {@link CoordinateCommand}, which starts this command in separate
+ * processes. The results are written to the work directory, not to the report. The options of the parent
+ * {@code validate} command determine how the documents are validated, for example
+ * <pre>
+ * java -jar validator-cli.jar --rules --threads 4 worker --work-dir /shared/run --shard 3
+ * </pre>
+ */
+@Component
+@Command(name = "worker",
+        mixinStandardHelpOptions = true,
+        description = "Validate shards of a run planned by the coordinate command")
+public class WorkerCommand implements Callable<Integer> {
+    private static Logger LOG = LoggerFactory
+            .getLogger(WorkerCommand.class);
+
+    @ParentCommand
+    private ValidateCommand parent;
+
+    @Option(names = "--work-dir", required = true, description = "work directory of the run")
+    private Path workDir;
+
+    @Option(names = "--shard", required = true, description = "shard to validate (can be repeated)")
+    private List<Integer> shards = new ArrayList<>();
+
+    @Override
+    public Integer call() {
+        if (! parent.applySchemaMappings()) {
+            return 2;
+        }
+        ShardDirectory directory = new ShardDirectory(workDir);
+        BatchValidator validator = parent.createBatchValidator();
+        for (int shard : shards) {
+            if (directory.isDone(shard)) {
+                LOG.info("Shard {} has already been validated", shard);
+                continue;
+            }
+            BatchSummary summary = directory.validateShard(shard, validator, parent.glob());
+            LOG.info("Shard {}: {}", shard, summary);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,64 @@
+package org.phenopackets.schema.validator.server;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails with a {@link RequestTooLargeException} as soon as more than a given number of bytes have been read, so that
+ * a request body that lacks a Content-Length header is still bounded.
+ */
+class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count = 0;
+
+    LimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * @return true if the body was cut off because it exceeded the limit
+     */
+    boolean isExceeded() {
+        return count > limit;
+    }
+
+    private void count(long n) throws RequestTooLargeException {
+        count += n;
+        if (count > limit) {
+            throw new RequestTooLargeException(limit);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.phenopackets.schema.validator.server;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request body exceeds {@code validator.server.max-request-bytes}.
+ */
+@ResponseStatus(value = HttpStatus.PAYLOAD_TOO_LARGE, reason = "Request body is too large")
+public class RequestTooLargeException extends IOException {
+
+    public RequestTooLargeException(long maxRequestBytes) {
+        super("Request body exceeds " + maxRequestBytes + " bytes");
+    }
+}
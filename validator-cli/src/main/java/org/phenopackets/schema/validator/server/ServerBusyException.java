@@ -0,0 +1,11 @@
+package org.phenopackets.schema.validator.server;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when all permits for concurrent requests are in use.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Too many concurrent validation requests")
+public class ServerBusyException extends RuntimeException {
+}
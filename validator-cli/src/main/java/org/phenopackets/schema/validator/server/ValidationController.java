@@ -0,0 +1,139 @@
+package org.phenopackets.schema.validator.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HTTP/JSON API of the validation server.
+ * <ul>
+ *     <li>{@code POST /validate} - body is a single phenopacket, response is one result object; content after the
+ *     phenopacket makes the body unreadable</li>
+ *     <li>{@code POST /validate/batch} - body is a JSON array of phenopackets, response is an array of results</li>
+ *     <li>{@code POST /validate/ndjson} - body is newline-delimited JSON, response is newline-delimited results that
+ *     are written while the body is still being read</li>
+ * </ul>
+ * All endpoints accept {@code rare=true} to additionally apply the HPO rare-disease schema. A result has the form
+ * {@code {"source": ..., "valid": ..., "errors": [{"errorType": ..., "keyword": ..., "pointer": ..., "message": ...}]}},
+ * where {@code pointer} is the JSON Pointer of the offending node.
+ */
+@RestController
+public class ValidationController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ValidationService validationService;
+    private final ObjectMapper objectMapper;
+    /** Reads the single document of /validate, refusing content after it rather than ignoring it. */
+    private final ObjectReader documentReader;
+
+    public ValidationController(ValidationService validationService, ObjectMapper objectMapper) {
+        this.validationService = validationService;
+        this.objectMapper = objectMapper;
+        this.documentReader = objectMapper.reader().with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+    }
+
+    @PostMapping(value = "/validate", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ObjectNode validate(@RequestParam(defaultValue = "false") boolean rare, HttpServletRequest request) throws IOException {
+        JsonNode phenopacket;
+        try (InputStream body = body(request)) {
+            phenopacket = documentReader.readTree(body);
+        } catch (RequestTooLargeException e) {
+            throw e;
+        } catch (IOException e) {
+            ValidationError error = new ValidationError(ErrorType.UNREADABLE_DOCUMENT, e.getMessage());
+            return toJson(new ValidationResult("request", List.of(error)));
+        }
+        if (phenopacket == null || phenopacket.isMissingNode()) {
+            ValidationError error = new ValidationError(ErrorType.UNREADABLE_DOCUMENT, "No JSON content found");
+            return toJson(new ValidationResult("request", List.of(error)));
+        }
+        return toJson(validationService.validate(phenopacket, rare));
+    }
+
+    @PostMapping(value = "/validate/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ArrayNode validateBatch(@RequestParam(defaultValue = "false") boolean rare, HttpServletRequest request) throws IOException {
+        List<ValidationResult> results = new ArrayList<>();
+        try (LimitedInputStream body = body(request)) {
+            validationService.validateStream(body, rare, results::add);
+            if (body.isExceeded()) {
+                throw new RequestTooLargeException(validationService.maxRequestBytes());
+            }
+        }
+        ArrayNode response = objectMapper.createArrayNode();
+        results.forEach(r -> response.add(toJson(r)));
+        return response;
+    }
+
+    /**
+     * Results are written and flushed as soon as each record has been validated. If the body exceeds the size limit
+     * but did not announce its length, the record that crosses the limit is reported as unreadable and the stream
+     * ends there.
+     */
+    @PostMapping(value = "/validate/ndjson")
+    public void validateNdjson(@RequestParam(defaultValue = "false") boolean rare, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (InputStream body = body(request)) {
+            response.setContentType(NDJSON);
+            OutputStream out = response.getOutputStream();
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // one object per line, without the space that separates root values by default
+            generator.setRootValueSeparator(null);
+            validationService.validateStream(body, rare, result -> {
+                try {
+                    generator.writeTree(toJson(result));
+                    generator.writeRaw('\n');
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.close();
+            response.flushBuffer();
+        }
+    }
+
+    private LimitedInputStream body(HttpServletRequest request) throws IOException {
+        long maxRequestBytes = validationService.maxRequestBytes();
+        if (request.getContentLengthLong() > maxRequestBytes) {
+            throw new RequestTooLargeException(maxRequestBytes);
+        }
+        return new LimitedInputStream(request.getInputStream(), maxRequestBytes);
+    }
+
+    private ObjectNode toJson(ValidationResult result) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("source", result.source());
+        node.put("valid", result.isValid());
+        ArrayNode errors = node.putArray("errors");
+        for (ValidationItem item : result.items()) {
+            ObjectNode error = errors.addObject();
+            error.put("errorType", item.errorType().name());
+            error.put("keyword", item.keyword());
+            error.put("pointer", item.pointer());
+            error.put("message", item.message());
+        }
+        return node;
+    }
+}
@@ -0,0 +1,84 @@
+package org.phenopackets.schema.validator.server;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.phenopackets.schema.validator.core.metrics.LatencyHistogram;
+import org.phenopackets.schema.validator.core.metrics.Stage;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.JsonNodeValidator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports the {@link ValidationMetrics} of the validator to the Micrometer registry of the server, from where they
+ * are available under {@code /actuator/metrics}. The meters read the lock-free counters of the validator when they
+ * are scraped, so validation itself does not pay for the export.
+ */
+@Component
+public class ValidationMeterBinder implements MeterBinder {
+
+    private final ValidationMetrics metrics = ValidationMetrics.global();
+    private final ValidationService validationService;
+
+    public ValidationMeterBinder(ValidationService validationService) {
+        this.validationService = validationService;
+        metrics.setEnabled(true);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            timer(registry, metrics.stage(stage), "validator.stage", "stage", stage.name().toLowerCase());
+        }
+        for (String name : pipelineStageNames()) {
+            timer(registry, metrics.pipelineStage(name), "validator.pipeline.stage", "name", name);
+            FunctionCounter.builder("validator.pipeline.stage.errors", metrics, m -> m.errors(name))
+                    .tag("name", name)
+                    .register(registry);
+        }
+        FunctionCounter.builder("validator.documents", metrics, ValidationMetrics::documents)
+                .register(registry);
+        FunctionCounter.builder("validator.documents.invalid", metrics, ValidationMetrics::invalidDocuments)
+                .register(registry);
+        for (ErrorType errorType : ErrorType.values()) {
+            FunctionCounter.builder("validator.errors", metrics, m -> m.errors(errorType))
+                    .tag("type", errorType.name())
+                    .register(registry);
+        }
+        FunctionCounter.builder("validator.cache.hits", metrics, ValidationMetrics::cacheHits)
+                .register(registry);
+        FunctionCounter.builder("validator.cache.misses", metrics, ValidationMetrics::cacheMisses)
+                .register(registry);
+        Gauge.builder("validator.documents.rate", metrics, ValidationMetrics::documentsPerSecond)
+                .register(registry);
+        for (String gauge : new String[]{"batch.queue", "report.queue"}) {
+            Gauge.builder("validator." + gauge, metrics, m -> m.gauges().getOrDefault(gauge, 0L))
+                    .register(registry);
+        }
+    }
+
+    private static void timer(MeterRegistry registry, LatencyHistogram histogram, String name, String tag, String value) {
+        FunctionTimer.builder(name, histogram, LatencyHistogram::count, LatencyHistogram::totalNanos, TimeUnit.NANOSECONDS)
+                .tag(tag, value)
+                .register(registry);
+    }
+
+    /** The pipelines of the server are fixed, so their stages are known when the meters are bound. */
+    private Set<String> pipelineStageNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (ValidationPipeline pipeline : validationService.pipelines()) {
+            for (JsonNodeValidator validator : pipeline.validators()) {
+                names.add(validator.name());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,84 @@
+package org.phenopackets.schema.validator.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Long-running HTTP server that validates phenopackets sent to it as JSON. The schemas are compiled once when the
+ * server starts, so each request only pays for parsing and validating its own documents. The server lives in its
+ * own package so that it is not picked up by the component scan of the command-line application.
+ * <p>
+ * Settings are read from the Spring environment:
+ * <ul>
+ *     <li>{@code server.port} - port to listen on</li>
+ *     <li>{@code validator.server.max-concurrent-requests} - requests that may be validated at the same time; further
+ *     requests are rejected with 503</li>
+ *     <li>{@code validator.server.max-request-bytes} - size limit of a request body; larger requests are rejected
+ *     with 413</li>
+ *     <li>{@code validator.server.schemas} - comma-separated paths of additional JSON schemas</li>
+ * </ul>
+ * Latencies per stage and schema, document and error counts are exported under {@code /actuator/metrics}, see
+ * {@link ValidationMeterBinder}.
+ */
+@SpringBootApplication
+public class ValidationServerApplication {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ValidationServerApplication.class);
+
+    public static void main(String[] args) {
+        SpringApplication.run(ValidationServerApplication.class, args);
+    }
+
+    /**
+     * Start a server with an embedded servlet container.
+     * @param port port to listen on, 0 for a random free port
+     * @param maxConcurrentRequests number of requests that may be validated at the same time
+     * @param maxRequestBytes size limit of a request body
+     * @param schemaPaths paths of additional JSON schemas that are applied to every document
+     * @param rules whether to apply the semantic rules in addition to the schemas
+     * @return the running application context, closing it stops the server
+     */
+    public static ConfigurableApplicationContext start(int port, int maxConcurrentRequests, long maxRequestBytes,
+                                                       List<String> schemaPaths, boolean rules) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", port);
+        properties.put("validator.server.max-concurrent-requests", maxConcurrentRequests);
+        properties.put("validator.server.max-request-bytes", maxRequestBytes);
+        properties.put("validator.server.schemas", String.join(",", schemaPaths));
+        properties.put("validator.server.rules", rules);
+        properties.put("management.endpoints.web.exposure.include", "health,metrics");
+        SpringApplication application = new SpringApplication(ValidationServerApplication.class);
+        application.setWebApplicationType(WebApplicationType.SERVLET);
+        application.setDefaultProperties(properties);
+        ConfigurableApplicationContext context = application.run();
+        LOG.info("Validation server listening on port {}", context.getEnvironment().getProperty("local.server.port"));
+        return context;
+    }
+
+    /**
+     * Start a server as {@link #start(int, int, long, List, boolean)} does, for callers that must not depend on
+     * Spring types, such as the command line whose other commands run without Spring.
+     * @return a latch that is counted down once the server has been stopped, e.g. by a shutdown hook
+     */
+    public static CountDownLatch startUntilClosed(int port, int maxConcurrentRequests, long maxRequestBytes,
+                                                  List<String> schemaPaths, boolean rules) {
+        ConfigurableApplicationContext context = start(port, maxConcurrentRequests, maxRequestBytes, schemaPaths, rules);
+        CountDownLatch closed = new CountDownLatch(1);
+        context.addApplicationListener(event -> {
+            if (event instanceof ContextClosedEvent) {
+                closed.countDown();
+            }
+        });
+        return closed;
+    }
+}
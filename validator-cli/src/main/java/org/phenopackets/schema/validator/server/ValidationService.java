@@ -0,0 +1,117 @@
+package org.phenopackets.schema.validator.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.phenopackets.schema.validator.core.PhenopacketValidator;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.jsonschema.AdditionalJsonFileJsonSchemaValidator;
+import org.phenopackets.schema.validator.core.jsonschema.JsonSchemaValidator;
+import org.phenopackets.schema.validator.core.metrics.Stage;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.rules.RuleEngine;
+import org.phenopackets.schema.validator.core.stream.StreamingValidator;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Holds the warm validation pipelines of the server and limits the number of requests that are validated at the
+ * same time.
+ */
+@Service
+public class ValidationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ValidationService.class);
+
+    private final ValidationPipeline genericPipeline;
+    private final ValidationPipeline rareDiseasePipeline;
+    private final Semaphore requestPermits;
+    private final long maxRequestBytes;
+
+    /**
+     * @param maxConcurrentRequests requests that may be validated at the same time, 0 for one per processor
+     * @param maxRequestBytes size limit of a request body
+     * @param schemas comma-separated paths of additional JSON schemas, which are applied with and without the
+     *                rare-disease constraints
+     * @param rules whether to apply the semantic rules in addition to the schemas
+     */
+    public ValidationService(@Value("${validator.server.max-concurrent-requests:0}") int maxConcurrentRequests,
+                             @Value("${validator.server.max-request-bytes:10485760}") long maxRequestBytes,
+                             @Value("${validator.server.schemas:}") String schemas,
+                             @Value("${validator.server.rules:false}") boolean rules) {
+        ValidationPipeline generic = ValidationPipeline.generic();
+        ValidationPipeline rareDisease = PhenopacketValidator.pipelineFor(PhenopacketValidator.ValidationType.RARE_DISEASE_VALIDATION);
+        // the additional schemas apply to requests with and without the rare-disease constraints
+        for (String schemaPath : schemas.split(",")) {
+            if (! schemaPath.isBlank()) {
+                JsonSchemaValidator schema = AdditionalJsonFileJsonSchemaValidator.forSchemaFile(new File(schemaPath.trim()));
+                generic = generic.with(schema);
+                rareDisease = rareDisease.with(schema);
+            }
+        }
+        this.genericPipeline = rules ? generic.with(RuleEngine.generic()) : generic;
+        this.rareDiseasePipeline = rules ? rareDisease.with(RuleEngine.rareDisease()) : rareDisease;
+        if (maxConcurrentRequests < 1) {
+            maxConcurrentRequests = Runtime.getRuntime().availableProcessors();
+        }
+        this.requestPermits = new Semaphore(maxConcurrentRequests);
+        this.maxRequestBytes = maxRequestBytes;
+        LOG.info("Validating with up to {} concurrent requests of at most {} bytes", maxConcurrentRequests, maxRequestBytes);
+    }
+
+    public long maxRequestBytes() {
+        return maxRequestBytes;
+    }
+
+    public ValidationResult validate(JsonNode phenopacket, boolean rare) {
+        try (Permit ignored = acquire()) {
+            ValidationMetrics metrics = ValidationMetrics.global();
+            long start = metrics.startTimer();
+            ValidationResult result = new ValidationResult("request", pipeline(rare).validate(phenopacket));
+            metrics.record(Stage.DOCUMENT, start);
+            metrics.recordDocument(result.isValid());
+            return result;
+        }
+    }
+
+    /**
+     * Validate a stream of documents (NDJSON, concatenated JSON or a JSON array) record by record.
+     */
+    public BatchSummary validateStream(InputStream documents, boolean rare, Consumer<ValidationResult> listener) throws IOException {
+        try (Permit ignored = acquire()) {
+            return new StreamingValidator(pipeline(rare)).validate(documents, "request", listener);
+        }
+    }
+
+    /**
+     * @return the pipelines that requests are validated with
+     */
+    public List<ValidationPipeline> pipelines() {
+        return List.of(genericPipeline, rareDiseasePipeline);
+    }
+
+    private ValidationPipeline pipeline(boolean rare) {
+        return rare ? rareDiseasePipeline : genericPipeline;
+    }
+
+    private Permit acquire() {
+        if (! requestPermits.tryAcquire()) {
+            throw new ServerBusyException();
+        }
+        return requestPermits::release;
+    }
+
+    private interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,97 @@
+package org.phenopackets.schema.validator.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@code coordinate} command with two worker processes on this machine, as the launcher would be run on
+ * a cluster, and compares the merged report with the report of a single process.
+ */
+public class DistributedValidationTest {
+
+    private static final String VALID = "{\"id\": \"world\", \"metaData\": {\"created\": \"2021-07-01T19:32:35Z\", " +
+            "\"createdBy\": \"Peter R.\", \"phenopacketSchemaVersion\": \"2.0\", \"resources\": [{\"id\": \"hp\", " +
+            "\"name\": \"human phenotype ontology\", \"url\": \"http://purl.obolibrary.org/obo/hp.owl\", " +
+            "\"version\": \"2018-03-08\", \"namespacePrefix\": \"HP\", \"iriPrefix\": \"http://purl.obolibrary.org/obo/HP_\"}]}}";
+    private static final String INVALID = "{\"disney\": \"donald\"}";
+    private static final int DOCUMENTS = 30;
+
+    private static Path createInputs(Path root) throws IOException {
+        Path inputs = Files.createDirectories(root.resolve("inputs"));
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Files.writeString(inputs.resolve("doc" + i + ".json"), i % 5 == 0 ? INVALID : VALID);
+        }
+        return inputs;
+    }
+
+    private static int launch(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ValidatorLauncher.class.getName());
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        assertTrue(process.waitFor(120, TimeUnit.SECONDS), "validator did not exit");
+        return process.exitValue();
+    }
+
+    private static List<String> sortedLines(Path report) throws IOException {
+        return Files.readAllLines(report).stream().sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testMergedReportEqualsSingleProcessReport(@TempDir Path tempDir) throws Exception {
+        Path inputs = createInputs(tempDir);
+        Path single = tempDir.resolve("single.jsonl");
+        Path merged = tempDir.resolve("merged.jsonl");
+        Path workDir = tempDir.resolve("run");
+        assertEquals(1, launch("--format", "JSONL", "-o", single.toString(), inputs.toString()));
+        assertEquals(1, launch("--format", "JSONL", "-o", merged.toString(), inputs.toString(),
+                "coordinate", "--work-dir", workDir.toString(), "--shards", "5", "--workers", "2"));
+        assertEquals(DOCUMENTS, Files.readAllLines(merged).size());
+        assertEquals(sortedLines(single), sortedLines(merged));
+
+        // a completed run is merged again without starting any worker
+        for (int shard = 0; shard < 5; shard++) {
+            Files.deleteIfExists(workDir.resolve(String.format("shard-%04d.log", shard)));
+        }
+        assertEquals(1, launch("--format", "JSONL", "-o", merged.toString(), inputs.toString(),
+                "coordinate", "--work-dir", workDir.toString(), "--shards", "5"));
+        assertEquals(sortedLines(single), sortedLines(merged));
+        for (int shard = 0; shard < 5; shard++) {
+            assertTrue(Files.notExists(workDir.resolve(String.format("shard-%04d.log", shard))));
+        }
+    }
+
+    @Test
+    public void testOptionsThatWorkersCannotApplyAreRejected(@TempDir Path tempDir) throws Exception {
+        Path inputs = createInputs(tempDir);
+        for (String option : List.of("--ndjson", "--members", "--max-invalid=1")) {
+            assertEquals(2, launch(option, inputs.toString(), "coordinate", "--work-dir", tempDir.resolve("run").toString()), option);
+        }
+    }
+
+    @Test
+    public void testArgumentsAreQuotedForTheRemoteShell() {
+        assertEquals("--glob", CoordinateCommand.shellQuote("--glob"));
+        assertEquals("'*.json'", CoordinateCommand.shellQuote("*.json"));
+        assertEquals("'/data/my files'", CoordinateCommand.shellQuote("/data/my files"));
+        assertEquals("'it'\\''s'", CoordinateCommand.shellQuote("it's"));
+        assertEquals("''", CoordinateCommand.shellQuote(""));
+    }
+}
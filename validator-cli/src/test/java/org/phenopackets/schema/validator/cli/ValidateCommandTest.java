@@ -0,0 +1,49 @@
+package org.phenopackets.schema.validator.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.PhenopacketValidator;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ValidateCommandTest {
+
+    private static final String VALID = "{\"id\": \"world\", \"metaData\": {\"created\": \"2021-07-01T19:32:35Z\", " +
+            "\"createdBy\": \"Peter R.\", \"phenopacketSchemaVersion\": \"2.0\", \"resources\": [{\"id\": \"hp\", " +
+            "\"name\": \"human phenotype ontology\", \"url\": \"http://purl.obolibrary.org/obo/hp.owl\", " +
+            "\"version\": \"2018-03-08\", \"namespacePrefix\": \"HP\", \"iriPrefix\": \"http://purl.obolibrary.org/obo/HP_\"}]}}";
+    private static final String INVALID = "{\"disney\": \"donald\"}";
+
+    @Test
+    public void testStreamsAreReadFromManifests(@TempDir Path tempDir) throws Exception {
+        Path stream = Files.writeString(tempDir.resolve("records.ndjson"), VALID + "\n" + INVALID + "\n" + VALID + "\n");
+        Path manifest = Files.writeString(tempDir.resolve("manifest.txt"), stream + "\n");
+        Path report = tempDir.resolve("report.jsonl");
+        assertEquals(1, ValidatorLauncher.run("--ndjson", "-m", manifest.toString(), "--format", "JSONL", "-o", report.toString()));
+        assertEquals(3, Files.readAllLines(report).size());
+    }
+
+    @Test
+    public void testConflictingStreamOptionsAreUsageErrors(@TempDir Path tempDir) throws Exception {
+        Path stream = Files.writeString(tempDir.resolve("records.ndjson"), VALID + "\n");
+        assertEquals(2, ValidatorLauncher.run("--ndjson", "--members", stream.toString()));
+        assertEquals(2, ValidatorLauncher.run("--ndjson", "--stdin", "-"));
+    }
+
+    @Test
+    public void testAdditionalSchemasApplyWithRareDiseaseConstraints(@TempDir Path tempDir) throws Exception {
+        Path schema = Files.writeString(tempDir.resolve("custom.json"), "{\"title\": \"custom\", \"type\": \"object\", " +
+                "\"required\": [\"subject\"]}");
+        ValidateCommand command = new ValidateCommand();
+        new CommandLine(command).parseArgs("--rare", "-s", schema.toString());
+        ValidationPipeline pipeline = command.createPipeline();
+        ValidationPipeline rareDisease = PhenopacketValidator.pipelineFor(PhenopacketValidator.ValidationType.RARE_DISEASE_VALIDATION);
+        assertEquals(rareDisease.validators().size() + 1, pipeline.validators().size());
+        assertEquals("custom", pipeline.validators().get(pipeline.validators().size() - 1).name());
+    }
+}
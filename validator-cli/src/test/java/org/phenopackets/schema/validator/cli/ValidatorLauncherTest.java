@@ -0,0 +1,89 @@
+package org.phenopackets.schema.validator.cli;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts {@link ValidatorLauncher} in a fresh JVM, as a per-file CI hook would. The wall-clock time until the process
+ * has exited depends on the machine, so the test that measures it is tagged {@code performance} and only runs with
+ * the {@code performance} profile.
+ * <p>
+ * The default time limit is generous, because the test JVM runs from the test class path without a class-data
+ * sharing archive. To check the target of the {@code fast-start} build, run for example
+ * <pre>
+ * mvn test -Pperformance -pl validator-cli -Dtest=ValidatorLauncherTest -Dvalidator.startup.budget.ms=300 \
+ *     -Dvalidator.startup.jvm.args=-XX:SharedArchiveFile=target/validator-cli.jsa
+ * </pre>
+ */
+public class ValidatorLauncherTest {
+
+    private static final String VALID = "{\"id\": \"world\", \"metaData\": {\"created\": \"2021-07-01T19:32:35Z\", " +
+            "\"createdBy\": \"Peter R.\", \"phenopacketSchemaVersion\": \"2.0\", \"resources\": [{\"id\": \"hp\", " +
+            "\"name\": \"human phenotype ontology\", \"url\": \"http://purl.obolibrary.org/obo/hp.owl\", " +
+            "\"version\": \"2018-03-08\", \"namespacePrefix\": \"HP\", \"iriPrefix\": \"http://purl.obolibrary.org/obo/HP_\"}]}}";
+
+    private static final long BUDGET_MILLIS = Long.getLong("validator.startup.budget.ms", 3000);
+    private static final int RUNS = 3;
+
+    private static Process launch(Path classLog, Path phenopacket) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        String jvmArgs = System.getProperty("validator.startup.jvm.args", "");
+        if (! jvmArgs.isBlank()) {
+            command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        }
+        command.add("-Xlog:class+load=info:file=" + classLog);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ValidatorLauncher.class.getName());
+        command.add("--quiet");
+        command.add(phenopacket.toString());
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    @Test
+    @Tag("performance")
+    public void testSingleFileColdStart(@TempDir Path tempDir) throws Exception {
+        Path phenopacket = Files.writeString(tempDir.resolve("phenopacket.json"), VALID);
+        Path classLog = tempDir.resolve("classes.log");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            Process process = launch(classLog, phenopacket);
+            assertTrue(process.waitFor(60, TimeUnit.SECONDS), "launcher did not exit");
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertEquals(0, process.exitValue());
+            best = Math.min(best, millis);
+        }
+        assertTrue(best <= BUDGET_MILLIS, "cold start took " + best + " ms (best of " + RUNS + "), budget is " + BUDGET_MILLIS + " ms");
+    }
+
+    @Test
+    public void testSpringIsNotLoaded(@TempDir Path tempDir) throws Exception {
+        Path phenopacket = Files.writeString(tempDir.resolve("phenopacket.json"), VALID);
+        Path classLog = tempDir.resolve("classes.log");
+        Process process = launch(classLog, phenopacket);
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS), "launcher did not exit");
+        assertEquals(0, process.exitValue());
+        List<String> loaded = Files.readAllLines(classLog);
+        assertTrue(loaded.size() > 100, "no classes were logged to " + classLog);
+        // the @Component annotation of the commands may be loaded when picocli reads their annotations
+        assertTrue(loaded.stream().noneMatch(line -> line.contains(" org.springframework.boot.") || line.contains(" org.springframework.context.")),
+                "Spring was started by the launcher");
+    }
+}
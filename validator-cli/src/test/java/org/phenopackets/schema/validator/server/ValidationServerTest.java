@@ -0,0 +1,124 @@
+package org.phenopackets.schema.validator.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the validation server on a random port and talks to it over HTTP.
+ */
+public class ValidationServerTest {
+
+    private static final String VALID = "{\"id\": \"world\", \"metaData\": {\"created\": \"2021-07-01T19:32:35Z\", " +
+            "\"createdBy\": \"Peter R.\", \"phenopacketSchemaVersion\": \"2.0\", \"resources\": [{\"id\": \"hp\", " +
+            "\"name\": \"human phenotype ontology\", \"url\": \"http://purl.obolibrary.org/obo/hp.owl\", " +
+            "\"version\": \"2018-03-08\", \"namespacePrefix\": \"HP\", \"iriPrefix\": \"http://purl.obolibrary.org/obo/HP_\"}]}}";
+    private static final String INVALID = "{\"disney\": \"donald\"}";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    private static ConfigurableApplicationContext context;
+    private static String baseUrl;
+
+    @BeforeAll
+    public static void startServer() {
+        context = ValidationServerApplication.start(0, 2, 4096, List.of(), false);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        context.close();
+    }
+
+    private static HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testValidPhenopacket() throws Exception {
+        HttpResponse<String> response = post("/validate", VALID);
+        assertEquals(200, response.statusCode());
+        JsonNode result = OBJECT_MAPPER.readTree(response.body());
+        assertTrue(result.get("valid").asBoolean());
+        assertEquals(0, result.get("errors").size());
+    }
+
+    @Test
+    public void testInvalidPhenopacket() throws Exception {
+        HttpResponse<String> response = post("/validate", INVALID);
+        JsonNode result = OBJECT_MAPPER.readTree(response.body());
+        assertFalse(result.get("valid").asBoolean());
+        assertEquals(3, result.get("errors").size());
+        assertEquals("JSON_REQUIRED", result.get("errors").get(0).get("errorType").asText());
+    }
+
+    @Test
+    public void testSingleDocumentsAreCounted() throws Exception {
+        ValidationMetrics metrics = ValidationMetrics.global();
+        long documents = metrics.documents();
+        long invalidDocuments = metrics.invalidDocuments();
+        post("/validate", VALID);
+        post("/validate", INVALID);
+        assertEquals(documents + 2, metrics.documents());
+        assertEquals(invalidDocuments + 1, metrics.invalidDocuments());
+    }
+
+    @Test
+    public void testRareDiseaseConstraints() throws Exception {
+        JsonNode result = OBJECT_MAPPER.readTree(post("/validate?rare=true", VALID).body());
+        assertFalse(result.get("valid").asBoolean());
+        assertEquals(2, result.get("errors").size());
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        JsonNode results = OBJECT_MAPPER.readTree(post("/validate/batch", "[" + VALID + "," + INVALID + "]").body());
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).get("valid").asBoolean());
+        assertFalse(results.get(1).get("valid").asBoolean());
+    }
+
+    @Test
+    public void testNdjson() throws Exception {
+        HttpResponse<String> response = post("/validate/ndjson", VALID + "\n" + INVALID + "\n" + VALID + "\n");
+        String[] lines = response.body().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].startsWith("{"), lines[1]);
+        assertEquals("request[1]@2", OBJECT_MAPPER.readTree(lines[1]).get("source").asText());
+    }
+
+    @Test
+    public void testRequestSizeCap() throws Exception {
+        String body = VALID.repeat(20);
+        assertTrue(body.length() > 4096);
+        HttpResponse<String> response = post("/validate", body);
+        assertEquals(413, response.statusCode());
+    }
+
+    @Test
+    public void testContentAfterTheDocumentIsRefused() throws Exception {
+        JsonNode result = OBJECT_MAPPER.readTree(post("/validate", VALID + VALID).body());
+        assertFalse(result.get("valid").asBoolean());
+        assertEquals("UNREADABLE_DOCUMENT", result.get("errors").get(0).get("errorType").asText());
+    }
+}
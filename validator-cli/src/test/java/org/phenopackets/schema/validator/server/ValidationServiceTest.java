@@ -0,0 +1,29 @@
+package org.phenopackets.schema.validator.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.rules.RuleEngine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ValidationServiceTest {
+
+    @Test
+    public void testAdditionalSchemasApplyToBothPipelines(@TempDir Path tempDir) throws Exception {
+        Path schema = Files.writeString(tempDir.resolve("extra.json"), "{\"title\": \"extra\", \"type\": \"object\"}");
+        ValidationService service = new ValidationService(1, 4096, " " + schema + " ,", true);
+        ValidationPipeline generic = service.pipelines().get(0);
+        ValidationPipeline rareDisease = service.pipelines().get(1);
+        assertEquals(3, generic.validators().size());
+        assertEquals("extra", generic.validators().get(1).name());
+        assertTrue(generic.validators().get(2) instanceof RuleEngine);
+        assertEquals(4, rareDisease.validators().size());
+        assertEquals("extra", rareDisease.validators().get(2).name());
+        assertTrue(rareDisease.validators().get(3) instanceof RuleEngine);
+    }
+}
@@ -1,9 +1,8 @@
 package org.phenopackets.schema.validator.core;
 
 import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
-import org.phenopackets.schema.validator.core.jsonschema.AdditionalJsonFileJsonSchemaValidator;
-import org.phenopackets.schema.validator.core.jsonschema.HpoRareDiseaseJsonSchemaValidator;
-import org.phenopackets.schema.validator.core.jsonschema.JsonSchemaValidator;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
 import org.phenopackets.schema.validator.core.validation.ValidationItem;
 
 import java.io.File;
@@ -24,9 +23,7 @@ public enum ValidationType { GENERIC, RARE_DISEASE_VALIDATION}
     private final File phenopacket;
 
     public PhenopacketValidator(String phenopacketPath) {
-        phenopacket = initPhenopacketFile(phenopacketPath);
-        validationErrors = genericValidation();
-
+        this(phenopacketPath, ValidationPipeline.generic());
     }
 
     /** Can be used to validate a Phenopacket against the built-in additional JSON-Schema files,
@@ -35,15 +32,7 @@ public PhenopacketValidator(String phenopacketPath) {
      * @param validationType One of the built-in types, see {@link ValidationType}.
      */
     public PhenopacketValidator(String phenopacketPath, ValidationType validationType) {
-        phenopacket = initPhenopacketFile(phenopacketPath);
-        validationErrors = genericValidation();
-
-        switch (validationType) {
-            case RARE_DISEASE_VALIDATION:
-                List<ValidationItem> specErrors = hpoRareDiseaseValidation();
-                validationErrors.addAll(specErrors);
-                break;
-        }
+        this(phenopacketPath, pipelineFor(validationType));
     }
 
     /**
@@ -52,21 +41,42 @@ public PhenopacketValidator(String phenopacketPath, ValidationType validationTyp
      * @param jsonSchemPaths Paths to user-defined JSON Schema files
      */
     public PhenopacketValidator(String phenopacketPath, String... jsonSchemPaths) {
+        this(phenopacketPath, ValidationPipeline.withAdditionalSchemas(jsonSchemPaths));
+    }
+
+    /**
+     * Validate a phenopacket with a pipeline that was set up by the caller. The file is read and parsed once no
+     * matter how many schemas the pipeline contains, and the same pipeline can be reused for any number of files.
+     * @param phenopacketPath Path to the phenopacket file
+     * @param pipeline the schemas to apply
+     */
+    public PhenopacketValidator(String phenopacketPath, ValidationPipeline pipeline) {
         phenopacket = initPhenopacketFile(phenopacketPath);
-        validationErrors = genericValidation();
-        for (String jsonPath : jsonSchemPaths) {
-            List<ValidationItem> specErrors = additionalValidation(jsonPath);
-            validationErrors.addAll(specErrors);
-        }
+        validationErrors = pipeline.validate(phenopacket);
     }
 
-    private List<ValidationItem> additionalValidation(String jsonPath) {
-        File jsonFile = new File(jsonPath);
-        if (! jsonFile.isFile()) {
-            throw new PhenopacketValidatorRuntimeException("Could not find input json file \"" + jsonFile.getAbsolutePath() + "\"");
+    /**
+     * Validate a phenopacket that is not a file of its own, e.g. an entry of an archive or a document in memory.
+     * @param source the phenopacket
+     * @param pipeline the schemas to apply
+     */
+    public PhenopacketValidator(DocumentSource source, ValidationPipeline pipeline) {
+        phenopacket = null;
+        validationErrors = pipeline.validate(source);
+    }
+
+    /**
+     * @param validationType One of the built-in types, see {@link ValidationType}.
+     * @return pipeline with the schemas that correspond to the validation type
+     */
+    public static ValidationPipeline pipelineFor(ValidationType validationType) {
+        switch (validationType) {
+            case RARE_DISEASE_VALIDATION:
+                return ValidationPipeline.rareDisease();
+            case GENERIC:
+            default:
+                return ValidationPipeline.generic();
         }
-        JsonSchemaValidator validator = new AdditionalJsonFileJsonSchemaValidator(phenopacket, jsonFile);
-        return validator.validate();
     }
 
     /**
@@ -82,21 +92,6 @@ File initPhenopacketFile(String phenopacketPath) {
         return f;
     }
 
-    /**
-     * Validate the Phenopacket file against the generic JSON Schema
-     */
-    private List<ValidationItem> genericValidation() {
-        JsonSchemaValidator jsonSchemaValidator = new JsonSchemaValidator(phenopacket);
-        return jsonSchemaValidator.validate();
-    }
-    /**
-     * Validate the Phenopacket file for HPO-rare disease specific requirements.
-     */
-    private List<ValidationItem> hpoRareDiseaseValidation() {
-        JsonSchemaValidator hpoRareDiseaseValidator = new HpoRareDiseaseJsonSchemaValidator(phenopacket);
-        return hpoRareDiseaseValidator.validate();
-    }
-
     public List<? extends ValidationItem> getValidationErrors() {
         return validationErrors;
     }
@@ -0,0 +1,211 @@
+package org.phenopackets.schema.validator.core.async;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.phenopackets.schema.validator.core.batch.BatchValidator;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.metrics.Stage;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Validates phenopackets on an {@link Executor} chosen by the caller, e.g. a pool of the embedding service or, on
+ * newer JDKs, a virtual-thread-per-task executor, and returns the results as {@link CompletableFuture}s or as a
+ * {@link Flow.Publisher}. The pipeline, its compiled schemas and the JSON parsers are shared by all documents; they
+ * are safe to use from any number of threads.
+ * <p>
+ * Each document can be cancelled, and can have a time limit, after which its future completes exceptionally with a
+ * {@link TimeoutException}. A document that is cancelled or times out before a thread has picked it up is never
+ * validated. If it is already being validated, its thread is interrupted, which stops reading from interruptible
+ * channels such as those of {@link java.nio.file.Files}; the evaluation of a schema is not interruptible and runs to
+ * the end, but its result is discarded. Documents that cannot be read or parsed complete normally with an
+ * {@link ErrorType#UNREADABLE_DOCUMENT} error, as in a {@link BatchValidator}.
+ */
+public class AsyncValidator {
+
+    private final ValidationPipeline pipeline;
+    private final Executor executor;
+    private final BatchValidator documentValidator;
+    /** Time limit of each document, {@code null} for none. */
+    private final Duration timeout;
+
+    /**
+     * @param pipeline validates each document
+     * @param executor runs the validations
+     */
+    public AsyncValidator(ValidationPipeline pipeline, Executor executor) {
+        this(pipeline, executor, null);
+    }
+
+    /**
+     * @param pipeline validates each document
+     * @param executor runs the validations
+     * @param timeout time limit of each document, from the moment it is submitted, {@code null} for none
+     */
+    public AsyncValidator(ValidationPipeline pipeline, Executor executor, Duration timeout) {
+        if (timeout != null && (timeout.isZero() || timeout.isNegative())) {
+            throw new IllegalArgumentException("Timeout must be positive but was " + timeout);
+        }
+        this.pipeline = pipeline;
+        this.executor = executor;
+        this.documentValidator = new BatchValidator(pipeline);
+        this.timeout = timeout;
+    }
+
+    public ValidationPipeline pipeline() {
+        return pipeline;
+    }
+
+    /**
+     * @return time limit of each document, {@code null} if there is none
+     */
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /**
+     * @param source the document
+     * @return the result, completed on a thread of the executor
+     */
+    public CompletableFuture<ValidationResult> validate(DocumentSource source) {
+        return validate(source, timeout);
+    }
+
+    /**
+     * @param source the document
+     * @param timeout time limit of this document, {@code null} for none
+     * @return the result, completed on a thread of the executor, or exceptionally with a {@link TimeoutException}
+     */
+    public CompletableFuture<ValidationResult> validate(DocumentSource source, Duration timeout) {
+        return submit(() -> documentValidator.validateDocument(source), timeout);
+    }
+
+    /**
+     * @param name name of the document in the result
+     * @param phenopacket a phenopacket that has already been parsed
+     * @return the result, completed on a thread of the executor
+     */
+    public CompletableFuture<ValidationResult> validate(String name, JsonNode phenopacket) {
+        return submit(() -> validateTree(name, phenopacket), timeout);
+    }
+
+    /**
+     * Validate the documents of a source as a subscriber requests them. Each subscription reads the sources afresh.
+     * At most {@code maxInFlight} documents are validated at the same time, and no more than the subscriber has
+     * requested, so a slow subscriber slows down the reading of the sources. Results are published in the order in
+     * which they complete; a document that exceeds the time limit is published with an
+     * {@link ErrorType#VALIDATION_TIMEOUT} error. Cancelling the subscription cancels the documents in flight.
+     * @param sources the documents
+     * @param maxInFlight maximum number of documents that are validated at the same time
+     * @return publisher of one result per document
+     */
+    public Flow.Publisher<ValidationResult> publisher(Iterable<? extends DocumentSource> sources, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Maximum number of documents in flight must be positive but was " + maxInFlight);
+        }
+        return subscriber -> new ValidationSubscription(this, sources.iterator(), maxInFlight, subscriber).start();
+    }
+
+    /**
+     * @return result of a source that did not finish within the time limit
+     */
+    ValidationResult timeoutResult(DocumentSource source) {
+        String problem = "validation did not finish within " + timeout.toMillis() + " ms";
+        return new ValidationResult(source.name(), List.of(new ValidationError(ErrorType.VALIDATION_TIMEOUT, problem)));
+    }
+
+    private ValidationResult validateTree(String name, JsonNode phenopacket) {
+        ValidationMetrics metrics = ValidationMetrics.global();
+        long start = metrics.startTimer();
+        List<ValidationItem> items;
+        try {
+            items = pipeline.validate(phenopacket);
+        } catch (PhenopacketValidatorRuntimeException e) {
+            items = List.of(new ValidationError(ErrorType.UNREADABLE_DOCUMENT, e.getMessage()));
+        }
+        ValidationResult result = new ValidationResult(name, items);
+        metrics.record(Stage.DOCUMENT, start);
+        metrics.recordDocument(result.isValid());
+        return result;
+    }
+
+    private CompletableFuture<ValidationResult> submit(Supplier<ValidationResult> validation, Duration timeout) {
+        Task task = new Task(validation);
+        if (timeout != null) {
+            task.future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.future.completeExceptionally(e);
+        }
+        return task.future;
+    }
+
+    /**
+     * A document waiting for or being validated. The future may be completed by the caller (cancellation) or by the
+     * timeout while the task waits or runs; the runner is then interrupted and its result discarded.
+     */
+    private static final class Task implements Runnable {
+
+        private final Supplier<ValidationResult> validation;
+        private final CompletableFuture<ValidationResult> future = new CompletableFuture<>();
+        /** The thread that validates the document, guarded by this. */
+        private Thread runner;
+        /** Whether the runner was interrupted for this document, guarded by this. */
+        private boolean interrupted = false;
+
+        private Task(Supplier<ValidationResult> validation) {
+            this.validation = validation;
+            future.whenComplete((result, e) -> {
+                if (e != null) {
+                    interruptRunner();
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            try {
+                future.complete(validation.get());
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // an interrupt that was meant for this document must not hit the next task of the thread
+                    if (interrupted) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        private synchronized void interruptRunner() {
+            if (runner != null) {
+                interrupted = true;
+                runner.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.phenopackets.schema.validator.core.async;
+
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Subscription of a publisher made by {@link AsyncValidator#publisher(Iterable, int)}. All signals to the subscriber,
+ * and all reads of the sources, happen in {@link #drain()}, which only one thread runs at a time; any thread that
+ * changes the state (a request, a completed document or a cancellation) calls it, and the thread already in it
+ * repeats its loop for the others.
+ */
+final class ValidationSubscription implements Flow.Subscription {
+
+    private final AsyncValidator validator;
+    private final Iterator<? extends DocumentSource> sources;
+    private final int maxInFlight;
+    private final Flow.Subscriber<? super ValidationResult> subscriber;
+
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<ValidationResult> completed = new ConcurrentLinkedQueue<>();
+    private final Map<CompletableFuture<ValidationResult>, Boolean> futures = new ConcurrentHashMap<>();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    private volatile boolean cancelled = false;
+    private volatile Throwable failure;
+    /** Only accessed in {@link #drain()}. */
+    private boolean exhausted = false;
+    /** Only accessed in {@link #drain()}. */
+    private boolean terminated = false;
+
+    ValidationSubscription(AsyncValidator validator, Iterator<? extends DocumentSource> sources, int maxInFlight,
+                           Flow.Subscriber<? super ValidationResult> subscriber) {
+        this.validator = validator;
+        this.sources = sources;
+        this.maxInFlight = maxInFlight;
+        this.subscriber = subscriber;
+    }
+
+    void start() {
+        subscriber.onSubscribe(this);
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            failure = new IllegalArgumentException("The number of requested results must be positive but was " + n);
+        } else {
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        drain();
+    }
+
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            drainOnce();
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drainOnce() {
+        if (terminated) {
+            return;
+        }
+        if (cancelled) {
+            terminate();
+            return;
+        }
+        if (failure != null) {
+            terminate();
+            subscriber.onError(failure);
+            return;
+        }
+        ValidationResult result;
+        while (demand.get() > 0 && (result = completed.poll()) != null) {
+            demand.decrementAndGet();
+            subscriber.onNext(result);
+            if (cancelled) {
+                terminate();
+                return;
+            }
+        }
+        while (! exhausted && inFlight.get() < maxInFlight && demand.get() > inFlight.get() + completed.size()) {
+            DocumentSource source;
+            try {
+                if (! sources.hasNext()) {
+                    exhausted = true;
+                    break;
+                }
+                source = sources.next();
+            } catch (RuntimeException e) {
+                terminate();
+                subscriber.onError(e);
+                return;
+            }
+            inFlight.incrementAndGet();
+            CompletableFuture<ValidationResult> future = validator.validate(source);
+            futures.put(future, Boolean.TRUE);
+            future.whenComplete((r, e) -> complete(source, future, r, e));
+        }
+        // a completion enqueues its result before it leaves the documents in flight
+        if (exhausted && inFlight.get() == 0 && completed.isEmpty()) {
+            terminate();
+            subscriber.onComplete();
+        }
+    }
+
+    private void complete(DocumentSource source, CompletableFuture<ValidationResult> future, ValidationResult result, Throwable e) {
+        futures.remove(future);
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (result != null) {
+            completed.add(result);
+        } else if (cause instanceof TimeoutException) {
+            completed.add(validator.timeoutResult(source));
+        } else if (! (cause instanceof CancellationException)) {
+            failure = cause;
+        }
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    /** Cancel the documents in flight; no signal may follow except the final onError or onComplete. */
+    private void terminate() {
+        terminated = true;
+        cancelled = true;
+        futures.keySet().forEach(f -> f.cancel(true));
+        completed.clear();
+    }
+}
@@ -0,0 +1,85 @@
+package org.phenopackets.schema.validator.core.batch;
+
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.stream.Stream;
+
+/**
+ * Static methods that produce the paths of the documents of a batch. All methods return lazily populated streams, so
+ * that very large directories or manifests are never held in memory. The streams must be closed by the caller.
+ */
+public final class BatchInputs {
+
+    /** Glob that is used for directories if no other glob is given. */
+    public static final String DEFAULT_GLOB = "*.json";
+
+    private BatchInputs() {
+    }
+
+    /**
+     * @param root a file or a directory
+     * @param glob a glob that is matched against the file names found below a directory, e.g. {@code *.json}
+     * @return {@code root} itself if it is a file, otherwise all regular files below {@code root} (recursively) whose
+     * name matches {@code glob}
+     */
+    public static Stream<Path> walk(Path root, String glob) {
+        if (Files.isRegularFile(root)) {
+            return Stream.of(root);
+        }
+        if (! Files.isDirectory(root)) {
+            throw new PhenopacketValidatorRuntimeException("Could not find file or directory \"" + root + "\"");
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        try {
+            return Files.walk(root)
+                    .filter(Files::isRegularFile)
+                    .filter(p -> matcher.matches(p.getFileName()));
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read directory \"" + root + "\"", e);
+        }
+    }
+
+    /**
+     * Read a manifest, i.e. a text file with one path per line. Blank lines and lines starting with {@code #} are
+     * skipped and relative paths are resolved against the directory of the manifest.
+     * @param manifest path to the manifest file
+     * @return the paths listed in the manifest
+     */
+    public static Stream<Path> fromManifest(Path manifest) {
+        Path base = manifest.toAbsolutePath().getParent();
+        try {
+            return paths(Files.lines(manifest)).map(base::resolve);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read manifest \"" + manifest + "\"", e);
+        }
+    }
+
+    /**
+     * Read a list of paths, one per line, for instance from standard input. Blank lines and lines starting with
+     * {@code #} are skipped.
+     * @param reader source of the path list
+     * @return the listed paths
+     */
+    public static Stream<Path> fromReader(BufferedReader reader) {
+        return paths(reader.lines()).onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static Stream<Path> paths(Stream<String> lines) {
+        return lines.map(String::trim)
+                .filter(line -> ! line.isEmpty() && ! line.startsWith("#"))
+                .map(Path::of);
+    }
+}
@@ -0,0 +1,72 @@
+package org.phenopackets.schema.validator.core.batch;
+
+/**
+ * Settings for a {@link BatchValidator}.
+ */
+public final class BatchOptions {
+
+    private final int threads;
+    private final int queueCapacity;
+    private final long maxInvalidDocuments;
+
+    /**
+     * @param threads number of worker threads that validate documents in parallel
+     * @param queueCapacity maximum number of documents that may wait for a free worker. Reading of the inputs is
+     *                      paused while the queue is full, so the memory use does not depend on the size of the batch.
+     */
+    public BatchOptions(int threads, int queueCapacity) {
+        this(threads, queueCapacity, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param threads number of worker threads
+     * @param queueCapacity maximum number of documents that may wait for a free worker
+     * @param maxInvalidDocuments the batch stops once this many documents were found to be invalid. Documents that
+     *                            are still waiting in the queue are then skipped.
+     */
+    public BatchOptions(int threads, int queueCapacity, long maxInvalidDocuments) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive but was " + threads);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive but was " + queueCapacity);
+        }
+        if (maxInvalidDocuments < 1) {
+            throw new IllegalArgumentException("Maximum number of invalid documents must be positive but was " + maxInvalidDocuments);
+        }
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.maxInvalidDocuments = maxInvalidDocuments;
+    }
+
+    /**
+     * @return one worker per available processor and a queue of four documents per worker
+     */
+    public static BatchOptions defaults() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        return new BatchOptions(threads, 4 * threads);
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    public int queueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return number of invalid documents after which the batch stops, {@link Long#MAX_VALUE} if it never stops early
+     */
+    public long maxInvalidDocuments() {
+        return maxInvalidDocuments;
+    }
+
+    /**
+     * @param maxInvalidDocuments number of invalid documents after which the batch stops
+     * @return options with the same pool and queue sizes and the given budget
+     */
+    public BatchOptions withMaxInvalidDocuments(long maxInvalidDocuments) {
+        return new BatchOptions(threads, queueCapacity, maxInvalidDocuments);
+    }
+}
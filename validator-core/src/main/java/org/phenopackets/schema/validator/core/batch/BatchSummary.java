@@ -0,0 +1,89 @@
+package org.phenopackets.schema.validator.core.batch;
+
+/**
+ * Aggregate outcome of a batch run.
+ */
+public final class BatchSummary {
+
+    private final long documents;
+    private final long invalidDocuments;
+    private final long errors;
+    private final long elapsedMillis;
+    private final boolean stoppedEarly;
+
+    public BatchSummary(long documents, long invalidDocuments, long errors, long elapsedMillis) {
+        this(documents, invalidDocuments, errors, elapsedMillis, false);
+    }
+
+    public BatchSummary(long documents, long invalidDocuments, long errors, long elapsedMillis, boolean stoppedEarly) {
+        this.documents = documents;
+        this.invalidDocuments = invalidDocuments;
+        this.errors = errors;
+        this.elapsedMillis = elapsedMillis;
+        this.stoppedEarly = stoppedEarly;
+    }
+
+    /**
+     * @return number of documents that were validated
+     */
+    public long documents() {
+        return documents;
+    }
+
+    public long validDocuments() {
+        return documents - invalidDocuments;
+    }
+
+    /**
+     * @return number of documents with at least one error, including documents that could not be read
+     */
+    public long invalidDocuments() {
+        return invalidDocuments;
+    }
+
+    /**
+     * @return total number of errors over all documents
+     */
+    public long errors() {
+        return errors;
+    }
+
+    public long elapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return {@code true} if the run stopped because the maximum number of invalid documents was reached, so that
+     * some documents were not validated
+     */
+    public boolean stoppedEarly() {
+        return stoppedEarly;
+    }
+
+    public double documentsPerSecond() {
+        return elapsedMillis == 0 ? documents * 1000.0 : documents * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * @return process exit code for the batch: 0 if all documents are valid and 1 otherwise
+     */
+    public int exitCode() {
+        return invalidDocuments == 0 ? 0 : 1;
+    }
+
+    /**
+     * @param other summary of another part of the same run
+     * @return summary with the counts and elapsed time of both parts added up
+     */
+    public BatchSummary plus(BatchSummary other) {
+        return new BatchSummary(documents + other.documents, invalidDocuments + other.invalidDocuments,
+                errors + other.errors, elapsedMillis + other.elapsedMillis, stoppedEarly || other.stoppedEarly);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d document(s) validated in %d ms (%.1f/s): %d valid, %d invalid, %d error(s)%s",
+                documents, elapsedMillis, documentsPerSecond(), validDocuments(), invalidDocuments, errors,
+                stoppedEarly ? " - stopped early after too many invalid documents" : "");
+    }
+}
@@ -0,0 +1,225 @@
+package org.phenopackets.schema.validator.core.batch;
+
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.metrics.Stage;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Validates many documents in parallel with a single {@link ValidationPipeline}. Documents are handed to a fixed pool
+ * of worker threads through a bounded queue: when the queue is full, reading of further inputs blocks until a worker
+ * becomes free. A document that cannot be read or parsed does not stop the batch but is reported as a result with an
+ * {@link ErrorType#UNREADABLE_DOCUMENT} error. If {@link BatchOptions#maxInvalidDocuments()} is set, no further
+ * documents are read or validated once that many invalid documents have been found. Documents are either files, see
+ * {@link #validate(Stream, Consumer)}, or any {@link DocumentSource}, such as the entries of an archive, see
+ * {@link #validateSources(Stream, Consumer)}. If the listener throws, e.g. because the report cannot be written, no
+ * further documents are validated and the exception is rethrown once the documents in progress are finished.
+ */
+public class BatchValidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchValidator.class);
+    /** Name of the gauge with the number of documents that are being validated or waiting for a worker, over all batches. */
+    public static final String QUEUE_GAUGE = "batch.queue";
+
+    private final Function<DocumentSource, ValidationResult> documentValidator;
+
+    private final BatchOptions options;
+
+    public BatchValidator(ValidationPipeline pipeline, BatchOptions options) {
+        this(options, source -> validateJson(pipeline, source));
+    }
+
+    /**
+     * Create a batch validator for documents that are not JSON, e.g. binary protobuf, and that can only be read
+     * from files. Sources that are not files are reported as {@link ErrorType#UNREADABLE_DOCUMENT}.
+     * @param documentValidator validates a single document; must be thread-safe and must report unreadable input as
+     *                          a result rather than throwing
+     * @param options pool and queue sizes
+     */
+    public BatchValidator(Function<Path, ValidationResult> documentValidator, BatchOptions options) {
+        this(options, source -> source.path()
+                .map(documentValidator)
+                .orElseGet(() -> new ValidationResult(source.name(), List.of(new ValidationError(ErrorType.UNREADABLE_DOCUMENT,
+                        "Only files can be validated by this validator")))));
+    }
+
+    private BatchValidator(BatchOptions options, Function<DocumentSource, ValidationResult> documentValidator) {
+        this.documentValidator = documentValidator;
+        this.options = options;
+    }
+
+    /**
+     * Create a batch validator for documents from any source.
+     * @param documentValidator validates a single document; must be thread-safe and must report unreadable input as
+     *                          a result rather than throwing
+     * @param options pool and queue sizes
+     * @return a batch validator that applies {@code documentValidator} to each document
+     */
+    public static BatchValidator forSources(Function<DocumentSource, ValidationResult> documentValidator, BatchOptions options) {
+        return new BatchValidator(options, documentValidator);
+    }
+
+    public BatchValidator(ValidationPipeline pipeline) {
+        this(pipeline, BatchOptions.defaults());
+    }
+
+    /**
+     * Validate all documents of a batch. The listener is called once per document as soon as it has been validated,
+     * so results arrive in completion order and not in input order. Calls to the listener never overlap, so it does
+     * not need to be thread-safe.
+     * @param inputs paths of the documents, see {@link BatchInputs}
+     * @param listener receives the result of each document
+     * @return aggregate counts for the whole batch
+     */
+    public BatchSummary validate(Stream<Path> inputs, Consumer<? super ValidationResult> listener) {
+        return validateSources(inputs.map(DocumentSource::of), listener);
+    }
+
+    /**
+     * Validate all documents of a batch, like {@link #validate(Stream, Consumer)}. Each source is read by the worker
+     * thread that validates it.
+     * @param inputs the documents, e.g. the entries of an archive, see
+     *               {@link org.phenopackets.schema.validator.core.input.ArchiveInputs}
+     * @param listener receives the result of each document, which is named after the source
+     * @return aggregate counts for the whole batch
+     */
+    public BatchSummary validateSources(Stream<? extends DocumentSource> inputs, Consumer<? super ValidationResult> listener) {
+        long start = System.nanoTime();
+        AtomicLong documents = new AtomicLong();
+        AtomicLong invalidDocuments = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicBoolean stopped = new AtomicBoolean();
+        // documents that were submitted but not validated because the run had stopped
+        AtomicLong skipped = new AtomicLong();
+        long maxInvalidDocuments = options.maxInvalidDocuments();
+        Object listenerLock = new Object();
+        Semaphore slots = new Semaphore(options.threads() + options.queueCapacity());
+        ExecutorService executor = Executors.newFixedThreadPool(options.threads());
+        int capacity = options.threads() + options.queueCapacity();
+        Runnable removeGauge = ValidationMetrics.global().addGaugePart(QUEUE_GAUGE, () -> capacity - slots.availablePermits());
+        AtomicReference<RuntimeException> listenerFailure = new AtomicReference<>();
+        Iterator<? extends DocumentSource> sources = inputs.iterator();
+        try {
+            while (! stopped.get() && sources.hasNext()) {
+                DocumentSource source = sources.next();
+                slots.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            if (stopped.get()) {
+                                skipped.incrementAndGet();
+                                return;
+                            }
+                            ValidationResult result = validateDocument(source);
+                            synchronized (listenerLock) {
+                                if (stopped.get()) {
+                                    skipped.incrementAndGet();
+                                    return;
+                                }
+                                documents.incrementAndGet();
+                                if (! result.isValid()) {
+                                    errors.addAndGet(result.items().size());
+                                    if (invalidDocuments.incrementAndGet() >= maxInvalidDocuments) {
+                                        stopped.set(true);
+                                    }
+                                }
+                                try {
+                                    listener.accept(result);
+                                } catch (RuntimeException e) {
+                                    // e.g. the report cannot be written: the batch fails rather than lose results
+                                    listenerFailure.compareAndSet(null, e);
+                                    stopped.set(true);
+                                }
+                            }
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    slots.release();
+                    throw e;
+                }
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PhenopacketValidatorRuntimeException("Batch validation was interrupted", e);
+        } finally {
+            executor.shutdownNow();
+            removeGauge.run();
+        }
+        RuntimeException failure = listenerFailure.get();
+        if (failure != null) {
+            throw failure;
+        }
+        // reaching the limit with the last document validates everything, which is not stopping early
+        boolean stoppedEarly = stopped.get() && (skipped.get() > 0 || sources.hasNext());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new BatchSummary(documents.get(), invalidDocuments.get(), errors.get(), elapsedMillis, stoppedEarly);
+    }
+
+    /**
+     * Validate a single document of the batch on the calling thread.
+     * @param path path to a document
+     * @return result for the document, never throws for unreadable input
+     */
+    public ValidationResult validateDocument(Path path) {
+        return validateDocument(DocumentSource.of(path));
+    }
+
+    /**
+     * Validate a single document of the batch on the calling thread. If the validator fails on the document, e.g.
+     * because of a bug in a rule, the document is reported with a {@link ErrorType#VALIDATOR_ERROR} so that it is
+     * neither lost nor counted as valid.
+     * @param source the document
+     * @return result for the document, never throws for unreadable input
+     */
+    public ValidationResult validateDocument(DocumentSource source) {
+        ValidationMetrics metrics = ValidationMetrics.global();
+        long start = metrics.startTimer();
+        ValidationResult result;
+        try {
+            result = documentValidator.apply(source);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not validate {}", source.name(), e);
+            result = new ValidationResult(source.name(), List.of(new ValidationError(ErrorType.VALIDATOR_ERROR, e.toString())));
+        }
+        metrics.record(Stage.DOCUMENT, start);
+        metrics.recordDocument(result.isValid());
+        return result;
+    }
+
+    private static ValidationResult validateJson(ValidationPipeline pipeline, DocumentSource source) {
+        List<ValidationItem> items;
+        try {
+            items = pipeline.validate(source);
+        } catch (PhenopacketValidatorRuntimeException e) {
+            LOG.debug("Could not validate {}", source.name(), e);
+            String cause = e.getCause() == null ? e.getMessage() : e.getMessage() + ": " + e.getCause().getMessage();
+            items = List.of(new ValidationError(ErrorType.UNREADABLE_DOCUMENT, cause));
+        }
+        return new ValidationResult(source.name(), items);
+    }
+}
@@ -0,0 +1,257 @@
+package org.phenopackets.schema.validator.core.batch;
+
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.input.ArchiveInputs;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.report.JsonLinesReportReader;
+import org.phenopackets.schema.validator.core.report.JsonLinesReportWriter;
+import org.phenopackets.schema.validator.core.report.ReportSink;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Work directory of a validation run that is split into shards, which separate processes validate independently,
+ * possibly on other machines that share the directory. The directory is the only means of communication between the
+ * coordinator, which plans the shards and merges the results, and the workers:
+ * <pre>
+ * shards.properties   number of shards and inputs, written once all shard manifests are complete
+ * shard-0003.txt      absolute paths of the inputs of shard 3, one per line
+ * shard-0003.jsonl    results of shard 3 in the format of {@link JsonLinesReportWriter}, appended as they arrive
+ * shard-0003.done     written once all inputs of shard 3 have been validated
+ * shard-0003.log      output of the processes that validated shard 3, if the coordinator keeps it
+ * </pre>
+ * Each input is assigned to a shard by a hash of its absolute path, so the same inputs always give the same shards.
+ * A worker that is started for a shard whose results file already exists, e.g. after the previous worker crashed,
+ * keeps the complete results, drops an incomplete last line and validates only the inputs without a result.
+ */
+public final class ShardDirectory {
+
+    private static final String PLAN = "shards.properties";
+
+    private final Path directory;
+
+    public ShardDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * @param input an input, e.g. an absolute path
+     * @param shards number of shards
+     * @return the shard of the input, from 0 to {@code shards - 1}; the same on every machine and JVM
+     */
+    public static int shardOf(String input, int shards) {
+        byte[] hash = sha256().digest(input.getBytes(StandardCharsets.UTF_8));
+        int h = ((hash[0] & 0xff) << 24) | ((hash[1] & 0xff) << 16) | ((hash[2] & 0xff) << 8) | (hash[3] & 0xff);
+        return Math.floorMod(h, shards);
+    }
+
+    /**
+     * Distribute the inputs to shards and write the shard manifests, unless a plan exists already, in which case the
+     * existing shards are resumed and {@code inputs} is not read.
+     * @param inputs files and archives to validate
+     * @param shards number of shards
+     * @return {@code true} if a new plan was written, {@code false} if an existing plan is resumed
+     * @throws PhenopacketValidatorRuntimeException if the existing plan has a different number of shards
+     */
+    public boolean plan(Stream<Path> inputs, int shards) {
+        if (shards < 1) {
+            throw new PhenopacketValidatorRuntimeException("The number of shards must be at least 1 but was " + shards);
+        }
+        if (isPlanned()) {
+            int planned = shards();
+            if (planned != shards) {
+                throw new PhenopacketValidatorRuntimeException("The run in " + directory + " was planned with " + planned
+                        + " shards, not " + shards + "; use another directory for a new run");
+            }
+            return false;
+        }
+        List<Writer> manifests = new ArrayList<>(shards);
+        long count = 0;
+        try {
+            Files.createDirectories(directory);
+            for (int shard = 0; shard < shards; shard++) {
+                Files.deleteIfExists(results(shard));
+                Files.deleteIfExists(doneMarker(shard));
+                Files.deleteIfExists(log(shard));
+                manifests.add(Files.newBufferedWriter(manifest(shard), StandardCharsets.UTF_8));
+            }
+            Iterator<Path> paths = inputs.iterator();
+            while (paths.hasNext()) {
+                String path = paths.next().toAbsolutePath().normalize().toString();
+                Writer manifest = manifests.get(shardOf(path, shards));
+                manifest.write(path);
+                manifest.write('\n');
+                count++;
+            }
+            for (Writer manifest : manifests) {
+                manifest.close();
+            }
+            Properties plan = new Properties();
+            plan.setProperty("shards", Integer.toString(shards));
+            plan.setProperty("inputs", Long.toString(count));
+            Path tmp = directory.resolve(PLAN + ".tmp");
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                plan.store(out, "Shards of a validation run");
+            }
+            Files.move(tmp, directory.resolve(PLAN), StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not write the shards to " + directory, e);
+        } finally {
+            for (Writer manifest : manifests) {
+                try {
+                    manifest.close();
+                } catch (IOException ignored) {
+                    // only reached after another exception
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if a run has been planned in this directory
+     */
+    public boolean isPlanned() {
+        return Files.exists(directory.resolve(PLAN));
+    }
+
+    /**
+     * @return number of shards of the planned run
+     */
+    public int shards() {
+        Properties plan = new Properties();
+        try (Reader in = Files.newBufferedReader(directory.resolve(PLAN), StandardCharsets.UTF_8)) {
+            plan.load(in);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("No run has been planned in " + directory, e);
+        }
+        return Integer.parseInt(plan.getProperty("shards"));
+    }
+
+    /**
+     * @return the shards that have not been completed yet, in ascending order
+     */
+    public List<Integer> pendingShards() {
+        List<Integer> pending = new ArrayList<>();
+        for (int shard = 0, shards = shards(); shard < shards; shard++) {
+            if (! isDone(shard)) {
+                pending.add(shard);
+            }
+        }
+        return pending;
+    }
+
+    public boolean isDone(int shard) {
+        return Files.exists(doneMarker(shard));
+    }
+
+    public Path manifest(int shard) {
+        return directory.resolve(String.format("shard-%04d.txt", shard));
+    }
+
+    public Path results(int shard) {
+        return directory.resolve(String.format("shard-%04d.jsonl", shard));
+    }
+
+    public Path log(int shard) {
+        return directory.resolve(String.format("shard-%04d.log", shard));
+    }
+
+    private Path doneMarker(int shard) {
+        return directory.resolve(String.format("shard-%04d.done", shard));
+    }
+
+    /**
+     * Validate the inputs of one shard that have no result yet, append their results to the results file of the
+     * shard and mark the shard as done. Only one process may work on a shard at a time.
+     * @param shard the shard
+     * @param validator validates the documents of the shard
+     * @param glob file name pattern of the documents inside archives
+     * @return counts of the documents that were validated by this call
+     */
+    public BatchSummary validateShard(int shard, BatchValidator validator, String glob) {
+        Path results = results(shard);
+        try {
+            Set<String> completed = new HashSet<>();
+            if (Files.exists(results)) {
+                long length = JsonLinesReportReader.read(results, r -> completed.add(r.source()));
+                try (FileChannel channel = FileChannel.open(results, StandardOpenOption.WRITE)) {
+                    channel.truncate(length);
+                }
+            }
+            BatchSummary summary;
+            try (Writer out = Files.newBufferedWriter(results, StandardCharsets.UTF_8,
+                         StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                 ReportSink sink = new ReportSink(new JsonLinesReportWriter(out, false));
+                 Stream<DocumentSource> sources = ArchiveInputs.expand(BatchInputs.fromManifest(manifest(shard)), glob)) {
+                summary = validator.validateSources(sources.filter(source -> ! completed.contains(source.name())), sink);
+                sink.finish(summary);
+            }
+            if (! summary.stoppedEarly()) {
+                Files.writeString(doneMarker(shard), summary + "\n", StandardCharsets.UTF_8);
+            }
+            return summary;
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not write the results of shard " + shard + " to " + results, e);
+        }
+    }
+
+    /**
+     * Read the results of all shards, in shard order.
+     * @param listener receives every result
+     * @return counts of all results; the elapsed time is not known and is 0
+     */
+    public BatchSummary merge(Consumer<? super ValidationResult> listener) {
+        long[] counts = new long[3];
+        for (int shard = 0, shards = shards(); shard < shards; shard++) {
+            Path results = results(shard);
+            if (! Files.exists(results)) {
+                continue;
+            }
+            try {
+                JsonLinesReportReader.read(results, result -> {
+                    counts[0]++;
+                    if (! result.isValid()) {
+                        counts[1]++;
+                        counts[2] += result.items().size();
+                    }
+                    listener.accept(result);
+                });
+            } catch (IOException e) {
+                throw new PhenopacketValidatorRuntimeException("Could not read the results of shard " + shard + " from " + results, e);
+            }
+        }
+        return new BatchSummary(counts[0], counts[1], counts[2], 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package org.phenopackets.schema.validator.core.cache;
+
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.metrics.Stage;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Persistent cache of validation results for incremental re-validation of a mostly unchanged corpus. A result is
+ * keyed by the SHA-256 of the document content, the {@link ValidationPipeline#fingerprint() fingerprint} of the
+ * pipeline and the {@link #VALIDATOR_VERSION version} of the validator. Editing a document, a schema or the ontology,
+ * or upgrading the validator therefore leads to new keys, and the stale entries are evicted in least-recently-used
+ * order once the cache is full. Results of different pipelines, e.g. with and without {@code --rare}, coexist.
+ * <p>
+ * To skip unchanged files without even reading them, the content hash of each path is remembered together with the
+ * modification time and size of the file. A file whose time and size are unchanged is assumed to have the same
+ * content. Documents that are not files of their own, such as archive entries, are always read and hashed.
+ * Documents that could not be read or parsed are never cached.
+ * <p>
+ * The cache is held in memory, loaded by {@link #open(Path, int)} and written back by {@link #save()} or
+ * {@link #close()}. All methods are thread-safe; documents are validated outside of any lock.
+ */
+public final class ResultCache implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResultCache.class);
+
+    /** Version of the validator, part of every key so that an upgrade does not return results of older rules. */
+    public static final String VALIDATOR_VERSION = readVersion();
+    /** "PPRC" followed by the format version. */
+    private static final int MAGIC = 0x50505243;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HASH_BYTES = 32;
+
+    private final Path cacheFile;
+    private final Map<Key, List<ValidationItem>> results;
+    private final Map<String, FileStamp> stamps;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private ResultCache(Path cacheFile, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new PhenopacketValidatorRuntimeException("The result cache needs room for at least one entry");
+        }
+        this.cacheFile = cacheFile;
+        this.results = lruMap(maxEntries);
+        this.stamps = lruMap(maxEntries);
+    }
+
+    /**
+     * Load a cache from a file written by {@link #save()}. A missing file gives an empty cache, as does a file that is
+     * corrupt or of an older format, which is logged and then overwritten on the next save.
+     * @param cacheFile location of the cache file
+     * @param maxEntries maximum number of results that are kept
+     * @return the cache
+     */
+    public static ResultCache open(Path cacheFile, int maxEntries) {
+        ResultCache cache = new ResultCache(cacheFile, maxEntries);
+        if (Files.isRegularFile(cacheFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+                cache.read(in);
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.warn("Ignoring unreadable result cache {}: {}", cacheFile, e.getMessage());
+                cache.results.clear();
+                cache.stamps.clear();
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @param maxEntries maximum number of results that are kept
+     * @return a cache that is not backed by a file, e.g. for a long-running server
+     */
+    public static ResultCache inMemory(int maxEntries) {
+        return new ResultCache(null, maxEntries);
+    }
+
+    /**
+     * @param pipeline the pipeline that validates documents that are not in the cache
+     * @return a function for {@link org.phenopackets.schema.validator.core.batch.BatchValidator} that answers from
+     * the cache where possible
+     */
+    public Function<Path, ValidationResult> cached(ValidationPipeline pipeline) {
+        Function<DocumentSource, ValidationResult> cached = cachedSources(pipeline);
+        return path -> cached.apply(DocumentSource.of(path));
+    }
+
+    /**
+     * @param pipeline the pipeline that validates documents that are not in the cache
+     * @return a function for {@link org.phenopackets.schema.validator.core.batch.BatchValidator#forSources} that
+     * answers from the cache where possible
+     */
+    public Function<DocumentSource, ValidationResult> cachedSources(ValidationPipeline pipeline) {
+        byte[] pipelineKey = sha256(pipeline.fingerprint() + "\u0000" + VALIDATOR_VERSION);
+        return document -> validate(document, pipeline, pipelineKey);
+    }
+
+    private ValidationResult validate(DocumentSource document, ValidationPipeline pipeline, byte[] pipelineKey) {
+        String source = document.name();
+        try {
+            byte[] content = null;
+            byte[] contentHash;
+            if (document.path().isPresent()) {
+                Path path = document.path().get();
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                long lastModified = attributes.lastModifiedTime().toMillis();
+                String location = path.toAbsolutePath().normalize().toString();
+                FileStamp stamp;
+                synchronized (this) {
+                    stamp = stamps.get(location);
+                }
+                if (stamp == null || stamp.lastModified != lastModified || stamp.size != attributes.size()) {
+                    content = read(document);
+                    stamp = new FileStamp(lastModified, attributes.size(), sha256(content));
+                    synchronized (this) {
+                        stamps.put(location, stamp);
+                    }
+                }
+                contentHash = stamp.contentHash;
+            } else {
+                content = read(document);
+                contentHash = sha256(content);
+            }
+            Key key = new Key(contentHash, pipelineKey);
+            List<ValidationItem> items;
+            synchronized (this) {
+                items = results.get(key);
+            }
+            if (items != null) {
+                hits.incrementAndGet();
+                ValidationMetrics.global().recordCacheHit();
+                return new ValidationResult(source, items);
+            }
+            misses.incrementAndGet();
+            ValidationMetrics.global().recordCacheMiss();
+            if (content == null) {
+                content = read(document);
+            }
+            try (InputStream is = new ByteArrayInputStream(content)) {
+                items = List.copyOf(pipeline.validate(is));
+            }
+            synchronized (this) {
+                results.put(key, items);
+            }
+            return new ValidationResult(source, items);
+        } catch (IOException | PhenopacketValidatorRuntimeException e) {
+            LOG.debug("Could not validate {}", source, e);
+            return new ValidationResult(source, List.of(new ValidationError(ErrorType.UNREADABLE_DOCUMENT, e.getMessage())));
+        }
+    }
+
+    private static byte[] read(DocumentSource document) throws IOException {
+        long start = ValidationMetrics.global().startTimer();
+        byte[] content = document.readAllBytes();
+        ValidationMetrics.global().record(Stage.READ, start);
+        return content;
+    }
+
+    /**
+     * @return number of documents that were answered from the cache
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of documents that had to be validated
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * Write the cache to its file, replacing the previous content atomically. Does nothing for an in-memory cache.
+     */
+    public synchronized void save() {
+        if (cacheFile == null) {
+            return;
+        }
+        try {
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, cacheFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                write(out);
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not write result cache \"" + cacheFile + "\"", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        save();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Result cache: %d hits, %d misses, %d entries", hits(), misses(), size());
+    }
+
+    /** Entries are written from least to most recently used, so that reading them back restores the LRU order. */
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(results.size());
+        for (Map.Entry<Key, List<ValidationItem>> e : results.entrySet()) {
+            out.write(e.getKey().contentHash);
+            out.write(e.getKey().pipelineKey);
+            out.writeInt(e.getValue().size());
+            for (ValidationItem item : e.getValue()) {
+                writeString(out, item.errorType().name());
+                writeString(out, item.message());
+                writeString(out, item.path());
+                writeString(out, item.keyword());
+            }
+        }
+        out.writeInt(stamps.size());
+        for (Map.Entry<String, FileStamp> e : stamps.entrySet()) {
+            writeString(out, e.getKey());
+            out.writeLong(e.getValue().lastModified);
+            out.writeLong(e.getValue().size);
+            out.write(e.getValue().contentHash);
+        }
+    }
+
+    private void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("not a result cache of format version " + FORMAT_VERSION);
+        }
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            byte[] contentHash = readHash(in);
+            byte[] pipelineKey = readHash(in);
+            int n = in.readInt();
+            List<ValidationItem> items = new ArrayList<>(n);
+            for (int j = 0; j < n; j++) {
+                ErrorType errorType = ErrorType.valueOf(readString(in));
+                String message = readString(in);
+                String path = readString(in);
+                items.add(new ValidationError(errorType, message, path, readString(in)));
+            }
+            results.put(new Key(contentHash, pipelineKey), List.copyOf(items));
+        }
+        int nStamps = in.readInt();
+        for (int i = 0; i < nStamps; i++) {
+            String location = readString(in);
+            long lastModified = in.readLong();
+            long size = in.readLong();
+            stamps.put(location, new FileStamp(lastModified, size, readHash(in)));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readHash(DataInputStream in) throws IOException {
+        byte[] hash = new byte[HASH_BYTES];
+        in.readFully(hash);
+        return hash;
+    }
+
+    private static <K, V> Map<K, V> lruMap(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private static byte[] sha256(String s) {
+        return sha256(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** The version is written into validator.properties by maven resource filtering. */
+    private static String readVersion() {
+        Properties properties = new Properties();
+        try (InputStream is = ResultCache.class.getResourceAsStream("/validator.properties")) {
+            if (is != null) {
+                properties.load(is);
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not read validator.properties: {}", e.getMessage());
+        }
+        String version = properties.getProperty("validator.version", "");
+        return version.isEmpty() || version.startsWith("@") ? "development" : version;
+    }
+
+    private static final class Key {
+        private final byte[] contentHash;
+        private final byte[] pipelineKey;
+        private final int hash;
+
+        private Key(byte[] contentHash, byte[] pipelineKey) {
+            this.contentHash = contentHash;
+            this.pipelineKey = pipelineKey;
+            this.hash = 31 * Arrays.hashCode(contentHash) + Arrays.hashCode(pipelineKey);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (! (obj instanceof Key)) return false;
+            Key that = (Key) obj;
+            return Arrays.equals(this.contentHash, that.contentHash) && Arrays.equals(this.pipelineKey, that.pipelineKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class FileStamp {
+        private final long lastModified;
+        private final long size;
+        private final byte[] contentHash;
+
+        private FileStamp(long lastModified, long size, byte[] contentHash) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.contentHash = contentHash;
+        }
+    }
+}
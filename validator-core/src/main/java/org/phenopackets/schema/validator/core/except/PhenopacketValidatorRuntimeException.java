@@ -4,4 +4,5 @@ public class PhenopacketValidatorRuntimeException extends RuntimeException {
 
     public PhenopacketValidatorRuntimeException() { super(); }
     public PhenopacketValidatorRuntimeException(String msg) { super(msg); }
+    public PhenopacketValidatorRuntimeException(String msg, Throwable cause) { super(msg, cause); }
 }
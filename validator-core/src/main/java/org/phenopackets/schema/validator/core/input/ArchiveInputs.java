@@ -0,0 +1,253 @@
+package org.phenopackets.schema.validator.core.input;
+
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Static methods that produce the documents inside zip, tar and tar.gz archives without extracting them to disk.
+ * Results are reported under the name {@code archive!/entry}, e.g. {@code bundle.zip!/cohort/patient1.json}.
+ * <p>
+ * The entries of a zip archive are opened and decompressed by whichever thread validates them, so several entries are
+ * decompressed in parallel. Tar archives can only be read front to back, so each matching entry is read into memory
+ * when the stream reaches it, and not before; together with the bounded queue of the batch validator, at most a few entries are held
+ * in memory at any time. As with {@link org.phenopackets.schema.validator.core.batch.BatchInputs}, the returned
+ * streams are lazily populated and must be closed by the caller, but only once all entries have been validated,
+ * because closing the stream closes the archive.
+ */
+public final class ArchiveInputs {
+
+    private ArchiveInputs() {
+    }
+
+    /**
+     * @param path path to a file
+     * @return {@code true} if the file name ends with {@code .zip}, {@code .tar}, {@code .tar.gz} or {@code .tgz}
+     */
+    public static boolean isArchive(Path path) {
+        Path fileName = path.getFileName();
+        if (fileName == null) {
+            return false;
+        }
+        String name = fileName.toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".zip") || name.endsWith(".tar") || name.endsWith(".tar.gz") || name.endsWith(".tgz");
+    }
+
+    /**
+     * @param archive a zip, tar or tar.gz archive, see {@link #isArchive(Path)}
+     * @param glob a glob that is matched against the file names of the entries, e.g. {@code *.json}
+     * @return the regular entries of the archive whose file name matches {@code glob}, in archive order
+     */
+    public static Stream<DocumentSource> entries(Path archive, String glob) {
+        if (! Files.isRegularFile(archive)) {
+            throw new PhenopacketValidatorRuntimeException("Could not find archive \"" + archive + "\"");
+        }
+        Predicate<String> matcher = matcher(glob);
+        String name = archive.getFileName().toString().toLowerCase(Locale.ROOT);
+        try {
+            if (name.endsWith(".zip")) {
+                return zipEntries(archive, matcher);
+            }
+            InputStream is = new BufferedInputStream(Files.newInputStream(archive));
+            try {
+                if (! name.endsWith(".tar")) {
+                    is = new GZIPInputStream(is, 64 * 1024);
+                }
+            } catch (IOException e) {
+                is.close();
+                throw e;
+            }
+            return tarEntries(archive.toString(), is, matcher);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read archive \"" + archive + "\"", e);
+        }
+    }
+
+    /**
+     * Replace the archives among a stream of paths by their entries. The paths and entries are read one at a time as
+     * the returned stream is consumed, also through its iterator, so that a tar archive is never read ahead of the
+     * validation. A tar archive is closed as soon as its last entry has been read. Zip archives stay open until the
+     * returned stream is closed, because their entries are only decompressed when they are validated.
+     * @param paths files and archives
+     * @param glob a glob that is matched against the file names of the archive entries
+     * @return the files that are not archives and the matching entries of the archives, in input order
+     */
+    public static Stream<DocumentSource> expand(Stream<Path> paths, String glob) {
+        ExpandingIterator iterator = new ExpandingIterator(paths, glob);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Read the entries of a tar stream, for instance an archive that is piped to standard input.
+     * @param archiveName name of the archive that is used in the names of the entries
+     * @param tarStream uncompressed tar stream, which is closed together with the returned stream
+     * @param glob a glob that is matched against the file names of the entries
+     * @return the regular entries of the archive whose file name matches {@code glob}
+     */
+    public static Stream<DocumentSource> tarEntries(String archiveName, InputStream tarStream, String glob) {
+        return tarEntries(archiveName, tarStream, matcher(glob));
+    }
+
+    private static Stream<DocumentSource> zipEntries(Path archive, Predicate<String> matcher) throws IOException {
+        ZipFile zipFile = new ZipFile(archive.toFile());
+        String prefix = archive + "!/";
+        return zipFile.stream()
+                .filter(entry -> ! entry.isDirectory() && matcher.test(entry.getName()))
+                .map(entry -> (DocumentSource) new ZipEntrySource(prefix + entry.getName(), zipFile, entry))
+                .onClose(() -> {
+                    try {
+                        zipFile.close();
+                    } catch (IOException e) {
+                        throw new PhenopacketValidatorRuntimeException("Could not close archive \"" + archive + "\"", e);
+                    }
+                });
+    }
+
+    private static Stream<DocumentSource> tarEntries(String archiveName, InputStream tarStream, Predicate<String> matcher) {
+        TarEntryIterator entries = new TarEntryIterator(archiveName, tarStream, matcher);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(entries, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(entries::close);
+    }
+
+    /** The glob is matched against the last segment of the entry name, as {@code BatchInputs.walk} does for files. */
+    private static Predicate<String> matcher(String glob) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        return entryName -> {
+            String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+            try {
+                return ! fileName.isEmpty() && matcher.matches(Path.of(fileName));
+            } catch (InvalidPathException e) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Joins the files and the entries of the archives of a stream of paths. Unlike {@code flatMap}, which fills its
+     * buffer with all entries of an archive as soon as an element is requested through an iterator, this reads one
+     * entry per call of {@link #next()}.
+     */
+    private static final class ExpandingIterator implements Iterator<DocumentSource> {
+
+        private final Stream<Path> paths;
+        private final Iterator<Path> pathIterator;
+        private final String glob;
+        /** Zip archives, which are closed together with the stream. */
+        private final List<Stream<DocumentSource>> openArchives = new ArrayList<>();
+        private Stream<DocumentSource> archive;
+        private Iterator<DocumentSource> entries;
+        private DocumentSource next;
+
+        private ExpandingIterator(Stream<Path> paths, String glob) {
+            this.paths = paths;
+            this.pathIterator = paths.iterator();
+            this.glob = glob;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (entries != null) {
+                    if (entries.hasNext()) {
+                        next = entries.next();
+                        break;
+                    }
+                    closeArchive();
+                }
+                if (! pathIterator.hasNext()) {
+                    return false;
+                }
+                Path path = pathIterator.next();
+                if (isArchive(path)) {
+                    archive = entries(path, glob);
+                    entries = archive.iterator();
+                    if (path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".zip")) {
+                        openArchives.add(archive);
+                        archive = null;
+                    }
+                } else {
+                    next = DocumentSource.of(path);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public DocumentSource next() {
+            if (! hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DocumentSource source = next;
+            next = null;
+            return source;
+        }
+
+        /** Close a tar archive, whose entries have all been read into memory. */
+        private void closeArchive() {
+            entries = null;
+            if (archive != null) {
+                archive.close();
+                archive = null;
+            }
+        }
+
+        private void close() {
+            try {
+                closeArchive();
+                openArchives.forEach(Stream::close);
+            } finally {
+                paths.close();
+            }
+        }
+    }
+
+    /** {@link ZipFile} may be read from several threads, so entries are only opened when they are validated. */
+    private static final class ZipEntrySource implements DocumentSource {
+
+        private final String name;
+        private final ZipFile zipFile;
+        private final ZipEntry entry;
+
+        private ZipEntrySource(String name, ZipFile zipFile, ZipEntry entry) {
+            this.name = name;
+            this.zipFile = zipFile;
+            this.entry = entry;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public InputStream open() throws IOException {
+            return zipFile.getInputStream(entry);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.phenopackets.schema.validator.core.input;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A document that is held in memory, e.g. an entry that was read from a sequential archive.
+ */
+final class ByteBufferSource implements DocumentSource {
+
+    private final String name;
+    /** Never read through its own position, so that the source can be read any number of times. */
+    private final ByteBuffer content;
+
+    ByteBufferSource(String name, ByteBuffer content) {
+        this.name = name;
+        this.content = content;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public InputStream open() {
+        return new ByteArrayInputStream(readAllBytes());
+    }
+
+    @Override
+    public byte[] readAllBytes() {
+        if (content.hasArray() && content.arrayOffset() == 0 && content.array().length == content.remaining()) {
+            return content.array();
+        }
+        byte[] bytes = new byte[content.remaining()];
+        content.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,83 @@
+package org.phenopackets.schema.validator.core.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * A document to be validated, independent of where its bytes come from: a file, an entry of an archive, a buffer
+ * in memory or a stream. The {@link #name()} of the source is what results are reported under.
+ * <p>
+ * Sources may be handed from the thread that produces them to a worker thread, but each source is opened by one
+ * thread at a time.
+ */
+public interface DocumentSource {
+
+    /**
+     * @return name under which results for this document are reported, e.g. a path or
+     * {@code bundle.zip!/cohort/patient1.json}
+     */
+    String name();
+
+    /**
+     * @return a new stream with the content of the document, which the caller must close
+     * @throws IOException if the content cannot be read
+     */
+    InputStream open() throws IOException;
+
+    /**
+     * @return the complete content of the document. Implementations may return an internal array, which must not
+     * be modified.
+     * @throws IOException if the content cannot be read
+     */
+    default byte[] readAllBytes() throws IOException {
+        try (InputStream is = open()) {
+            return is.readAllBytes();
+        }
+    }
+
+    /**
+     * @return the file that holds the document, if it is a file of its own
+     */
+    default Optional<Path> path() {
+        return Optional.empty();
+    }
+
+    /**
+     * @param path path to a file with one document
+     * @return a source that reads the file each time it is opened, named after the path
+     */
+    static DocumentSource of(Path path) {
+        return new PathSource(path);
+    }
+
+    /**
+     * @param name name of the document
+     * @param content content of the document, which must not be modified afterwards
+     * @return a source that can be read any number of times
+     */
+    static DocumentSource of(String name, byte[] content) {
+        return new ByteBufferSource(name, ByteBuffer.wrap(content));
+    }
+
+    /**
+     * @param name name of the document
+     * @param content the remaining bytes of the buffer are the content of the document; the position and limit of
+     *                the buffer are not changed
+     * @return a source that can be read any number of times
+     */
+    static DocumentSource of(String name, ByteBuffer content) {
+        return new ByteBufferSource(name, content.slice());
+    }
+
+    /**
+     * @param name name of the document
+     * @param inputStream stream with the content of the document
+     * @return a source that can only be opened once; it hands out {@code inputStream} itself
+     */
+    static DocumentSource of(String name, InputStream inputStream) {
+        return new StreamSource(name, inputStream);
+    }
+}
@@ -0,0 +1,45 @@
+package org.phenopackets.schema.validator.core.input;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * A document that is a file of its own.
+ */
+final class PathSource implements DocumentSource {
+
+    private final Path path;
+
+    PathSource(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public String name() {
+        return path.toString();
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return new BufferedInputStream(Files.newInputStream(path));
+    }
+
+    @Override
+    public byte[] readAllBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public Optional<Path> path() {
+        return Optional.of(path);
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+}
@@ -0,0 +1,38 @@
+package org.phenopackets.schema.validator.core.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A document that can only be read once, e.g. from standard input or a network connection.
+ */
+final class StreamSource implements DocumentSource {
+
+    private final String name;
+    private final InputStream inputStream;
+    private final AtomicBoolean opened = new AtomicBoolean();
+
+    StreamSource(String name, InputStream inputStream) {
+        this.name = name;
+        this.inputStream = inputStream;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        if (opened.getAndSet(true)) {
+            throw new IOException("The stream of \"" + name + "\" was already read");
+        }
+        return inputStream;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,227 @@
+package org.phenopackets.schema.validator.core.input;
+
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Reads the regular file entries of an uncompressed tar stream one after the other. Understands ustar archives
+ * together with the long names of GNU tar and the {@code path} records of POSIX (pax) extended headers. Entries whose
+ * name does not match are skipped without being held in memory.
+ */
+final class TarEntryIterator implements Iterator<DocumentSource>, AutoCloseable {
+
+    private static final int BLOCK = 512;
+
+    private final String archiveName;
+    private final InputStream in;
+    private final Predicate<String> matcher;
+    private final byte[] header = new byte[BLOCK];
+
+    private DocumentSource next;
+    private boolean finished = false;
+
+    TarEntryIterator(String archiveName, InputStream in, Predicate<String> matcher) {
+        this.archiveName = archiveName;
+        this.in = in;
+        this.matcher = matcher;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && ! finished) {
+            try {
+                next = readNext();
+            } catch (IOException e) {
+                throw new PhenopacketValidatorRuntimeException("Could not read archive \"" + archiveName + "\"", e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public DocumentSource next() {
+        if (! hasNext()) {
+            throw new NoSuchElementException();
+        }
+        DocumentSource entry = next;
+        next = null;
+        return entry;
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not close archive \"" + archiveName + "\"", e);
+        }
+    }
+
+    private DocumentSource readNext() throws IOException {
+        String longName = null;
+        String paxPath = null;
+        while (true) {
+            if (! readBlock(header)) {
+                finished = true;
+                return null;
+            }
+            if (isZeroBlock(header)) {
+                // the end of the archive is marked by two empty blocks; the second one is not needed
+                finished = true;
+                return null;
+            }
+            long size = parseSize();
+            char type = (char) header[156];
+            if (type == 'L') {
+                longName = trimNul(new String(readContent(size), StandardCharsets.UTF_8));
+                continue;
+            }
+            if (type == 'x') {
+                String path = paxPath(readContent(size));
+                if (path != null) {
+                    paxPath = path;
+                }
+                continue;
+            }
+            if (type == 'K' || type == 'g') {
+                // the long link name of GNU tar and global pax headers do not change the name of the next entry
+                skip(padded(size));
+                continue;
+            }
+            // a pax path takes precedence over a GNU long name, as in GNU tar
+            String name = paxPath != null ? paxPath : longName != null ? longName : headerName();
+            longName = null;
+            paxPath = null;
+            boolean regularFile = type == '0' || type == '\0' || type == '7';
+            if (regularFile && matcher.test(name)) {
+                return DocumentSource.of(archiveName + "!/" + name, readContent(size));
+            }
+            skip(padded(size));
+        }
+    }
+
+    private String headerName() {
+        String name = string(0, 100);
+        boolean ustar = header[257] == 'u' && header[258] == 's' && header[259] == 't' && header[260] == 'a' && header[261] == 'r';
+        if (ustar) {
+            String prefix = string(345, 155);
+            if (! prefix.isEmpty()) {
+                name = prefix + "/" + name;
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Extended headers are records of the form {@code "<length> <key>=<value>\n"}, where the length counts the bytes
+     * of the whole record, so the records are split before the UTF-8 values are decoded.
+     * @return the value of the last {@code path} record, {@code null} if there is none
+     */
+    private static String paxPath(byte[] records) throws IOException {
+        String path = null;
+        int pos = 0;
+        while (pos < records.length) {
+            int length = 0;
+            int i = pos;
+            while (i < records.length && records[i] >= '0' && records[i] <= '9' && length < records.length) {
+                length = 10 * length + (records[i] - '0');
+                i++;
+            }
+            int end = pos + length;
+            if (i == pos || i >= records.length || records[i] != ' ' || end > records.length || end <= i + 1 || records[end - 1] != '\n') {
+                throw new IOException("Invalid extended header record at offset " + pos);
+            }
+            String record = new String(records, i + 1, end - i - 2, StandardCharsets.UTF_8);
+            if (record.startsWith("path=")) {
+                path = record.substring("path=".length());
+            }
+            pos = end;
+        }
+        return path;
+    }
+
+    private long parseSize() throws IOException {
+        if ((header[124] & 0x80) != 0) {
+            // base-256 encoding of GNU tar for entries of 8 GB and more
+            long size = 0;
+            for (int i = 125; i < 136; i++) {
+                size = (size << 8) | (header[i] & 0xff);
+            }
+            return size;
+        }
+        String octal = string(124, 12).trim();
+        try {
+            return octal.isEmpty() ? 0 : Long.parseLong(octal, 8);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid entry size \"" + octal + "\", this is not a tar archive");
+        }
+    }
+
+    private byte[] readContent(long size) throws IOException {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Entry of " + size + " bytes is too large");
+        }
+        byte[] content = new byte[(int) size];
+        if (in.readNBytes(content, 0, content.length) != content.length) {
+            throw new IOException("Unexpected end of archive");
+        }
+        skip(padded(size) - size);
+        return content;
+    }
+
+    private void skip(long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new IOException("Unexpected end of archive");
+                }
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    private boolean readBlock(byte[] block) throws IOException {
+        int n = in.readNBytes(block, 0, BLOCK);
+        if (n == 0) {
+            return false;
+        }
+        if (n < BLOCK) {
+            throw new IOException("Unexpected end of archive");
+        }
+        return true;
+    }
+
+    private String string(int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static String trimNul(String s) {
+        int nul = s.indexOf('\0');
+        return nul < 0 ? s : s.substring(0, nul);
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long padded(long size) {
+        return (size + BLOCK - 1) / BLOCK * BLOCK;
+    }
+}
@@ -1,13 +1,7 @@
 package org.phenopackets.schema.validator.core.jsonschema;
 
 
-import com.networknt.schema.JsonSchemaFactory;
-
-import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
-
-
 import java.io.File;
-import java.io.InputStream;
 
 /**
  * This class implements additional validation of a phenopacket that is intended to be used
@@ -18,21 +12,19 @@
  */
 public class HpoRareDiseaseJsonSchemaValidator extends JsonSchemaValidator {
 
+    /** Classpath location of the HPO rare-disease schema. */
+    public static final String HPO_RARE_DISEASE_SCHEMA = "schema/hpo-rare-disease-schema.json";
+
 
     public HpoRareDiseaseJsonSchemaValidator(File f) {
-        this.jsonFile = f;
-        if (! f.isFile()) {
-            throw new PhenopacketValidatorRuntimeException("Could not open file at \"" + f.getAbsolutePath() + "\"");
-        }
-        JsonSchemaFactory schemaFactory = JsonSchemaFactory.getInstance(VERSION_FLAG);
-        try {
-            InputStream baseSchemaStream = inputStreamFromClasspath("schema/hpo-rare-disease-schema.json");
-            this.jsonSchema = schemaFactory.getSchema(baseSchemaStream);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        super(f, JsonSchemaRegistry.defaultRegistry().getClasspathSchema(HPO_RARE_DISEASE_SCHEMA));
     }
 
-
+    /**
+     * @return a reusable validator for the HPO rare-disease schema
+     */
+    public static JsonSchemaValidator rareDisease() {
+        return forClasspathSchema(HPO_RARE_DISEASE_SCHEMA);
+    }
 
 }
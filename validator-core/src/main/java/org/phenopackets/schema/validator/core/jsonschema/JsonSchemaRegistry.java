@@ -0,0 +1,232 @@
+package org.phenopackets.schema.validator.core.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.JsonSchemaFactory;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.metrics.Stage;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe cache of compiled {@link JsonSchema} objects. Compiling a schema is by far the most expensive part of
+ * setting up a validator, so each schema is compiled once and then shared by all validators and threads. Schemas on
+ * the classpath are keyed by their resource path, schemas on the file system by their canonical path together with
+ * their modification time and size, so that an edited schema file is recompiled on the next request. Classpath schemas
+ * can also be obtained as parsed but not yet compiled JSON, which is enough to name and fingerprint them.
+ * <p>
+ * References to other schemas are resolved when a schema is compiled, through the {@link SchemaResolver} of the
+ * registry, which never accesses the network. A schema that is referenced by several compiled schemas is loaded and
+ * compiled only once per registry. If the resolver finds that a referenced document changed, because its file was
+ * modified or its URI was mapped elsewhere, all compiled schemas are discarded, as any of them may refer to it.
+ */
+public final class JsonSchemaRegistry {
+
+    private static final JsonSchemaRegistry DEFAULT_REGISTRY = new JsonSchemaRegistry();
+
+    /** Created on first compilation, setting up the factory loads most of the schema library. */
+    private volatile JsonSchemaFactory schemaFactory;
+
+    private final ConcurrentMap<SchemaKey, JsonSchema> schemas = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, JsonNode> classpathSchemaNodes = new ConcurrentHashMap<>();
+
+    private final SchemaResolver resolver;
+
+    /** The {@link SchemaResolver#revision() revision} of the referenced documents the compiled schemas were built from. */
+    private long resolverRevision;
+
+    public JsonSchemaRegistry() {
+        this(SchemaResolver.defaults());
+    }
+
+    /**
+     * @param resolver resolves the remote references of the schemas compiled by this registry
+     */
+    public JsonSchemaRegistry(SchemaResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * @return the registry shared by all validators that are not given a registry explicitly
+     */
+    public static JsonSchemaRegistry defaultRegistry() {
+        return DEFAULT_REGISTRY;
+    }
+
+    /**
+     * Get the compiled schema for a resource from the maven src/main/resources directory
+     * @param resourcePath classpath location of the schema, e.g. {@code schema/phenopacket-general-schema.json}
+     * @return the compiled schema, compiling it if this is the first request
+     */
+    public JsonSchema getClasspathSchema(String resourcePath) {
+        SchemaKey key = new SchemaKey("classpath:" + resourcePath, 0L, 0L);
+        discardIfReferencesChanged();
+        return schemas.computeIfAbsent(key, k -> compileClasspathSchema(resourcePath));
+    }
+
+    /**
+     * Get the parsed JSON of a schema resource without compiling it.
+     * @param resourcePath classpath location of the schema
+     * @return the root node of the schema, which must not be modified
+     */
+    public JsonNode getClasspathSchemaNode(String resourcePath) {
+        return classpathSchemaNodes.computeIfAbsent(resourcePath, JsonSchemaRegistry::readClasspathSchema);
+    }
+
+    /**
+     * Get the compiled schema for a user-supplied schema file. If the file was modified since it was compiled, it is
+     * compiled again and the stale entry is discarded.
+     * @param schemaFile a JSON Schema file
+     * @return the compiled schema
+     */
+    public JsonSchema getFileSchema(File schemaFile) {
+        if (! schemaFile.isFile()) {
+            throw new PhenopacketValidatorRuntimeException("Could not find input json file \"" + schemaFile.getAbsolutePath() + "\"");
+        }
+        String path = canonicalPath(schemaFile);
+        SchemaKey key = new SchemaKey(path, schemaFile.lastModified(), schemaFile.length());
+        discardIfReferencesChanged();
+        JsonSchema schema = schemas.get(key);
+        if (schema != null) {
+            return schema;
+        }
+        schemas.keySet().removeIf(k -> k.location.equals(path));
+        return schemas.computeIfAbsent(key, k -> compileFileSchema(schemaFile));
+    }
+
+    /**
+     * @return the resolver of remote references, to which further mappings can be added before compiling schemas
+     */
+    public SchemaResolver resolver() {
+        return resolver;
+    }
+
+    /**
+     * @return number of compiled schemas currently held by this registry
+     */
+    public int size() {
+        return schemas.size();
+    }
+
+    /** Discard all compiled schemas. */
+    public void clear() {
+        schemas.clear();
+    }
+
+    /**
+     * The schema library caches the compiled schema of each referenced URI in its factory, so the factory is
+     * discarded together with the compiled schemas.
+     */
+    private void discardIfReferencesChanged() {
+        long revision = resolver.revision();
+        synchronized (this) {
+            if (revision != resolverRevision) {
+                schemas.clear();
+                schemaFactory = null;
+                resolverRevision = revision;
+            }
+        }
+    }
+
+    private JsonSchemaFactory schemaFactory() {
+        JsonSchemaFactory factory = schemaFactory;
+        if (factory == null) {
+            synchronized (this) {
+                factory = schemaFactory;
+                if (factory == null) {
+                    factory = JsonSchemaFactory.builder(JsonSchemaFactory.getInstance(JsonSchemaValidator.VERSION_FLAG))
+                            .uriFetcher(resolver, "http", "https", "ftp")
+                            .build();
+                    schemaFactory = factory;
+                }
+            }
+        }
+        return factory;
+    }
+
+    private static JsonNode readClasspathSchema(String resourcePath) {
+        try (InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                throw new PhenopacketValidatorRuntimeException("Could not find schema resource \"" + resourcePath + "\"");
+            }
+            return JsonSchemaValidator.OBJECT_MAPPER.readTree(is);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read schema resource \"" + resourcePath + "\"", e);
+        }
+    }
+
+    private JsonSchema compileClasspathSchema(String resourcePath) {
+        JsonNode schemaNode = getClasspathSchemaNode(resourcePath);
+        long start = ValidationMetrics.global().startTimer();
+        try {
+            JsonSchema schema = schemaFactory().getSchema(schemaNode);
+            ValidationMetrics.global().record(Stage.SCHEMA_COMPILE, start);
+            return schema;
+        } catch (JsonSchemaException e) {
+            throw compileError("schema resource \"" + resourcePath + "\"", e);
+        }
+    }
+
+    private JsonSchema compileFileSchema(File schemaFile) {
+        long start = ValidationMetrics.global().startTimer();
+        try (InputStream is = new FileInputStream(schemaFile)) {
+            JsonSchema schema = schemaFactory().getSchema(is);
+            ValidationMetrics.global().record(Stage.SCHEMA_COMPILE, start);
+            return schema;
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read schema file \"" + schemaFile.getAbsolutePath() + "\"", e);
+        } catch (JsonSchemaException e) {
+            throw compileError("schema file \"" + schemaFile.getAbsolutePath() + "\"", e);
+        }
+    }
+
+    /** The schema library wraps the failure to load a referenced schema, the root cause says which reference. */
+    private static PhenopacketValidatorRuntimeException compileError(String schema, JsonSchemaException e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return new PhenopacketValidatorRuntimeException("Could not compile " + schema + ": " + cause.getMessage(), e);
+    }
+
+    private static String canonicalPath(File f) {
+        try {
+            return f.getCanonicalPath();
+        } catch (IOException e) {
+            return f.getAbsolutePath();
+        }
+    }
+
+    private static final class SchemaKey {
+        private final String location;
+        private final long lastModified;
+        private final long length;
+
+        private SchemaKey(String location, long lastModified, long length) {
+            this.location = location;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (! (obj instanceof SchemaKey)) return false;
+            SchemaKey that = (SchemaKey) obj;
+            return this.location.equals(that.location) && this.lastModified == that.lastModified && this.length == that.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(location, lastModified, length);
+        }
+    }
+}
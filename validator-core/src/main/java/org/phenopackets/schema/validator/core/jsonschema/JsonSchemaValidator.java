@@ -6,51 +6,156 @@
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.networknt.schema.JsonSchema;
-import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.SpecVersion;
 import com.networknt.schema.ValidationMessage;
 import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.JsonNodeValidator;
 import org.phenopackets.schema.validator.core.validation.JsonValidator;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
 import org.phenopackets.schema.validator.core.validation.ValidationItem;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 
-public class JsonSchemaValidator implements JsonValidator {
+/**
+ * Validates JSON documents against a compiled JSON Schema. The compiled schema is obtained from a
+ * {@link JsonSchemaRegistry} and is never modified, so that a single instance can be used to validate any number of
+ * documents, also from several threads. The built-in schemas are compiled when the first document is validated, so
+ * that setting up a pipeline whose documents all come from a result cache does not pay for schema compilation.
+ */
+public class JsonSchemaValidator implements JsonValidator, JsonNodeValidator {
 
-    protected JsonSchema jsonSchema;
-    protected  ObjectMapper objectMapper = new ObjectMapper();
+    /** Classpath location of the generic phenopacket schema. */
+    public static final String GENERAL_SCHEMA = "schema/phenopacket-general-schema.json";
     /** The latest version of the spec that is supported by our JSON SCHEMA library is 2019/09. */
     protected static final SpecVersion.VersionFlag VERSION_FLAG = SpecVersion.VersionFlag.V201909;
-    protected File jsonFile;
+    /** {@link ObjectMapper} is thread-safe once configured, so all validators share one instance. */
+    protected static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    protected final File jsonFile;
+    private final JsonNode schemaNode;
+    private final Supplier<JsonSchema> compiler;
+    private final SchemaResolver resolver;
+    private final String name;
+    /**
+     * The compiled schema; it is set by the constructors that subclasses can call, so subclasses may keep using the
+     * field, but the built-in validators compile their schema on first use and are only read through
+     * {@link #jsonSchema()}.
+     */
+    protected volatile JsonSchema jsonSchema;
 
     /**
      * Constructor for validation using JSON Schema
      * @param f a JSON file.
      */
     public JsonSchemaValidator(File f) {
-        this.jsonFile = f;
+        this(f, JsonSchemaRegistry.defaultRegistry().getClasspathSchema(GENERAL_SCHEMA));
+    }
+
+    /**
+     * Constructor for a validator that is not bound to a file and that can be reused with {@link #validate(File)} and
+     * {@link #validate(JsonNode)}.
+     * @param jsonSchema a compiled schema, usually obtained from a {@link JsonSchemaRegistry}
+     */
+    public JsonSchemaValidator(JsonSchema jsonSchema) {
+        this(jsonSchema, JsonSchemaRegistry.defaultRegistry());
+    }
+
+    /**
+     * @param jsonSchema a compiled schema
+     * @param registry the registry that compiled the schema, whose resolver loads the schemas it refers to
+     */
+    public JsonSchemaValidator(JsonSchema jsonSchema, JsonSchemaRegistry registry) {
+        this(jsonSchema, jsonSchema.getCurrentUri() == null ? "json-schema" : jsonSchema.getCurrentUri().toString(), registry);
+    }
+
+    /**
+     * @param jsonSchema a compiled schema
+     * @param location where the schema was loaded from, which names the validator if the schema has no title
+     * @param registry the registry that compiled the schema
+     */
+    JsonSchemaValidator(JsonSchema jsonSchema, String location, JsonSchemaRegistry registry) {
+        this(null, jsonSchema.getSchemaNode(), location, () -> jsonSchema, registry.resolver());
+        this.jsonSchema = jsonSchema;
+    }
+
+    protected JsonSchemaValidator(File f, JsonSchema jsonSchema) {
+        this(f, jsonSchema.getSchemaNode(), f.getPath(), () -> jsonSchema, JsonSchemaRegistry.defaultRegistry().resolver());
         if (! f.isFile()) {
             throw new PhenopacketValidatorRuntimeException("Could not open file at \"" + f.getAbsolutePath() + "\"");
         }
-        JsonSchemaFactory schemaFactory = JsonSchemaFactory.getInstance(VERSION_FLAG);
-        try {
-            InputStream baseSchemaStream = inputStreamFromClasspath("schema/phenopacket-general-schema.json");
-            this.jsonSchema = schemaFactory.getSchema(baseSchemaStream);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        this.jsonSchema = jsonSchema;
+    }
+
+    private JsonSchemaValidator(File f, JsonNode schemaNode, String location, Supplier<JsonSchema> compiler,
+                                SchemaResolver resolver) {
+        this.jsonFile = f;
+        this.schemaNode = schemaNode;
+        this.compiler = compiler;
+        this.resolver = resolver;
+        this.name = schemaTitle(schemaNode, location);
+    }
+
+    /**
+     * @param resourcePath classpath location of a schema
+     * @return a reusable validator that compiles the schema with the default registry when it is first used
+     */
+    static JsonSchemaValidator forClasspathSchema(String resourcePath) {
+        JsonSchemaRegistry registry = JsonSchemaRegistry.defaultRegistry();
+        return new JsonSchemaValidator(null, registry.getClasspathSchemaNode(resourcePath), resourcePath,
+                () -> registry.getClasspathSchema(resourcePath), registry.resolver());
     }
 
-    public JsonSchemaValidator() {
+    /** Untitled schemas are named after their location, so that each of them gets a timer of its own. */
+    private static String schemaTitle(JsonNode schemaNode, String location) {
+        JsonNode title = schemaNode.get("title");
+        return title != null && title.isTextual() ? title.textValue() : "json-schema:" + location;
+    }
 
+    /**
+     * @return a reusable validator for the generic phenopacket schema
+     */
+    public static JsonSchemaValidator generic() {
+        return forClasspathSchema(GENERAL_SCHEMA);
     }
 
+    /**
+     * @return the compiled schema, compiling it if this is the first use of the validator
+     */
+    protected JsonSchema jsonSchema() {
+        JsonSchema schema = jsonSchema;
+        if (schema == null) {
+            // the registry compiles each schema once, so a race between two threads costs at most a map lookup
+            schema = compiler.get();
+            jsonSchema = schema;
+        }
+        return schema;
+    }
+
+    /**
+     * @return the title of the schema, or {@code json-schema:} followed by its location if it has none
+     */
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the class name together with the content of the compiled schema and the hashes of the remote schemas it
+     * refers to, so that any edit of the schema or of a schema it refers to changes the fingerprint
+     */
+    @Override
+    public String fingerprint() {
+        return getClass().getName() + ":" + schemaNode + resolver.referenceFingerprint(schemaNode);
+    }
 
     /**
      * Get a resource from the maven src/main/resources directory
@@ -67,17 +172,62 @@ protected static InputStream inputStreamFromClasspath(String path) {
      */
     @Override
     public List<ValidationItem> validate() {
-        List<ValidationItem> errors = new ArrayList<>();
-        try {
-            InputStream jsonStream = new FileInputStream(jsonFile);
-            JsonNode json = objectMapper.readTree(jsonStream);
-            Set<ValidationMessage> validationResult = jsonSchema.validate(json);
-            if (! validationResult.isEmpty()) {
-                validationResult.forEach(e -> errors.add(new JsonValidationError(e)));
+        if (jsonFile == null) {
+            throw new PhenopacketValidatorRuntimeException("No JSON file was provided to this validator");
+        }
+        return validate(jsonFile);
+    }
+
+    /**
+     * Validate a JSON file against the schema of this validator.
+     * @param f a JSON file
+     * @return List of {@link JsonValidationError} objects (empty list if there were no errors), or a single
+     * {@link ErrorType#UNREADABLE_DOCUMENT} error if the file cannot be read or parsed
+     */
+    public List<ValidationItem> validate(File f) {
+        try (InputStream jsonStream = new FileInputStream(f)) {
+            JsonNode json = OBJECT_MAPPER.readTree(jsonStream);
+            if (json == null || json.isMissingNode()) {
+                return List.of(new ValidationError(ErrorType.UNREADABLE_DOCUMENT, f.getPath() + ": no JSON content found"));
+            }
+            return validate(json);
+        } catch (IOException e) {
+            return List.of(new ValidationError(ErrorType.UNREADABLE_DOCUMENT, f.getPath() + ": " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Validate an already parsed JSON document against the schema of this validator.
+     * @param json root node of the document
+     * @return List of {@link JsonValidationError} objects (empty list if there were no errors)
+     */
+    @Override
+    public List<ValidationItem> validate(JsonNode json) {
+        return validate(json, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The schema library always evaluates the whole document, but only the first {@code maxErrors} messages are
+     * converted to {@link JsonValidationError}s.
+     */
+    @Override
+    public List<ValidationItem> validate(JsonNode json, int maxErrors) {
+        Set<ValidationMessage> validationResult = jsonSchema().validate(json);
+        if (validationResult.isEmpty()) {
+            return List.of();
+        }
+        List<ValidationItem> errors = new ArrayList<>(Math.min(maxErrors, validationResult.size()));
+        for (ValidationMessage message : validationResult) {
+            if (errors.size() == maxErrors) {
+                break;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            errors.add(new JsonValidationError(message));
         }
         return errors;
     }
+
+    @Override
+    public boolean isValid(JsonNode json) {
+        return jsonSchema().validate(json).isEmpty();
+    }
 }
@@ -1,28 +1,87 @@
 package org.phenopackets.schema.validator.core.jsonschema;
 import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.ValidatorTypeCode;
 import org.phenopackets.schema.validator.core.validation.ErrorType;
 import org.phenopackets.schema.validator.core.validation.ValidationItem;
 
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
- * POJO to represent errors identified by JSON Schema validation.
+ * POJO to represent errors identified by JSON Schema validation. An error keeps the location, the keyword and the
+ * arguments of the {@link ValidationMessage}, and shares the message template of the keyword with all other errors of
+ * the same kind. The human-readable message is only formatted when {@link #message()} is called, so that a batch over
+ * dirty data does not build a string for every error it never prints. A message that does not come from the keyword's
+ * own template, such as a custom error code of the schema, is kept as the library built it.
  * @author Peter N Robinson
  */
 public final class JsonValidationError implements ValidationItem {
 
+    /** Message templates of the schema library by keyword. */
+    private static final Map<String, ValidatorTypeCode> TYPE_CODES = new HashMap<>();
+    /**
+     * Per-thread copies of the templates by keyword. {@link MessageFormat} is not thread-safe and the library formats
+     * its own instances without locking, so the errors never format from those.
+     */
+    private static final Map<String, ThreadLocal<MessageFormat>> TEMPLATES = new HashMap<>();
+
+    static {
+        for (ValidatorTypeCode code : ValidatorTypeCode.values()) {
+            MessageFormat format = code.getMessageFormat();
+            if (format != null) {
+                TYPE_CODES.put(code.getValue(), code);
+                TEMPLATES.put(code.getValue(), ThreadLocal.withInitial(() -> (MessageFormat) format.clone()));
+            }
+        }
+    }
+
     private final ErrorType errorType;
-    private final String message;
+    private final String keyword;
+    private final String path;
+    private final Object[] arguments;
+    /** Shared template, or null if the keyword has none and {@link #formattedMessage} is used instead. */
+    private final ThreadLocal<MessageFormat> template;
+    private final String formattedMessage;
 
     public JsonValidationError(ValidationMessage validationMessage) {
-        this.errorType = ErrorType.stringToErrorType(validationMessage.getType());
-        this.message = validationMessage.getMessage();
+        String type = validationMessage.getType();
+        ValidatorTypeCode code = TYPE_CODES.get(type);
+        this.errorType = ErrorType.stringToErrorType(type);
+        this.path = validationMessage.getPath() == null ? "$" : validationMessage.getPath();
+        if (code != null && usesTemplate(code, validationMessage)) {
+            this.keyword = code.getValue();
+            this.template = TEMPLATES.get(this.keyword);
+            String[] args = validationMessage.getArguments();
+            this.arguments = new Object[1 + (args == null ? 0 : args.length)];
+            this.arguments[0] = path;
+            if (args != null) {
+                System.arraycopy(args, 0, this.arguments, 1, args.length);
+            }
+            this.formattedMessage = null;
+        } else {
+            this.keyword = code != null ? code.getValue() : type == null ? ErrorType.UNKNOWN.toString() : type.intern();
+            this.template = null;
+            this.arguments = null;
+            this.formattedMessage = validationMessage.getMessage();
+        }
     }
 
+    /**
+     * @return true if the library built the message from the keyword's own template, so it can be formatted again
+     */
+    private static boolean usesTemplate(ValidatorTypeCode code, ValidationMessage validationMessage) {
+        return validationMessage.getMessage() == null || code.getErrorCode().equals(validationMessage.getCode());
+    }
 
     @Override
     public String message() {
-        return message;
+        if (template == null) {
+            return formattedMessage;
+        }
+        return template.get().format(arguments);
     }
 
     @Override
@@ -30,16 +89,31 @@ public ErrorType errorType() {
         return this.errorType;
     }
 
+    @Override
+    public String path() {
+        return path;
+    }
+
+    @Override
+    public String keyword() {
+        return keyword;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(message, errorType);
+        return Objects.hash(keyword, path, Arrays.hashCode(arguments), formattedMessage);
     }
 
     @Override
     public boolean equals(Object obj) {
         if (! (obj instanceof JsonValidationError)) return false;
         JsonValidationError that = (JsonValidationError) obj;
-        return this.message.equals(that.message) && this.errorType.equals(that.errorType);
+        return this.errorType == that.errorType && this.keyword.equals(that.keyword) && this.path.equals(that.path)
+                && Arrays.equals(this.arguments, that.arguments) && Objects.equals(this.formattedMessage, that.formattedMessage);
     }
 
+    @Override
+    public String toString() {
+        return "(" + errorType + ") " + message();
+    }
 }
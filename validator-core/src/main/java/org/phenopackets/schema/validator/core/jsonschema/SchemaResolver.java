@@ -0,0 +1,312 @@
+package org.phenopackets.schema.validator.core.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.uri.URIFetcher;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the remote ({@code http}, {@code https} and {@code ftp}) URIs of {@code $ref}s in JSON schemas to local
+ * resources, so that compiling a schema never goes to the network. Each mapping replaces a URI prefix by a location
+ * that is either a classpath resource ({@code classpath:schema/phenopacket-general-schema.json}) or a path on the
+ * file system. A prefix that ends with {@code /} can be mapped to a directory, in which case the rest of the URI is
+ * resolved against the directory; a rest that leads out of the directory, e.g. with {@code ../}, is refused.
+ * <p>
+ * The longest matching prefix wins. References to URIs without a mapping are refused with an {@link IOException},
+ * instead of blocking on a network connection that an air-gapped machine cannot make. Each document is loaded once
+ * and kept together with its location and, for files, its modification time and size, and the schema library caches
+ * the compiled schema of each URI, so that a shared schema is compiled once for all the schemas that refer to it.
+ * <p>
+ * Mappings may be added at any time. A kept document whose URI is now mapped elsewhere, or whose file was modified,
+ * is loaded again, and {@link #revision()} changes so that a {@link JsonSchemaRegistry} knows to recompile the
+ * schemas that may refer to it.
+ */
+public final class SchemaResolver implements URIFetcher {
+
+    /** The {@code $id} of the generic phenopacket schema, which user schemas refer to for shared definitions. */
+    public static final String PHENOPACKET_SCHEMA_ID = "https://www.ga4gh.org/phenopackets";
+    /** Prefix of the locations of classpath resources. */
+    public static final String CLASSPATH = "classpath:";
+
+    /** Sorted in reverse, so that longer prefixes come before the prefixes they start with. */
+    private final Map<String, String> mappings = new TreeMap<>(Comparator.reverseOrder());
+    private final ConcurrentMap<URI, Document> documents = new ConcurrentHashMap<>();
+    /** Counts the kept documents that were found to be out of date. */
+    private final AtomicLong revision = new AtomicLong();
+
+    /**
+     * @return a resolver that maps the {@code $id} of the generic phenopacket schema to the copy in this library
+     */
+    public static SchemaResolver defaults() {
+        SchemaResolver resolver = new SchemaResolver();
+        resolver.map(PHENOPACKET_SCHEMA_ID, CLASSPATH + JsonSchemaValidator.GENERAL_SCHEMA);
+        return resolver;
+    }
+
+    /**
+     * @param uriPrefix a URI, or a URI prefix ending with {@code /}
+     * @param location a classpath resource with the prefix {@value #CLASSPATH}, or a file or directory
+     */
+    public synchronized void map(String uriPrefix, String location) {
+        mappings.put(stripFragment(uriPrefix), location);
+    }
+
+    /**
+     * Add a mapping given as {@code uriPrefix=location}, e.g. from the command line.
+     * @param mapping a mapping in the form {@code uriPrefix=location}
+     */
+    public void map(String mapping) {
+        int eq = mapping.indexOf('=');
+        if (eq < 1 || eq == mapping.length() - 1) {
+            throw new IllegalArgumentException("Schema mapping must have the form URI=LOCATION but was \"" + mapping + "\"");
+        }
+        map(mapping.substring(0, eq), mapping.substring(eq + 1));
+    }
+
+    /**
+     * @return the mappings by URI prefix
+     */
+    public synchronized Map<String, String> mappings() {
+        return Map.copyOf(mappings);
+    }
+
+    /**
+     * @return number of distinct documents that were loaded so far
+     */
+    public int loadedDocuments() {
+        return documents.size();
+    }
+
+    /**
+     * Check the kept documents against the current mappings and files, and discard those that are out of date.
+     * @return a number that changes whenever a kept document was found to be out of date
+     */
+    public long revision() {
+        for (Map.Entry<URI, Document> entry : documents.entrySet()) {
+            if (! entry.getValue().isCurrent(resolveQuietly(entry.getKey())) && documents.remove(entry.getKey(), entry.getValue())) {
+                revision.incrementAndGet();
+            }
+        }
+        return revision.get();
+    }
+
+    @Override
+    public InputStream fetch(URI uri) throws IOException {
+        return new ByteArrayInputStream(document(uri).content);
+    }
+
+    /**
+     * Fingerprint the remote documents that a schema refers to, directly or through other remote documents, so that
+     * a change of any of them changes the fingerprint of the schema. References are resolved against the
+     * {@code $id} of the schema or of the document that contains them. A reference that cannot be loaded is
+     * fingerprinted as unresolved.
+     * @param schemaNode root node of a schema
+     * @return the URI and the SHA-256 of the content of each referenced document, in the order they are referred to
+     */
+    public String referenceFingerprint(JsonNode schemaNode) {
+        StringBuilder fingerprint = new StringBuilder();
+        Set<URI> visited = new HashSet<>();
+        Deque<URI> pending = new ArrayDeque<>();
+        collectReferences(schemaNode, baseUri(schemaNode, null), pending);
+        while (! pending.isEmpty()) {
+            URI uri = pending.removeFirst();
+            if (! visited.add(uri)) {
+                continue;
+            }
+            fingerprint.append('\n').append(uri).append('=');
+            try {
+                Document document = document(uri);
+                fingerprint.append(document.sha256());
+                JsonNode referenced = JsonSchemaValidator.OBJECT_MAPPER.readTree(document.content);
+                collectReferences(referenced, baseUri(referenced, uri), pending);
+            } catch (IOException e) {
+                fingerprint.append("unresolved");
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    private static URI baseUri(JsonNode schemaNode, URI documentUri) {
+        JsonNode id = schemaNode.get("$id");
+        if (id != null && id.isTextual()) {
+            try {
+                return documentUri == null ? new URI(id.textValue()) : documentUri.resolve(id.textValue());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return documentUri;
+            }
+        }
+        return documentUri;
+    }
+
+    private static void collectReferences(JsonNode node, URI base, Deque<URI> pending) {
+        if (node.isObject()) {
+            JsonNode ref = node.get("$ref");
+            if (ref != null && ref.isTextual()) {
+                try {
+                    URI uri = base == null ? new URI(ref.textValue()) : base.resolve(ref.textValue());
+                    String scheme = uri.getScheme();
+                    if ("http".equals(scheme) || "https".equals(scheme) || "ftp".equals(scheme)) {
+                        pending.addLast(URI.create(stripFragment(uri.toString())));
+                    }
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // the schema library refuses the reference when it compiles the schema
+                }
+            }
+        }
+        for (JsonNode child : node) {
+            collectReferences(child, base, pending);
+        }
+    }
+
+    private Document document(URI uri) throws IOException {
+        URI key = URI.create(stripFragment(uri.toString()));
+        String location = resolve(key.toString());
+        if (location == null) {
+            throw new IOException("Schema reference \"" + uri + "\" is not mapped to a local resource, add a mapping for it");
+        }
+        Document document = documents.get(key);
+        if (document == null || ! document.isCurrent(location)) {
+            Document loaded = load(key, location);
+            Document previous = document == null ? documents.putIfAbsent(key, loaded) : documents.put(key, loaded);
+            if (document != null) {
+                revision.incrementAndGet();
+            } else if (previous != null) {
+                return previous;
+            }
+            document = loaded;
+        }
+        return document;
+    }
+
+    private static Document load(URI uri, String location) throws IOException {
+        if (location.startsWith(CLASSPATH)) {
+            String resource = location.substring(CLASSPATH.length());
+            try (InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource)) {
+                if (is == null) {
+                    throw new IOException("Could not find schema resource \"" + resource + "\" for \"" + uri + "\"");
+                }
+                return new Document(location, 0L, 0L, is.readAllBytes());
+            }
+        }
+        File file = new File(location);
+        if (! file.isFile()) {
+            throw new IOException("Could not find schema file \"" + file + "\" for \"" + uri + "\"");
+        }
+        long lastModified = file.lastModified();
+        long length = file.length();
+        return new Document(location, lastModified, length, Files.readAllBytes(file.toPath()));
+    }
+
+    /** @return the location that {@code uri} is mapped to, or {@code null} if it is not mapped or leads out of it */
+    private String resolveQuietly(URI uri) {
+        try {
+            return resolve(uri.toString());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the location that {@code uri} is mapped to, or {@code null} if it is not mapped
+     * @throws IOException if the rest of the URI below a directory mapping leads out of the directory
+     */
+    private synchronized String resolve(String uri) throws IOException {
+        for (Map.Entry<String, String> mapping : mappings.entrySet()) {
+            String prefix = mapping.getKey();
+            if (uri.equals(prefix)) {
+                return mapping.getValue();
+            }
+            if (prefix.endsWith("/") && uri.startsWith(prefix)) {
+                String rest = containedPath(uri.substring(prefix.length()));
+                if (rest == null) {
+                    throw new IOException("Schema reference \"" + uri + "\" leads out of the location mapped to \"" + prefix + "\"");
+                }
+                String location = mapping.getValue();
+                return location.endsWith("/") ? location + rest : location + "/" + rest;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Normalize the rest of a URI below a directory mapping, for files as well as for classpath resources.
+     * @return the path without empty, {@code .} and {@code ..} segments, or {@code null} if a {@code ..} goes above
+     * the mapped directory
+     */
+    private static String containedPath(String rest) {
+        Deque<String> segments = new ArrayDeque<>();
+        for (String segment : rest.split("[/\\\\]")) {
+            if (segment.equals("..")) {
+                if (segments.isEmpty()) {
+                    return null;
+                }
+                segments.removeLast();
+            } else if (! segment.isEmpty() && ! segment.equals(".")) {
+                segments.addLast(segment);
+            }
+        }
+        return String.join("/", segments);
+    }
+
+    private static String stripFragment(String uri) {
+        int hash = uri.indexOf('#');
+        return hash < 0 ? uri : uri.substring(0, hash);
+    }
+
+    /** A loaded document, with what is needed to tell whether it is still the document its URI refers to. */
+    private static final class Document {
+        private final String location;
+        private final long lastModified;
+        private final long length;
+        private final byte[] content;
+
+        private Document(String location, long lastModified, long length, byte[] content) {
+            this.location = location;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.content = content;
+        }
+
+        private boolean isCurrent(String currentLocation) {
+            if (! location.equals(currentLocation)) {
+                return false;
+            }
+            if (location.startsWith(CLASSPATH)) {
+                return true;
+            }
+            File file = new File(location);
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+
+        private String sha256() {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+                StringBuilder hex = new StringBuilder(2 * hash.length);
+                for (byte b : hash) {
+                    hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                }
+                return hex.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.phenopackets.schema.validator.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies with one bucket per power of two nanoseconds, so recording is a handful of atomic
+ * increments and never allocates. Percentiles are therefore accurate to within a factor of two, which is enough to
+ * see which stage dominates and how the tail behaves.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    /** Bucket i counts latencies in [2^(i-1), 2^i) nanoseconds; bucket 0 counts latencies of 0 ns. */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && ! maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    public double meanNanos() {
+        long n = count();
+        return n == 0 ? 0.0 : (double) totalNanos() / n;
+    }
+
+    /**
+     * @param quantile a value between 0 and 1, e.g. 0.99
+     * @return upper bound of the bucket that contains the quantile, in nanoseconds, but at most the maximum
+     */
+    public long percentileNanos(double quantile) {
+        long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                long upper = i == 0 ? 0 : (1L << i) - 1;
+                return Math.min(upper, maxNanos());
+            }
+        }
+        return maxNanos();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms", count(), meanNanos() / 1e6,
+                percentileNanos(0.5) / 1e6, percentileNanos(0.99) / 1e6, maxNanos() / 1e6);
+    }
+}
@@ -0,0 +1,17 @@
+package org.phenopackets.schema.validator.core.metrics;
+
+/**
+ * The stages of validating a document whose latency is recorded by {@link ValidationMetrics}.
+ */
+public enum Stage {
+    /** Compilation of a JSON schema, which happens once per schema and process. */
+    SCHEMA_COMPILE,
+    /** Reading the bytes of a document. */
+    READ,
+    /** Parsing a document into a Jackson tree. */
+    PARSE,
+    /** Evaluation of all stages of a pipeline, including the creation of the error items. */
+    EVALUATE,
+    /** The whole document, from reading to the finished result. */
+    DOCUMENT
+}
@@ -0,0 +1,315 @@
+package org.phenopackets.schema.validator.core.metrics;
+
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide instrumentation of the validator: latency histograms per {@link Stage} and per pipeline stage (e.g.
+ * per schema), numbers of documents and of errors per {@link ErrorType} and per pipeline stage, result cache hits and
+ * misses, and gauges for the depth of the work and report queues.
+ * <p>
+ * Metrics are disabled by default. While disabled, {@link #startTimer()} returns 0 without reading the clock and all
+ * record methods return after one volatile read, so the instrumented code paths neither allocate nor contend. While
+ * enabled, all updates are lock-free.
+ * <pre>{@code
+ * long start = metrics.startTimer();
+ * ... work ...
+ * metrics.record(Stage.PARSE, start);
+ * }</pre>
+ */
+public final class ValidationMetrics {
+
+    private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+    /** Declared after the constants that the constructor uses. */
+    private static final ValidationMetrics GLOBAL = new ValidationMetrics();
+
+    private volatile boolean enabled = false;
+    private volatile long startNanos = System.nanoTime();
+
+    private final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+    private final ConcurrentMap<String, LatencyHistogram> pipelineStages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> errorsByPipelineStage = new ConcurrentHashMap<>();
+    private final LongAdder[] errorsByType = new LongAdder[ERROR_TYPES.length];
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder invalidDocuments = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    ValidationMetrics() {
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < errorsByType.length; i++) {
+            errorsByType[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return the metrics that all components of the validator record to
+     */
+    public static ValidationMetrics global() {
+        return GLOBAL;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param enabled whether to record from now on; enabling also restarts the clock for {@link #documentsPerSecond()}
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled && ! this.enabled) {
+            startNanos = System.nanoTime();
+        }
+        this.enabled = enabled;
+    }
+
+    /** Discard everything recorded so far, except for the registered gauges. */
+    public void reset() {
+        for (LatencyHistogram histogram : stages) {
+            histogram.reset();
+        }
+        // reset in place, exported meters may hold on to the histograms and adders of the pipeline stages
+        pipelineStages.values().forEach(LatencyHistogram::reset);
+        errorsByPipelineStage.values().forEach(LongAdder::reset);
+        for (LongAdder adder : errorsByType) {
+            adder.reset();
+        }
+        documents.reset();
+        invalidDocuments.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * @return the current time in nanoseconds, or 0 if metrics are disabled
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * @param stage the stage that was timed
+     * @param startNanos value returned by {@link #startTimer()}; nothing is recorded if it is 0
+     */
+    public void record(Stage stage, long startNanos) {
+        if (startNanos != 0L && enabled) {
+            stages[stage.ordinal()].record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Record the latency and the errors of one pipeline stage, e.g. of one JSON schema.
+     * @param name name of the pipeline stage
+     * @param startNanos value returned by {@link #startTimer()}; nothing is recorded if it is 0
+     * @param errors errors found by the stage
+     */
+    public void recordPipelineStage(String name, long startNanos, List<? extends ValidationItem> errors) {
+        if (startNanos == 0L || ! enabled) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        pipelineStage(name).record(nanos);
+        if (! errors.isEmpty()) {
+            LongAdder adder = errorsByPipelineStage.get(name);
+            if (adder == null) {
+                adder = errorsByPipelineStage.computeIfAbsent(name, k -> new LongAdder());
+            }
+            adder.add(errors.size());
+            for (int i = 0; i < errors.size(); i++) {
+                errorsByType[errors.get(i).errorType().ordinal()].increment();
+            }
+        }
+    }
+
+    /**
+     * @param valid whether the document had no errors
+     */
+    public void recordDocument(boolean valid) {
+        if (enabled) {
+            documents.increment();
+            if (! valid) {
+                invalidDocuments.increment();
+            }
+        }
+    }
+
+    public void recordCacheHit() {
+        if (enabled) {
+            cacheHits.increment();
+        }
+    }
+
+    public void recordCacheMiss() {
+        if (enabled) {
+            cacheMisses.increment();
+        }
+    }
+
+    /**
+     * Register a gauge such as the depth of a queue. A gauge with the same name replaces the previous one.
+     * @param name name of the gauge, e.g. {@code batch.queue}
+     * @param value supplies the current value; called from whatever thread exports the metrics
+     */
+    public void registerGauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public void unregisterGauge(String name) {
+        gauges.remove(name);
+    }
+
+    /**
+     * Add to a gauge that several components update at the same time, e.g. the queues of concurrent batches. The
+     * gauge reports the sum of its parts and is removed together with its last part.
+     * @param name name of the gauge, e.g. {@code batch.queue}
+     * @param value supplies the current value of this part
+     * @return removes the part from the gauge again
+     */
+    public Runnable addGaugePart(String name, LongSupplier value) {
+        gauges.compute(name, (k, gauge) -> {
+            SummedGauge summed = gauge instanceof SummedGauge ? (SummedGauge) gauge : new SummedGauge();
+            summed.parts.add(value);
+            return summed;
+        });
+        return () -> gauges.computeIfPresent(name, (k, gauge) -> {
+            if (! (gauge instanceof SummedGauge)) {
+                return gauge;
+            }
+            SummedGauge summed = (SummedGauge) gauge;
+            summed.parts.remove(value);
+            return summed.parts.isEmpty() ? null : summed;
+        });
+    }
+
+    public LatencyHistogram stage(Stage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    /**
+     * @param name name of a pipeline stage, e.g. the title of a schema
+     * @return latency histogram of the stage, created empty if nothing was recorded for it yet
+     */
+    public LatencyHistogram pipelineStage(String name) {
+        LatencyHistogram histogram = pipelineStages.get(name);
+        return histogram != null ? histogram : pipelineStages.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    /**
+     * @return latency histograms of the pipeline stages by name, e.g. by schema title
+     */
+    public Map<String, LatencyHistogram> pipelineStages() {
+        return Map.copyOf(pipelineStages);
+    }
+
+    public long errors(ErrorType errorType) {
+        return errorsByType[errorType.ordinal()].sum();
+    }
+
+    /**
+     * @param pipelineStage name of a pipeline stage
+     * @return number of errors found by the stage
+     */
+    public long errors(String pipelineStage) {
+        LongAdder adder = errorsByPipelineStage.get(pipelineStage);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public long documents() {
+        return documents.sum();
+    }
+
+    public long invalidDocuments() {
+        return invalidDocuments.sum();
+    }
+
+    /**
+     * @return documents per second since metrics were enabled or reset
+     */
+    public double documentsPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0.0 : documents() / seconds;
+    }
+
+    public long cacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long cacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * @return fraction of cache lookups that were hits, 0 if there were none
+     */
+    public double cacheHitRate() {
+        long hits = cacheHits();
+        long total = hits + cacheMisses();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * @return current values of all registered gauges by name
+     */
+    public Map<String, Long> gauges() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, supplier) -> values.put(name, supplier.getAsLong()));
+        return values;
+    }
+
+    /**
+     * @return multi-line summary of everything recorded, e.g. for the end of a command-line run
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        String nl = System.lineSeparator();
+        sb.append(String.format("documents: %d (%d invalid), %.1f/s", documents(), invalidDocuments(), documentsPerSecond())).append(nl);
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = stage(stage);
+            if (histogram.count() > 0) {
+                sb.append(String.format("  %-15s %s", stage, histogram)).append(nl);
+            }
+        }
+        new TreeMap<>(pipelineStages).forEach((name, histogram) -> {
+            if (histogram.count() > 0) {
+                sb.append(String.format("  stage \"%s\": %s, %d error(s)", name, histogram, errors(name))).append(nl);
+            }
+        });
+        for (ErrorType errorType : ERROR_TYPES) {
+            long n = errors(errorType);
+            if (n > 0) {
+                sb.append(String.format("  %s: %d", errorType.name(), n)).append(nl);
+            }
+        }
+        if (cacheHits() + cacheMisses() > 0) {
+            sb.append(String.format("  cache: %d hits, %d misses (%.1f%% hit rate)", cacheHits(), cacheMisses(), 100 * cacheHitRate())).append(nl);
+        }
+        return sb.toString();
+    }
+
+    /** A gauge that reports the sum of the values of several components. */
+    private static final class SummedGauge implements LongSupplier {
+        private final List<LongSupplier> parts = new CopyOnWriteArrayList<>();
+
+        @Override
+        public long getAsLong() {
+            long sum = 0;
+            for (LongSupplier part : parts) {
+                sum += part.getAsLong();
+            }
+            return sum;
+        }
+    }
+}
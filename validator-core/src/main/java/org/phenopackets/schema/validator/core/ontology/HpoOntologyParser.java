@@ -0,0 +1,139 @@
+package org.phenopackets.schema.validator.core.ontology;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the identifiers of the HPO from {@code hp.obo} or from the obographs serialization {@code hp.json} into an
+ * {@link HpoTermIndex}. Only identifiers, alternative identifiers, obsolescence and replacements are read.
+ */
+public final class HpoOntologyParser {
+
+    private static final String OBO_PURL = "http://purl.obolibrary.org/obo/";
+    private static final String TERM_REPLACED_BY = "http://purl.obolibrary.org/obo/IAO_0100001";
+    private static final String HAS_ALTERNATIVE_ID = "http://www.geneontology.org/formats/oboInOwl#hasAlternativeId";
+
+    private HpoOntologyParser() {
+    }
+
+    public static HpoTermIndex parseObo(Path oboFile) {
+        try (BufferedReader reader = Files.newBufferedReader(oboFile, StandardCharsets.UTF_8)) {
+            return parseObo(reader);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read ontology \"" + oboFile + "\"", e);
+        }
+    }
+
+    public static HpoTermIndex parseObo(BufferedReader reader) throws IOException {
+        HpoTermIndex.Builder builder = HpoTermIndex.builder();
+        OboStanza stanza = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("[")) {
+                addStanza(builder, stanza);
+                stanza = line.equals("[Term]") ? new OboStanza() : null;
+            } else if (stanza != null) {
+                int colon = line.indexOf(": ");
+                if (colon < 0) {
+                    continue;
+                }
+                String tag = line.substring(0, colon);
+                String value = stripComment(line.substring(colon + 2));
+                switch (tag) {
+                    case "id":
+                        stanza.id = value;
+                        break;
+                    case "alt_id":
+                        stanza.altIds.add(value);
+                        break;
+                    case "is_obsolete":
+                        stanza.obsolete = value.equals("true");
+                        break;
+                    case "replaced_by":
+                        stanza.replacedBy = value;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        addStanza(builder, stanza);
+        return builder.build();
+    }
+
+    public static HpoTermIndex parseObographsJson(Path jsonFile) {
+        try (InputStream is = Files.newInputStream(jsonFile)) {
+            return parseObographsJson(is);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read ontology \"" + jsonFile + "\"", e);
+        }
+    }
+
+    public static HpoTermIndex parseObographsJson(InputStream is) throws IOException {
+        HpoTermIndex.Builder builder = HpoTermIndex.builder();
+        JsonNode root = new ObjectMapper().readTree(is);
+        for (JsonNode graph : root.path("graphs")) {
+            for (JsonNode node : graph.path("nodes")) {
+                OboStanza stanza = new OboStanza();
+                stanza.id = iriToCurie(node.path("id").asText());
+                JsonNode meta = node.path("meta");
+                stanza.obsolete = meta.path("deprecated").asBoolean(false);
+                for (JsonNode property : meta.path("basicPropertyValues")) {
+                    String predicate = property.path("pred").asText();
+                    String value = iriToCurie(property.path("val").asText());
+                    if (predicate.equals(TERM_REPLACED_BY)) {
+                        stanza.replacedBy = value;
+                    } else if (predicate.equals(HAS_ALTERNATIVE_ID)) {
+                        stanza.altIds.add(value);
+                    }
+                }
+                addStanza(builder, stanza);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void addStanza(HpoTermIndex.Builder builder, OboStanza stanza) {
+        if (stanza == null || stanza.id == null) {
+            return;
+        }
+        if (stanza.obsolete) {
+            builder.add(stanza.id, TermStatus.OBSOLETE, stanza.replacedBy);
+        } else {
+            builder.add(stanza.id, TermStatus.CURRENT, null);
+        }
+        for (String altId : stanza.altIds) {
+            builder.add(altId, TermStatus.ALTERNATE, stanza.id);
+        }
+    }
+
+    /** Turns {@code http://purl.obolibrary.org/obo/HP_0000001} into {@code HP:0000001}. */
+    private static String iriToCurie(String iri) {
+        if (iri.startsWith(OBO_PURL)) {
+            return iri.substring(OBO_PURL.length()).replace('_', ':');
+        }
+        return iri;
+    }
+
+    private static String stripComment(String value) {
+        int comment = value.indexOf(" !");
+        return (comment < 0 ? value : value.substring(0, comment)).trim();
+    }
+
+    private static class OboStanza {
+        private String id;
+        private final List<String> altIds = new ArrayList<>();
+        private boolean obsolete = false;
+        private String replacedBy;
+    }
+}
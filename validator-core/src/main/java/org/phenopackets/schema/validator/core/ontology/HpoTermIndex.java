@@ -0,0 +1,250 @@
+package org.phenopackets.schema.validator.core.ontology;
+
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Compact, read-only index of the identifiers of the Human Phenotype Ontology. An identifier such as
+ * {@code HP:0001250} is encoded as the int {@code 1250}. The index is an open-addressing hash table of int pairs
+ * (identifier, status and replacement) without any boxed keys or values, so a lookup is O(1) and allocation-free.
+ * <p>
+ * The table can be written to a binary file with {@link #write(Path)} and memory-mapped with {@link #map(Path)}.
+ * A mapped index is queried directly from the mapped pages, so startup does not depend on the size of the ontology.
+ * Lookups only use absolute reads and are safe from any number of threads.
+ */
+public final class HpoTermIndex {
+
+    private static final String PREFIX = "HP:";
+    /** "HPOI" followed by the format version. */
+    private static final int MAGIC = 0x48504f49;
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 4;
+    private static final int REPLACEMENT_MASK = 0x00ffffff;
+    private static final int STATUS_SHIFT = 24;
+
+    /** Interleaved slots of (identifier, status << 24 | replacement); identifier 0 marks an empty slot. */
+    private final IntBuffer table;
+    private final int mask;
+    private final int size;
+
+    private HpoTermIndex(IntBuffer table, int size) {
+        this.table = table;
+        this.mask = table.capacity() / 2 - 1;
+        this.size = size;
+    }
+
+    /**
+     * @return number of identifiers in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return hash of the whole table, which differs between ontology releases that change any identifier, status or
+     * replacement
+     */
+    public String fingerprint() {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < table.capacity(); i++) {
+            hash = 31 * hash + table.get(i);
+        }
+        return size + ":" + Long.toHexString(hash);
+    }
+
+    /**
+     * @param curie an identifier such as {@code HP:0001250}
+     * @return the status of the identifier; identifiers that are not well-formed HPO ids are {@link TermStatus#UNKNOWN}
+     */
+    public TermStatus status(String curie) {
+        return status(encode(curie));
+    }
+
+    public TermStatus status(int id) {
+        int slot = find(id);
+        return slot < 0 ? TermStatus.UNKNOWN : TermStatus.fromOrdinal(table.get(2 * slot + 1) >>> STATUS_SHIFT);
+    }
+
+    /**
+     * @param curie an identifier such as {@code HP:0001250}
+     * @return the primary identifier that replaces an alternate or obsolete identifier, or {@code null}
+     */
+    public String replacement(String curie) {
+        int slot = find(encode(curie));
+        if (slot < 0) {
+            return null;
+        }
+        int replacement = table.get(2 * slot + 1) & REPLACEMENT_MASK;
+        return replacement == 0 ? null : decode(replacement);
+    }
+
+    private int find(int id) {
+        if (id <= 0) {
+            return -1;
+        }
+        int slot = hash(id) & mask;
+        while (true) {
+            int key = table.get(2 * slot);
+            if (key == id) {
+                return slot;
+            } else if (key == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @param curie an identifier such as {@code HP:0001250}
+     * @return the numeric part of the identifier, or -1 if it is not a well-formed HPO identifier
+     */
+    public static int encode(String curie) {
+        if (curie == null || curie.length() != PREFIX.length() + 7 || ! curie.startsWith(PREFIX)) {
+            return -1;
+        }
+        int id = 0;
+        for (int i = PREFIX.length(); i < curie.length(); i++) {
+            char c = curie.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = 10 * id + (c - '0');
+        }
+        return id;
+    }
+
+    public static String decode(int id) {
+        return String.format("HP:%07d", id);
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Write the index in a binary format that can be memory-mapped with {@link #map(Path)}.
+     * @param path destination file
+     */
+    public void write(Path path) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (HEADER_INTS + table.capacity())).order(ByteOrder.nativeOrder());
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(table.capacity());
+        for (int i = 0; i < table.capacity(); i++) {
+            buffer.putInt(table.get(i));
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not write HPO index to \"" + path + "\"", e);
+        }
+    }
+
+    /**
+     * Memory-map an index that was written with {@link #write(Path)}. The file must have been written on a machine
+     * with the same byte order.
+     * @param path index file
+     * @return index that reads directly from the mapped file
+     */
+    public static HpoTermIndex map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.nativeOrder());
+            if (buffer.capacity() < 4 * HEADER_INTS || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new PhenopacketValidatorRuntimeException("\"" + path + "\" is not an HPO index file");
+            }
+            int size = buffer.getInt(8);
+            int capacity = buffer.getInt(12);
+            if (buffer.capacity() != 4 * (HEADER_INTS + capacity)) {
+                throw new PhenopacketValidatorRuntimeException("HPO index file \"" + path + "\" is truncated");
+            }
+            buffer.position(4 * HEADER_INTS);
+            return new HpoTermIndex(buffer.slice().order(ByteOrder.nativeOrder()).asIntBuffer(), size);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read HPO index \"" + path + "\"", e);
+        }
+    }
+
+    /**
+     * Load an index from {@code hp.obo}, from the obographs {@code hp.json} or from a binary index file, depending on
+     * the file extension.
+     * @param path ontology or index file
+     * @return the index
+     */
+    public static HpoTermIndex load(Path path) {
+        String name = path.getFileName().toString();
+        if (name.endsWith(".obo")) {
+            return HpoOntologyParser.parseObo(path);
+        } else if (name.endsWith(".json")) {
+            return HpoOntologyParser.parseObographsJson(path);
+        }
+        return map(path);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects identifiers in growable primitive arrays and builds the hash table.
+     */
+    public static final class Builder {
+        private int[] ids = new int[1024];
+        private int[] values = new int[1024];
+        private int count = 0;
+
+        private Builder() {
+        }
+
+        /**
+         * Add an identifier. If the same identifier is added several times, the last entry wins.
+         * @param curie identifier such as {@code HP:0001250}; malformed identifiers are ignored
+         * @param status status of the identifier
+         * @param replacement identifier of the replacing term, or {@code null}
+         * @return this builder
+         */
+        public Builder add(String curie, TermStatus status, String replacement) {
+            int id = encode(curie);
+            if (id <= 0) {
+                return this;
+            }
+            int replacementId = Math.max(encode(replacement), 0);
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * count);
+                values = Arrays.copyOf(values, 2 * count);
+            }
+            ids[count] = id;
+            values[count] = status.ordinal() << STATUS_SHIFT | replacementId;
+            count++;
+            return this;
+        }
+
+        public HpoTermIndex build() {
+            int slots = Integer.highestOneBit(Math.max(2 * count, 16) - 1) << 1;
+            int[] table = new int[2 * slots];
+            int mask = slots - 1;
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                int slot = hash(ids[i]) & mask;
+                while (table[2 * slot] != 0 && table[2 * slot] != ids[i]) {
+                    slot = (slot + 1) & mask;
+                }
+                if (table[2 * slot] == 0) {
+                    size++;
+                }
+                table[2 * slot] = ids[i];
+                table[2 * slot + 1] = values[i];
+            }
+            return new HpoTermIndex(IntBuffer.wrap(table), size);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.phenopackets.schema.validator.core.ontology;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.JsonNodeValidator;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks every {@code "id": "HP:..."} value in a phenopacket against an {@link HpoTermIndex}, for instance the
+ * {@code type} of each phenotypic feature, its onset, severity and modifiers. Identifiers that do not exist in the
+ * ontology, alternative identifiers and obsolete terms are reported as {@link ErrorType#INVALID_ONTOLOGY}, together
+ * with the primary identifier that should be used instead where the ontology provides one.
+ */
+public class OntologyValidator implements JsonNodeValidator {
+
+    private static final String HPO_PREFIX = "HP:";
+
+    private final HpoTermIndex index;
+
+    public OntologyValidator(HpoTermIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public String fingerprint() {
+        return getClass().getName() + ":" + index.fingerprint();
+    }
+
+    @Override
+    public List<ValidationItem> validate(JsonNode json) {
+        return validate(json, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<ValidationItem> validate(JsonNode json, int maxErrors) {
+        List<ValidationItem> errors = new ArrayList<>();
+        visit(json, "$", errors, maxErrors);
+        return errors;
+    }
+
+    private void visit(JsonNode node, String path, List<ValidationItem> errors, int maxErrors) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext() && errors.size() < maxErrors) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = field.getValue();
+                String fieldPath = path + "." + field.getKey();
+                if (field.getKey().equals("id") && value.isTextual() && value.textValue().startsWith(HPO_PREFIX)) {
+                    checkTerm(value.textValue(), fieldPath, errors);
+                } else if (value.isContainerNode()) {
+                    visit(value, fieldPath, errors, maxErrors);
+                }
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size() && errors.size() < maxErrors; i++) {
+                visit(node.get(i), path + "[" + i + "]", errors, maxErrors);
+            }
+        }
+    }
+
+    private void checkTerm(String curie, String path, List<ValidationItem> errors) {
+        switch (index.status(curie)) {
+            case CURRENT:
+                return;
+            case UNKNOWN:
+                errors.add(error(path, curie + " is not a term of the HPO"));
+                return;
+            case ALTERNATE:
+                errors.add(error(path, curie + " is an alternative id, use the primary id " + index.replacement(curie)));
+                return;
+            case OBSOLETE:
+            default:
+                String replacement = index.replacement(curie);
+                errors.add(error(path, curie + " is obsolete" + (replacement == null ? "" : ", replaced by " + replacement)));
+        }
+    }
+
+    private static ValidationError error(String path, String problem) {
+        return new ValidationError(ErrorType.INVALID_ONTOLOGY, path + ": " + problem, path, ErrorType.INVALID_ONTOLOGY.toString());
+    }
+}
@@ -0,0 +1,21 @@
+package org.phenopackets.schema.validator.core.ontology;
+
+/**
+ * Status of an HPO identifier in an {@link HpoTermIndex}.
+ */
+public enum TermStatus {
+    /** The identifier does not occur in the ontology. */
+    UNKNOWN,
+    /** The identifier is the primary identifier of a current term. */
+    CURRENT,
+    /** The identifier is an alternative identifier that has been merged into another term. */
+    ALTERNATE,
+    /** The term has been made obsolete, possibly with a replacement. */
+    OBSOLETE;
+
+    private static final TermStatus[] VALUES = values();
+
+    static TermStatus fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,56 @@
+package org.phenopackets.schema.validator.core.pipeline;
+
+/**
+ * How much of a document a {@link ValidationPipeline} examines. By default all errors of all stages are reported.
+ * With an error budget, the pipeline stops after the stage in which the budget is used up and skips all later
+ * stages, so that invalid input is rejected at the cost of the first stage only.
+ */
+public final class ValidationMode {
+
+    private static final ValidationMode ALL_ERRORS = new ValidationMode(Integer.MAX_VALUE);
+    private static final ValidationMode FAIL_FAST = new ValidationMode(1);
+
+    private final int maxErrorsPerDocument;
+
+    private ValidationMode(int maxErrorsPerDocument) {
+        this.maxErrorsPerDocument = maxErrorsPerDocument;
+    }
+
+    /**
+     * @return mode that reports every error of every stage
+     */
+    public static ValidationMode allErrors() {
+        return ALL_ERRORS;
+    }
+
+    /**
+     * @return mode that stops at the first error of a document
+     */
+    public static ValidationMode failFast() {
+        return FAIL_FAST;
+    }
+
+    /**
+     * @param maxErrors maximum number of errors reported per document
+     * @return mode that stops once a document has {@code maxErrors} errors
+     */
+    public static ValidationMode maxErrors(int maxErrors) {
+        if (maxErrors < 1) {
+            throw new IllegalArgumentException("Maximum number of errors must be positive but was " + maxErrors);
+        }
+        return maxErrors == 1 ? FAIL_FAST : new ValidationMode(maxErrors);
+    }
+
+    public int maxErrorsPerDocument() {
+        return maxErrorsPerDocument;
+    }
+
+    public boolean isFailFast() {
+        return maxErrorsPerDocument == 1;
+    }
+
+    @Override
+    public String toString() {
+        return maxErrorsPerDocument == Integer.MAX_VALUE ? "all errors" : "at most " + maxErrorsPerDocument + " error(s)";
+    }
+}
@@ -0,0 +1,236 @@
+package org.phenopackets.schema.validator.core.pipeline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.jsonschema.AdditionalJsonFileJsonSchemaValidator;
+import org.phenopackets.schema.validator.core.jsonschema.HpoRareDiseaseJsonSchemaValidator;
+import org.phenopackets.schema.validator.core.jsonschema.JsonSchemaValidator;
+import org.phenopackets.schema.validator.core.metrics.Stage;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.validation.JsonNodeValidator;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Validates a document against an ordered list of JSON schemas and other {@link JsonNodeValidator} stages. The
+ * document is read and parsed once, and the resulting {@link JsonNode} is passed to each stage in turn, so that the
+ * I/O and parsing cost does not grow with the number of stages. A pipeline holds no per-document state and can be
+ * shared between threads.
+ */
+public class ValidationPipeline {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final List<JsonNodeValidator> validators;
+
+    private final ValidationMode mode;
+
+    public ValidationPipeline(List<? extends JsonNodeValidator> validators) {
+        this(validators, ValidationMode.allErrors());
+    }
+
+    public ValidationPipeline(List<? extends JsonNodeValidator> validators, ValidationMode mode) {
+        if (validators.isEmpty()) {
+            throw new PhenopacketValidatorRuntimeException("A validation pipeline needs at least one stage");
+        }
+        this.validators = List.copyOf(validators);
+        this.mode = mode;
+    }
+
+    /**
+     * @return pipeline that validates against the generic phenopacket schema only
+     */
+    public static ValidationPipeline generic() {
+        return new ValidationPipeline(List.of(JsonSchemaValidator.generic()));
+    }
+
+    /**
+     * @return pipeline that validates against the generic and the HPO rare-disease schemas
+     */
+    public static ValidationPipeline rareDisease() {
+        return new ValidationPipeline(List.of(JsonSchemaValidator.generic(), HpoRareDiseaseJsonSchemaValidator.rareDisease()));
+    }
+
+    /**
+     * @param jsonSchemaPaths Paths to user-defined JSON Schema files
+     * @return pipeline that validates against the generic schema followed by each of the user-defined schemas
+     */
+    public static ValidationPipeline withAdditionalSchemas(String... jsonSchemaPaths) {
+        List<JsonNodeValidator> validators = new ArrayList<>();
+        validators.add(JsonSchemaValidator.generic());
+        Arrays.stream(jsonSchemaPaths)
+                .map(File::new)
+                .map(AdditionalJsonFileJsonSchemaValidator::forSchemaFile)
+                .forEach(validators::add);
+        return new ValidationPipeline(validators);
+    }
+
+    /**
+     * @return the stages of this pipeline in the order in which they are applied
+     */
+    public List<JsonNodeValidator> validators() {
+        return validators;
+    }
+
+    public ValidationMode mode() {
+        return mode;
+    }
+
+    /**
+     * @param mode error budget per document
+     * @return a new pipeline with the same stages and the given mode
+     */
+    public ValidationPipeline withMode(ValidationMode mode) {
+        return new ValidationPipeline(validators, mode);
+    }
+
+    /**
+     * @return SHA-256 of the fingerprints of all stages in order and of the mode, as a hex string. Pipelines with the same fingerprint
+     * report the same items for the same document.
+     */
+    public String fingerprint() {
+        MessageDigest digest = sha256();
+        for (JsonNodeValidator validator : validators) {
+            digest.update(validator.fingerprint().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        digest.update(mode.toString().getBytes(StandardCharsets.UTF_8));
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @param validator an additional stage, e.g. an ontology check
+     * @return a new pipeline that applies {@code validator} after all stages of this pipeline
+     */
+    public ValidationPipeline with(JsonNodeValidator validator) {
+        List<JsonNodeValidator> extended = new ArrayList<>(validators);
+        extended.add(validator);
+        return new ValidationPipeline(extended, mode);
+    }
+
+    /**
+     * Validate a JSON file against all stages of this pipeline.
+     * @param jsonFile a JSON file
+     * @return errors of all stages, in the order of the stages
+     */
+    public List<ValidationItem> validate(File jsonFile) {
+        return validate(DocumentSource.of(jsonFile.toPath()));
+    }
+
+    /**
+     * Validate a JSON document from any source, e.g. an entry of an archive, against all stages of this pipeline.
+     * @param source the document
+     * @return errors of all stages, in the order of the stages
+     */
+    public List<ValidationItem> validate(DocumentSource source) {
+        ValidationMetrics metrics = ValidationMetrics.global();
+        try {
+            long start = metrics.startTimer();
+            byte[] content = source.readAllBytes();
+            metrics.record(Stage.READ, start);
+            start = metrics.startTimer();
+            JsonNode json = OBJECT_MAPPER.readTree(content);
+            metrics.record(Stage.PARSE, start);
+            if (json == null || json.isMissingNode()) {
+                throw new IOException("No JSON content found");
+            }
+            return validate(json);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read \"" + source.name() + "\"", e);
+        }
+    }
+
+    /**
+     * Validate a JSON document read from a stream against all stages of this pipeline. The stream is not closed.
+     * @param jsonStream stream with a single JSON document
+     * @return errors of all stages, in the order of the stages
+     */
+    public List<ValidationItem> validate(InputStream jsonStream) throws IOException {
+        long start = ValidationMetrics.global().startTimer();
+        JsonNode json = OBJECT_MAPPER.readTree(jsonStream);
+        ValidationMetrics.global().record(Stage.PARSE, start);
+        if (json == null || json.isMissingNode()) {
+            throw new IOException("No JSON content found");
+        }
+        return validate(json);
+    }
+
+    /**
+     * Validate an already parsed document against the stages of this pipeline. Once the error budget of the
+     * {@link #mode() mode} is used up, the remaining stages are skipped.
+     * @param json root node of the document
+     * @return errors of all stages, in the order of the stages
+     */
+    public List<ValidationItem> validate(JsonNode json) {
+        ValidationMetrics metrics = ValidationMetrics.global();
+        long evaluationStart = metrics.startTimer();
+        int budget = mode.maxErrorsPerDocument();
+        List<ValidationItem> errors = new ArrayList<>();
+        for (JsonNodeValidator validator : validators) {
+            long start = metrics.startTimer();
+            List<ValidationItem> stageErrors = validator.validate(json, budget - errors.size());
+            metrics.recordPipelineStage(validator.name(), start, stageErrors);
+            errors.addAll(stageErrors);
+            if (errors.size() >= budget) {
+                break;
+            }
+        }
+        metrics.record(Stage.EVALUATE, evaluationStart);
+        return errors;
+    }
+
+    /**
+     * Check a document without building any error objects, stopping at the first stage that rejects it.
+     * @param json root node of the document
+     * @return {@code true} if no stage finds an error
+     */
+    public boolean isValid(JsonNode json) {
+        for (JsonNodeValidator validator : validators) {
+            if (! validator.isValid(json)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param jsonFile a JSON file
+     * @return {@code true} if the file can be parsed and no stage finds an error
+     */
+    public boolean isValid(File jsonFile) {
+        try (InputStream is = new FileInputStream(jsonFile)) {
+            JsonNode json = OBJECT_MAPPER.readTree(is);
+            return json != null && ! json.isMissingNode() && isValid(json);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(2 * bytes.length);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
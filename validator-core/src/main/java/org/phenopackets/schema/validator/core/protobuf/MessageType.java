@@ -0,0 +1,26 @@
+package org.phenopackets.schema.validator.core.protobuf;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import org.phenopackets.schema.v2.Cohort;
+import org.phenopackets.schema.v2.Family;
+import org.phenopackets.schema.v2.Phenopacket;
+
+/**
+ * Top-level messages of the phenopacket schema that can be read from binary protobuf.
+ */
+public enum MessageType {
+    PHENOPACKET(Phenopacket.parser()),
+    FAMILY(Family.parser()),
+    COHORT(Cohort.parser());
+
+    private final Parser<? extends Message> parser;
+
+    MessageType(Parser<? extends Message> parser) {
+        this.parser = parser;
+    }
+
+    Parser<? extends Message> parser() {
+        return parser;
+    }
+}
@@ -0,0 +1,275 @@
+package org.phenopackets.schema.validator.core.protobuf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.util.JsonFormat;
+import org.phenopackets.schema.v2.Cohort;
+import org.phenopackets.schema.v2.Family;
+import org.phenopackets.schema.v2.Phenopacket;
+import org.phenopackets.schema.v2.core.MetaData;
+import org.phenopackets.schema.v2.core.OntologyClass;
+import org.phenopackets.schema.v2.core.PhenotypicFeature;
+import org.phenopackets.schema.v2.core.Resource;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Validates phenopackets, families and cohorts that are stored as binary protobuf, either one message per file or as
+ * a stream of length-delimited messages. The checks of the generic JSON schema that a protobuf message can violate
+ * (missing identifiers, metadata and required fields of features and resources) are made directly on the message
+ * objects and reported with the same error types and messages as the JSON schema would produce. If a
+ * {@link ValidationPipeline} is given, each phenopacket is instead printed as JSON and run through the pipeline, which
+ * reports the same missing fields itself; the errors of a member of a family or cohort are reported at the path of
+ * the member, e.g. {@code $.members[3].subject.id}.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public class ProtobufValidator {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final MessageType messageType;
+    /** Optional pipeline that is applied to the JSON form of each phenopacket, may be null. */
+    private final ValidationPipeline jsonPipeline;
+
+    public ProtobufValidator(MessageType messageType) {
+        this(messageType, null);
+    }
+
+    /**
+     * @param messageType type of the top-level messages
+     * @param jsonPipeline pipeline that is applied to the JSON form of each phenopacket, or {@code null} to only apply
+     *                     the checks on the message objects
+     */
+    public ProtobufValidator(MessageType messageType, ValidationPipeline jsonPipeline) {
+        this.messageType = messageType;
+        this.jsonPipeline = jsonPipeline;
+    }
+
+    /**
+     * Validate a file that holds a single binary message.
+     * @param path path to the file
+     * @return result for the file, never throws for unreadable input
+     */
+    public ValidationResult validate(Path path) {
+        return validate(DocumentSource.of(path));
+    }
+
+    /**
+     * Validate a single binary message from any source, e.g. an entry of an archive.
+     * @param source the message
+     * @return result named after the source, never throws for unreadable input
+     */
+    public ValidationResult validate(DocumentSource source) {
+        try (InputStream is = source.open()) {
+            Message message = messageType.parser().parseFrom(is);
+            return new ValidationResult(source.name(), validate(message));
+        } catch (IOException e) {
+            ValidationError error = new ValidationError(ErrorType.UNREADABLE_DOCUMENT, e.getMessage());
+            return new ValidationResult(source.name(), List.of(error));
+        }
+    }
+
+    /**
+     * Validate a stream of length-delimited messages, as written by {@code writeDelimitedTo}. The stream is not
+     * closed. A message that cannot be parsed ends the stream because the start of the next message is unknown.
+     * @param inputStream stream of length-delimited messages
+     * @param name name of the stream that is used in the source of the results, which has the form {@code name[index]}
+     * @param listener receives the result of each message in stream order
+     * @return aggregate counts for all messages
+     */
+    public BatchSummary validateDelimited(InputStream inputStream, String name, Consumer<? super ValidationResult> listener) {
+        long start = System.nanoTime();
+        long messages = 0;
+        long invalidMessages = 0;
+        long errors = 0;
+        while (true) {
+            ValidationResult result;
+            try {
+                Message message = messageType.parser().parseDelimitedFrom(inputStream);
+                if (message == null) {
+                    break;
+                }
+                result = new ValidationResult(name + "[" + messages + "]", validate(message));
+            } catch (InvalidProtocolBufferException e) {
+                ValidationError error = new ValidationError(ErrorType.UNREADABLE_DOCUMENT, e.getMessage());
+                result = new ValidationResult(name + "[" + messages + "]", List.of(error));
+            }
+            messages++;
+            if (! result.isValid()) {
+                invalidMessages++;
+                errors += result.items().size();
+            }
+            listener.accept(result);
+            if (result.items().stream().anyMatch(i -> i.errorType() == ErrorType.UNREADABLE_DOCUMENT)) {
+                break;
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new BatchSummary(messages, invalidMessages, errors, elapsedMillis);
+    }
+
+    /**
+     * @param message a {@link Phenopacket}, {@link Family} or {@link Cohort}
+     * @return errors found in the message
+     */
+    public List<ValidationItem> validate(Message message) {
+        List<ValidationItem> errors = new ArrayList<>();
+        if (message instanceof Phenopacket) {
+            checkPhenopacket((Phenopacket) message, "$", errors);
+        } else if (message instanceof Family) {
+            checkFamily((Family) message, errors);
+        } else if (message instanceof Cohort) {
+            checkCohort((Cohort) message, errors);
+        } else {
+            throw new IllegalArgumentException("Not a phenopacket, family or cohort: " + message.getDescriptorForType().getFullName());
+        }
+        return errors;
+    }
+
+    private void checkFamily(Family family, List<ValidationItem> errors) {
+        requireText(family.getId(), "$.id", errors);
+        if (family.hasProband()) {
+            checkPhenopacket(family.getProband(), "$.proband", errors);
+        } else {
+            missing("$.proband", errors);
+        }
+        for (int i = 0; i < family.getRelativesCount(); i++) {
+            checkPhenopacket(family.getRelatives(i), "$.relatives[" + i + "]", errors);
+        }
+        checkMetaData(family.hasMetaData(), family.getMetaData(), "$.metaData", errors);
+    }
+
+    private void checkCohort(Cohort cohort, List<ValidationItem> errors) {
+        requireText(cohort.getId(), "$.id", errors);
+        for (int i = 0; i < cohort.getMembersCount(); i++) {
+            checkPhenopacket(cohort.getMembers(i), "$.members[" + i + "]", errors);
+        }
+        checkMetaData(cohort.hasMetaData(), cohort.getMetaData(), "$.metaData", errors);
+    }
+
+    private void checkPhenopacket(Phenopacket phenopacket, String path, List<ValidationItem> errors) {
+        if (jsonPipeline != null) {
+            // proto3 does not print empty strings, so the schema finds the fields that the checks below look for
+            for (ValidationItem item : jsonPipeline.validate(toJson(phenopacket))) {
+                errors.add(path.equals("$") ? item : new MemberItem(item, path));
+            }
+            return;
+        }
+        requireText(phenopacket.getId(), path + ".id", errors);
+        if (phenopacket.hasSubject()) {
+            requireText(phenopacket.getSubject().getId(), path + ".subject.id", errors);
+        }
+        for (int i = 0; i < phenopacket.getPhenotypicFeaturesCount(); i++) {
+            PhenotypicFeature feature = phenopacket.getPhenotypicFeatures(i);
+            String featurePath = path + ".phenotypicFeatures[" + i + "].type";
+            if (feature.hasType()) {
+                checkOntologyClass(feature.getType(), featurePath, errors);
+            } else {
+                missing(featurePath, errors);
+            }
+        }
+        checkMetaData(phenopacket.hasMetaData(), phenopacket.getMetaData(), path + ".metaData", errors);
+    }
+
+    private void checkMetaData(boolean present, MetaData metaData, String path, List<ValidationItem> errors) {
+        if (! present) {
+            missing(path, errors);
+            return;
+        }
+        if (! metaData.hasCreated()) {
+            missing(path + ".created", errors);
+        }
+        requireText(metaData.getCreatedBy(), path + ".createdBy", errors);
+        requireText(metaData.getPhenopacketSchemaVersion(), path + ".phenopacketSchemaVersion", errors);
+        for (int i = 0; i < metaData.getResourcesCount(); i++) {
+            Resource resource = metaData.getResources(i);
+            String resourcePath = path + ".resources[" + i + "]";
+            requireText(resource.getId(), resourcePath + ".id", errors);
+            requireText(resource.getName(), resourcePath + ".name", errors);
+            requireText(resource.getUrl(), resourcePath + ".url", errors);
+            requireText(resource.getVersion(), resourcePath + ".version", errors);
+            requireText(resource.getNamespacePrefix(), resourcePath + ".namespacePrefix", errors);
+            requireText(resource.getIriPrefix(), resourcePath + ".iriPrefix", errors);
+        }
+    }
+
+    private void checkOntologyClass(OntologyClass ontologyClass, String path, List<ValidationItem> errors) {
+        requireText(ontologyClass.getId(), path + ".id", errors);
+        requireText(ontologyClass.getLabel(), path + ".label", errors);
+    }
+
+    /** Proto3 does not distinguish a missing string from an empty one, so an empty string counts as missing. */
+    private static void requireText(String value, String path, List<ValidationItem> errors) {
+        if (value.isEmpty()) {
+            missing(path, errors);
+        }
+    }
+
+    private static void missing(String path, List<ValidationItem> errors) {
+        String parent = path.substring(0, path.lastIndexOf('.'));
+        errors.add(new ValidationError(ErrorType.JSON_REQUIRED, path + ": is missing but it is required", parent,
+                ErrorType.JSON_REQUIRED.toString()));
+    }
+
+    private static JsonNode toJson(Phenopacket phenopacket) {
+        try {
+            return OBJECT_MAPPER.readTree(JsonFormat.printer().print(phenopacket));
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not convert phenopacket \"" + phenopacket.getId() + "\" to JSON", e);
+        }
+    }
+
+    /** An item of a member phenopacket, whose path and message are relative to the member, moved below the member. */
+    private static final class MemberItem implements ValidationItem {
+        private final ValidationItem item;
+        private final String memberPath;
+
+        private MemberItem(ValidationItem item, String memberPath) {
+            this.item = item;
+            this.memberPath = memberPath;
+        }
+
+        @Override
+        public ErrorType errorType() {
+            return item.errorType();
+        }
+
+        @Override
+        public String message() {
+            String message = item.message();
+            return message.startsWith("$") ? memberPath + message.substring(1) : message;
+        }
+
+        @Override
+        public String path() {
+            return memberPath + item.path().substring(1);
+        }
+
+        @Override
+        public String keyword() {
+            return item.keyword();
+        }
+
+        @Override
+        public String toString() {
+            return "(" + errorType() + ") " + message();
+        }
+    }
+}
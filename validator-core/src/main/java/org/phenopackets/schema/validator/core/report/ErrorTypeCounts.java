@@ -0,0 +1,44 @@
+package org.phenopackets.schema.validator.core.report;
+
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+/**
+ * Number of errors of each {@link ErrorType} over a run. Not thread-safe; a {@link ReportSink} updates its counts from
+ * the writer thread only.
+ */
+public final class ErrorTypeCounts {
+
+    private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+
+    private final long[] counts = new long[ERROR_TYPES.length];
+
+    public void add(ValidationResult result) {
+        for (ValidationItem item : result.items()) {
+            counts[item.errorType().ordinal()]++;
+        }
+    }
+
+    public long get(ErrorType errorType) {
+        return counts[errorType.ordinal()];
+    }
+
+    /**
+     * @return one line per error type that occurred, e.g. {@code "  JSON_REQUIRED: 12"}, or the empty string
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (ErrorType errorType : ERROR_TYPES) {
+            long n = counts[errorType.ordinal()];
+            if (n > 0) {
+                if (sb.length() > 0) {
+                    sb.append(System.lineSeparator());
+                }
+                sb.append("  ").append(errorType.name()).append(": ").append(n);
+            }
+        }
+        return sb.toString();
+    }
+}
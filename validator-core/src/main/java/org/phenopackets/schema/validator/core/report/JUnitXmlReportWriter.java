@@ -0,0 +1,122 @@
+package org.phenopackets.schema.validator.core.report;
+
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * JUnit XML report for CI servers, with one test case per document. An invalid document is a failure, a document
+ * that could not be read is an error. Because the totals must appear in the opening {@code testsuite} element, the
+ * test cases are spooled to a temporary file and copied to the output by {@link #finish(BatchSummary, ErrorTypeCounts)},
+ * so that memory use does not depend on the number of documents.
+ */
+public class JUnitXmlReportWriter implements ReportWriter {
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final String SUITE_NAME = "phenopacket-validator";
+
+    private final Writer out;
+    private final Path spoolFile;
+    private final BufferedWriter spool;
+    private final XMLStreamWriter xml;
+    private long tests = 0;
+    private long failures = 0;
+    private long errors = 0;
+
+    public JUnitXmlReportWriter(Writer out) throws IOException {
+        this.out = out;
+        this.spoolFile = Files.createTempFile("phenopacket-junit", ".xml");
+        spoolFile.toFile().deleteOnExit();
+        this.spool = Files.newBufferedWriter(spoolFile, StandardCharsets.UTF_8);
+        try {
+            this.xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(spool);
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not create JUnit XML writer", e);
+        }
+    }
+
+    @Override
+    public void write(ValidationResult result) throws IOException {
+        tests++;
+        try {
+            xml.writeStartElement("testcase");
+            xml.writeAttribute("classname", "phenopacket");
+            xml.writeAttribute("name", result.source());
+            if (! result.isValid()) {
+                boolean unreadable = result.items().stream().anyMatch(i -> i.errorType() == ErrorType.UNREADABLE_DOCUMENT
+                        || i.errorType() == ErrorType.VALIDATOR_ERROR);
+                if (unreadable) {
+                    errors++;
+                } else {
+                    failures++;
+                }
+                ValidationItem first = result.items().get(0);
+                xml.writeStartElement(unreadable ? "error" : "failure");
+                xml.writeAttribute("type", first.errorType().name());
+                xml.writeAttribute("message", first.message());
+                for (ValidationItem item : result.items()) {
+                    xml.writeCharacters("(" + item.errorType() + ") " + item.message() + "\n");
+                }
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write test case for " + result.source(), e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        // the spooled test cases only reach the output in finish
+    }
+
+    @Override
+    public void finish(BatchSummary summary, ErrorTypeCounts counts) throws IOException {
+        try {
+            xml.flush();
+            xml.close();
+            spool.close();
+            XMLStreamWriter header = XML_OUTPUT_FACTORY.createXMLStreamWriter(out);
+            header.writeStartDocument("UTF-8", "1.0");
+            header.writeCharacters("\n");
+            header.writeStartElement("testsuites");
+            writeTotals(header, summary);
+            header.writeCharacters("\n");
+            header.writeStartElement("testsuite");
+            header.writeAttribute("name", SUITE_NAME);
+            writeTotals(header, summary);
+            header.writeCharacters("\n");
+            header.flush();
+            try (BufferedReader reader = Files.newBufferedReader(spoolFile, StandardCharsets.UTF_8)) {
+                reader.transferTo(out);
+            }
+            out.write("</testsuite>\n</testsuites>\n");
+            out.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write JUnit XML report", e);
+        } finally {
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+
+    private void writeTotals(XMLStreamWriter writer, BatchSummary summary) throws XMLStreamException {
+        writer.writeAttribute("tests", Long.toString(tests));
+        writer.writeAttribute("failures", Long.toString(failures));
+        writer.writeAttribute("errors", Long.toString(errors));
+        writer.writeAttribute("time", String.format(Locale.ROOT, "%.3f", summary.elapsedMillis() / 1000.0));
+    }
+}
@@ -0,0 +1,90 @@
+package org.phenopackets.schema.validator.core.report;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.JsonPaths;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the results back from a report written by {@link JsonLinesReportWriter}, for instance to merge the reports of
+ * several processes. A report that is still being written, or whose writer was killed, may end with an incomplete
+ * line; reading stops before it, and {@link #read(Path, Consumer)} returns the length of the complete part so that the
+ * writer can truncate the report and continue after the last complete result.
+ */
+public final class JsonLinesReportReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private JsonLinesReportReader() {
+    }
+
+    /**
+     * @param report a report in the format of {@link JsonLinesReportWriter}
+     * @param consumer receives each complete result in report order
+     * @return number of bytes of the report up to the end of the last complete result
+     */
+    public static long read(Path report, Consumer<? super ValidationResult> consumer) throws IOException {
+        long complete = 0;
+        try (InputStream in = Files.newInputStream(report)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                int start = 0;
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] != '\n') {
+                        continue;
+                    }
+                    line.write(buffer, start, i - start);
+                    start = i + 1;
+                    ValidationResult result = parse(line.toByteArray());
+                    if (result == null) {
+                        return complete;
+                    }
+                    complete += line.size() + 1;
+                    line.reset();
+                    consumer.accept(result);
+                }
+                line.write(buffer, start, n - start);
+            }
+        }
+        return complete;
+    }
+
+    /** @return the result of one line, {@code null} if the line is not a result, e.g. because it was cut off */
+    private static ValidationResult parse(byte[] line) {
+        JsonNode json;
+        try {
+            json = OBJECT_MAPPER.readTree(line);
+        } catch (IOException e) {
+            return null;
+        }
+        if (json == null || ! json.path("source").isTextual()) {
+            return null;
+        }
+        List<ValidationItem> items = new ArrayList<>();
+        for (JsonNode error : json.path("errors")) {
+            ErrorType errorType;
+            try {
+                errorType = ErrorType.valueOf(error.path("errorType").asText());
+            } catch (IllegalArgumentException e) {
+                errorType = ErrorType.UNKNOWN;
+            }
+            String path = JsonPaths.toPath(error.path("pointer").asText());
+            items.add(new ValidationError(errorType, error.path("message").asText(), path, error.path("keyword").asText(errorType.toString())));
+        }
+        return new ValidationResult(json.get("source").textValue(), items);
+    }
+}
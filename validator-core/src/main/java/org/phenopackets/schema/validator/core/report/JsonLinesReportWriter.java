@@ -0,0 +1,63 @@
+package org.phenopackets.schema.validator.core.report;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Newline-delimited JSON report with one object per document, in the same form as the responses of the validation
+ * server: {@code {"source": ..., "valid": ..., "errors": [{"errorType": ..., "keyword": ..., "pointer": ...,
+ * "message": ...}]}}. The report contains no totals, so that every line is a result.
+ */
+public class JsonLinesReportWriter implements ReportWriter {
+
+    private final JsonGenerator generator;
+    /** If true, valid documents are not listed. */
+    private final boolean quiet;
+
+    public JsonLinesReportWriter(Writer out, boolean quiet) throws IOException {
+        this.generator = new JsonFactory()
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .createGenerator(out);
+        // each result is a root value, which would otherwise be preceded by a space
+        this.generator.setRootValueSeparator(null);
+        this.quiet = quiet;
+    }
+
+    @Override
+    public void write(ValidationResult result) throws IOException {
+        if (result.isValid() && quiet) {
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeStringField("source", result.source());
+        generator.writeBooleanField("valid", result.isValid());
+        generator.writeArrayFieldStart("errors");
+        for (ValidationItem item : result.items()) {
+            generator.writeStartObject();
+            generator.writeStringField("errorType", item.errorType().name());
+            generator.writeStringField("keyword", item.keyword());
+            generator.writeStringField("pointer", item.pointer());
+            generator.writeStringField("message", item.message());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void finish(BatchSummary summary, ErrorTypeCounts counts) throws IOException {
+        generator.flush();
+    }
+}
@@ -0,0 +1,37 @@
+package org.phenopackets.schema.validator.core.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The output formats of validation reports.
+ */
+public enum ReportFormat {
+    /** Human-readable text, see {@link TextReportWriter}. */
+    TEXT,
+    /** One JSON object per document, see {@link JsonLinesReportWriter}. */
+    JSONL,
+    /** SARIF 2.1.0 for code-review tools, see {@link SarifReportWriter}. */
+    SARIF,
+    /** JUnit XML for CI servers, see {@link JUnitXmlReportWriter}. */
+    JUNIT;
+
+    /**
+     * @param out destination of the report, which the report writer does not close
+     * @param quiet if true, valid documents are left out of the formats that list every document (TEXT, JSONL)
+     * @return a new report writer for this format
+     */
+    public ReportWriter create(Writer out, boolean quiet) throws IOException {
+        switch (this) {
+            case JSONL:
+                return new JsonLinesReportWriter(out, quiet);
+            case SARIF:
+                return new SarifReportWriter(out);
+            case JUNIT:
+                return new JUnitXmlReportWriter(out);
+            case TEXT:
+            default:
+                return new TextReportWriter(out, quiet);
+        }
+    }
+}
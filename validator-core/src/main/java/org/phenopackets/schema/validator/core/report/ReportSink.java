@@ -0,0 +1,148 @@
+package org.phenopackets.schema.validator.core.report;
+
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Listener for the batch and streaming validators that hands results to a {@link ReportWriter} on a single writer
+ * thread. Validation threads only put results into a bounded queue, so they do not contend on the output; when the
+ * queue is full they wait, which keeps the memory use bounded if the output is slower than validation. The writer
+ * flushes its buffers whenever the queue runs empty, so a report can be followed while the run is in progress.
+ * <p>
+ * {@link #finish(BatchSummary)} must be called once all results have been passed to {@link #accept(ValidationResult)}.
+ */
+public final class ReportSink implements Consumer<ValidationResult>, AutoCloseable {
+
+    /** Name of the gauge with the number of results waiting to be written. */
+    public static final String QUEUE_GAUGE = "report.queue";
+    private static final int DEFAULT_CAPACITY = 1024;
+    /** Marks the end of the results; compared by identity. */
+    private static final ValidationResult END = new ValidationResult("", List.of());
+
+    private final ReportWriter writer;
+    private final BlockingQueue<ValidationResult> queue;
+    private final ErrorTypeCounts counts = new ErrorTypeCounts();
+    private final Thread thread;
+    private final Runnable removeGauge;
+    private volatile IOException failure;
+    private boolean ended = false;
+
+    public ReportSink(ReportWriter writer) {
+        this(writer, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param writer the report writer, which is only used from the writer thread until the sink is finished
+     * @param capacity maximum number of results waiting to be written
+     */
+    public ReportSink(ReportWriter writer, int capacity) {
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::drain, "report-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        this.removeGauge = ValidationMetrics.global().addGaugePart(QUEUE_GAUGE, queue::size);
+    }
+
+    /**
+     * Queue a result for writing; blocks while the queue is full.
+     * @throws UncheckedIOException if the report writer has failed
+     */
+    @Override
+    public void accept(ValidationResult result) {
+        IOException e = failure;
+        if (e != null) {
+            throw new UncheckedIOException("Could not write report", e);
+        }
+        put(result);
+    }
+
+    /**
+     * Wait until all queued results have been written and complete the report.
+     * @param summary counts of the whole run
+     * @return number of errors of each type over all results
+     */
+    public ErrorTypeCounts finish(BatchSummary summary) throws IOException {
+        end();
+        if (failure != null) {
+            throw failure;
+        }
+        writer.finish(summary, counts);
+        return counts;
+    }
+
+    /** Stop the writer thread without completing the report, e.g. after the run has failed. */
+    @Override
+    public void close() {
+        end();
+    }
+
+    private void end() {
+        if (ended) {
+            return;
+        }
+        ended = true;
+        removeGauge.run();
+        put(END);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PhenopacketValidatorRuntimeException("Interrupted while waiting for the report writer", e);
+        }
+    }
+
+    private void put(ValidationResult result) {
+        try {
+            queue.put(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PhenopacketValidatorRuntimeException("Interrupted while waiting for the report writer", e);
+        }
+    }
+
+    /** After a write error, results are still taken from the queue so that validation threads never block forever. */
+    private void drain() {
+        try {
+            while (true) {
+                ValidationResult result = queue.poll();
+                if (result == null) {
+                    if (failure == null) {
+                        flush();
+                    }
+                    result = queue.take();
+                }
+                if (result == END) {
+                    return;
+                }
+                counts.add(result);
+                if (failure == null) {
+                    try {
+                        writer.write(result);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.phenopackets.schema.validator.core.report;
+
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.IOException;
+
+/**
+ * Writes validation results in one output format as they arrive. Implementations keep only constant state per
+ * document, so that reports of any number of documents can be written with bounded memory. They are not thread-safe;
+ * use a {@link ReportSink} to feed a report writer from several validation threads. A report writer does not close
+ * the underlying output, which belongs to the caller.
+ */
+public interface ReportWriter {
+
+    /**
+     * @param result result of one document
+     */
+    void write(ValidationResult result) throws IOException;
+
+    /**
+     * Write buffered output to the underlying stream, e.g. while the validators are waiting for more input.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Complete the report, e.g. close open elements and write totals, and flush it.
+     * @param summary counts of the whole run
+     * @param counts number of errors of each type
+     */
+    void finish(BatchSummary summary, ErrorTypeCounts counts) throws IOException;
+}
@@ -0,0 +1,116 @@
+package org.phenopackets.schema.validator.core.report;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.cache.ResultCache;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Report in the Static Analysis Results Interchange Format (SARIF) 2.1.0 with a single run. Every {@link ErrorType}
+ * is a rule, and every error is a result whose location is the document and, as logical location, the JSON path of
+ * the offending node. The results array is streamed, so the report is only well-formed after
+ * {@link #finish(BatchSummary, ErrorTypeCounts)}.
+ */
+public class SarifReportWriter implements ReportWriter {
+
+    private static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String INFORMATION_URI = "https://github.com/phenopackets/phenopacket-validator";
+
+    private final JsonGenerator generator;
+
+    public SarifReportWriter(Writer out) throws IOException {
+        this.generator = new JsonFactory()
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .createGenerator(out);
+        writeHeader();
+    }
+
+    private void writeHeader() throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("$schema", SARIF_SCHEMA);
+        generator.writeStringField("version", "2.1.0");
+        generator.writeArrayFieldStart("runs");
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("tool");
+        generator.writeObjectFieldStart("driver");
+        generator.writeStringField("name", "phenopacket-validator");
+        generator.writeStringField("version", ResultCache.VALIDATOR_VERSION);
+        generator.writeStringField("informationUri", INFORMATION_URI);
+        generator.writeArrayFieldStart("rules");
+        for (ErrorType errorType : ErrorType.values()) {
+            generator.writeStartObject();
+            generator.writeStringField("id", errorType.name());
+            generator.writeObjectFieldStart("shortDescription");
+            generator.writeStringField("text", errorType.toString());
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeArrayFieldStart("results");
+    }
+
+    @Override
+    public void write(ValidationResult result) throws IOException {
+        for (ValidationItem item : result.items()) {
+            generator.writeStartObject();
+            generator.writeStringField("ruleId", item.errorType().name());
+            generator.writeStringField("level", "error");
+            generator.writeObjectFieldStart("message");
+            generator.writeStringField("text", item.message());
+            generator.writeEndObject();
+            generator.writeArrayFieldStart("locations");
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("physicalLocation");
+            generator.writeObjectFieldStart("artifactLocation");
+            generator.writeStringField("uri", result.source().replace('\\', '/'));
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeArrayFieldStart("logicalLocations");
+            generator.writeStartObject();
+            generator.writeStringField("fullyQualifiedName", item.path());
+            generator.writeStringField("kind", "member");
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeObjectFieldStart("properties");
+            generator.writeStringField("keyword", item.keyword());
+            generator.writeStringField("pointer", item.pointer());
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void finish(BatchSummary summary, ErrorTypeCounts counts) throws IOException {
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("invocations");
+        generator.writeStartObject();
+        generator.writeBooleanField("executionSuccessful", ! summary.stoppedEarly());
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeObjectFieldStart("properties");
+        generator.writeNumberField("documents", summary.documents());
+        generator.writeNumberField("invalidDocuments", summary.invalidDocuments());
+        generator.writeNumberField("errors", summary.errors());
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+}
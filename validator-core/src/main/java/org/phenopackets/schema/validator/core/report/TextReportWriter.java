@@ -0,0 +1,65 @@
+package org.phenopackets.schema.validator.core.report;
+
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Human-readable report: the source of each document followed by one indented line per error, and the totals of the
+ * run at the end.
+ */
+public class TextReportWriter implements ReportWriter {
+
+    private final BufferedWriter out;
+    /** If true, valid documents are not listed. */
+    private final boolean quiet;
+
+    public TextReportWriter(Writer out, boolean quiet) {
+        this.out = new BufferedWriter(out);
+        this.quiet = quiet;
+    }
+
+    @Override
+    public void write(ValidationResult result) throws IOException {
+        if (result.isValid() && quiet) {
+            return;
+        }
+        out.write(result.source());
+        out.newLine();
+        if (result.isValid()) {
+            out.write("\t no errors found");
+            out.newLine();
+        } else {
+            for (ValidationItem ve : result.items()) {
+                out.write("\t(");
+                out.write(ve.errorType().toString());
+                out.write(") ");
+                out.write(ve.message());
+                out.newLine();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void finish(BatchSummary summary, ErrorTypeCounts counts) throws IOException {
+        if (summary.documents() > 1 || summary.stoppedEarly()) {
+            out.write(summary.toString());
+            out.newLine();
+            String perType = counts.toString();
+            if (! perType.isEmpty()) {
+                out.write(perType);
+                out.newLine();
+            }
+        }
+        out.flush();
+    }
+}
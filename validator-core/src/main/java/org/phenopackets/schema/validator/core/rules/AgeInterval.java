@@ -0,0 +1,158 @@
+package org.phenopackets.schema.validator.core.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * The ages, in days since birth, that a {@code TimeElement} of a phenopacket may stand for. An age of {@code P3Y}
+ * stands for any age from three years up to, but not including, four years, the HPO term <em>Childhood onset</em>
+ * for one to five years. Timestamps and intervals are converted with the date of birth of the subject; without it,
+ * and for ontology classes other than the HPO onset terms, the time element cannot be compared with others.
+ * Years and months are counted with their average length, which is precise enough to find contradictions.
+ */
+final class AgeInterval {
+
+    private static final double DAYS_PER_YEAR = 365.25;
+    private static final double DAYS_PER_MONTH = DAYS_PER_YEAR / 12;
+    private static final double FULL_TERM_DAYS = 280;
+
+    /** The onset terms of the HPO (subclasses of HP:0003674 Onset). */
+    private static final Map<String, AgeInterval> HPO_ONSETS = Map.ofEntries(
+            Map.entry("HP:0030674", new AgeInterval(-FULL_TERM_DAYS, 0)),                      // Antenatal onset
+            Map.entry("HP:0003577", new AgeInterval(0, 1)),                                    // Congenital onset
+            Map.entry("HP:0003623", new AgeInterval(0, 28)),                                   // Neonatal onset
+            Map.entry("HP:0003593", new AgeInterval(28, DAYS_PER_YEAR)),                       // Infantile onset
+            Map.entry("HP:0011463", new AgeInterval(DAYS_PER_YEAR, 5 * DAYS_PER_YEAR)),        // Childhood onset
+            Map.entry("HP:0003621", new AgeInterval(5 * DAYS_PER_YEAR, 16 * DAYS_PER_YEAR)),   // Juvenile onset
+            Map.entry("HP:0003581", new AgeInterval(16 * DAYS_PER_YEAR, Double.POSITIVE_INFINITY)), // Adult onset
+            Map.entry("HP:0011462", new AgeInterval(16 * DAYS_PER_YEAR, 40 * DAYS_PER_YEAR)),  // Young adult onset
+            Map.entry("HP:0003596", new AgeInterval(40 * DAYS_PER_YEAR, 60 * DAYS_PER_YEAR)),  // Middle age onset
+            Map.entry("HP:0003584", new AgeInterval(60 * DAYS_PER_YEAR, Double.POSITIVE_INFINITY))); // Late onset
+
+    private final double from;
+    private final double to;
+
+    private AgeInterval(double from, double to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /** Earliest age, in days. */
+    double from() {
+        return from;
+    }
+
+    /** Latest age, in days; the interval does not include it unless it equals {@link #from()}. */
+    double to() {
+        return to;
+    }
+
+    /**
+     * @return {@code true} if every age of this interval is after every age of {@code other}
+     */
+    boolean isAfter(AgeInterval other) {
+        return from > other.to || (from == other.to && other.from < other.to);
+    }
+
+    /**
+     * @param timeElement a {@code TimeElement}, e.g. the onset of a phenotypic feature
+     * @param dateOfBirth the {@code dateOfBirth} of the subject, possibly a missing node
+     * @return the ages that the time element stands for, {@code null} if they are not known
+     */
+    static AgeInterval of(JsonNode timeElement, JsonNode dateOfBirth) {
+        if (timeElement.has("age")) {
+            return ofAge(timeElement.get("age"));
+        }
+        if (timeElement.has("ageRange")) {
+            JsonNode range = timeElement.get("ageRange");
+            AgeInterval start = ofAge(range.path("start"));
+            AgeInterval end = ofAge(range.path("end"));
+            if (start == null) {
+                return end == null ? null : new AgeInterval(0, end.to);
+            }
+            return new AgeInterval(start.from, end == null ? Double.POSITIVE_INFINITY : end.to);
+        }
+        if (timeElement.has("gestationalAge")) {
+            JsonNode gestationalAge = timeElement.get("gestationalAge");
+            double days = 7 * gestationalAge.path("weeks").asDouble() + gestationalAge.path("days").asDouble();
+            return new AgeInterval(Math.min(0, days - FULL_TERM_DAYS), 0);
+        }
+        if (timeElement.has("ontologyClass")) {
+            return HPO_ONSETS.get(timeElement.get("ontologyClass").path("id").asText());
+        }
+        if (timeElement.has("timestamp")) {
+            Double days = daysSince(dateOfBirth, timeElement.get("timestamp"));
+            return days == null ? null : new AgeInterval(days, days);
+        }
+        if (timeElement.has("interval")) {
+            JsonNode interval = timeElement.get("interval");
+            Double start = daysSince(dateOfBirth, interval.path("start"));
+            Double end = daysSince(dateOfBirth, interval.path("end"));
+            return start == null || end == null ? null : new AgeInterval(start, end);
+        }
+        return null;
+    }
+
+    /**
+     * @param age an {@code Age} with an ISO 8601 duration such as {@code P3Y2M} or {@code P2W}
+     * @return the ages from the duration up to the next unit of its smallest component, {@code null} if the
+     * duration is missing or malformed
+     */
+    static AgeInterval ofAge(JsonNode age) {
+        String duration = age.path("iso8601duration").asText();
+        if (duration.isEmpty()) {
+            return null;
+        }
+        try {
+            int t = duration.indexOf('T');
+            if (t < 0) {
+                Period period = Period.parse(duration);
+                double days = DAYS_PER_YEAR * period.getYears() + DAYS_PER_MONTH * period.getMonths() + period.getDays();
+                double unit = period.getDays() != 0 ? 1 : period.getMonths() != 0 ? DAYS_PER_MONTH : DAYS_PER_YEAR;
+                return new AgeInterval(days, days + unit);
+            }
+            double days = 0;
+            if (t > 1) {
+                Period period = Period.parse(duration.substring(0, t));
+                days = DAYS_PER_YEAR * period.getYears() + DAYS_PER_MONTH * period.getMonths() + period.getDays();
+            }
+            days += Duration.parse("P" + duration.substring(t)).toSeconds() / 86400.0;
+            return new AgeInterval(days, days + 1);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return days from {@code dateOfBirth} to {@code timestamp}, {@code null} if either is missing or malformed
+     */
+    static Double daysSince(JsonNode dateOfBirth, JsonNode timestamp) {
+        Instant birth = instant(dateOfBirth);
+        Instant time = instant(timestamp);
+        if (birth == null || time == null) {
+            return null;
+        }
+        return Duration.between(birth, time).toSeconds() / 86400.0;
+    }
+
+    private static Instant instant(JsonNode timestamp) {
+        if (! timestamp.isTextual()) {
+            return null;
+        }
+        try {
+            return Instant.parse(timestamp.textValue());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[" + from + ", " + to + ") days";
+    }
+}
@@ -0,0 +1,219 @@
+package org.phenopackets.schema.validator.core.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The built-in rules, which {@link RuleSet#generic()} and {@link RuleSet#rareDisease()} are made of. Each method
+ * returns a new rule that can also be combined with user-defined rules in a {@link RuleSet} of its own.
+ */
+public final class PhenopacketRules {
+
+    private static final List<String> FEATURES_AND_DISEASES = List.of("$.phenotypicFeatures[*]", "$.diseases[*]");
+
+    private static final List<String> TIME_ELEMENTS = List.of(
+            "$.subject.timeAtLastEncounter",
+            "$.subject.vitalStatus.timeOfDeath",
+            "$.phenotypicFeatures[*].onset",
+            "$.phenotypicFeatures[*].resolution",
+            "$.diseases[*].onset",
+            "$.diseases[*].resolution");
+
+    /** HPO terms of abnormalities that only males can have. */
+    private static final Set<String> MALE_TERMS = Set.of(
+            "HP:0000022", // Abnormality of male internal genitalia
+            "HP:0000032", // Abnormality of male external genitalia
+            "HP:0000026", // Male hypogonadism
+            "HP:0000027", // Azoospermia
+            "HP:0000028", // Cryptorchidism
+            "HP:0000035", // Abnormal testis morphology
+            "HP:0000047", // Hypospadias
+            "HP:0000054"); // Micropenis
+
+    /** HPO terms of abnormalities that only females can have. */
+    private static final Set<String> FEMALE_TERMS = Set.of(
+            "HP:0010460", // Abnormality of the female genitalia
+            "HP:0000055", // Abnormality of female external genitalia
+            "HP:0000130", // Abnormality of the uterus
+            "HP:0000134", // Female hypogonadism
+            "HP:0000137", // Abnormality of the ovary
+            "HP:0000140", // Abnormality of the menstrual cycle
+            "HP:0000141", // Amenorrhea
+            "HP:0000786", // Primary amenorrhea
+            "HP:0000869"); // Secondary amenorrhea
+
+    private PhenopacketRules() {
+    }
+
+    /**
+     * @return rule that reports a phenopacket without {@code subject} as {@link ErrorType#PHENOPACKET_LACKS_SUBJECT}
+     */
+    public static Rule subjectPresent() {
+        return new Rule("subject-present", "$", (node, path, context) -> {
+            if (! node.hasNonNull("subject")) {
+                context.report(ErrorType.PHENOPACKET_LACKS_SUBJECT, path, "the phenopacket has no subject");
+            }
+        });
+    }
+
+    /**
+     * @return rule that reports a subject without {@code timeAtLastEncounter} as
+     * {@link ErrorType#PHENOPACKET_SUBJECT_LACKS_AGE}
+     */
+    public static Rule subjectAge() {
+        return new Rule("subject-age", "$.subject", (node, path, context) -> {
+            if (! node.hasNonNull("timeAtLastEncounter")) {
+                context.report(ErrorType.PHENOPACKET_SUBJECT_LACKS_AGE, path, "the subject has no timeAtLastEncounter");
+            }
+        });
+    }
+
+    /**
+     * @return rule that reports a phenopacket without any observed, i.e. not excluded, phenotypic feature as
+     * {@link ErrorType#PHENOPACKET_LACKS_PHENOTYPIC_FEATURE}
+     */
+    public static Rule phenotypicFeaturePresent() {
+        return new Rule("phenotypic-feature-present", "$", (node, path, context) -> {
+            JsonNode features = node.path("phenotypicFeatures");
+            // elements of the wrong type are left to the schema and do not count as features
+            for (JsonNode feature : features.isArray() ? features : MissingNode.getInstance()) {
+                if (feature.isObject() && ! feature.path("excluded").asBoolean()) {
+                    return;
+                }
+            }
+            context.report(ErrorType.PHENOPACKET_LACKS_PHENOTYPIC_FEATURE, path, "the phenopacket has no observed phenotypic feature");
+        });
+    }
+
+    /**
+     * @return rule that reports age ranges and intervals that end before they start, and timestamps before the date
+     * of birth of the subject, as {@link ErrorType#PHENOPACKET_INCONSISTENT_TIME}
+     */
+    public static Rule timeElementsConsistent() {
+        return new Rule("time-elements-consistent", TIME_ELEMENTS, (node, path, context) -> {
+            JsonNode dateOfBirth = context.subject().path("dateOfBirth");
+            if (node.has("ageRange")) {
+                AgeInterval start = AgeInterval.ofAge(node.get("ageRange").path("start"));
+                AgeInterval end = AgeInterval.ofAge(node.get("ageRange").path("end"));
+                if (start != null && end != null && start.isAfter(end)) {
+                    context.report(ErrorType.PHENOPACKET_INCONSISTENT_TIME, path + ".ageRange", "the age range ends before it starts");
+                }
+            } else if (node.has("interval")) {
+                JsonNode interval = node.get("interval");
+                Double end = AgeInterval.daysSince(interval.path("start"), interval.path("end"));
+                if (end != null && end < 0) {
+                    context.report(ErrorType.PHENOPACKET_INCONSISTENT_TIME, path + ".interval", "the interval ends before it starts");
+                }
+                Double start = AgeInterval.daysSince(dateOfBirth, interval.path("start"));
+                if (start != null && start < 0) {
+                    context.report(ErrorType.PHENOPACKET_INCONSISTENT_TIME, path + ".interval.start", "is before the date of birth of the subject");
+                }
+            } else if (node.has("timestamp")) {
+                Double days = AgeInterval.daysSince(dateOfBirth, node.get("timestamp"));
+                if (days != null && days < 0) {
+                    context.report(ErrorType.PHENOPACKET_INCONSISTENT_TIME, path + ".timestamp", "is before the date of birth of the subject");
+                }
+            }
+        });
+    }
+
+    /**
+     * @return rule that reports phenotypic features and diseases whose onset is after their resolution as
+     * {@link ErrorType#PHENOPACKET_INCONSISTENT_TIME}
+     */
+    public static Rule onsetBeforeResolution() {
+        return new Rule("onset-before-resolution", FEATURES_AND_DISEASES, (node, path, context) -> {
+            if (! node.has("onset") || ! node.has("resolution")) {
+                return;
+            }
+            JsonNode dateOfBirth = context.subject().path("dateOfBirth");
+            AgeInterval onset = AgeInterval.of(node.get("onset"), dateOfBirth);
+            AgeInterval resolution = AgeInterval.of(node.get("resolution"), dateOfBirth);
+            if (onset != null && resolution != null && onset.isAfter(resolution)) {
+                context.report(ErrorType.PHENOPACKET_INCONSISTENT_TIME, path + ".onset", "the onset is after the resolution");
+            }
+        });
+    }
+
+    /**
+     * @return rule that reports phenotypic features and diseases whose onset is after the time of the last encounter
+     * with the subject as {@link ErrorType#PHENOPACKET_ONSET_AFTER_LAST_ENCOUNTER}
+     */
+    public static Rule onsetBeforeLastEncounter() {
+        return new Rule("onset-before-last-encounter", FEATURES_AND_DISEASES, (node, path, context) -> {
+            JsonNode lastEncounter = context.subject().path("timeAtLastEncounter");
+            if (! node.has("onset") || lastEncounter.isMissingNode()) {
+                return;
+            }
+            JsonNode dateOfBirth = context.subject().path("dateOfBirth");
+            AgeInterval onset = AgeInterval.of(node.get("onset"), dateOfBirth);
+            AgeInterval last = AgeInterval.of(lastEncounter, dateOfBirth);
+            if (onset != null && last != null && onset.isAfter(last)) {
+                context.report(ErrorType.PHENOPACKET_ONSET_AFTER_LAST_ENCOUNTER, path + ".onset",
+                        "the onset is after the time of the last encounter with the subject");
+            }
+        });
+    }
+
+    /**
+     * Phenotypic features with the same term are not duplicates if they differ in their modifiers or onset, for
+     * instance the same abnormality on the left and on the right side.
+     * @return rule that reports phenotypic features that repeat an earlier one, or that exclude an observed one, as
+     * {@link ErrorType#PHENOPACKET_DUPLICATE_PHENOTYPIC_FEATURE}
+     */
+    public static Rule uniquePhenotypicFeatures() {
+        return new Rule("unique-phenotypic-features", "$.phenotypicFeatures", (node, path, context) -> {
+            if (! node.isArray()) {
+                return;
+            }
+            Map<List<Object>, Integer> seen = new HashMap<>();
+            for (int i = 0; i < node.size(); i++) {
+                JsonNode feature = node.get(i);
+                if (! feature.isObject()) {
+                    continue;
+                }
+                String id = feature.path("type").path("id").asText();
+                if (id.isEmpty()) {
+                    continue;
+                }
+                JsonNode modifiers = feature.path("modifiers");
+                boolean excluded = feature.path("excluded").asBoolean();
+                Integer same = seen.putIfAbsent(List.of(id, excluded, modifiers, feature.path("onset")), i);
+                Integer opposite = seen.putIfAbsent(List.of(id, modifiers), i);
+                String featurePath = path + "[" + i + "].type";
+                if (same != null) {
+                    context.report(ErrorType.PHENOPACKET_DUPLICATE_PHENOTYPIC_FEATURE, featurePath,
+                            id + " is already listed at " + path + "[" + same + "]");
+                } else if (opposite != null && node.get(opposite).path("excluded").asBoolean() != excluded) {
+                    context.report(ErrorType.PHENOPACKET_DUPLICATE_PHENOTYPIC_FEATURE, featurePath,
+                            id + " is listed as both observed and excluded, see " + path + "[" + opposite + "]");
+                }
+            }
+        });
+    }
+
+    /**
+     * Only a small set of common sex-specific HPO terms is known to this rule.
+     * @return rule that reports observed phenotypic features that cannot occur in the sex of the subject as
+     * {@link ErrorType#PHENOPACKET_SEX_SPECIFIC_TERM}
+     */
+    public static Rule sexSpecificTerms() {
+        return new Rule("sex-specific-terms", "$.phenotypicFeatures[*]", (node, path, context) -> {
+            if (node.path("excluded").asBoolean()) {
+                return;
+            }
+            String sex = context.subject().path("sex").asText();
+            String id = node.path("type").path("id").asText();
+            if ((sex.equals("MALE") && FEMALE_TERMS.contains(id)) || (sex.equals("FEMALE") && MALE_TERMS.contains(id))) {
+                context.report(ErrorType.PHENOPACKET_SEX_SPECIFIC_TERM, path + ".type",
+                        id + " cannot be observed in a subject of sex " + sex);
+            }
+        });
+    }
+}
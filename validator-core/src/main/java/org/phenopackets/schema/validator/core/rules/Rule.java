@@ -0,0 +1,69 @@
+package org.phenopackets.schema.validator.core.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+
+import java.util.List;
+
+/**
+ * A semantic check of a phenopacket that cannot be expressed in a JSON schema. Each rule names the nodes it is
+ * applied to, its targets, as paths such as {@code $}, {@code $.subject} or {@code $.phenotypicFeatures[*].onset},
+ * where {@code [*]} stands for every element of an array. The {@link RuleEngine} calls the check once for each
+ * node of the document that matches one of the targets and that is present; checks of nodes that must be present
+ * target their parent. Rules hold no per-document state, anything the check needs besides the target node is
+ * available from the {@link RuleContext}.
+ */
+public final class Rule {
+
+    /**
+     * The check of a rule.
+     */
+    @FunctionalInterface
+    public interface Check {
+        /**
+         * @param node a node of the document that matches a target of the rule
+         * @param path location of the node, e.g. {@code $.phenotypicFeatures[2]}
+         * @param context access to the rest of the document, and where errors are reported
+         */
+        void check(JsonNode node, String path, RuleContext context);
+    }
+
+    private final String id;
+    private final List<String> targets;
+    private final Check check;
+
+    /**
+     * @param id unique identifier of the rule, reported as the keyword of its errors, e.g. {@code unique-phenotypic-features}
+     * @param targets paths of the nodes that the rule checks
+     * @param check the check
+     */
+    public Rule(String id, List<String> targets, Check check) {
+        if (targets.isEmpty()) {
+            throw new PhenopacketValidatorRuntimeException("Rule " + id + " has no targets");
+        }
+        this.id = id;
+        this.targets = List.copyOf(targets);
+        this.check = check;
+    }
+
+    public Rule(String id, String target, Check check) {
+        this(id, List.of(target), check);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public List<String> targets() {
+        return targets;
+    }
+
+    void check(JsonNode node, String path, RuleContext context) {
+        check.check(node, path, context);
+    }
+
+    @Override
+    public String toString() {
+        return id + " " + targets;
+    }
+}
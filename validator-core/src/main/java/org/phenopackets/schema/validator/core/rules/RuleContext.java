@@ -0,0 +1,63 @@
+package org.phenopackets.schema.validator.core.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+
+import java.util.List;
+
+/**
+ * State of the evaluation of the rules for one document. Gives the checks access to the whole document and collects
+ * the errors they report. A context is used by one thread only.
+ */
+public final class RuleContext {
+
+    private final JsonNode root;
+    private final List<ValidationItem> errors;
+    private final int maxErrors;
+    private Rule rule;
+
+    RuleContext(JsonNode root, List<ValidationItem> errors, int maxErrors) {
+        this.root = root;
+        this.errors = errors;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * @return root node of the document
+     */
+    public JsonNode root() {
+        return root;
+    }
+
+    /**
+     * @return the {@code subject} of the phenopacket, a missing node if there is none
+     */
+    public JsonNode subject() {
+        return root.path("subject");
+    }
+
+    /**
+     * Report an error of the rule that is currently being evaluated, with the id of the rule as keyword.
+     * @param errorType type of the error
+     * @param path location of the offending node
+     * @param problem description of the problem, without the location
+     */
+    public void report(ErrorType errorType, String path, String problem) {
+        if (errors.size() < maxErrors) {
+            errors.add(new ValidationError(errorType, path + ": " + problem, path, rule.id()));
+        }
+    }
+
+    /**
+     * @return {@code true} once the error budget of the document is used up
+     */
+    public boolean isFull() {
+        return errors.size() >= maxErrors;
+    }
+
+    void setRule(Rule rule) {
+        this.rule = rule;
+    }
+}
@@ -0,0 +1,148 @@
+package org.phenopackets.schema.validator.core.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.validation.JsonNodeValidator;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates the rules of a {@link RuleSet} in a single pass over a parsed document. When the engine is created, the
+ * targets of all rules are merged into one tree that mirrors the document, with the rules attached to the nodes
+ * they target. Evaluation walks the document and the tree together: every node that is targeted by at least one
+ * rule, or that lies on the way to one, is visited exactly once, the rules of the node are applied, and subtrees
+ * that no rule targets are not entered at all. The cost per document therefore grows with the size of the targeted
+ * part of the document and with the number of rules that actually apply there, not with the number of rules times
+ * the size of the document.
+ * <p>
+ * Rules are applied in the order of the document, and at each node in the order of the rule set. Once the error
+ * budget is used up, evaluation stops.
+ */
+public class RuleEngine implements JsonNodeValidator {
+
+    private final RuleSet ruleSet;
+    private final Target root = new Target();
+
+    public RuleEngine(RuleSet ruleSet) {
+        this.ruleSet = ruleSet;
+        for (Rule rule : ruleSet.rules()) {
+            for (String target : rule.targets()) {
+                root.resolve(target, rule).rules.add(rule);
+            }
+        }
+    }
+
+    /**
+     * @return engine with the {@link RuleSet#generic()} rules
+     */
+    public static RuleEngine generic() {
+        return new RuleEngine(RuleSet.generic());
+    }
+
+    /**
+     * @return engine with the {@link RuleSet#rareDisease()} rules
+     */
+    public static RuleEngine rareDisease() {
+        return new RuleEngine(RuleSet.rareDisease());
+    }
+
+    public RuleSet ruleSet() {
+        return ruleSet;
+    }
+
+    @Override
+    public String name() {
+        return "rules:" + ruleSet.name();
+    }
+
+    @Override
+    public String fingerprint() {
+        StringBuilder sb = new StringBuilder(getClass().getName()).append(':').append(ruleSet.name());
+        for (Rule rule : ruleSet.rules()) {
+            sb.append(':').append(rule);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public List<ValidationItem> validate(JsonNode json) {
+        return validate(json, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<ValidationItem> validate(JsonNode json, int maxErrors) {
+        List<ValidationItem> errors = new ArrayList<>();
+        visit(json, "$", root, new RuleContext(json, errors, maxErrors));
+        return errors;
+    }
+
+    private static void visit(JsonNode node, String path, Target target, RuleContext context) {
+        for (Rule rule : target.rules) {
+            if (context.isFull()) {
+                return;
+            }
+            context.setRule(rule);
+            rule.check(node, path, context);
+        }
+        if (node.isObject()) {
+            for (Map.Entry<String, Target> field : target.fields.entrySet()) {
+                JsonNode value = node.get(field.getKey());
+                if (value != null && ! value.isNull() && ! context.isFull()) {
+                    visit(value, path + "." + field.getKey(), field.getValue(), context);
+                }
+            }
+        } else if (node.isArray() && target.elements != null) {
+            for (int i = 0; i < node.size() && ! context.isFull(); i++) {
+                visit(node.get(i), path + "[" + i + "]", target.elements, context);
+            }
+        }
+    }
+
+    /** A node of the tree of targets; only modified while the engine is created. */
+    private static final class Target {
+
+        private final List<Rule> rules = new ArrayList<>();
+        private final Map<String, Target> fields = new LinkedHashMap<>();
+        private Target elements;
+
+        /** Parses a target such as {@code $.phenotypicFeatures[*].onset} and creates the nodes on the way to it. */
+        private Target resolve(String path, Rule rule) {
+            if (! path.startsWith("$")) {
+                throw invalidTarget(path, rule);
+            }
+            Target target = this;
+            int pos = 1;
+            while (pos < path.length()) {
+                if (path.startsWith("[*]", pos)) {
+                    if (target.elements == null) {
+                        target.elements = new Target();
+                    }
+                    target = target.elements;
+                    pos += 3;
+                } else if (path.charAt(pos) == '.') {
+                    int end = pos + 1;
+                    while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                        end++;
+                    }
+                    if (end == pos + 1) {
+                        throw invalidTarget(path, rule);
+                    }
+                    target = target.fields.computeIfAbsent(path.substring(pos + 1, end), name -> new Target());
+                    pos = end;
+                } else {
+                    throw invalidTarget(path, rule);
+                }
+            }
+            return target;
+        }
+
+        private static PhenopacketValidatorRuntimeException invalidTarget(String path, Rule rule) {
+            return new PhenopacketValidatorRuntimeException("Invalid target \"" + path + "\" of rule " + rule.id()
+                    + ", expected a path such as $.phenotypicFeatures[*].onset");
+        }
+    }
+}
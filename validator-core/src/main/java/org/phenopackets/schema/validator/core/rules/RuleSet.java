@@ -0,0 +1,76 @@
+package org.phenopackets.schema.validator.core.rules;
+
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A named, ordered collection of {@link Rule}s with unique ids, which a {@link RuleEngine} evaluates together.
+ */
+public final class RuleSet {
+
+    private final String name;
+    private final List<Rule> rules;
+
+    public RuleSet(String name, List<Rule> rules) {
+        Set<String> ids = new HashSet<>();
+        for (Rule rule : rules) {
+            if (! ids.add(rule.id())) {
+                throw new PhenopacketValidatorRuntimeException("Rule set " + name + " contains rule " + rule.id() + " more than once");
+            }
+        }
+        this.name = name;
+        this.rules = List.copyOf(rules);
+    }
+
+    /**
+     * @return rules that apply to every phenopacket: consistent times and ages, no onset after the last encounter,
+     * no duplicate phenotypic features and no terms that contradict the sex of the subject
+     */
+    public static RuleSet generic() {
+        return new RuleSet("generic", List.of(
+                PhenopacketRules.timeElementsConsistent(),
+                PhenopacketRules.onsetBeforeResolution(),
+                PhenopacketRules.onsetBeforeLastEncounter(),
+                PhenopacketRules.uniquePhenotypicFeatures(),
+                PhenopacketRules.sexSpecificTerms()));
+    }
+
+    /**
+     * @return the {@link #generic()} rules, and in addition a subject with an age and at least one observed
+     * phenotypic feature, as required of rare-disease phenopackets
+     */
+    public static RuleSet rareDisease() {
+        return new RuleSet("rare-disease", generic().rules).with(
+                PhenopacketRules.subjectPresent(),
+                PhenopacketRules.subjectAge(),
+                PhenopacketRules.phenotypicFeaturePresent());
+    }
+
+    /**
+     * @param additional further rules
+     * @return a new rule set with the same name, the rules of this set and the additional rules
+     */
+    public RuleSet with(Rule... additional) {
+        List<Rule> extended = new ArrayList<>(rules);
+        extended.addAll(Arrays.asList(additional));
+        return new RuleSet(name, extended);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<Rule> rules() {
+        return rules;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + rules.size() + " rules)";
+    }
+}
@@ -0,0 +1,246 @@
+package org.phenopackets.schema.validator.core.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.phenopackets.schema.validator.core.batch.BatchOptions;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.batch.BatchValidator;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.metrics.Stage;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.StreamSupport;
+
+/**
+ * Validates the member phenopackets of a {@code Cohort} ({@code members}) or a {@code Family} ({@code proband} and
+ * {@code relatives}) one by one, without reading the whole document into memory. The top level of the document is
+ * read with a streaming parser; each member is parsed into a tree of its own as soon as the parser reaches it and
+ * handed to a {@link BatchValidator}, whose workers validate it while the parser moves on. The bounded queue of the
+ * batch validator blocks the parser when the workers fall behind, so at most
+ * {@code threads + queueCapacity + 1} members are held in memory, whatever the size of the document. All other
+ * top-level fields, such as {@code metaData} or {@code pedigree}, are skipped without being held in memory.
+ * <p>
+ * Each member is reported as a {@link ValidationResult} whose source has the form {@code name/members[index]@line},
+ * {@code name/proband@line} or {@code name/relatives[index]@line}, where {@code line} is the line on which the member
+ * starts. Results arrive in completion order. Problems of the document itself, that it is not well-formed JSON or has
+ * no members, are reported as a further result whose source is the name of the document; after a syntax error, the
+ * rest of the document is not read.
+ */
+public class MemberStreamingValidator {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BatchValidator batchValidator;
+
+    public MemberStreamingValidator(ValidationPipeline pipeline, BatchOptions options) {
+        this.batchValidator = BatchValidator.forSources(source -> validateMember(pipeline, (MemberSource) source), options);
+    }
+
+    public MemberStreamingValidator(ValidationPipeline pipeline) {
+        this(pipeline, BatchOptions.defaults());
+    }
+
+    /**
+     * @param source a Cohort or Family document
+     * @param listener receives the result of each member, and of the document itself if it has problems of its own
+     * @return aggregate counts for all members and the document
+     */
+    public BatchSummary validate(DocumentSource source, Consumer<? super ValidationResult> listener) {
+        try (InputStream is = source.open()) {
+            return validate(is, source.name(), listener);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read \"" + source.name() + "\"", e);
+        }
+    }
+
+    /**
+     * Validate the members of a Cohort or Family document that is read from a stream. The stream is not closed.
+     * @param inputStream stream with a single Cohort or Family document
+     * @param name name of the document that is used in the source of the results
+     * @param listener receives the result of each member, and of the document itself if it has problems of its own;
+     *                 calls never overlap
+     * @return aggregate counts for all members and the document
+     */
+    public BatchSummary validate(InputStream inputStream, String name, Consumer<? super ValidationResult> listener) throws IOException {
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            MemberIterator members = new MemberIterator(parser, name);
+            BatchSummary summary = batchValidator.validateSources(
+                    StreamSupport.stream(Spliterators.spliteratorUnknownSize(members, Spliterator.ORDERED | Spliterator.NONNULL), false),
+                    listener);
+            if (members.problems.isEmpty()) {
+                return summary;
+            }
+            listener.accept(new ValidationResult(name, members.problems));
+            return summary.plus(new BatchSummary(1, 1, members.problems.size(), 0));
+        }
+    }
+
+    private static ValidationResult validateMember(ValidationPipeline pipeline, MemberSource member) {
+        List<ValidationItem> items;
+        try {
+            items = pipeline.validate(member.node);
+        } catch (PhenopacketValidatorRuntimeException e) {
+            items = List.of(new ValidationError(ErrorType.UNREADABLE_DOCUMENT, e.getMessage()));
+        }
+        return new ValidationResult(member.name, items);
+    }
+
+    /**
+     * Reads the top level of the document and returns its members as they are reached. Runs on the thread that
+     * calls {@link #validate(InputStream, String, Consumer)} only.
+     */
+    private static final class MemberIterator implements Iterator<DocumentSource> {
+
+        private final JsonParser parser;
+        private final String name;
+        private final List<ValidationItem> problems = new ArrayList<>();
+
+        /** The array of members that is being read, {@code null} between arrays. */
+        private String array;
+        private int index;
+        private boolean started = false;
+        private boolean finished = false;
+        private boolean hasMembers = false;
+        private MemberSource next;
+
+        private MemberIterator(JsonParser parser, String name) {
+            this.parser = parser;
+            this.name = name;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && ! finished) {
+                try {
+                    next = readNext();
+                } catch (IOException e) {
+                    problems.add(new ValidationError(ErrorType.UNREADABLE_DOCUMENT, e.getMessage()));
+                    finished = true;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public DocumentSource next() {
+            if (! hasNext()) {
+                throw new NoSuchElementException();
+            }
+            MemberSource member = next;
+            next = null;
+            return member;
+        }
+
+        private MemberSource readNext() throws IOException {
+            if (! started) {
+                started = true;
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return finish(ErrorType.JSON_TYPE, "the document is not a JSON object and thus not a Cohort or Family");
+                }
+            }
+            while (true) {
+                if (array != null) {
+                    JsonToken token = parser.nextToken();
+                    if (token == JsonToken.END_ARRAY) {
+                        array = null;
+                        continue;
+                    }
+                    String path = array + "[" + index++ + "]";
+                    if (token == JsonToken.START_OBJECT) {
+                        return member(path);
+                    }
+                    parser.skipChildren();
+                    problems.add(typeError(path));
+                    continue;
+                }
+                JsonToken token = parser.nextToken();
+                if (token != JsonToken.FIELD_NAME) {
+                    return finish(ErrorType.JSON_REQUIRED, "the document has no members (Cohort) and no proband (Family)");
+                }
+                String field = parser.getCurrentName();
+                token = parser.nextToken();
+                if ((field.equals("members") || field.equals("relatives")) && token == JsonToken.START_ARRAY) {
+                    array = field;
+                    index = 0;
+                    hasMembers = true;
+                } else if (field.equals("proband") && token == JsonToken.START_OBJECT) {
+                    hasMembers = true;
+                    return member(field);
+                } else if (field.equals("members") || field.equals("relatives") || field.equals("proband")) {
+                    parser.skipChildren();
+                    problems.add(typeError(field));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private MemberSource member(String path) throws IOException {
+            ValidationMetrics metrics = ValidationMetrics.global();
+            long start = metrics.startTimer();
+            long line = parser.getTokenLocation().getLineNr();
+            JsonNode node = parser.readValueAsTree();
+            metrics.record(Stage.PARSE, start);
+            return new MemberSource(name + "/" + path + "@" + line, node);
+        }
+
+        private MemberSource finish(ErrorType errorType, String problem) {
+            finished = true;
+            if (! hasMembers) {
+                problems.add(new ValidationError(errorType, "$: " + problem, "$", errorType.toString()));
+            }
+            return null;
+        }
+
+        private static ValidationError typeError(String path) {
+            String location = "$." + path;
+            return new ValidationError(ErrorType.JSON_TYPE, location + ": is not a phenopacket object", location, ErrorType.JSON_TYPE.toString());
+        }
+    }
+
+    /** A member that has already been parsed by the reading thread. */
+    private static final class MemberSource implements DocumentSource {
+
+        private final String name;
+        private final JsonNode node;
+
+        private MemberSource(String name, JsonNode node) {
+            this.name = name;
+            this.node = node;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public InputStream open() throws IOException {
+            return new ByteArrayInputStream(OBJECT_MAPPER.writeValueAsBytes(node));
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.phenopackets.schema.validator.core.stream;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.metrics.Stage;
+import org.phenopackets.schema.validator.core.metrics.ValidationMetrics;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Validates a stream that contains many phenopackets, either as newline-delimited JSON (one document per line), as
+ * concatenated JSON documents, or as the elements of a single top-level JSON array. Records are read one at a time with
+ * a Jackson {@link MappingIterator} and validated as soon as they have been read, so the memory use depends on the
+ * size of the largest record and not on the size of the stream.
+ * <p>
+ * Each record is reported as a {@link ValidationResult} whose source has the form
+ * {@code name[index]@line}, where {@code index} is the zero-based position of the record in the stream and
+ * {@code line} the line on which the record starts. A record that is not well-formed JSON is reported as
+ * {@link ErrorType#UNREADABLE_DOCUMENT}. Reading then resumes after the end of the line on which the syntax error
+ * was found, so a malformed line of an NDJSON stream costs one result and the records that follow it are still
+ * validated. A record that is not closed on its own line may take the following lines with it. In a top-level array
+ * the next element cannot be found reliably, so validation of an array stops at its first syntax error. A record on
+ * which the pipeline itself fails is reported as {@link ErrorType#VALIDATOR_ERROR}.
+ */
+public class StreamingValidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingValidator.class);
+
+    private static final ObjectReader NODE_READER = new ObjectMapper().readerFor(JsonNode.class);
+
+    private final ValidationPipeline pipeline;
+
+    private final long maxInvalidRecords;
+
+    public StreamingValidator(ValidationPipeline pipeline) {
+        this(pipeline, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param pipeline validates each record
+     * @param maxInvalidRecords reading of a stream stops once this many of its records were found to be invalid
+     */
+    public StreamingValidator(ValidationPipeline pipeline, long maxInvalidRecords) {
+        this.pipeline = pipeline;
+        this.maxInvalidRecords = maxInvalidRecords;
+    }
+
+    /**
+     * Validate all records of a file.
+     * @param file an NDJSON file, a file with concatenated JSON documents or a file with a JSON array
+     * @param listener receives the result of each record in stream order
+     * @return aggregate counts for all records
+     */
+    public BatchSummary validate(File file, Consumer<? super ValidationResult> listener) {
+        try (InputStream is = new FileInputStream(file)) {
+            return validate(is, file.getPath(), listener);
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not read file \"" + file.getAbsolutePath() + "\"", e);
+        }
+    }
+
+    /**
+     * Validate all records of a stream. The stream is not closed.
+     * @param inputStream stream with NDJSON, concatenated JSON documents or a JSON array
+     * @param name name of the stream that is used in the source of the results
+     * @param listener receives the result of each record in stream order
+     * @return aggregate counts for all records
+     */
+    public BatchSummary validate(InputStream inputStream, String name, Consumer<? super ValidationResult> listener) throws IOException {
+        long start = System.nanoTime();
+        long records = 0;
+        long invalidRecords = 0;
+        long errors = 0;
+        boolean stopped = false;
+        ValidationMetrics metrics = ValidationMetrics.global();
+        ResyncInputStream input = new ResyncInputStream(inputStream);
+        boolean array = input.peek() == '[';
+        // lines before the start of the current parser, which counts lines from one again after each resync
+        long lineOffset = 0;
+        boolean resync = true;
+        while (resync) {
+            resync = false;
+            try (MappingIterator<JsonNode> iterator = NODE_READER.readValues(input)) {
+                JsonParser parser = iterator.getParser();
+                while (true) {
+                    ValidationResult result;
+                    // a record that cannot even be started is reported on the line of the syntax error
+                    long line = -1;
+                    try {
+                        if (! iterator.hasNextValue()) {
+                            break;
+                        }
+                        JsonLocation location = parser.getTokenLocation();
+                        line = lineOffset + location.getLineNr();
+                        long recordStart = metrics.startTimer();
+                        JsonNode record = iterator.nextValue();
+                        metrics.record(Stage.PARSE, recordStart);
+                        result = validateRecord(record, recordName(name, records, line));
+                        metrics.record(Stage.DOCUMENT, recordStart);
+                        metrics.recordDocument(result.isValid());
+                    } catch (IOException e) {
+                        long errorLine = parser.getCurrentLocation().getLineNr();
+                        line = line < 0 ? lineOffset + errorLine : line;
+                        ValidationError error = new ValidationError(ErrorType.UNREADABLE_DOCUMENT, e.getMessage());
+                        listener.accept(new ValidationResult(recordName(name, records, line), List.of(error)));
+                        records++;
+                        invalidRecords++;
+                        errors++;
+                        if (invalidRecords >= maxInvalidRecords) {
+                            stopped = true;
+                        } else if (e instanceof JsonProcessingException && ! array) {
+                            // a read error of the stream itself is not resolved by skipping a line
+                            lineOffset += errorLine;
+                            input.putBack(parser);
+                            input.skipLine();
+                            resync = true;
+                        }
+                        break;
+                    }
+                    records++;
+                    if (! result.isValid()) {
+                        invalidRecords++;
+                        errors += result.items().size();
+                    }
+                    listener.accept(result);
+                    if (invalidRecords >= maxInvalidRecords) {
+                        stopped = hasMoreRecords(iterator);
+                        break;
+                    }
+                }
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new BatchSummary(records, invalidRecords, errors, elapsedMillis, stopped);
+    }
+
+    /** Reaching the limit with the last record validates everything, which is not stopping early. */
+    private static boolean hasMoreRecords(MappingIterator<JsonNode> iterator) {
+        try {
+            return iterator.hasNextValue();
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /** A failure of the pipeline costs the result of one record, not the rest of the stream. */
+    private ValidationResult validateRecord(JsonNode record, String source) {
+        try {
+            return new ValidationResult(source, pipeline.validate(record));
+        } catch (RuntimeException e) {
+            LOG.warn("Could not validate {}", source, e);
+            return new ValidationResult(source, List.of(new ValidationError(ErrorType.VALIDATOR_ERROR, e.toString())));
+        }
+    }
+
+    /**
+     * The caller's stream, which is kept open when a parser closes it, with the bytes that a parser had read ahead
+     * put back in front of it so that the next parser can start where the previous one stopped.
+     */
+    private static class ResyncInputStream extends InputStream {
+        private final InputStream in;
+        private byte[] buffer = new byte[0];
+        private int position = 0;
+
+        ResyncInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        /** Put back the bytes that the parser has read but not consumed. */
+        void putBack(JsonParser parser) throws IOException {
+            ByteArrayOutputStream unread = new ByteArrayOutputStream();
+            parser.releaseBuffered(unread);
+            putBack(unread.toByteArray(), 0, unread.size());
+        }
+
+        private void putBack(byte[] bytes, int from, int to) {
+            byte[] remaining = new byte[to - from + buffer.length - position];
+            System.arraycopy(bytes, from, remaining, 0, to - from);
+            System.arraycopy(buffer, position, remaining, to - from, buffer.length - position);
+            buffer = remaining;
+            position = 0;
+        }
+
+        /** Skip the rest of the current line, including its line break. */
+        void skipLine() throws IOException {
+            byte[] chunk = new byte[8192];
+            int n;
+            while ((n = read(chunk, 0, chunk.length)) != -1) {
+                for (int i = 0; i < n; i++) {
+                    if (chunk[i] == '\n') {
+                        putBack(chunk, i + 1, n);
+                        return;
+                    }
+                }
+            }
+        }
+
+        /** @return the first byte that is not JSON whitespace, which is not consumed, or -1 at the end of the stream */
+        int peek() throws IOException {
+            ByteArrayOutputStream read = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int found = -1;
+            int n;
+            while (found == -1 && (n = read(chunk, 0, chunk.length)) != -1) {
+                read.write(chunk, 0, n);
+                for (int i = 0; i < n && found == -1; i++) {
+                    if (chunk[i] != ' ' && chunk[i] != '\t' && chunk[i] != '\r' && chunk[i] != '\n') {
+                        found = chunk[i] & 0xff;
+                    }
+                }
+            }
+            putBack(read.toByteArray(), 0, read.size());
+            return found;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return position < buffer.length ? buffer[position++] & 0xff : in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position < buffer.length) {
+                int n = Math.min(len, buffer.length - position);
+                System.arraycopy(buffer, position, b, off, n);
+                position += n;
+                return n;
+            }
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static String recordName(String name, long index, long line) {
+        return name + "[" + index + "]@" + line;
+    }
+}
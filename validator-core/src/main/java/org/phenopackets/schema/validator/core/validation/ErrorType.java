@@ -1,16 +1,82 @@
 package org.phenopackets.schema.validator.core.validation;
 
-import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import java.util.HashMap;
+import java.util.Map;
 
 public enum ErrorType {
     /** JSON schema error meaning that the JSON code contained a property not present in the schema. */
     JSON_ADDITIONAL_PROPERTIES("additionalProperties"),
     /** JSON schema error meaning that the JSON code failed to contain a property required by the schema. */
     JSON_REQUIRED("required"),
+    /* The remaining JSON schema errors are named after the keyword of the schema that was violated. */
+    JSON_ALL_OF("allOf"),
+    JSON_ANY_OF("anyOf"),
+    JSON_ONE_OF("oneOf"),
+    JSON_NOT("not"),
+    JSON_IF_THEN_ELSE("if"),
+    JSON_TYPE("type"),
+    JSON_UNION_TYPE("unionType"),
+    JSON_ENUM("enum"),
+    JSON_CONST("const"),
+    JSON_FORMAT("format"),
+    JSON_DATE_TIME("date-time"),
+    JSON_UUID("uuid"),
+    JSON_ID("id"),
+    JSON_PATTERN("pattern"),
+    JSON_MIN_LENGTH("minLength"),
+    JSON_MAX_LENGTH("maxLength"),
+    JSON_MINIMUM("minimum"),
+    JSON_MAXIMUM("maximum"),
+    JSON_EXCLUSIVE_MINIMUM("exclusiveMinimum"),
+    JSON_EXCLUSIVE_MAXIMUM("exclusiveMaximum"),
+    JSON_MULTIPLE_OF("multipleOf"),
+    JSON_ITEMS("items"),
+    JSON_MIN_ITEMS("minItems"),
+    JSON_MAX_ITEMS("maxItems"),
+    JSON_UNIQUE_ITEMS("uniqueItems"),
+    JSON_CONTAINS("contains"),
+    JSON_PROPERTIES("properties"),
+    JSON_PATTERN_PROPERTIES("patternProperties"),
+    JSON_MIN_PROPERTIES("minProperties"),
+    JSON_MAX_PROPERTIES("maxProperties"),
+    JSON_DEPENDENCIES("dependencies"),
+    JSON_NOT_ALLOWED("notAllowed"),
+    JSON_READ_ONLY("readOnly"),
+    JSON_REF("$ref"),
+    JSON_TRUE("true"),
+    JSON_FALSE("false"),
+    JSON_EDITS("edits"),
+    JSON_CROSS_EDITS("crossEdits"),
     PHENOPACKET_SUBJECT_LACKS_AGE("phenopacket subject lacks age"),
     PHENOPACKET_LACKS_SUBJECT("phenopacket lacks subject"),
     INVALID_ONTOLOGY("invalid ontology"),
-    PHENOPACKET_LACKS_PHENOTYPIC_FEATURE("phenopacket lacks phenotypic feature");
+    PHENOPACKET_LACKS_PHENOTYPIC_FEATURE("phenopacket lacks phenotypic feature"),
+    /** Times or ages that contradict each other, e.g. an onset after the resolution or a range that ends before it starts. */
+    PHENOPACKET_INCONSISTENT_TIME("inconsistent time"),
+    /** Onset of a phenotypic feature or disease after the age of the subject at the last encounter. */
+    PHENOPACKET_ONSET_AFTER_LAST_ENCOUNTER("onset after last encounter"),
+    /** The same phenotypic feature is listed more than once, or as both observed and excluded. */
+    PHENOPACKET_DUPLICATE_PHENOTYPIC_FEATURE("duplicate phenotypic feature"),
+    /** A phenotypic feature that can only be observed in the other sex than that of the subject. */
+    PHENOPACKET_SEX_SPECIFIC_TERM("sex-specific term"),
+    /** The document could not be read or is not well-formed JSON, so none of the schemas could be applied. */
+    UNREADABLE_DOCUMENT("unreadable document"),
+    /** Validation of the document took longer than the time limit and was abandoned. */
+    VALIDATION_TIMEOUT("validation timeout"),
+    /** The validator failed on the document, e.g. because of a bug in a rule; the document was not fully checked. */
+    VALIDATOR_ERROR("validator error"),
+    /** A JSON schema keyword that this version of the validator does not know, e.g. from a newer schema library. */
+    UNKNOWN("unknown");
+
+    private static final Map<String, ErrorType> BY_KEYWORD = new HashMap<>();
+
+    static {
+        for (ErrorType errorType : values()) {
+            if (errorType.name().startsWith("JSON_")) {
+                BY_KEYWORD.put(errorType.name, errorType);
+            }
+        }
+    }
 
     private final String name;
 
@@ -25,13 +91,11 @@ public String toString() {
     }
 
 
+    /**
+     * @param error a JSON schema keyword as reported by the schema library, e.g. {@code required}
+     * @return the corresponding error type, or {@link #UNKNOWN} for keywords that have no error type
+     */
     public static ErrorType stringToErrorType(String error) {
-        switch (error) {
-            case "additionalProperties": return JSON_ADDITIONAL_PROPERTIES;
-            case "required": return JSON_REQUIRED;
-
-            default:
-                throw new PhenopacketValidatorRuntimeException("Did not recognize error type: \"" + error + "\"");
-        }
+        return BY_KEYWORD.getOrDefault(error, UNKNOWN);
     }
 }
@@ -0,0 +1,52 @@
+package org.phenopackets.schema.validator.core.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * Common interface for validation stages that work on an already parsed document. Implementations hold no
+ * per-document state, so one instance can validate any number of documents, also from several threads.
+ */
+public interface JsonNodeValidator {
+
+    List<ValidationItem> validate(JsonNode json);
+
+    /**
+     * Validate with an error budget. Implementations should stop looking for further errors once the budget is used
+     * up; the default implementation validates the whole document and truncates the result.
+     * @param json root node of the document
+     * @param maxErrors maximum number of items that are returned, at least 1
+     * @return at most {@code maxErrors} items
+     */
+    default List<ValidationItem> validate(JsonNode json, int maxErrors) {
+        List<ValidationItem> errors = validate(json);
+        return errors.size() > maxErrors ? errors.subList(0, maxErrors) : errors;
+    }
+
+    /**
+     * @param json root node of the document
+     * @return {@code true} if this stage finds no error in the document. Implementations may avoid creating
+     * {@link ValidationItem} objects.
+     */
+    default boolean isValid(JsonNode json) {
+        return validate(json, 1).isEmpty();
+    }
+
+    /**
+     * @return short name of this stage for logs and metrics, by default the simple class name
+     */
+    default String name() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Identifies the rules that this stage applies, e.g. for caching of validation results. Two stages with the same
+     * fingerprint must report the same items for the same document. The string may be long, callers hash it.
+     * @return description of the rules of this stage, by default its class name
+     */
+    default String fingerprint() {
+        return getClass().getName();
+    }
+
+}
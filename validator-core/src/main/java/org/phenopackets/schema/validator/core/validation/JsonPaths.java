@@ -0,0 +1,65 @@
+package org.phenopackets.schema.validator.core.validation;
+
+/**
+ * Conversion of the JSONPath-like locations that are used in error messages, such as
+ * {@code $.phenotypicFeatures[0].type}, to JSON Pointers (RFC 6901), such as {@code /phenotypicFeatures/0/type}.
+ */
+public final class JsonPaths {
+
+    private JsonPaths() {
+    }
+
+    /**
+     * @param path location starting with {@code $}; property names must not contain {@code .} or {@code [}
+     * @return the equivalent JSON Pointer, the empty string for the document root
+     */
+    public static String toPointer(String path) {
+        StringBuilder pointer = new StringBuilder(path.length());
+        int start = path.startsWith("$") ? 1 : 0;
+        for (int i = start; i < path.length(); i++) {
+            char c = path.charAt(i);
+            switch (c) {
+                case '.':
+                case '[':
+                    pointer.append('/');
+                    break;
+                case ']':
+                    break;
+                case '~':
+                    pointer.append("~0");
+                    break;
+                case '/':
+                    pointer.append("~1");
+                    break;
+                default:
+                    pointer.append(c);
+            }
+        }
+        return pointer.toString();
+    }
+
+    /**
+     * The inverse of {@link #toPointer(String)}, for instance to restore the locations of items read from a report.
+     * Segments that consist of digits only are taken to be array indices.
+     * @param pointer a JSON Pointer such as {@code /phenotypicFeatures/0/type}
+     * @return the equivalent location such as {@code $.phenotypicFeatures[0].type}, {@code $} for the empty pointer
+     */
+    public static String toPath(String pointer) {
+        StringBuilder path = new StringBuilder(pointer.length() + 8).append('$');
+        int start = 0;
+        while (start < pointer.length()) {
+            int end = pointer.indexOf('/', start + 1);
+            if (end < 0) {
+                end = pointer.length();
+            }
+            String segment = pointer.substring(start + 1, end).replace("~1", "/").replace("~0", "~");
+            if (! segment.isEmpty() && segment.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                path.append('[').append(segment).append(']');
+            } else {
+                path.append('.').append(segment);
+            }
+            start = end;
+        }
+        return path.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package org.phenopackets.schema.validator.core.validation;
+
+import java.util.Objects;
+
+/**
+ * POJO to represent errors that are not produced by JSON Schema validation, for instance a document that could not be
+ * read or parsed.
+ */
+public final class ValidationError implements ValidationItem {
+
+    private final ErrorType errorType;
+    private final String message;
+    private final String path;
+    private final String keyword;
+
+    public ValidationError(ErrorType errorType, String message) {
+        this(errorType, message, "$", errorType.toString());
+    }
+
+    /**
+     * @param errorType type of the error
+     * @param message human-readable message
+     * @param path location of the offending node, see {@link ValidationItem#path()}
+     * @param keyword violated keyword, see {@link ValidationItem#keyword()}
+     */
+    public ValidationError(ErrorType errorType, String message, String path, String keyword) {
+        this.errorType = errorType;
+        this.message = message;
+        this.path = path;
+        this.keyword = keyword;
+    }
+
+    @Override
+    public String message() {
+        return message;
+    }
+
+    @Override
+    public ErrorType errorType() {
+        return errorType;
+    }
+
+    @Override
+    public String path() {
+        return path;
+    }
+
+    @Override
+    public String keyword() {
+        return keyword;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(message, errorType, path, keyword);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (! (obj instanceof ValidationError)) return false;
+        ValidationError that = (ValidationError) obj;
+        return this.message.equals(that.message) && this.errorType.equals(that.errorType)
+                && this.path.equals(that.path) && this.keyword.equals(that.keyword);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + errorType + ") " + message;
+    }
+}
@@ -5,4 +5,27 @@ public interface ValidationItem {
     ErrorType errorType();
     String message();
 
+    /**
+     * @return location of the offending node in the form {@code $.phenotypicFeatures[0].type}; {@code $} if the item
+     * refers to the whole document
+     */
+    default String path() {
+        return "$";
+    }
+
+    /**
+     * @return {@link #path()} as a JSON Pointer (RFC 6901), the empty string for the whole document
+     */
+    default String pointer() {
+        return JsonPaths.toPointer(path());
+    }
+
+    /**
+     * @return the JSON schema keyword that was violated, or the name of the error type for items that do not come
+     * from a JSON schema
+     */
+    default String keyword() {
+        return errorType().toString();
+    }
+
 }
@@ -0,0 +1,38 @@
+package org.phenopackets.schema.validator.core.validation;
+
+import java.util.List;
+
+/**
+ * The outcome of validating a single document: the name of the document (usually its path) together with all
+ * {@link ValidationItem}s that were found. A result without items means that the document is valid.
+ */
+public final class ValidationResult {
+
+    private final String source;
+    private final List<ValidationItem> items;
+
+    public ValidationResult(String source, List<? extends ValidationItem> items) {
+        this.source = source;
+        this.items = List.copyOf(items);
+    }
+
+    /**
+     * @return name of the validated document, e.g. its file path
+     */
+    public String source() {
+        return source;
+    }
+
+    public List<ValidationItem> items() {
+        return items;
+    }
+
+    public boolean isValid() {
+        return items.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return source + ": " + (isValid() ? "valid" : items.size() + " error(s)");
+    }
+}
@@ -0,0 +1,332 @@
+package org.phenopackets.schema.validator.core.watch;
+
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.batch.BatchValidator;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Watches directories and files with a {@link WatchService} and validates each phenopacket again when it is created
+ * or modified. Only the files that changed are validated, so the time until a result appears does not depend on the
+ * size of the tree, only on the debounce delay and on the validation of the file itself.
+ * <p>
+ * A file is validated once no event has arrived for it for the debounce delay, so an editor or a copy that writes a
+ * file in several steps causes one validation of the complete file rather than one per write. Events for a file that
+ * is waiting are merged into one, and a file is never validated by two threads at the same time; if it changes while
+ * it is being validated, it is validated again afterwards. Validations run on a fixed number of threads, and each file
+ * waits at most once, so the work in progress is bounded by the number of files that changed.
+ * <p>
+ * Directories below a watched directory, including those created later, are watched as well. If the operating system
+ * drops events (an overflow), all matching files of the affected directory are validated again. A new directory that
+ * cannot be watched, e.g. because it was removed right after it was created, is logged and skipped. Deleted files
+ * are not reported.
+ */
+public final class DirectoryWatcher implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    /** Delay between a change and the validation of a file if no other delay is given. */
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(200);
+
+    private final BatchValidator validator;
+    private final PathMatcher matcher;
+    private final long debounceNanos;
+    private final WatchService watchService;
+    private final ExecutorService executor;
+
+    /** Watched directories, and whether their subdirectories are watched as well. */
+    private final Map<WatchKey, WatchedDirectory> directories = new HashMap<>();
+    /** Files that are watched because they were given one by one, rather than as part of a directory. */
+    private final Set<Path> files = new HashSet<>();
+    /** Files waiting to be validated and the time (of {@link System#nanoTime()}) when they are due, guarded by this. */
+    private final Map<Path, Long> pending = new LinkedHashMap<>();
+    /** Files being validated, guarded by this. */
+    private final Set<Path> running = new HashSet<>();
+
+    private final AtomicLong documents = new AtomicLong();
+    private final AtomicLong invalidDocuments = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile boolean closed = false;
+
+    /**
+     * @param validator validates each file that changed
+     * @param threads number of threads that validate files
+     * @param debounce time without events after which a changed file is validated
+     * @param glob a glob that is matched against the names of the files in watched directories, e.g. {@code *.json}
+     */
+    public DirectoryWatcher(BatchValidator validator, int threads, Duration debounce, String glob) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive but was " + threads);
+        }
+        if (debounce.isNegative()) {
+            throw new IllegalArgumentException("Debounce delay must not be negative but was " + debounce);
+        }
+        this.validator = validator;
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        this.debounceNanos = debounce.toNanos();
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not watch the file system", e);
+        }
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "watch-validator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start watching files and directories; changes are recorded from now on, but only validated by
+     * {@link #run(Consumer)}, which must not have started yet. Registering a very large tree takes a while, but only
+     * happens once.
+     * @param paths files and directories; directories are watched recursively
+     */
+    public void register(Collection<Path> paths) {
+        for (Path path : paths) {
+            Path absolute = path.toAbsolutePath().normalize();
+            if (Files.isDirectory(absolute)) {
+                registerTree(absolute, false);
+            } else if (Files.isRegularFile(absolute)) {
+                files.add(absolute);
+                register(absolute.getParent(), false);
+            } else {
+                throw new PhenopacketValidatorRuntimeException("Could not find file or directory \"" + path + "\"");
+            }
+        }
+    }
+
+    /**
+     * Validate the files that change until the watcher is closed, e.g. by another thread or a shutdown hook.
+     * @param listener receives the result of each validation, from the validating threads
+     * @return counts of all validations
+     */
+    public BatchSummary run(Consumer<ValidationResult> listener) {
+        long start = System.nanoTime();
+        try {
+            while (! closed) {
+                WatchKey key = watchService.poll(pollMillis(), TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    handle(key);
+                    key = watchService.poll();
+                }
+                dispatch(listener);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed while waiting for events
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close();
+        }
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new BatchSummary(documents.get(), invalidDocuments.get(), errors.get(), elapsedMillis);
+    }
+
+    /** Stop watching; validations that have started are completed, files that are still waiting are dropped. */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOG.warn("Could not close the watch service: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return time until the next file is due; without waiting files, the loop still wakes up after the debounce
+     * delay to pick up files that changed while they were being validated
+     */
+    private synchronized long pollMillis() {
+        long now = System.nanoTime();
+        long wait = debounceNanos;
+        for (Map.Entry<Path, Long> entry : pending.entrySet()) {
+            if (! running.contains(entry.getKey())) {
+                wait = Math.min(wait, entry.getValue() - now);
+            }
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait));
+    }
+
+    private void handle(WatchKey key) {
+        WatchedDirectory directory = directories.get(key);
+        if (directory != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    LOG.warn("Missed changes in {}, validating all of its files", directory.path);
+                    changedDirectory(directory);
+                    continue;
+                }
+                Path path = directory.path.resolve((Path) event.context());
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    deleted(path);
+                } else if (directory.recursive && event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                    try {
+                        // files may have been written before the new directory was registered
+                        registerTree(path, true);
+                    } catch (PhenopacketValidatorRuntimeException e) {
+                        // e.g. a temporary directory that was removed again before it could be registered
+                        LOG.warn("Could not watch new directory {}: {}", path, e.getCause() == null ? e.getMessage() : e.getCause().toString());
+                    }
+                } else if (isWatched(directory, path)) {
+                    changed(path);
+                }
+            }
+        }
+        if (! key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    private boolean isWatched(WatchedDirectory directory, Path path) {
+        return files.contains(path) || directory.recursive && matcher.matches(path.getFileName());
+    }
+
+    private synchronized void changed(Path path) {
+        pending.put(path, System.nanoTime() + debounceNanos);
+    }
+
+    private synchronized void deleted(Path path) {
+        pending.remove(path);
+    }
+
+    private void changedDirectory(WatchedDirectory directory) {
+        try (Stream<Path> children = Files.list(directory.path)) {
+            children.filter(Files::isRegularFile)
+                    .filter(p -> isWatched(directory, p))
+                    .forEach(this::changed);
+        } catch (IOException e) {
+            LOG.warn("Could not list {}: {}", directory.path, e.getMessage());
+        }
+    }
+
+    /** Submit the files that are due and not being validated already. */
+    private synchronized void dispatch(Consumer<ValidationResult> listener) {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, Long>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Path, Long> entry = entries.next();
+            Path path = entry.getKey();
+            if (entry.getValue() - now > 0 || running.contains(path)) {
+                continue;
+            }
+            entries.remove();
+            running.add(path);
+            try {
+                executor.execute(() -> validate(path, listener));
+            } catch (RejectedExecutionException e) {
+                // closed in the meantime
+                running.remove(path);
+                return;
+            }
+        }
+    }
+
+    private void validate(Path path, Consumer<ValidationResult> listener) {
+        try {
+            // the file may be deleted or renamed between the event and its validation
+            if (Files.isRegularFile(path)) {
+                ValidationResult result = validator.validateDocument(DocumentSource.of(path));
+                documents.incrementAndGet();
+                if (! result.isValid()) {
+                    invalidDocuments.incrementAndGet();
+                    errors.addAndGet(result.items().size());
+                }
+                listener.accept(result);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not report the result of {}: {}", path, e.getMessage());
+        } finally {
+            synchronized (this) {
+                running.remove(path);
+            }
+        }
+    }
+
+    /**
+     * @param root a directory, which is watched with all of its subdirectories
+     * @param created if true, the files already in the tree are validated as well, because they may have been
+     *                written before it was registered
+     */
+    private void registerTree(Path root, boolean created) {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    register(dir, true);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (created && attrs.isRegularFile() && matcher.matches(file.getFileName())) {
+                        changed(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not watch directory \"" + root + "\"", e);
+        }
+    }
+
+    private void register(Path dir, boolean recursive) {
+        try {
+            WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            WatchedDirectory previous = directories.get(key);
+            // a directory given as a whole and as the parent of a single file is watched recursively
+            directories.put(key, new WatchedDirectory(dir, recursive || previous != null && previous.recursive));
+        } catch (IOException e) {
+            throw new PhenopacketValidatorRuntimeException("Could not watch directory \"" + dir + "\"", e);
+        }
+    }
+
+    private static final class WatchedDirectory {
+        private final Path path;
+        private final boolean recursive;
+
+        private WatchedDirectory(Path path, boolean recursive) {
+            this.path = path;
+            this.recursive = recursive;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.phenopackets.schema.validator.core.async;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.phenopackets.schema.validator.core.input.DocumentSource;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncValidatorTest {
+
+    private static final ValidationPipeline PIPELINE = ValidationPipeline.generic();
+
+    private ExecutorService executor;
+
+    private static DocumentSource fromClasspath(String path) {
+        return DocumentSource.of(Path.of(Thread.currentThread().getContextClassLoader().getResource(path).getPath()));
+    }
+
+    /**
+     * A document whose content can only be read once {@code release} has been counted down; it counts how often
+     * it is opened.
+     */
+    private static DocumentSource blockingSource(String name, CountDownLatch release, AtomicInteger opened) {
+        return new DocumentSource() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public InputStream open() throws IOException {
+                opened.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException(name + " was interrupted");
+                }
+                return InputStream.nullInputStream();
+            }
+        };
+    }
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testResultsCompleteOnTheGivenExecutor() throws Exception {
+        AsyncValidator validator = new AsyncValidator(PIPELINE, executor);
+        CompletableFuture<ValidationResult> valid = validator.validate(fromClasspath("json/validSimplePhenopacket.json"));
+        CompletableFuture<ValidationResult> invalid = validator.validate(fromClasspath("json/invalidSimplePhenopacket.json"));
+        CompletableFuture<ValidationResult> broken = validator.validate(DocumentSource.of("broken.json", "{\"id\": ".getBytes()));
+        assertTrue(valid.get(10, TimeUnit.SECONDS).isValid());
+        assertFalse(invalid.get(10, TimeUnit.SECONDS).isValid());
+        assertEquals(ErrorType.UNREADABLE_DOCUMENT, broken.get(10, TimeUnit.SECONDS).items().get(0).errorType());
+
+        JsonNode tree = new ObjectMapper().readTree(Files.readAllBytes(fromClasspath("json/validSimplePhenopacket.json").path().orElseThrow()));
+        ValidationResult result = validator.validate("tree", tree).get(10, TimeUnit.SECONDS);
+        assertEquals("tree", result.source());
+        assertTrue(result.isValid());
+    }
+
+    @Test
+    public void testDocumentsCancelledWhileWaitingAreNeverValidated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger opened = new AtomicInteger();
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            AsyncValidator validator = new AsyncValidator(PIPELINE, single);
+            CompletableFuture<ValidationResult> blocking = validator.validate(blockingSource("first", release, opened));
+            CompletableFuture<ValidationResult> waiting = validator.validate(blockingSource("second", release, opened));
+            assertTrue(waiting.cancel(true));
+            release.countDown();
+            blocking.get(10, TimeUnit.SECONDS);
+            assertThrows(CancellationException.class, waiting::join);
+            // the cancelled document is skipped when its turn comes
+            single.submit(() -> { }).get(10, TimeUnit.SECONDS);
+            assertEquals(1, opened.get());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDocumentsThatTakeTooLongTimeOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger opened = new AtomicInteger();
+        AsyncValidator validator = new AsyncValidator(PIPELINE, executor, Duration.ofMillis(100));
+        CompletableFuture<ValidationResult> slow = validator.validate(blockingSource("slow", release, opened));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> slow.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException);
+
+        // the interrupted thread is free for the next document
+        assertTrue(validator.validate(fromClasspath("json/validSimplePhenopacket.json"), null).get(10, TimeUnit.SECONDS).isValid());
+        assertThrows(IllegalArgumentException.class, () -> new AsyncValidator(PIPELINE, executor, Duration.ZERO));
+    }
+
+    @Test
+    public void testPublisherFollowsDemand() throws Exception {
+        List<DocumentSource> sources = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sources.add(fromClasspath(i % 2 == 0 ? "json/validSimplePhenopacket.json" : "json/invalidSimplePhenopacket.json"));
+        }
+        AsyncValidator validator = new AsyncValidator(PIPELINE, executor);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        validator.publisher(sources, 3).subscribe(subscriber);
+
+        subscriber.subscription.request(4);
+        subscriber.awaitResults(4);
+        Thread.sleep(100);
+        assertEquals(4, subscriber.results.size());
+        assertFalse(subscriber.completed.getCount() == 0);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(10, subscriber.results.size());
+        assertEquals(5, subscriber.results.stream().filter(ValidationResult::isValid).count());
+        assertEquals(0, subscriber.errors.size());
+    }
+
+    @Test
+    public void testPublisherReportsTimeouts() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger opened = new AtomicInteger();
+        List<DocumentSource> sources = List.of(blockingSource("slow", release, opened), fromClasspath("json/validSimplePhenopacket.json"));
+        AsyncValidator validator = new AsyncValidator(PIPELINE, executor, Duration.ofMillis(100));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        validator.publisher(sources, 2).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(2, subscriber.results.size());
+        ValidationResult slow = subscriber.results.stream().filter(r -> r.source().equals("slow")).findFirst().orElseThrow();
+        assertEquals(ErrorType.VALIDATION_TIMEOUT, slow.items().get(0).errorType());
+    }
+
+    @Test
+    public void testCancellingTheSubscriptionCancelsDocumentsInFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger opened = new AtomicInteger();
+        List<DocumentSource> sources = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sources.add(blockingSource("blocking" + i, release, opened));
+        }
+        AsyncValidator validator = new AsyncValidator(PIPELINE, executor);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        validator.publisher(sources, 2).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.cancel();
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(opened.get() <= 2, opened.get() + " documents were opened");
+        assertEquals(0, subscriber.results.size());
+        assertEquals(1, subscriber.completed.getCount());
+    }
+
+    @Test
+    public void testNonPositiveRequestIsAnError() throws Exception {
+        AsyncValidator validator = new AsyncValidator(PIPELINE, executor);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        validator.publisher(List.of(fromClasspath("json/validSimplePhenopacket.json")), 1).subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertEquals(1, subscriber.errors.size());
+        assertTrue(subscriber.errors.get(0) instanceof IllegalArgumentException);
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<ValidationResult> {
+
+        private final List<ValidationResult> results = Collections.synchronizedList(new ArrayList<>());
+        private final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ValidationResult item) {
+            results.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            errors.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        private void awaitResults(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (results.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
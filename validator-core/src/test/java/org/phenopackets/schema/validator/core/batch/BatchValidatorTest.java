@@ -0,0 +1,144 @@
+package org.phenopackets.schema.validator.core.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchValidatorTest {
+
+    private static Path pathFromClasspath(String path) {
+        return Path.of(Thread.currentThread().getContextClassLoader().getResource(path).getPath());
+    }
+
+    /**
+     * Lay out a directory with two valid and two invalid phenopackets (one of them in a subdirectory), a file that
+     * is not JSON and a file that is ignored because it does not match the glob.
+     */
+    private static Path createBatchDirectory(Path root) throws IOException {
+        Path nested = Files.createDirectories(root.resolve("nested"));
+        Files.copy(pathFromClasspath("json/validSimplePhenopacket.json"), root.resolve("valid.json"));
+        Files.copy(pathFromClasspath("json/bethlehamMyopathyExample.json"), nested.resolve("myopathy.json"));
+        Files.copy(pathFromClasspath("json/invalidSimplePhenopacket.json"), root.resolve("invalid.json"));
+        Files.writeString(nested.resolve("broken.json"), "{\"id\": ");
+        Files.writeString(root.resolve("notes.txt"), "not a phenopacket");
+        return root;
+    }
+
+    @Test
+    public void testDirectoryIsValidatedRecursively(@TempDir Path tempDir) throws IOException {
+        Path root = createBatchDirectory(tempDir);
+        BatchValidator validator = new BatchValidator(ValidationPipeline.generic(), new BatchOptions(3, 1));
+        List<ValidationResult> results = new ArrayList<>();
+        BatchSummary summary;
+        try (Stream<Path> inputs = BatchInputs.walk(root, BatchInputs.DEFAULT_GLOB)) {
+            summary = validator.validate(inputs, results::add);
+        }
+        assertEquals(4, results.size());
+        assertEquals(4, summary.documents());
+        assertEquals(2, summary.validDocuments());
+        assertEquals(2, summary.invalidDocuments());
+        assertEquals(4, summary.errors());
+        assertEquals(1, summary.exitCode());
+
+        ValidationResult broken = results.stream()
+                .filter(r -> r.source().endsWith("broken.json"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(ErrorType.UNREADABLE_DOCUMENT, broken.items().get(0).errorType());
+    }
+
+    @Test
+    public void testValidBatchHasZeroExitCode() {
+        BatchValidator validator = new BatchValidator(ValidationPipeline.generic());
+        Stream<Path> inputs = Stream.of(pathFromClasspath("json/validSimplePhenopacket.json"), pathFromClasspath("json/bethlehamMyopathyExample.json"));
+        BatchSummary summary = validator.validate(inputs, r -> {});
+        assertEquals(2, summary.validDocuments());
+        assertEquals(0, summary.exitCode());
+    }
+
+    @Test
+    public void testManifestPathsAreResolvedAgainstManifestDirectory(@TempDir Path tempDir) throws IOException {
+        Path root = createBatchDirectory(tempDir);
+        Path manifest = root.resolve("manifest.txt");
+        Files.writeString(manifest, "# inputs\nvalid.json\n\n" + root.resolve("invalid.json") + "\n");
+        List<Path> paths;
+        try (Stream<Path> inputs = BatchInputs.fromManifest(manifest)) {
+            paths = inputs.collect(Collectors.toList());
+        }
+        assertEquals(List.of(root.resolve("valid.json"), root.resolve("invalid.json")), paths);
+        assertTrue(paths.stream().allMatch(Files::isRegularFile));
+    }
+
+    @Test
+    public void testBatchStopsAfterMaxInvalidDocuments() {
+        BatchOptions options = new BatchOptions(1, 1).withMaxInvalidDocuments(2);
+        BatchValidator validator = new BatchValidator(ValidationPipeline.generic(), options);
+        Path invalid = pathFromClasspath("json/invalidSimplePhenopacket.json");
+        List<ValidationResult> results = new ArrayList<>();
+        BatchSummary summary = validator.validate(Stream.generate(() -> invalid).limit(100), results::add);
+        assertEquals(2, summary.invalidDocuments());
+        assertEquals(2, results.size());
+        assertTrue(summary.stoppedEarly());
+    }
+
+    /** Reaching the limit with the last document leaves nothing unvalidated. */
+    @Test
+    public void testLimitReachedByTheLastDocumentIsNotAnEarlyStop() {
+        BatchOptions options = new BatchOptions(1, 1).withMaxInvalidDocuments(2);
+        BatchValidator validator = new BatchValidator(ValidationPipeline.generic(), options);
+        Path valid = pathFromClasspath("json/validSimplePhenopacket.json");
+        Path invalid = pathFromClasspath("json/invalidSimplePhenopacket.json");
+        List<ValidationResult> results = new ArrayList<>();
+        BatchSummary summary = validator.validate(Stream.of(valid, invalid, invalid), results::add);
+        assertEquals(3, summary.documents());
+        assertEquals(2, summary.invalidDocuments());
+        assertFalse(summary.stoppedEarly());
+    }
+
+    /** A document on which the validator fails is reported as invalid rather than lost. */
+    @Test
+    public void testFailureOfTheValidatorIsReported() {
+        Path valid = pathFromClasspath("json/validSimplePhenopacket.json");
+        BatchValidator validator = BatchValidator.forSources(source -> {
+            throw new NullPointerException("bug in a rule");
+        }, new BatchOptions(2, 2));
+        List<ValidationResult> results = new ArrayList<>();
+        BatchSummary summary = validator.validate(Stream.of(valid, valid, valid), results::add);
+        assertEquals(3, summary.documents());
+        assertEquals(3, summary.invalidDocuments());
+        assertEquals(1, summary.exitCode());
+        assertEquals(ErrorType.VALIDATOR_ERROR, results.get(0).items().get(0).errorType());
+    }
+
+    @Test
+    public void testFailureOfTheListenerFailsTheBatch() {
+        Path valid = pathFromClasspath("json/validSimplePhenopacket.json");
+        BatchValidator validator = new BatchValidator(ValidationPipeline.generic(), new BatchOptions(2, 2));
+        UncheckedIOException failure = new UncheckedIOException(new IOException("disk full"));
+        List<ValidationResult> results = new ArrayList<>();
+        UncheckedIOException thrown = assertThrows(UncheckedIOException.class,
+                () -> validator.validate(Stream.generate(() -> valid).limit(100), r -> {
+                    results.add(r);
+                    throw failure;
+                }));
+        assertSame(failure, thrown);
+        assertTrue(results.size() < 100);
+    }
+}
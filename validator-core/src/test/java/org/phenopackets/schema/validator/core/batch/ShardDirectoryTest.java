@@ -0,0 +1,161 @@
+package org.phenopackets.schema.validator.core.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShardDirectoryTest {
+
+    private static final int DOCUMENTS = 40;
+    private static final int SHARDS = 4;
+
+    private static Path pathFromClasspath(String path) {
+        return Path.of(Thread.currentThread().getContextClassLoader().getResource(path).getPath());
+    }
+
+    /** Every third document is invalid. */
+    private static List<Path> createDocuments(Path root) throws IOException {
+        Path valid = pathFromClasspath("json/validSimplePhenopacket.json");
+        Path invalid = pathFromClasspath("json/invalidSimplePhenopacket.json");
+        List<Path> documents = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents.add(Files.copy(i % 3 == 0 ? invalid : valid, root.resolve("doc" + i + ".json")));
+        }
+        return documents;
+    }
+
+    private static BatchValidator validator() {
+        return new BatchValidator(ValidationPipeline.generic(), new BatchOptions(2, 2));
+    }
+
+    private static Map<String, ValidationResult> merge(ShardDirectory directory, BatchSummary[] summary) {
+        Map<String, ValidationResult> results = new TreeMap<>();
+        summary[0] = directory.merge(r -> {
+            if (results.put(r.source(), r) != null) {
+                throw new AssertionError(r.source() + " was validated twice");
+            }
+        });
+        return results;
+    }
+
+    @Test
+    public void testShardsAreDeterministicAndCoverAllInputs(@TempDir Path tempDir) throws IOException {
+        List<Path> documents = createDocuments(tempDir);
+        ShardDirectory directory = new ShardDirectory(tempDir.resolve("run"));
+        assertTrue(directory.plan(documents.stream(), SHARDS));
+        List<String> planned = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            for (String line : Files.readAllLines(directory.manifest(shard))) {
+                assertEquals(shard, ShardDirectory.shardOf(line, SHARDS));
+                planned.add(line);
+            }
+        }
+        assertEquals(DOCUMENTS, planned.size());
+        documents.forEach(d -> assertTrue(planned.contains(d.toAbsolutePath().toString())));
+        assertEquals(List.of(0, 1, 2, 3), directory.pendingShards());
+
+        // a second plan resumes the first one, but only with the same number of shards
+        assertFalse(directory.plan(Stream.empty(), SHARDS));
+        assertThrows(PhenopacketValidatorRuntimeException.class, () -> directory.plan(Stream.empty(), SHARDS + 1));
+    }
+
+    @Test
+    public void testMergedShardsGiveTheResultOfOneBatch(@TempDir Path tempDir) throws IOException {
+        List<Path> documents = createDocuments(tempDir);
+        ShardDirectory directory = new ShardDirectory(tempDir.resolve("run"));
+        directory.plan(documents.stream(), SHARDS);
+        for (int shard : directory.pendingShards()) {
+            directory.validateShard(shard, validator(), BatchInputs.DEFAULT_GLOB);
+        }
+        assertTrue(directory.pendingShards().isEmpty());
+
+        BatchSummary[] merged = new BatchSummary[1];
+        Map<String, ValidationResult> results = merge(directory, merged);
+        BatchSummary batch = validator().validate(documents.stream(), r -> {});
+        assertEquals(DOCUMENTS, results.size());
+        assertEquals(batch.documents(), merged[0].documents());
+        assertEquals(batch.invalidDocuments(), merged[0].invalidDocuments());
+        assertEquals(batch.errors(), merged[0].errors());
+        ValidationResult invalid = results.get(tempDir.resolve("doc0.json").toString());
+        assertFalse(invalid.isValid());
+        assertTrue(invalid.items().get(0).path().startsWith("$"));
+    }
+
+    /** A worker that was killed leaves the results of some documents and an incomplete line. */
+    @Test
+    public void testInterruptedShardIsResumed(@TempDir Path tempDir) throws IOException {
+        List<Path> documents = createDocuments(tempDir);
+        ShardDirectory directory = new ShardDirectory(tempDir.resolve("run"));
+        directory.plan(documents.stream(), 1);
+        directory.validateShard(0, validator(), BatchInputs.DEFAULT_GLOB);
+        List<String> lines = Files.readAllLines(directory.results(0));
+        List<String> kept = lines.subList(0, 10);
+        Files.write(directory.results(0), kept, StandardCharsets.UTF_8);
+        Files.writeString(directory.results(0), lines.get(10).substring(0, 20), StandardOpenOption.APPEND);
+        Files.delete(directory.manifest(0).resolveSibling("shard-0000.done"));
+        assertEquals(List.of(0), directory.pendingShards());
+
+        BatchSummary resumed = directory.validateShard(0, validator(), BatchInputs.DEFAULT_GLOB);
+        assertEquals(DOCUMENTS - 10, resumed.documents());
+        assertTrue(directory.pendingShards().isEmpty());
+        BatchSummary[] merged = new BatchSummary[1];
+        assertEquals(DOCUMENTS, merge(directory, merged).size());
+        assertEquals(DOCUMENTS, merged[0].documents());
+    }
+
+    @Test
+    public void testShardsAreValidatedBySeparateProcesses(@TempDir Path tempDir) throws IOException, InterruptedException {
+        List<Path> documents = createDocuments(tempDir);
+        Path run = tempDir.resolve("run");
+        ShardDirectory directory = new ShardDirectory(run);
+        directory.plan(documents.stream(), SHARDS);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> workers = new ArrayList<>();
+        for (int worker = 0; worker < 2; worker++) {
+            workers.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Worker.class.getName(),
+                    run.toString(), Integer.toString(worker), "2")
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File(run.resolve("worker" + worker + ".log").toString()))
+                    .start());
+        }
+        for (Process worker : workers) {
+            assertEquals(0, worker.waitFor(), "worker failed, see the logs in " + run);
+        }
+        assertTrue(directory.pendingShards().isEmpty());
+        BatchSummary[] merged = new BatchSummary[1];
+        assertEquals(DOCUMENTS, merge(directory, merged).size());
+        assertEquals((DOCUMENTS + 2) / 3, merged[0].invalidDocuments());
+    }
+
+    /** Validates every shard {@code k} with {@code k % workers == worker}. */
+    public static final class Worker {
+
+        public static void main(String[] args) {
+            ShardDirectory directory = new ShardDirectory(Path.of(args[0]));
+            int worker = Integer.parseInt(args[1]);
+            int workers = Integer.parseInt(args[2]);
+            for (int shard = worker; shard < directory.shards(); shard += workers) {
+                directory.validateShard(shard, validator(), BatchInputs.DEFAULT_GLOB);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.phenopackets.schema.validator.core.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResultCacheTest {
+
+    private static Path pathFromClasspath(String path) {
+        return Path.of(Thread.currentThread().getContextClassLoader().getResource(path).getPath());
+    }
+
+    @Test
+    public void testUnchangedDocumentIsAnsweredFromCache(@TempDir Path tempDir) throws IOException {
+        Path doc = Files.copy(pathFromClasspath("json/invalidSimplePhenopacket.json"), tempDir.resolve("doc.json"));
+        ResultCache cache = ResultCache.inMemory(10);
+        Function<Path, ValidationResult> validator = cache.cached(ValidationPipeline.generic());
+
+        ValidationResult first = validator.apply(doc);
+        ValidationResult second = validator.apply(doc);
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertEquals(first.items().size(), second.items().size());
+        assertEquals(first.items().get(0).message(), second.items().get(0).message());
+        assertEquals(doc.toString(), second.source());
+
+        Files.copy(pathFromClasspath("json/validSimplePhenopacket.json"), doc, StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(doc, FileTime.fromMillis(Files.getLastModifiedTime(doc).toMillis() + 2000));
+        assertTrue(validator.apply(doc).isValid());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void testCacheIsKeyedByPipeline(@TempDir Path tempDir) throws IOException {
+        Path doc = Files.copy(pathFromClasspath("json/bethlehamMyopathyExample.json"), tempDir.resolve("doc.json"));
+        ResultCache cache = ResultCache.inMemory(10);
+        assertTrue(cache.cached(ValidationPipeline.generic()).apply(doc).isValid());
+        cache.cached(ValidationPipeline.rareDisease()).apply(doc);
+        assertEquals(2, cache.misses());
+        assertEquals(2, cache.size());
+        assertFalse(ValidationPipeline.generic().fingerprint().equals(ValidationPipeline.rareDisease().fingerprint()));
+        assertEquals(ValidationPipeline.generic().fingerprint(), ValidationPipeline.generic().fingerprint());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted(@TempDir Path tempDir) throws IOException {
+        Path a = Files.copy(pathFromClasspath("json/validSimplePhenopacket.json"), tempDir.resolve("a.json"));
+        Path b = Files.copy(pathFromClasspath("json/invalidSimplePhenopacket.json"), tempDir.resolve("b.json"));
+        Path c = Files.copy(pathFromClasspath("json/bethlehamMyopathyExample.json"), tempDir.resolve("c.json"));
+        ResultCache cache = ResultCache.inMemory(2);
+        Function<Path, ValidationResult> validator = cache.cached(ValidationPipeline.generic());
+        validator.apply(a);
+        validator.apply(b);
+        validator.apply(a);
+        validator.apply(c);
+        assertEquals(2, cache.size());
+        validator.apply(a);
+        assertEquals(2, cache.hits());
+        validator.apply(b);
+        assertEquals(4, cache.misses());
+    }
+
+    @Test
+    public void testCacheIsPersisted(@TempDir Path tempDir) throws IOException {
+        Path doc = Files.copy(pathFromClasspath("json/invalidSimplePhenopacket.json"), tempDir.resolve("doc.json"));
+        Path cacheFile = tempDir.resolve("cache/results.bin");
+        try (ResultCache cache = ResultCache.open(cacheFile, 10)) {
+            cache.cached(ValidationPipeline.generic()).apply(doc);
+        }
+        ResultCache reopened = ResultCache.open(cacheFile, 10);
+        ValidationResult result = reopened.cached(ValidationPipeline.generic()).apply(doc);
+        assertEquals(1, reopened.hits());
+        assertEquals(0, reopened.misses());
+        assertFalse(result.isValid());
+
+        Files.writeString(cacheFile, "garbage");
+        assertEquals(0, ResultCache.open(cacheFile, 10).size());
+    }
+
+    /** The build must fill in the version, otherwise the results of other versions would be taken from the cache. */
+    @Test
+    public void testValidatorVersionIsFilledInByTheBuild() {
+        assertTrue(ResultCache.VALIDATOR_VERSION.matches("\\d+\\.\\d+.*"), ResultCache.VALIDATOR_VERSION);
+    }
+}
@@ -0,0 +1,233 @@
+package org.phenopackets.schema.validator.core.input;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.batch.BatchOptions;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.batch.BatchValidator;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ArchiveInputsTest {
+
+    private static final String VALID = "{\"id\": \"world\", \"metaData\": {\"created\": \"2021-07-01T19:32:35Z\", " +
+            "\"createdBy\": \"Peter R.\", \"phenopacketSchemaVersion\": \"2.0\", \"resources\": [{\"id\": \"hp\", " +
+            "\"name\": \"human phenotype ontology\", \"url\": \"http://purl.obolibrary.org/obo/hp.owl\", " +
+            "\"version\": \"2018-03-08\", \"namespacePrefix\": \"HP\", \"iriPrefix\": \"http://purl.obolibrary.org/obo/HP_\"}]}}";
+    private static final String INVALID = "{\"disney\": \"donald\"}";
+    private static final String LONG_NAME = "cohort/" + "a".repeat(120) + ".json";
+
+    private static Map<String, String> entries() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("cohort/valid.json", VALID);
+        entries.put("cohort/invalid.json", INVALID);
+        entries.put("cohort/README.txt", "not a phenopacket");
+        entries.put(LONG_NAME, VALID);
+        return entries;
+    }
+
+    private static Map<String, Boolean> validate(Stream<DocumentSource> sources) {
+        Map<String, Boolean> validity = new TreeMap<>();
+        BatchValidator validator = new BatchValidator(ValidationPipeline.generic(), new BatchOptions(2, 2));
+        try (sources) {
+            BatchSummary summary = validator.validateSources(sources, r -> validity.put(r.source(), r.isValid()));
+            assertEquals(validity.size(), summary.documents());
+            assertEquals(1, summary.invalidDocuments());
+        }
+        return validity;
+    }
+
+    private static Path writeZip(Path archive) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            zip.putNextEntry(new ZipEntry("cohort/"));
+            zip.closeEntry();
+            for (Map.Entry<String, String> entry : entries().entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return archive;
+    }
+
+    private static void assertResults(Path archive, Map<String, Boolean> validity) {
+        String prefix = archive + "!/";
+        assertTrue(validity.get(prefix + "cohort/valid.json"));
+        assertFalse(validity.get(prefix + "cohort/invalid.json"));
+        assertTrue(validity.get(prefix + LONG_NAME));
+    }
+
+    @Test
+    public void testZipEntriesAreValidatedWithoutExtraction(@TempDir Path tempDir) throws IOException {
+        Path archive = writeZip(tempDir.resolve("bundle.zip"));
+        assertTrue(ArchiveInputs.isArchive(archive));
+        Map<String, Boolean> validity = validate(ArchiveInputs.entries(archive, "*.json"));
+        assertEquals(3, validity.size());
+        assertResults(archive, validity);
+        assertEquals(1, Files.list(tempDir).count());
+    }
+
+    @Test
+    public void testExpandKeepsArchivesOpenUntilClosed(@TempDir Path tempDir) throws IOException {
+        Path archive = writeZip(tempDir.resolve("bundle.zip"));
+        Path file = Files.writeString(tempDir.resolve("single.json"), VALID);
+        Map<String, Boolean> validity = validate(ArchiveInputs.expand(Stream.of(archive, file), "*.json"));
+        assertEquals(4, validity.size());
+        assertResults(archive, validity);
+        assertTrue(validity.get(file.toString()));
+    }
+
+    @Test
+    public void testTarGzEntriesAreValidatedWithoutExtraction(@TempDir Path tempDir) throws IOException {
+        Path archive = tempDir.resolve("bundle.tar.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+            writeTarEntry(out, "cohort/", new byte[0], '5');
+            for (Map.Entry<String, String> entry : entries().entrySet()) {
+                byte[] content = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                if (entry.getKey().length() > 99) {
+                    writeTarEntry(out, "././@LongLink", (entry.getKey() + "\0").getBytes(StandardCharsets.UTF_8), 'L');
+                }
+                writeTarEntry(out, entry.getKey(), content, '0');
+            }
+            out.write(new byte[1024]);
+        }
+        assertTrue(ArchiveInputs.isArchive(archive));
+        Map<String, Boolean> validity = validate(ArchiveInputs.entries(archive, "*.json"));
+        assertEquals(3, validity.size());
+        assertResults(archive, validity);
+    }
+
+    /** Pax paths are UTF-8 and their record lengths count bytes; a GNU long link name does not replace a long name. */
+    @Test
+    public void testExtendedTarHeaders(@TempDir Path tempDir) throws IOException {
+        Path archive = tempDir.resolve("bundle.tar");
+        String paxName = "cohort-\u00e9\u00e8\u4e2d/patient.json";
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            writeTarEntry(out, "PaxHeaders/x", paxRecord("mtime", "1625168000").concat(paxRecord("path", paxName)).getBytes(StandardCharsets.UTF_8), 'x');
+            writeTarEntry(out, "cohort/short.json", VALID.getBytes(StandardCharsets.UTF_8), '0');
+            writeTarEntry(out, "././@LongLink", (LONG_NAME + "\0").getBytes(StandardCharsets.UTF_8), 'L');
+            writeTarEntry(out, "././@LongLink", ("target/" + "b".repeat(120) + "\0").getBytes(StandardCharsets.UTF_8), 'K');
+            writeTarEntry(out, LONG_NAME.substring(0, 99), VALID.getBytes(StandardCharsets.UTF_8), '0');
+            out.write(new byte[1024]);
+        }
+        Map<String, Boolean> validity = new TreeMap<>();
+        try (Stream<DocumentSource> entries = ArchiveInputs.entries(archive, "*.json")) {
+            entries.forEach(e -> validity.put(e.name(), true));
+        }
+        assertEquals(Set.of(archive + "!/" + paxName, archive + "!/" + LONG_NAME), validity.keySet());
+
+        Path malformed = tempDir.resolve("malformed.tar");
+        try (OutputStream out = Files.newOutputStream(malformed)) {
+            writeTarEntry(out, "PaxHeaders/x", "99999999999 path=x.json\n".getBytes(StandardCharsets.UTF_8), 'x');
+            writeTarEntry(out, "x.json", VALID.getBytes(StandardCharsets.UTF_8), '0');
+            out.write(new byte[1024]);
+        }
+        try (Stream<DocumentSource> entries = ArchiveInputs.entries(malformed, "*.json")) {
+            assertThrows(PhenopacketValidatorRuntimeException.class, entries::count);
+        }
+    }
+
+    /** Entries of a tar archive are read one at a time; a corrupt third entry is only found when it is reached. */
+    @Test
+    public void testExpandReadsTarEntriesOnDemand(@TempDir Path tempDir) throws IOException {
+        Path archive = tempDir.resolve("bundle.tar");
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            writeTarEntry(out, "first.json", VALID.getBytes(StandardCharsets.UTF_8), '0');
+            writeTarEntry(out, "second.json", VALID.getBytes(StandardCharsets.UTF_8), '0');
+            byte[] corrupt = new byte[512];
+            Arrays.fill(corrupt, 124, 136, (byte) 'z');
+            out.write(corrupt);
+        }
+        try (Stream<DocumentSource> sources = ArchiveInputs.expand(Stream.of(archive), "*.json")) {
+            Iterator<DocumentSource> iterator = sources.iterator();
+            assertEquals(archive + "!/first.json", iterator.next().name());
+            assertEquals(archive + "!/second.json", iterator.next().name());
+            assertThrows(PhenopacketValidatorRuntimeException.class, iterator::hasNext);
+        }
+    }
+
+    @Test
+    public void testByteBufferSourceKeepsBufferPosition() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(("xx" + VALID).getBytes(StandardCharsets.UTF_8));
+        buffer.position(2);
+        DocumentSource source = DocumentSource.of("buffer", buffer);
+        byte[] expected = VALID.getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, source.readAllBytes());
+        assertArrayEquals(expected, source.open().readAllBytes());
+        assertEquals(2, buffer.position());
+        assertTrue(ValidationPipeline.generic().validate(source).isEmpty());
+    }
+
+    @Test
+    public void testResultsOfStreamSourceAreNamedAfterIt() {
+        DocumentSource source = DocumentSource.of("stdin", new ByteArrayInputStream(INVALID.getBytes(StandardCharsets.UTF_8)));
+        ValidationResult result = new BatchValidator(ValidationPipeline.generic()).validateDocument(source);
+        assertEquals("stdin", result.source());
+        assertFalse(result.isValid());
+    }
+
+    private static String paxRecord(String key, String value) {
+        int length = (" " + key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8).length;
+        int digits = Integer.toString(length).length();
+        if (Integer.toString(length + digits).length() > digits) {
+            digits++;
+        }
+        return (length + digits) + " " + key + "=" + value + "\n";
+    }
+
+    /** Writes a ustar header followed by the padded content. */
+    private static void writeTarEntry(OutputStream out, String name, byte[] content, char type) throws IOException {
+        byte[] header = new byte[512];
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(nameBytes, 0, header, 0, Math.min(nameBytes.length, 100));
+        putOctal(header, 100, 8, 0644);
+        putOctal(header, 108, 8, 0);
+        putOctal(header, 116, 8, 0);
+        putOctal(header, 124, 12, content.length);
+        putOctal(header, 136, 12, 0);
+        header[156] = (byte) type;
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 8);
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        putOctal(header, 148, 7, checksum);
+        out.write(header);
+        out.write(content);
+        int padding = (512 - content.length % 512) % 512;
+        out.write(new byte[padding]);
+    }
+
+    private static void putOctal(byte[] header, int offset, int length, long value) {
+        String octal = String.format("%0" + (length - 1) + "o", value);
+        byte[] bytes = octal.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+        header[offset + length - 1] = 0;
+    }
+}
@@ -0,0 +1,42 @@
+package org.phenopackets.schema.validator.core.jsonschema;
+
+import com.networknt.schema.JsonSchema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class JsonSchemaRegistryTest {
+
+    @Test
+    public void testClasspathSchemaIsCompiledOnce() {
+        JsonSchemaRegistry registry = new JsonSchemaRegistry();
+        JsonSchema first = registry.getClasspathSchema(JsonSchemaValidator.GENERAL_SCHEMA);
+        JsonSchema second = registry.getClasspathSchema(JsonSchemaValidator.GENERAL_SCHEMA);
+        assertSame(first, second);
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testModifiedSchemaFileIsRecompiled(@TempDir Path tempDir) throws IOException {
+        JsonSchemaRegistry registry = new JsonSchemaRegistry();
+        Path schemaPath = tempDir.resolve("custom-schema.json");
+        Files.writeString(schemaPath, "{\"type\": \"object\", \"required\": [\"id\"]}");
+        File schemaFile = schemaPath.toFile();
+        JsonSchema first = registry.getFileSchema(schemaFile);
+        assertSame(first, registry.getFileSchema(schemaFile));
+
+        Files.writeString(schemaPath, "{\"type\": \"object\", \"required\": [\"id\", \"subject\"]}");
+        schemaFile.setLastModified(schemaFile.lastModified() + 2000);
+        JsonSchema second = registry.getFileSchema(schemaFile);
+        assertNotSame(first, second);
+        assertEquals(1, registry.size());
+    }
+}
@@ -1,14 +1,28 @@
 package org.phenopackets.schema.validator.core.jsonschema;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.CustomErrorMessageType;
+import com.networknt.schema.ValidationMessage;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.phenopackets.schema.validator.core.validation.ErrorType;
 import org.phenopackets.schema.validator.core.validation.ValidationItem;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JsonSchemaValidatorTest {
@@ -70,4 +84,103 @@ public void testRareDiseaseBethlemahmInvalidValidPhenopacket() throws IOExceptio
     }
 
 
+
+    /**
+     * Violations of keywords other than required and additionalProperties used to throw and drop all errors of the
+     * document.
+     */
+    @Test
+    public void testEveryKeywordIsMappedWithPathAndPointer() throws IOException {
+        String json = "{\"id\": 42, \"metaData\": {\"created\": \"2021-07-01T19:32:35Z\", \"createdBy\": \"Peter R.\", " +
+                "\"phenopacketSchemaVersion\": \"2.0\", \"resources\": []}}";
+        List<ValidationItem> errors = JsonSchemaValidator.generic().validate(new ObjectMapper().readTree(json));
+        assertEquals(2, errors.size());
+        ValidationItem type = errors.stream().filter(e -> e.errorType() == ErrorType.JSON_TYPE).findFirst().orElseThrow();
+        assertEquals("type", type.keyword());
+        assertEquals("$.id", type.path());
+        assertEquals("/id", type.pointer());
+        assertEquals("$.id: integer found, string expected", type.message());
+        ValidationItem minItems = errors.stream().filter(e -> e.errorType() == ErrorType.JSON_MIN_ITEMS).findFirst().orElseThrow();
+        assertEquals("/metaData/resources", minItems.pointer());
+        assertEquals("$.metaData.resources: there must be a minimum of 1 items in the array", minItems.message());
+    }
+
+    @Test
+    public void testUnknownKeywordDoesNotThrow() {
+        assertEquals(ErrorType.UNKNOWN, ErrorType.stringToErrorType("noSuchKeyword"));
+        assertEquals(ErrorType.JSON_PATTERN, ErrorType.stringToErrorType("pattern"));
+    }
+
+    @Test
+    public void testCustomMessagesOfTheSchemaAreKept() {
+        ValidationMessage custom = ValidationMessage.of("required",
+                CustomErrorMessageType.of("missing-id", new MessageFormat("{0}: every phenopacket needs an id")), "$", "id");
+        JsonValidationError error = new JsonValidationError(custom);
+        assertEquals(ErrorType.JSON_REQUIRED, error.errorType());
+        assertEquals("required", error.keyword());
+        assertEquals("$: every phenopacket needs an id", error.message());
+    }
+
+    @Test
+    public void testMessagesAreFormattedConcurrently() throws Exception {
+        File invalidSimplePhenopacket = fileFromClasspath("json/invalidSimplePhenopacket.json");
+        List<? extends ValidationItem> errors = new JsonSchemaValidator(invalidSimplePhenopacket).validate();
+        String expected = errors.get(0).message();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        if (! expected.equals(errors.get(0).message())) return false;
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testUnreadableFileIsReportedAsError(@TempDir Path tempDir) throws IOException {
+        Path broken = Files.writeString(tempDir.resolve("broken.json"), "{\"id\": ");
+        List<ValidationItem> errors = JsonSchemaValidator.generic().validate(broken.toFile());
+        assertEquals(1, errors.size());
+        assertEquals(ErrorType.UNREADABLE_DOCUMENT, errors.get(0).errorType());
+    }
+
+    @Test
+    public void testBuiltInSchemaIsCompiledOnFirstUse() throws IOException {
+        JsonSchemaRegistry registry = JsonSchemaRegistry.defaultRegistry();
+        registry.clear();
+        JsonSchemaValidator validator = JsonSchemaValidator.generic();
+        String fingerprint = validator.fingerprint();
+        assertEquals(0, registry.size());
+        assertFalse(validator.isValid(new ObjectMapper().readTree("{\"disney\": \"donald\"}")));
+        assertEquals(1, registry.size());
+        assertEquals(fingerprint, validator.fingerprint());
+    }
+
+    @Test
+    public void testUntitledSchemasAreNamedAfterTheirFile(@TempDir Path tempDir) throws IOException {
+        Path first = Files.writeString(tempDir.resolve("first.json"), "{\"type\": \"object\"}");
+        Path second = Files.writeString(tempDir.resolve("second.json"), "{\"type\": \"object\", \"required\": [\"id\"]}");
+        Path titled = Files.writeString(tempDir.resolve("titled.json"), "{\"title\": \"Cohort rules\", \"type\": \"object\"}");
+        assertEquals("json-schema:" + first, AdditionalJsonFileJsonSchemaValidator.forSchemaFile(first.toFile()).name());
+        assertEquals("json-schema:" + second, AdditionalJsonFileJsonSchemaValidator.forSchemaFile(second.toFile()).name());
+        assertEquals("Cohort rules", AdditionalJsonFileJsonSchemaValidator.forSchemaFile(titled.toFile()).name());
+    }
+
+    /** Subclasses written against the protected field still find the compiled schema there. */
+    @Test
+    public void testSubclassesSeeTheCompiledSchema() {
+        File phenopacket = fileFromClasspath("json/validSimplePhenopacket.json");
+        JsonSchemaValidator validator = new HpoRareDiseaseJsonSchemaValidator(phenopacket);
+        assertNotNull(validator.jsonSchema);
+        assertSame(validator.jsonSchema, validator.jsonSchema());
+    }
 }
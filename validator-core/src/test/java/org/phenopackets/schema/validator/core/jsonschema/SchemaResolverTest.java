@@ -0,0 +1,132 @@
+package org.phenopackets.schema.validator.core.jsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchemaResolverTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testReferenceToPhenopacketSchemaIsResolvedFromClasspath(@TempDir Path tempDir) throws IOException {
+        Path schema = Files.writeString(tempDir.resolve("custom-schema.json"), "{\"type\": \"object\", " +
+                "\"properties\": {\"disease\": {\"$ref\": \"https://www.ga4gh.org/phenopackets#/definitions/ontologyClass\"}}}");
+        JsonSchemaRegistry registry = new JsonSchemaRegistry();
+        JsonSchemaValidator validator = new JsonSchemaValidator(registry.getFileSchema(schema.toFile()));
+
+        assertTrue(validator.validate(MAPPER.readTree("{\"disease\": {\"id\": \"MONDO:0007915\", \"label\": \"SLE\"}}")).isEmpty());
+        List<ValidationItem> errors = validator.validate(MAPPER.readTree("{\"disease\": {\"label\": \"SLE\"}}"));
+        assertEquals(1, errors.size());
+        assertEquals(1, registry.resolver().loadedDocuments());
+    }
+
+    @Test
+    public void testUnmappedReferenceIsRefused(@TempDir Path tempDir) throws IOException {
+        Path schema = Files.writeString(tempDir.resolve("custom-schema.json"), "{\"type\": \"object\", " +
+                "\"properties\": {\"x\": {\"$ref\": \"https://example.org/schemas/unknown.json\"}}}");
+        JsonSchemaRegistry registry = new JsonSchemaRegistry();
+        PhenopacketValidatorRuntimeException e = assertThrows(PhenopacketValidatorRuntimeException.class,
+                () -> registry.getFileSchema(schema.toFile()));
+        assertTrue(e.getMessage().contains("https://example.org/schemas/unknown.json"), e.getMessage());
+    }
+
+    @Test
+    public void testSharedReferenceIsLoadedOnce(@TempDir Path tempDir) throws IOException {
+        Path shared = Files.createDirectory(tempDir.resolve("shared"));
+        Files.writeString(shared.resolve("age.json"), "{\"type\": \"integer\", \"minimum\": 0}");
+        Path first = Files.writeString(tempDir.resolve("first.json"), "{\"type\": \"object\", " +
+                "\"properties\": {\"age\": {\"$ref\": \"https://example.org/schemas/age.json\"}}}");
+        Path second = Files.writeString(tempDir.resolve("second.json"), "{\"type\": \"object\", " +
+                "\"properties\": {\"onset\": {\"$ref\": \"https://example.org/schemas/age.json#\"}}}");
+        SchemaResolver resolver = SchemaResolver.defaults();
+        resolver.map("https://example.org/schemas/=" + shared);
+        JsonSchemaRegistry registry = new JsonSchemaRegistry(resolver);
+
+        JsonSchemaValidator firstValidator = new JsonSchemaValidator(registry.getFileSchema(first.toFile()));
+        JsonSchemaValidator secondValidator = new JsonSchemaValidator(registry.getFileSchema(second.toFile()));
+        assertEquals(1, firstValidator.validate(MAPPER.readTree("{\"age\": -1}")).size());
+        assertEquals(1, secondValidator.validate(MAPPER.readTree("{\"onset\": \"old\"}")).size());
+        assertEquals(1, resolver.loadedDocuments());
+    }
+
+    @Test
+    public void testEditedReferenceIsReloaded(@TempDir Path tempDir) throws IOException {
+        Path shared = Files.createDirectory(tempDir.resolve("shared"));
+        Path age = Files.writeString(shared.resolve("age.json"), "{\"type\": \"integer\", \"minimum\": 0}");
+        Path schema = Files.writeString(tempDir.resolve("schema.json"), "{\"type\": \"object\", " +
+                "\"properties\": {\"age\": {\"$ref\": \"https://example.org/schemas/age.json\"}}}");
+        SchemaResolver resolver = SchemaResolver.defaults();
+        resolver.map("https://example.org/schemas/=" + shared);
+        JsonSchemaRegistry registry = new JsonSchemaRegistry(resolver);
+
+        JsonSchemaValidator validator = new JsonSchemaValidator(registry.getFileSchema(schema.toFile()), registry);
+        String fingerprint = validator.fingerprint();
+        assertEquals(1, validator.validate(MAPPER.readTree("{\"age\": -1}")).size());
+
+        Files.writeString(age, "{\"type\": \"integer\", \"minimum\": -10}");
+        Files.setLastModifiedTime(age, FileTime.fromMillis(Files.getLastModifiedTime(age).toMillis() + 2000));
+        JsonSchemaValidator edited = new JsonSchemaValidator(registry.getFileSchema(schema.toFile()), registry);
+        assertTrue(edited.validate(MAPPER.readTree("{\"age\": -1}")).isEmpty());
+        assertNotEquals(fingerprint, edited.fingerprint());
+    }
+
+    @Test
+    public void testLaterMappingReplacesLoadedDocument(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("first.json"), "{\"type\": \"integer\"}");
+        Path second = Files.writeString(tempDir.resolve("second.json"), "{\"type\": \"string\"}");
+        SchemaResolver resolver = new SchemaResolver();
+        resolver.map("https://example.org/schemas/", tempDir.toString());
+        URI uri = URI.create("https://example.org/schemas/first.json");
+        try (InputStream is = resolver.fetch(uri)) {
+            assertEquals("{\"type\": \"integer\"}", new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        long revision = resolver.revision();
+
+        resolver.map(uri.toString(), second.toString());
+        assertNotEquals(revision, resolver.revision());
+        try (InputStream is = resolver.fetch(uri)) {
+            assertEquals("{\"type\": \"string\"}", new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testMalformedMappingIsRejected() {
+        SchemaResolver resolver = new SchemaResolver();
+        assertThrows(IllegalArgumentException.class, () -> resolver.map("https://example.org/schemas/"));
+    }
+
+    @Test
+    public void testReferencesCannotLeaveAMappedDirectory(@TempDir Path tempDir) throws IOException {
+        Path shared = Files.createDirectories(tempDir.resolve("shared/nested"));
+        Files.writeString(shared.resolve("age.json"), "{\"type\": \"integer\"}");
+        Files.writeString(tempDir.resolve("secret.json"), "{\"type\": \"string\"}");
+        SchemaResolver resolver = new SchemaResolver();
+        resolver.map("https://example.org/schemas/", tempDir.resolve("shared").toString());
+        resolver.map("https://example.org/bundled/", SchemaResolver.CLASSPATH + "schema/");
+
+        try (InputStream is = resolver.fetch(URI.create("https://example.org/schemas/nested/../nested/./age.json"))) {
+            assertEquals("{\"type\": \"integer\"}", new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertThrows(IOException.class, () -> resolver.fetch(URI.create("https://example.org/schemas/../secret.json")));
+        assertThrows(IOException.class, () -> resolver.fetch(URI.create("https://example.org/schemas/nested/../../secret.json")));
+        assertThrows(IOException.class, () -> resolver.fetch(URI.create("https://example.org/bundled/../validator.properties")));
+        assertEquals(1, resolver.loadedDocuments());
+    }
+}
@@ -0,0 +1,91 @@
+package org.phenopackets.schema.validator.core.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.phenopackets.schema.validator.core.batch.BatchOptions;
+import org.phenopackets.schema.validator.core.batch.BatchValidator;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ValidationMetricsTest {
+
+    private static Path pathFromClasspath(String path) {
+        return Path.of(Thread.currentThread().getContextClassLoader().getResource(path).getPath());
+    }
+
+    private static Stream<Path> documents() {
+        return Stream.of(pathFromClasspath("json/validSimplePhenopacket.json"),
+                pathFromClasspath("json/bethlehamMyopathyExample.json"),
+                pathFromClasspath("json/invalidSimplePhenopacket.json"));
+    }
+
+    @Test
+    public void testNothingIsRecordedWhileDisabled() {
+        ValidationMetrics metrics = ValidationMetrics.global();
+        metrics.reset();
+        assertEquals(0L, metrics.startTimer());
+        new BatchValidator(ValidationPipeline.generic(), new BatchOptions(2, 2)).validate(documents(), r -> {});
+        assertEquals(0, metrics.documents());
+        assertEquals(0, metrics.stage(Stage.EVALUATE).count());
+        assertEquals(0, metrics.errors(ErrorType.JSON_REQUIRED));
+    }
+
+    @Test
+    public void testStagesSchemasAndErrorsAreRecorded() {
+        ValidationMetrics metrics = ValidationMetrics.global();
+        metrics.reset();
+        metrics.setEnabled(true);
+        try {
+            new BatchValidator(ValidationPipeline.rareDisease(), new BatchOptions(2, 2)).validate(documents(), r -> {});
+            assertEquals(3, metrics.documents());
+            assertEquals(2, metrics.invalidDocuments());
+            for (Stage stage : new Stage[]{Stage.READ, Stage.PARSE, Stage.EVALUATE, Stage.DOCUMENT}) {
+                assertEquals(3, metrics.stage(stage).count(), stage.toString());
+            }
+            Map<String, LatencyHistogram> schemas = metrics.pipelineStages();
+            assertEquals(3, schemas.get("Phenopacket").count());
+            assertTrue(schemas.containsKey("HPO Rare Disease Phenopacket Schema"));
+            assertEquals(3, metrics.errors("Phenopacket"));
+            assertEquals(6, metrics.errors(ErrorType.JSON_REQUIRED));
+            assertTrue(metrics.gauges().isEmpty());
+            assertTrue(metrics.summary().contains("stage \"Phenopacket\""));
+        } finally {
+            metrics.setEnabled(false);
+            metrics.reset();
+        }
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(100, histogram.count());
+        assertEquals(100_000L, histogram.maxNanos());
+        assertEquals(50_500.0, histogram.meanNanos(), 1e-9);
+        long p50 = histogram.percentileNanos(0.5);
+        assertTrue(p50 >= 50_000L && p50 < 100_000L, Long.toString(p50));
+        assertEquals(100_000L, histogram.percentileNanos(1.0));
+    }
+
+    /** Concurrent batches share the queue gauge; the end of one batch does not remove the part of another. */
+    @Test
+    public void testGaugePartsAreSummed() {
+        ValidationMetrics metrics = new ValidationMetrics();
+        Runnable removeFirst = metrics.addGaugePart(BatchValidator.QUEUE_GAUGE, () -> 3);
+        Runnable removeSecond = metrics.addGaugePart(BatchValidator.QUEUE_GAUGE, () -> 4);
+        assertEquals(7, (long) metrics.gauges().get(BatchValidator.QUEUE_GAUGE));
+        removeFirst.run();
+        assertEquals(4, (long) metrics.gauges().get(BatchValidator.QUEUE_GAUGE));
+        removeSecond.run();
+        assertFalse(metrics.gauges().containsKey(BatchValidator.QUEUE_GAUGE));
+    }
+}
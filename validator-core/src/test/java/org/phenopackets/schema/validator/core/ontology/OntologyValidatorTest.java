@@ -0,0 +1,94 @@
+package org.phenopackets.schema.validator.core.ontology;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OntologyValidatorTest {
+
+    private static HpoTermIndex index;
+
+    private static Path pathFromClasspath(String path) {
+        return Path.of(Thread.currentThread().getContextClassLoader().getResource(path).getPath());
+    }
+
+    @BeforeAll
+    public static void loadIndex() {
+        index = HpoTermIndex.load(pathFromClasspath("ontology/hp-mini.obo"));
+    }
+
+    @Test
+    public void testOboIndex() {
+        assertEquals(11, index.size());
+        assertEquals(TermStatus.CURRENT, index.status("HP:0001159"));
+        assertEquals(TermStatus.ALTERNATE, index.status("HP:0001162"));
+        assertEquals("HP:0001159", index.replacement("HP:0001162"));
+        assertEquals(TermStatus.OBSOLETE, index.status("HP:0000489"));
+        assertEquals("HP:0100887", index.replacement("HP:0000489"));
+        assertEquals(TermStatus.UNKNOWN, index.status("HP:9999999"));
+        assertEquals(TermStatus.UNKNOWN, index.status("HP:12"));
+        assertNull(index.replacement("HP:0001159"));
+    }
+
+    @Test
+    public void testMappedIndexAnswersLikeHeapIndex(@TempDir Path tempDir) {
+        Path indexFile = tempDir.resolve("hp.idx");
+        index.write(indexFile);
+        HpoTermIndex mapped = HpoTermIndex.load(indexFile);
+        assertEquals(index.size(), mapped.size());
+        for (String curie : List.of("HP:0001159", "HP:0001162", "HP:0000489", "HP:9999999")) {
+            assertEquals(index.status(curie), mapped.status(curie));
+            assertEquals(index.replacement(curie), mapped.replacement(curie));
+        }
+    }
+
+    @Test
+    public void testObographsJson() throws IOException {
+        String json = "{\"graphs\": [{\"nodes\": [" +
+                "{\"id\": \"http://purl.obolibrary.org/obo/HP_0001159\", \"meta\": {\"basicPropertyValues\": [" +
+                "{\"pred\": \"http://www.geneontology.org/formats/oboInOwl#hasAlternativeId\", \"val\": \"HP:0001162\"}]}}," +
+                "{\"id\": \"http://purl.obolibrary.org/obo/HP_0000489\", \"meta\": {\"deprecated\": true, \"basicPropertyValues\": [" +
+                "{\"pred\": \"http://purl.obolibrary.org/obo/IAO_0100001\", \"val\": \"http://purl.obolibrary.org/obo/HP_0100887\"}]}}]}]}";
+        HpoTermIndex jsonIndex = HpoOntologyParser.parseObographsJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(TermStatus.ALTERNATE, jsonIndex.status("HP:0001162"));
+        assertEquals(TermStatus.OBSOLETE, jsonIndex.status("HP:0000489"));
+        assertEquals("HP:0100887", jsonIndex.replacement("HP:0000489"));
+    }
+
+    @Test
+    public void testCurrentTermsAreValid() {
+        ValidationPipeline pipeline = ValidationPipeline.generic().with(new OntologyValidator(index));
+        List<ValidationItem> errors = pipeline.validate(new File(pathFromClasspath("json/bethlehamMyopathyExample.json").toString()));
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void testOutdatedAndUnknownTermsAreReported() throws IOException {
+        JsonNode phenopacket = new ObjectMapper().readTree("{\"phenotypicFeatures\": [" +
+                "{\"type\": {\"id\": \"HP:0001162\", \"label\": \"Postaxial hand polydactyly\"}}," +
+                "{\"type\": {\"id\": \"HP:0000489\"}, \"onset\": {\"ontologyClass\": {\"id\": \"HP:0003577\"}}}," +
+                "{\"type\": {\"id\": \"HP:9999999\"}}]}");
+        List<ValidationItem> errors = new OntologyValidator(index).validate(phenopacket);
+        assertEquals(3, errors.size());
+        assertTrue(errors.stream().allMatch(e -> e.errorType() == ErrorType.INVALID_ONTOLOGY));
+        assertEquals("$.phenotypicFeatures[0].type.id: HP:0001162 is an alternative id, use the primary id HP:0001159", errors.get(0).message());
+        assertEquals("$.phenotypicFeatures[1].type.id: HP:0000489 is obsolete, replaced by HP:0100887", errors.get(1).message());
+        assertEquals("$.phenotypicFeatures[2].type.id: HP:9999999 is not a term of the HPO", errors.get(2).message());
+    }
+}
@@ -0,0 +1,83 @@
+package org.phenopackets.schema.validator.core.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ValidationPipelineTest {
+
+    private static File fileFromClasspath(String path) {
+        String fname = Thread.currentThread().getContextClassLoader().getResource(path).getPath();
+        return new File(fname);
+    }
+
+    @Test
+    public void testGenericPipelineOnValidPhenopacket() {
+        List<ValidationItem> errors = ValidationPipeline.generic().validate(fileFromClasspath("json/validSimplePhenopacket.json"));
+        assertTrue(errors.isEmpty());
+    }
+
+    /**
+     * The simple phenopacket is valid according to the generic schema but lacks the subject and the phenotypic
+     * features that are required by the rare-disease schema.
+     */
+    @Test
+    public void testRareDiseasePipelineAppliesBothSchemas() {
+        List<ValidationItem> errors = ValidationPipeline.rareDisease().validate(fileFromClasspath("json/validSimplePhenopacket.json"));
+        assertEquals(2, errors.size());
+        assertEquals(ErrorType.JSON_REQUIRED, errors.get(0).errorType());
+        assertEquals("$.subject: is missing but it is required", errors.get(0).message());
+        assertEquals(ErrorType.JSON_REQUIRED, errors.get(1).errorType());
+        assertEquals("$.phenotypicFeatures: is missing but it is required", errors.get(1).message());
+    }
+
+    @Test
+    public void testRareDiseasePipelineOnValidRareDiseasePhenopacket() {
+        List<ValidationItem> errors = ValidationPipeline.rareDisease().validate(fileFromClasspath("json/bethlehamMyopathyExample.json"));
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void testAdditionalSchemaIsAppliedAfterGenericSchema(@TempDir Path tempDir) throws IOException {
+        Path schema = tempDir.resolve("needs-subject.json");
+        Files.writeString(schema, "{\"type\": \"object\", \"required\": [\"subject\"]}");
+        ValidationPipeline pipeline = ValidationPipeline.withAdditionalSchemas(schema.toString());
+        assertEquals(2, pipeline.validators().size());
+        List<ValidationItem> errors = pipeline.validate(fileFromClasspath("json/invalidSimplePhenopacket.json"));
+        assertEquals(4, errors.size());
+        assertEquals("$.subject: is missing but it is required", errors.get(3).message());
+    }
+
+    @Test
+    public void testFailFastSkipsLaterStages() {
+        ValidationPipeline pipeline = ValidationPipeline.rareDisease().withMode(ValidationMode.failFast());
+        List<ValidationItem> errors = pipeline.validate(fileFromClasspath("json/validSimplePhenopacket.json"));
+        assertEquals(1, errors.size());
+        assertEquals("$.subject: is missing but it is required", errors.get(0).message());
+    }
+
+    @Test
+    public void testErrorBudgetLimitsErrorsPerDocument() {
+        File invalid = fileFromClasspath("json/invalidSimplePhenopacket.json");
+        assertEquals(3, ValidationPipeline.generic().validate(invalid).size());
+        assertEquals(2, ValidationPipeline.generic().withMode(ValidationMode.maxErrors(2)).validate(invalid).size());
+    }
+
+    @Test
+    public void testIsValid() {
+        assertTrue(ValidationPipeline.rareDisease().isValid(fileFromClasspath("json/bethlehamMyopathyExample.json")));
+        assertFalse(ValidationPipeline.rareDisease().isValid(fileFromClasspath("json/validSimplePhenopacket.json")));
+        assertFalse(ValidationPipeline.generic().isValid(fileFromClasspath("json/invalidSimplePhenopacket.json")));
+    }
+}
@@ -0,0 +1,136 @@
+package org.phenopackets.schema.validator.core.protobuf;
+
+import com.google.protobuf.Timestamp;
+import org.junit.jupiter.api.Test;
+import org.phenopackets.schema.v2.Cohort;
+import org.phenopackets.schema.v2.Family;
+import org.phenopackets.schema.v2.Phenopacket;
+import org.phenopackets.schema.v2.core.MetaData;
+import org.phenopackets.schema.v2.core.OntologyClass;
+import org.phenopackets.schema.v2.core.PhenotypicFeature;
+import org.phenopackets.schema.v2.core.Resource;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProtobufValidatorTest {
+
+    private static MetaData metaData() {
+        return MetaData.newBuilder()
+                .setCreated(Timestamp.newBuilder().setSeconds(1625167955L))
+                .setCreatedBy("Peter R.")
+                .setPhenopacketSchemaVersion("2.0")
+                .addResources(Resource.newBuilder()
+                        .setId("hp")
+                        .setName("human phenotype ontology")
+                        .setUrl("http://purl.obolibrary.org/obo/hp.owl")
+                        .setVersion("2018-03-08")
+                        .setNamespacePrefix("HP")
+                        .setIriPrefix("http://purl.obolibrary.org/obo/HP_"))
+                .build();
+    }
+
+    private static Phenopacket phenopacket(String id) {
+        return Phenopacket.newBuilder()
+                .setId(id)
+                .addPhenotypicFeatures(PhenotypicFeature.newBuilder()
+                        .setType(OntologyClass.newBuilder().setId("HP:0001159").setLabel("Syndactyly")))
+                .setMetaData(metaData())
+                .build();
+    }
+
+    @Test
+    public void testValidPhenopacket() {
+        ProtobufValidator validator = new ProtobufValidator(MessageType.PHENOPACKET);
+        assertTrue(validator.validate(phenopacket("world")).isEmpty());
+    }
+
+    @Test
+    public void testMissingFieldsAreReportedWithJsonPaths() {
+        ProtobufValidator validator = new ProtobufValidator(MessageType.PHENOPACKET);
+        Phenopacket phenopacket = phenopacket("").toBuilder()
+                .addPhenotypicFeatures(PhenotypicFeature.newBuilder()
+                        .setType(OntologyClass.newBuilder().setId("HP:0001166")))
+                .clearMetaData()
+                .build();
+        List<ValidationItem> errors = validator.validate(phenopacket);
+        assertEquals(3, errors.size());
+        assertEquals(ErrorType.JSON_REQUIRED, errors.get(0).errorType());
+        assertEquals("$.id: is missing but it is required", errors.get(0).message());
+        assertEquals("$.phenotypicFeatures[1].type.label: is missing but it is required", errors.get(1).message());
+        assertEquals("$.metaData: is missing but it is required", errors.get(2).message());
+    }
+
+    @Test
+    public void testFamilyAndCohortMembersAreChecked() {
+        Family family = Family.newBuilder()
+                .setId("family")
+                .setProband(phenopacket("proband"))
+                .addRelatives(phenopacket(""))
+                .setMetaData(metaData())
+                .build();
+        List<ValidationItem> errors = new ProtobufValidator(MessageType.FAMILY).validate(family);
+        assertEquals(1, errors.size());
+        assertEquals("$.relatives[0].id: is missing but it is required", errors.get(0).message());
+
+        Cohort cohort = Cohort.newBuilder()
+                .setId("cohort")
+                .addMembers(phenopacket("a"))
+                .addMembers(phenopacket("b"))
+                .build();
+        errors = new ProtobufValidator(MessageType.COHORT).validate(cohort);
+        assertEquals(1, errors.size());
+        assertEquals("$.metaData: is missing but it is required", errors.get(0).message());
+    }
+
+    @Test
+    public void testJsonSchemaFallback() {
+        ProtobufValidator validator = new ProtobufValidator(MessageType.PHENOPACKET, ValidationPipeline.generic());
+        assertTrue(validator.validate(phenopacket("world")).isEmpty());
+    }
+
+    @Test
+    public void testSchemaErrorsOfMembersAreReportedOnceAtTheMember() {
+        Cohort cohort = Cohort.newBuilder()
+                .setId("cohort")
+                .addMembers(phenopacket("a"))
+                .addMembers(phenopacket(""))
+                .setMetaData(metaData())
+                .build();
+        ProtobufValidator validator = new ProtobufValidator(MessageType.COHORT, ValidationPipeline.generic());
+        List<ValidationItem> errors = validator.validate(cohort);
+        assertEquals(1, errors.size(), errors.toString());
+        assertEquals(ErrorType.JSON_REQUIRED, errors.get(0).errorType());
+        assertEquals("$.members[1].id: is missing but it is required", errors.get(0).message());
+        assertEquals("$.members[1]", errors.get(0).path());
+        assertEquals("/members/1", errors.get(0).pointer());
+    }
+
+    @Test
+    public void testDelimitedStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        phenopacket("a").writeDelimitedTo(out);
+        phenopacket("").writeDelimitedTo(out);
+        phenopacket("c").writeDelimitedTo(out);
+        out.write(new byte[]{5, 1, 2});
+
+        List<ValidationResult> results = new ArrayList<>();
+        ProtobufValidator validator = new ProtobufValidator(MessageType.PHENOPACKET);
+        BatchSummary summary = validator.validateDelimited(new ByteArrayInputStream(out.toByteArray()), "packets.bin", results::add);
+        assertEquals(4, summary.documents());
+        assertEquals(2, summary.invalidDocuments());
+        assertEquals("packets.bin[1]", results.get(1).source());
+        assertEquals(ErrorType.UNREADABLE_DOCUMENT, results.get(3).items().get(0).errorType());
+    }
+}
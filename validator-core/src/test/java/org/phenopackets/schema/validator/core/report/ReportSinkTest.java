@@ -0,0 +1,94 @@
+package org.phenopackets.schema.validator.core.report;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationError;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReportSinkTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final List<ValidationResult> RESULTS = List.of(
+            new ValidationResult("valid.json", List.of()),
+            new ValidationResult("invalid.json", List.of(
+                    new ValidationError(ErrorType.JSON_REQUIRED, "$.id: is missing but it is required", "$", "required"),
+                    new ValidationError(ErrorType.JSON_TYPE, "$.subject.id: integer found, string expected", "$.subject.id", "type"))),
+            new ValidationResult("broken.json", List.of(new ValidationError(ErrorType.UNREADABLE_DOCUMENT, "Unexpected end-of-input"))));
+
+    private static final BatchSummary SUMMARY = new BatchSummary(3, 2, 3, 1500);
+
+    private static String report(ReportFormat format, boolean quiet) throws IOException {
+        StringWriter out = new StringWriter();
+        ErrorTypeCounts counts;
+        try (ReportSink sink = new ReportSink(format.create(out, quiet), 1)) {
+            RESULTS.forEach(sink);
+            counts = sink.finish(SUMMARY);
+        }
+        assertEquals(1, counts.get(ErrorType.JSON_REQUIRED));
+        assertEquals(1, counts.get(ErrorType.UNREADABLE_DOCUMENT));
+        assertEquals(0, counts.get(ErrorType.JSON_ENUM));
+        return out.toString();
+    }
+
+    @Test
+    public void testTextReport() throws IOException {
+        String report = report(ReportFormat.TEXT, true);
+        assertTrue(report.startsWith("invalid.json\n\t(required) $.id: is missing but it is required\n"));
+        assertTrue(report.contains("  JSON_TYPE: 1"));
+        assertFalse(report.contains("valid.json\n\t no errors found"));
+    }
+
+    @Test
+    public void testJsonLinesReport() throws IOException {
+        String[] lines = report(ReportFormat.JSONL, false).split("\n");
+        assertEquals(3, lines.length);
+        for (String line : lines) {
+            assertTrue(line.startsWith("{\"source\":") && line.endsWith("}"), line);
+        }
+        JsonNode invalid = OBJECT_MAPPER.readTree(lines[1]);
+        assertEquals("invalid.json", invalid.get("source").asText());
+        assertEquals("/subject/id", invalid.get("errors").get(1).get("pointer").asText());
+        assertEquals("type", invalid.get("errors").get(1).get("keyword").asText());
+    }
+
+    @Test
+    public void testSarifReport() throws IOException {
+        JsonNode sarif = OBJECT_MAPPER.readTree(report(ReportFormat.SARIF, false));
+        assertEquals("2.1.0", sarif.get("version").asText());
+        JsonNode results = sarif.get("runs").get(0).get("results");
+        assertEquals(3, results.size());
+        assertEquals("JSON_TYPE", results.get(1).get("ruleId").asText());
+        assertEquals("invalid.json", results.get(1).get("locations").get(0).get("physicalLocation").get("artifactLocation").get("uri").asText());
+    }
+
+    @Test
+    public void testJUnitXmlReport() throws Exception {
+        String xml = report(ReportFormat.JUNIT, false);
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        Element suite = (Element) document.getElementsByTagName("testsuite").item(0);
+        assertEquals("3", suite.getAttribute("tests"));
+        assertEquals("1", suite.getAttribute("failures"));
+        assertEquals("1", suite.getAttribute("errors"));
+        assertEquals("1.500", suite.getAttribute("time"));
+        assertEquals(3, document.getElementsByTagName("testcase").getLength());
+        assertEquals("JSON_REQUIRED", ((Element) document.getElementsByTagName("failure").item(0)).getAttribute("type"));
+    }
+}
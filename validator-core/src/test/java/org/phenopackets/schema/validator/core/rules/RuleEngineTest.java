@@ -0,0 +1,156 @@
+package org.phenopackets.schema.validator.core.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.phenopackets.schema.validator.core.except.PhenopacketValidatorRuntimeException;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationItem;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RuleEngineTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static JsonNode fromClasspath(String path) throws IOException {
+        return MAPPER.readTree(new File(Thread.currentThread().getContextClassLoader().getResource(path).getPath()));
+    }
+
+    private static JsonNode json(String json) throws IOException {
+        return MAPPER.readTree(json.replace('\'', '"'));
+    }
+
+    @Test
+    public void testValidPhenopacketHasNoErrors() throws IOException {
+        assertTrue(RuleEngine.generic().validate(fromClasspath("json/validSimplePhenopacket.json")).isEmpty());
+    }
+
+    /** The example describes a three-year-old boy with a feature of adult onset. */
+    @Test
+    public void testOnsetAfterLastEncounter() throws IOException {
+        List<ValidationItem> errors = RuleEngine.rareDisease().validate(fromClasspath("json/bethlehamMyopathyExample.json"));
+        assertEquals(1, errors.size());
+        ValidationItem error = errors.get(0);
+        assertEquals(ErrorType.PHENOPACKET_ONSET_AFTER_LAST_ENCOUNTER, error.errorType());
+        assertEquals("$.phenotypicFeatures[3].onset", error.path());
+        assertEquals("onset-before-last-encounter", error.keyword());
+    }
+
+    @Test
+    public void testRareDiseaseRequirements() throws IOException {
+        List<ValidationItem> errors = RuleEngine.rareDisease().validate(json("{'id': 'p1'}"));
+        assertEquals(List.of(ErrorType.PHENOPACKET_LACKS_SUBJECT, ErrorType.PHENOPACKET_LACKS_PHENOTYPIC_FEATURE), types(errors));
+
+        errors = RuleEngine.rareDisease().validate(json("{'id': 'p1', 'subject': {'id': 's1'}, " +
+                "'phenotypicFeatures': [{'type': {'id': 'HP:0001159'}, 'excluded': true}]}"));
+        assertEquals(List.of(ErrorType.PHENOPACKET_LACKS_PHENOTYPIC_FEATURE, ErrorType.PHENOPACKET_SUBJECT_LACKS_AGE), types(errors));
+        assertTrue(RuleEngine.generic().validate(json("{'id': 'p1'}")).isEmpty());
+    }
+
+    @Test
+    public void testInconsistentTimes() throws IOException {
+        JsonNode phenopacket = json("{'subject': {'id': 's1', 'dateOfBirth': '2000-01-01T00:00:00Z', " +
+                "'timeAtLastEncounter': {'ageRange': {'start': {'iso8601duration': 'P10Y'}, 'end': {'iso8601duration': 'P5Y'}}}}, " +
+                "'phenotypicFeatures': [" +
+                "{'type': {'id': 'HP:0001250'}, 'onset': {'age': {'iso8601duration': 'P3Y'}}, 'resolution': {'age': {'iso8601duration': 'P2Y6M'}}}, " +
+                "{'type': {'id': 'HP:0002090'}, 'onset': {'timestamp': '1999-06-01T00:00:00Z'}}, " +
+                "{'type': {'id': 'HP:0001159'}, 'onset': {'age': {'iso8601duration': 'P3Y'}}, 'resolution': {'age': {'iso8601duration': 'P3Y'}}}]}");
+        List<ValidationItem> errors = RuleEngine.generic().validate(phenopacket);
+        List<String> paths = new ArrayList<>();
+        errors.forEach(e -> paths.add(e.path()));
+        assertEquals(List.of("$.subject.timeAtLastEncounter.ageRange", "$.phenotypicFeatures[0].onset",
+                "$.phenotypicFeatures[1].onset.timestamp"), paths);
+        errors.forEach(e -> assertEquals(ErrorType.PHENOPACKET_INCONSISTENT_TIME, e.errorType()));
+    }
+
+    @Test
+    public void testDuplicateAndContradictoryFeatures() throws IOException {
+        JsonNode phenopacket = json("{'phenotypicFeatures': [" +
+                "{'type': {'id': 'HP:0001159'}}, " +
+                "{'type': {'id': 'HP:0001159'}, 'modifiers': [{'id': 'HP:0012834'}]}, " +
+                "{'type': {'id': 'HP:0001159'}}, " +
+                "{'type': {'id': 'HP:0001159'}, 'excluded': true}]}");
+        List<ValidationItem> errors = RuleEngine.generic().validate(phenopacket);
+        assertEquals(2, errors.size());
+        assertEquals("$.phenotypicFeatures[2].type: HP:0001159 is already listed at $.phenotypicFeatures[0]", errors.get(0).message());
+        assertEquals("$.phenotypicFeatures[3].type: HP:0001159 is listed as both observed and excluded, see $.phenotypicFeatures[0]",
+                errors.get(1).message());
+        errors.forEach(e -> assertEquals(ErrorType.PHENOPACKET_DUPLICATE_PHENOTYPIC_FEATURE, e.errorType()));
+    }
+
+    @Test
+    public void testSexSpecificTerms() throws IOException {
+        JsonNode phenopacket = json("{'subject': {'id': 's1', 'sex': 'FEMALE'}, 'phenotypicFeatures': [" +
+                "{'type': {'id': 'HP:0000028', 'label': 'Cryptorchidism'}}, " +
+                "{'type': {'id': 'HP:0000047', 'label': 'Hypospadias'}, 'excluded': true}, " +
+                "{'type': {'id': 'HP:0000141', 'label': 'Amenorrhea'}}]}");
+        List<ValidationItem> errors = RuleEngine.generic().validate(phenopacket);
+        assertEquals(1, errors.size());
+        assertEquals(ErrorType.PHENOPACKET_SEX_SPECIFIC_TERM, errors.get(0).errorType());
+        assertEquals("$.phenotypicFeatures[0].type", errors.get(0).path());
+    }
+
+    @Test
+    public void testRulesAreOnlyAppliedToTheirTargets() throws IOException {
+        AtomicInteger featureChecks = new AtomicInteger();
+        AtomicInteger otherChecks = new AtomicInteger();
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rules.add(new Rule("feature-" + i, "$.phenotypicFeatures[*].type", (node, path, context) -> featureChecks.incrementAndGet()));
+            rules.add(new Rule("other-" + i, "$.biosamples[*].sampledTissue", (node, path, context) -> otherChecks.incrementAndGet()));
+        }
+        RuleEngine engine = new RuleEngine(new RuleSet("many", rules));
+        assertTrue(engine.validate(fromClasspath("json/bethlehamMyopathyExample.json")).isEmpty());
+        assertEquals(4 * 300, featureChecks.get());
+        assertEquals(0, otherChecks.get());
+    }
+
+    @Test
+    public void testErrorBudgetStopsEvaluation() throws IOException {
+        JsonNode phenopacket = json("{'subject': {'id': 's1', 'sex': 'MALE'}, 'phenotypicFeatures': [" +
+                "{'type': {'id': 'HP:0000141'}}, {'type': {'id': 'HP:0000141'}}, {'type': {'id': 'HP:0000141'}}]}");
+        RuleEngine engine = RuleEngine.generic();
+        assertEquals(5, engine.validate(phenopacket).size());
+        assertEquals(2, engine.validate(phenopacket, 2).size());
+    }
+
+    /** Documents that the schema rejects must produce findings rather than make a rule fail. */
+    @Test
+    public void testWronglyTypedFieldsAreLeftToTheSchema() throws IOException {
+        List<String> documents = List.of(
+                "{'id': 'p1', 'phenotypicFeatures': {'a': {'type': {'id': 'HP:0001159'}}}}",
+                "{'id': 'p1', 'phenotypicFeatures': [null, 3, 'HP:0001159', [{'type': {'id': 'HP:0001159'}}]]}",
+                "{'id': 'p1', 'phenotypicFeatures': 'HP:0001159', 'diseases': 5}",
+                "{'id': 'p1', 'subject': 'Peter', 'phenotypicFeatures': [{'type': 'HP:0001159', 'onset': 3, 'resolution': [1]}]}",
+                "{'id': 'p1', 'subject': {'sex': 7, 'dateOfBirth': 1, 'timeAtLastEncounter': {'age': 'P3Y', 'ageRange': 2}}}");
+        for (String document : documents) {
+            RuleEngine.rareDisease().validate(json(document));
+            assertFalse(ValidationPipeline.generic().with(RuleEngine.rareDisease()).validate(json(document)).isEmpty(), document);
+        }
+        List<ValidationItem> errors = RuleEngine.rareDisease().validate(json(documents.get(1)));
+        assertTrue(types(errors).contains(ErrorType.PHENOPACKET_LACKS_PHENOTYPIC_FEATURE));
+    }
+
+    @Test
+    public void testInvalidTargetIsRejected() {
+        Rule rule = new Rule("broken", "subject.sex", (node, path, context) -> { });
+        assertThrows(PhenopacketValidatorRuntimeException.class, () -> new RuleEngine(new RuleSet("broken", List.of(rule))));
+    }
+
+    private static List<ErrorType> types(List<ValidationItem> errors) {
+        List<ErrorType> types = new ArrayList<>();
+        errors.forEach(e -> types.add(e.errorType()));
+        return types;
+    }
+}
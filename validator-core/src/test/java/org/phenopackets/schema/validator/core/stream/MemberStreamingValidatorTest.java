@@ -0,0 +1,124 @@
+package org.phenopackets.schema.validator.core.stream;
+
+import org.junit.jupiter.api.Test;
+import org.phenopackets.schema.validator.core.batch.BatchOptions;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemberStreamingValidatorTest {
+
+    private static final String VALID = "{\"id\": \"world\", \"metaData\": {\"created\": \"2021-07-01T19:32:35Z\", " +
+            "\"createdBy\": \"Peter R.\", \"phenopacketSchemaVersion\": \"2.0\", \"resources\": [{\"id\": \"hp\", " +
+            "\"name\": \"human phenotype ontology\", \"url\": \"http://purl.obolibrary.org/obo/hp.owl\", " +
+            "\"version\": \"2018-03-08\", \"namespacePrefix\": \"HP\", \"iriPrefix\": \"http://purl.obolibrary.org/obo/HP_\"}]}}";
+    private static final String INVALID = "{\"disney\": \"donald\"}";
+    private static final String META_DATA = "\"metaData\": {\"created\": \"2021-07-01T19:32:35Z\", \"createdBy\": \"Peter R.\"}";
+
+    private final MemberStreamingValidator validator = new MemberStreamingValidator(ValidationPipeline.generic(), new BatchOptions(2, 2));
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<String, ValidationResult> validate(String document, String name, BatchSummary[] summary) throws IOException {
+        Map<String, ValidationResult> results = new TreeMap<>();
+        summary[0] = validator.validate(stream(document), name, r -> results.put(r.source(), r));
+        return results;
+    }
+
+    @Test
+    public void testCohortMembersAreValidatedOneByOne() throws IOException {
+        String cohort = "{\"id\": \"cohort1\",\n \"members\": [\n" + VALID + ",\n" + INVALID + ",\n" + VALID + "\n],\n" + META_DATA + "}";
+        BatchSummary[] summary = new BatchSummary[1];
+        Map<String, ValidationResult> results = validate(cohort, "cohort.json", summary);
+        assertEquals(3, summary[0].documents());
+        assertEquals(1, summary[0].invalidDocuments());
+        assertEquals(3, summary[0].errors());
+        assertTrue(results.get("cohort.json/members[0]@3").isValid());
+        assertFalse(results.get("cohort.json/members[1]@4").isValid());
+        assertTrue(results.get("cohort.json/members[2]@5").isValid());
+    }
+
+    @Test
+    public void testFamilyProbandAndRelativesAreValidated() throws IOException {
+        String family = "{\"id\": \"family1\", \"pedigree\": {\"persons\": []},\n\"proband\": " + VALID +
+                ",\n\"relatives\": [" + INVALID + "]}";
+        BatchSummary[] summary = new BatchSummary[1];
+        Map<String, ValidationResult> results = validate(family, "family.json", summary);
+        assertEquals(2, summary[0].documents());
+        assertTrue(results.get("family.json/proband@2").isValid());
+        assertFalse(results.get("family.json/relatives[0]@3").isValid());
+    }
+
+    @Test
+    public void testProblemsOfTheDocumentAreReportedUnderItsName() throws IOException {
+        BatchSummary[] summary = new BatchSummary[1];
+        Map<String, ValidationResult> results = validate("{\"id\": \"cohort1\", " + META_DATA + "}", "empty.json", summary);
+        assertEquals(1, summary[0].invalidDocuments());
+        assertEquals(ErrorType.JSON_REQUIRED, results.get("empty.json").items().get(0).errorType());
+
+        results = validate("{\"members\": [" + VALID + ", {\"id\": ", "truncated.json", summary);
+        assertEquals(2, summary[0].documents());
+        assertTrue(results.get("truncated.json/members[0]@1").isValid());
+        assertEquals(ErrorType.UNREADABLE_DOCUMENT, results.get("truncated.json").items().get(0).errorType());
+
+        results = validate("{\"members\": [" + VALID + ", 42]}", "number.json", summary);
+        assertEquals(ErrorType.JSON_TYPE, results.get("number.json").items().get(0).errorType());
+        assertEquals("$.members[1]", results.get("number.json").items().get(0).path());
+    }
+
+    /** The members are generated while they are read, the document never exists as a whole. */
+    @Test
+    public void testMembersAreValidatedWhileTheDocumentIsRead() throws IOException {
+        int members = 5_000;
+        byte[] member = (VALID + ",").getBytes(StandardCharsets.UTF_8);
+        AtomicLong bytesRead = new AtomicLong();
+        InputStream cohort = new InputStream() {
+            private final byte[] head = "{\"members\": [".getBytes(StandardCharsets.UTF_8);
+            private final byte[] tail = VALID.concat("]}").getBytes(StandardCharsets.UTF_8);
+            private long pos = 0;
+
+            @Override
+            public int read() {
+                long total = head.length + (long) (members - 1) * member.length + tail.length;
+                if (pos >= total) {
+                    return -1;
+                }
+                long p = pos++;
+                bytesRead.incrementAndGet();
+                if (p < head.length) {
+                    return head[(int) p];
+                }
+                p -= head.length;
+                if (p < (long) (members - 1) * member.length) {
+                    return member[(int) (p % member.length)];
+                }
+                return tail[(int) (p - (long) (members - 1) * member.length)];
+            }
+        };
+        long[] results = new long[1];
+        long[] maxAhead = new long[1];
+        BatchSummary summary = validator.validate(cohort, "generated.json", r -> {
+            results[0]++;
+            maxAhead[0] = Math.max(maxAhead[0], bytesRead.get() / member.length - results[0]);
+        });
+        assertEquals(members, summary.documents());
+        assertEquals(0, summary.invalidDocuments());
+        // threads and queue of the batch validator, the member being read, and one parser buffer of 8000 bytes
+        assertTrue(maxAhead[0] <= 2 + 2 + 2 + 8000 / member.length + 1, maxAhead[0] + " members were read ahead");
+    }
+}
@@ -0,0 +1,127 @@
+package org.phenopackets.schema.validator.core.stream;
+
+import org.junit.jupiter.api.Test;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ErrorType;
+import org.phenopackets.schema.validator.core.validation.JsonNodeValidator;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamingValidatorTest {
+
+    private static final String VALID = "{\"id\": \"world\", \"metaData\": {\"created\": \"2021-07-01T19:32:35Z\", " +
+            "\"createdBy\": \"Peter R.\", \"phenopacketSchemaVersion\": \"2.0\", \"resources\": [{\"id\": \"hp\", " +
+            "\"name\": \"human phenotype ontology\", \"url\": \"http://purl.obolibrary.org/obo/hp.owl\", " +
+            "\"version\": \"2018-03-08\", \"namespacePrefix\": \"HP\", \"iriPrefix\": \"http://purl.obolibrary.org/obo/HP_\"}]}}";
+    private static final String INVALID = "{\"disney\": \"donald\"}";
+
+    private final StreamingValidator validator = new StreamingValidator(ValidationPipeline.generic());
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testPipelineFailureCostsOneRecord() throws IOException {
+        JsonNodeValidator failing = json -> {
+            if (json.has("disney")) {
+                throw new IllegalStateException("no rule for cartoons");
+            }
+            return List.of();
+        };
+        StreamingValidator failingValidator = new StreamingValidator(ValidationPipeline.generic().with(failing));
+        List<ValidationResult> results = new ArrayList<>();
+        BatchSummary summary = failingValidator.validate(stream(VALID + "\n" + INVALID + "\n" + VALID + "\n"), "records.ndjson", results::add);
+        assertEquals(3, summary.documents());
+        assertEquals(1, summary.invalidDocuments());
+        assertEquals(ErrorType.VALIDATOR_ERROR, results.get(1).items().get(0).errorType());
+        assertEquals("records.ndjson[1]@2", results.get(1).source());
+        assertTrue(results.get(2).isValid());
+    }
+
+    @Test
+    public void testNdjsonRecordsAreKeyedByIndexAndLine() throws IOException {
+        List<ValidationResult> results = new ArrayList<>();
+        String ndjson = VALID + "\n" + INVALID + "\n\n" + VALID + "\n";
+        BatchSummary summary = validator.validate(stream(ndjson), "records.ndjson", results::add);
+        assertEquals(3, summary.documents());
+        assertEquals(1, summary.invalidDocuments());
+        assertEquals(3, summary.errors());
+        assertEquals("records.ndjson[0]@1", results.get(0).source());
+        assertTrue(results.get(0).isValid());
+        assertEquals("records.ndjson[1]@2", results.get(1).source());
+        assertFalse(results.get(1).isValid());
+        assertEquals("records.ndjson[2]@4", results.get(2).source());
+    }
+
+    @Test
+    public void testTopLevelArrayIsValidatedElementByElement() throws IOException {
+        List<ValidationResult> results = new ArrayList<>();
+        String array = "[\n" + VALID + ",\n" + INVALID + "\n]";
+        BatchSummary summary = validator.validate(stream(array), "records.json", results::add);
+        assertEquals(2, summary.documents());
+        assertEquals(1, summary.invalidDocuments());
+        assertEquals("records.json[1]@3", results.get(1).source());
+    }
+
+    @Test
+    public void testUnterminatedRecordTakesTheRestOfTheStream() throws IOException {
+        List<ValidationResult> results = new ArrayList<>();
+        String ndjson = VALID + "\n{\"id\": \n" + VALID + "\n";
+        BatchSummary summary = validator.validate(stream(ndjson), "broken.ndjson", results::add);
+        assertEquals(2, summary.documents());
+        assertEquals(ErrorType.UNREADABLE_DOCUMENT, results.get(1).items().get(0).errorType());
+    }
+
+    @Test
+    public void testMalformedLinesAreSkipped() throws IOException {
+        List<ValidationResult> results = new ArrayList<>();
+        String ndjson = VALID + "\n{\"id\": \"x\",, \"more\": 1}\n" + INVALID + "\nnot json at all\n\n" + VALID + "\n";
+        BatchSummary summary = validator.validate(stream(ndjson), "broken.ndjson", results::add);
+        assertEquals(5, summary.documents());
+        assertEquals(3, summary.invalidDocuments());
+        assertTrue(results.get(0).isValid());
+        assertEquals("broken.ndjson[1]@2", results.get(1).source());
+        assertEquals(ErrorType.UNREADABLE_DOCUMENT, results.get(1).items().get(0).errorType());
+        assertEquals("broken.ndjson[2]@3", results.get(2).source());
+        assertFalse(results.get(2).isValid());
+        assertEquals("broken.ndjson[3]@4", results.get(3).source());
+        assertEquals(ErrorType.UNREADABLE_DOCUMENT, results.get(3).items().get(0).errorType());
+        assertEquals("broken.ndjson[4]@6", results.get(4).source());
+        assertTrue(results.get(4).isValid());
+    }
+
+    @Test
+    public void testMalformedArrayElementStopsTheArray() throws IOException {
+        List<ValidationResult> results = new ArrayList<>();
+        String array = "[\n" + VALID + ",\n{\"id\": \"x\",, }\n," + VALID + "\n]";
+        BatchSummary summary = validator.validate(stream(array), "records.json", results::add);
+        assertEquals(2, summary.documents());
+        assertEquals(ErrorType.UNREADABLE_DOCUMENT, results.get(1).items().get(0).errorType());
+    }
+
+    @Test
+    public void testStreamStopsAfterMaxInvalidRecords() throws IOException {
+        StreamingValidator limited = new StreamingValidator(ValidationPipeline.generic(), 1);
+        List<ValidationResult> results = new ArrayList<>();
+        BatchSummary summary = limited.validate(stream(INVALID + "\n" + VALID + "\n"), "records.ndjson", results::add);
+        assertEquals(1, results.size());
+        assertTrue(summary.stoppedEarly());
+
+        // reaching the limit with the last record is not an early stop
+        summary = limited.validate(stream(VALID + "\n" + INVALID + "\n"), "records.ndjson", r -> { });
+        assertEquals(2, summary.documents());
+        assertFalse(summary.stoppedEarly());
+    }
+}
@@ -0,0 +1,120 @@
+package org.phenopackets.schema.validator.core.watch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.validator.core.batch.BatchInputs;
+import org.phenopackets.schema.validator.core.batch.BatchSummary;
+import org.phenopackets.schema.validator.core.batch.BatchValidator;
+import org.phenopackets.schema.validator.core.pipeline.ValidationPipeline;
+import org.phenopackets.schema.validator.core.validation.ValidationResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DirectoryWatcherTest {
+
+    private static byte[] fromClasspath(String path) throws Exception {
+        return Files.readAllBytes(Path.of(Thread.currentThread().getContextClassLoader().getResource(path).getPath()));
+    }
+
+    private static void awaitResults(List<ValidationResult> results, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (results.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testOnlyChangedFilesAreValidated(@TempDir Path tempDir) throws Exception {
+        byte[] valid = fromClasspath("json/validSimplePhenopacket.json");
+        byte[] invalid = fromClasspath("json/invalidSimplePhenopacket.json");
+        Path nested = Files.createDirectories(tempDir.resolve("nested"));
+        for (int i = 0; i < 20; i++) {
+            Files.write(nested.resolve("unchanged" + i + ".json"), valid);
+        }
+        Path edited = Files.write(tempDir.resolve("edited.json"), valid);
+
+        List<ValidationResult> results = Collections.synchronizedList(new ArrayList<>());
+        DirectoryWatcher watcher = new DirectoryWatcher(new BatchValidator(ValidationPipeline.generic()), 2,
+                Duration.ofMillis(300), BatchInputs.DEFAULT_GLOB);
+        watcher.register(List.of(tempDir));
+        CompletableFuture<BatchSummary> run = CompletableFuture.supplyAsync(() -> watcher.run(results::add));
+
+        // a burst of writes to one file is validated once, in its final state
+        Files.write(edited, valid);
+        Files.write(edited, invalid);
+        Files.writeString(tempDir.resolve("notes.txt"), "not watched");
+        Path created = Files.createDirectories(tempDir.resolve("created"));
+        Files.write(created.resolve("new.json"), valid);
+        awaitResults(results, 2);
+        Thread.sleep(1000);
+        watcher.close();
+        BatchSummary summary = run.get(30, TimeUnit.SECONDS);
+
+        assertEquals(2, results.size(), results.toString());
+        ValidationResult editedResult = results.stream().filter(r -> r.source().endsWith("edited.json")).findFirst().orElseThrow();
+        assertFalse(editedResult.isValid());
+        assertTrue(results.stream().anyMatch(r -> r.source().endsWith("new.json") && r.isValid()));
+        assertEquals(2, summary.documents());
+        assertEquals(1, summary.invalidDocuments());
+    }
+
+    @Test
+    public void testSingleFilesAreWatchedWithoutTheirSiblings(@TempDir Path tempDir) throws Exception {
+        byte[] valid = fromClasspath("json/validSimplePhenopacket.json");
+        Path watched = Files.write(tempDir.resolve("watched.json"), valid);
+        Path sibling = Files.write(tempDir.resolve("sibling.json"), valid);
+
+        List<ValidationResult> results = Collections.synchronizedList(new ArrayList<>());
+        DirectoryWatcher watcher = new DirectoryWatcher(new BatchValidator(ValidationPipeline.generic()), 1,
+                Duration.ofMillis(100), BatchInputs.DEFAULT_GLOB);
+        watcher.register(List.of(watched));
+        CompletableFuture<BatchSummary> run = CompletableFuture.supplyAsync(() -> watcher.run(results::add));
+
+        Files.write(sibling, valid);
+        Files.writeString(watched, "{\"id\": ");
+        awaitResults(results, 1);
+        Thread.sleep(500);
+        watcher.close();
+        run.get(30, TimeUnit.SECONDS);
+
+        assertEquals(1, results.size(), results.toString());
+        assertTrue(results.get(0).source().endsWith("watched.json"));
+        assertFalse(results.get(0).isValid());
+    }
+
+    /** Directories that disappear before they can be watched do not end the session. */
+    @Test
+    public void testDirectoriesRemovedRightAfterTheirCreationAreSkipped(@TempDir Path tempDir) throws Exception {
+        byte[] valid = fromClasspath("json/validSimplePhenopacket.json");
+        List<ValidationResult> results = Collections.synchronizedList(new ArrayList<>());
+        DirectoryWatcher watcher = new DirectoryWatcher(new BatchValidator(ValidationPipeline.generic()), 1,
+                Duration.ofMillis(100), BatchInputs.DEFAULT_GLOB);
+        watcher.register(List.of(tempDir));
+        CompletableFuture<BatchSummary> run = CompletableFuture.supplyAsync(() -> watcher.run(results::add));
+
+        for (int i = 0; i < 50; i++) {
+            Path removed = Files.createDirectories(tempDir.resolve("transient" + i).resolve("nested"));
+            Files.delete(removed);
+            Files.delete(removed.getParent());
+        }
+        Thread.sleep(500);
+        Files.write(tempDir.resolve("later.json"), valid);
+        awaitResults(results, 1);
+        watcher.close();
+        run.get(30, TimeUnit.SECONDS);
+
+        assertEquals(1, results.size(), results.toString());
+        assertTrue(results.get(0).source().endsWith("later.json"));
+    }
+}